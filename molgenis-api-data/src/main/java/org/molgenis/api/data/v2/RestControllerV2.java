@@ -5,7 +5,9 @@ import static java.lang.String.format;
 import static java.time.ZonedDateTime.now;
 import static java.time.format.FormatStyle.MEDIUM;
 import static java.util.Objects.requireNonNull;
+import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 import static org.molgenis.api.data.v2.AttributeFilterToFetchConverter.createDefaultAttributeFetch;
 import static org.molgenis.data.meta.model.AttributeMetadata.ATTRIBUTE_META_DATA;
@@ -431,7 +433,7 @@ public class RestControllerV2 {
   @SuppressWarnings("squid:S2259") // getEntities is guaranteed to be not empty
   @Transactional
   @PutMapping("/{entityTypeId}")
-  public synchronized void updateEntities(
+  public void updateEntities(
       @PathVariable("entityTypeId") String entityTypeId,
       @RequestBody @Valid EntityCollectionBatchRequestV2 request,
       HttpServletResponse response) {
@@ -445,10 +447,14 @@ public class RestControllerV2 {
 
       // update all entities
       this.dataService.update(entityTypeId, entities.stream());
-      entities.forEach(
-          entity ->
-              restService.updateMappedByEntities(
-                  entity, dataService.findOneById(entityTypeId, entity.getIdValue())));
+      if (meta.hasMappedByAttributes()) {
+        Map<Object, Entity> updatedEntities =
+            findAllById(entityTypeId, entities.stream().map(Entity::getIdValue));
+        entities.forEach(
+            entity ->
+                restService.updateMappedByEntities(
+                    entity, updatedEntities.get(entity.getIdValue())));
+      }
       response.setStatus(HttpServletResponse.SC_OK);
     } catch (Exception e) {
       response.setStatus(HttpServletResponse.SC_NO_CONTENT);
@@ -485,7 +491,7 @@ public class RestControllerV2 {
   @Transactional
   @PutMapping("/{entityTypeId}/{attributeName}")
   @ResponseStatus(OK)
-  public synchronized void updateAttribute(
+  public void updateAttribute(
       @PathVariable("entityTypeId") String entityTypeId,
       @PathVariable("attributeName") String attributeName,
       @RequestBody @Valid EntityCollectionBatchRequestV2 request,
@@ -511,20 +517,25 @@ public class RestControllerV2 {
         throw createMolgenisDataExceptionIdentifierAndValue();
       }
 
-      final List<Entity> updatedEntities = new ArrayList<>();
+      final List<Object> ids = new ArrayList<>(entities.size());
       int count = 0;
       for (Entity entity : entities) {
-        Object id = checkForEntityId(entity, count);
+        ids.add(checkForEntityId(entity, count));
+        count++;
+      }
+      Map<Object, Entity> originalEntities = findAllById(entityTypeId, ids.stream());
 
-        Entity originalEntity = dataService.findOneById(entityTypeId, id);
+      final List<Entity> updatedEntities = new ArrayList<>();
+      for (int i = 0; i < entities.size(); i++) {
+        Object id = ids.get(i);
+        Entity originalEntity = originalEntities.get(id);
         if (originalEntity == null) {
           throw new UnknownEntityException(meta, id);
         }
 
-        Object value = this.restService.toEntityValue(attr, entity.get(attributeName), id);
+        Object value = this.restService.toEntityValue(attr, entities.get(i).get(attributeName), id);
         originalEntity.set(attributeName, value);
         updatedEntities.add(originalEntity);
-        count++;
       }
 
       // update all entities
@@ -536,6 +547,13 @@ public class RestControllerV2 {
     }
   }
 
+  /** Retrieves entities in one batch and maps them by id. */
+  private Map<Object, Entity> findAllById(String entityTypeId, Stream<Object> ids) {
+    return dataService
+        .findAll(entityTypeId, ids)
+        .collect(toMap(Entity::getIdValue, identity(), (entity1, entity2) -> entity1));
+  }
+
   /**
    * Get the localization resource strings for a specific language and namespace. Will *not* provide
    * fallback values if the specified language is not available.
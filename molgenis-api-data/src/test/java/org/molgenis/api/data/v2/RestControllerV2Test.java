@@ -1104,6 +1104,9 @@ class RestControllerV2Test extends AbstractMolgenisSpringTest {
   @SuppressWarnings("unchecked")
   @Test
   void testUpdateEntitiesSpecificAttribute() throws Exception {
+    Entity entity = dataService.findOneById(ENTITY_NAME, ENTITY_ID);
+    when(dataService.findAll(eq(ENTITY_NAME), any(Stream.class))).thenReturn(Stream.of(entity));
+
     mockMvc
         .perform(
             put(HREF_ENTITY_COLLECTION + "/date_time")
@@ -1113,7 +1116,6 @@ class RestControllerV2Test extends AbstractMolgenisSpringTest {
 
     verify(dataService, times(1)).update(eq(ENTITY_NAME), (Stream<Entity>) any(Stream.class));
 
-    Entity entity = dataService.findOneById(ENTITY_NAME, ENTITY_ID);
     assertEquals(parseInstant("1985-08-12T08:12:13+0200"), entity.get("date_time"));
   }
 
@@ -2,6 +2,7 @@ package org.molgenis.app.manager.decorator;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.List;
 import java.util.stream.Stream;
 import org.molgenis.app.manager.meta.App;
 import org.molgenis.app.manager.service.AppManagerService;
@@ -59,4 +60,9 @@ public class AppRepositoryDecorator extends AbstractRepositoryDecorator<App> {
   public void update(Stream<App> apps) {
     apps.forEach(this::update);
   }
+
+  @Override
+  public void upsertBatch(List<App> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
 }
@@ -138,6 +138,16 @@ public class L1CacheRepositoryDecorator extends AbstractRepositoryDecorator<Enti
     delegate().update(entities);
   }
 
+  @Override
+  public void upsertBatch(List<Entity> entities) {
+    evictBiDiReferencedEntityTypes();
+    if (cacheable) {
+      String entityTypeId = getEntityType().getId();
+      entities.forEach(entity -> l1Cache.put(entityTypeId, entity));
+    }
+    delegate().upsertBatch(entities);
+  }
+
   @Override
   public void delete(Entity entity) {
     evictBiDiReferencedEntities(entity);
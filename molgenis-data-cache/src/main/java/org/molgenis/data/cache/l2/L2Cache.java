@@ -2,93 +2,172 @@ package org.molgenis.data.cache.l2;
 
 import static com.google.common.collect.Maps.newConcurrentMap;
 import static com.google.common.collect.Streams.stream;
+import static java.util.Comparator.comparingLong;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.empty;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
+import static org.molgenis.data.cache.l2.meta.L2CachePolicyMetadata.L2_CACHE_POLICY;
+import static org.molgenis.data.event.BootstrappingEvent.BootstrappingStatus.FINISHED;
+import static org.molgenis.data.transaction.TransactionConstants.READ_REPLICA_RESOURCE_NAME;
+import static org.molgenis.security.core.runas.RunAsSystemAspect.runAsSystem;
 
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.guava.CaffeinatedGuava;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
 import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
 import org.molgenis.data.EntityKey;
 import org.molgenis.data.Fetch;
-import org.molgenis.data.MolgenisDataException;
 import org.molgenis.data.Repository;
+import org.molgenis.data.cache.l2.meta.L2CachePolicy;
 import org.molgenis.data.cache.utils.EntityHydration;
+import org.molgenis.data.cache.utils.EntitySizeEstimator;
+import org.molgenis.data.event.BootstrappingEvent;
 import org.molgenis.data.meta.MetaDataService;
 import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.support.QueryImpl;
 import org.molgenis.data.transaction.TransactionInformation;
 import org.molgenis.data.transaction.TransactionListener;
 import org.molgenis.data.transaction.TransactionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-/** In-memory cache of entities read from cacheable repositories. */
+/**
+ * In-memory cache of entities read from cacheable repositories.
+ *
+ * <p>Each entity type has its own cache that can be configured with a {@link L2CachePolicy}. The
+ * estimated size of the cached entities of all entity types except for the meta entity types is
+ * limited by a global budget. When the budget is exceeded the least recently used entities of the
+ * largest cache are evicted.
+ */
 @Service
 public class L2Cache implements TransactionListener {
   private static final Logger LOG = LoggerFactory.getLogger(L2Cache.class);
-  private static final int MAX_CACHE_SIZE_PER_ENTITY = 1000;
-  /** maps entity id to the loading cache with Object key and Optional dehydrated entity value */
-  private final ConcurrentMap<String, LoadingCache<Object, Optional<Map<String, Object>>>> caches;
+  static final int DEFAULT_MAX_ENTRIES = 1000;
+  private static final int MAX_EVICTION_FRACTION = 10;
+  /** maps entity id to the entity cache with Object key and Optional dehydrated entity value */
+  private final ConcurrentMap<String, EntityCache> caches;
 
   private final EntityHydration entityHydration;
   private final TransactionInformation transactionInformation;
   private final MeterRegistry meterRegistry;
+  private final DataService dataService;
+  private final long budget;
+  private final AtomicLong estimatedSize = new AtomicLong();
+  private volatile boolean bootstrappingDone = false;
 
   public L2Cache(
       TransactionManager transactionManager,
       EntityHydration entityHydration,
       TransactionInformation transactionInformation,
-      MeterRegistry meterRegistry) {
+      MeterRegistry meterRegistry,
+      DataService dataService,
+      @Value("${cache.l2.budget:268435456}") long budget) {
     this.entityHydration = requireNonNull(entityHydration);
     this.transactionInformation = requireNonNull(transactionInformation);
     this.meterRegistry = requireNonNull(meterRegistry);
+    this.dataService = requireNonNull(dataService);
+    this.budget = budget;
     caches = newConcurrentMap();
     requireNonNull(transactionManager).addTransactionListener(this);
+    Gauge.builder("l2.estimated.size", estimatedSize, AtomicLong::get)
+        .description("Estimated size of the entities in all L2 caches")
+        .baseUnit("bytes")
+        .register(meterRegistry);
   }
 
   @Override
   public void afterCommitTransaction(String transactionId) {
     // TODO: trace logging
-    transactionInformation.getEntirelyDirtyRepositories().forEach(caches::remove);
+    Set<String> entirelyDirtyRepositories = transactionInformation.getEntirelyDirtyRepositories();
+    if (entirelyDirtyRepositories.contains(L2_CACHE_POLICY)) {
+      caches.keySet().forEach(this::removeEntityCache);
+    } else {
+      entirelyDirtyRepositories.forEach(this::removeEntityCache);
+    }
     transactionInformation.getDirtyEntities().forEach(this::evict);
   }
 
   private void evict(EntityKey entityKey) {
-    LoadingCache<Object, Optional<Map<String, Object>>> cache =
-        caches.get(entityKey.getEntityTypeId());
-    if (cache != null) {
-      cache.invalidate(entityKey.getId());
+    if (entityKey.getEntityTypeId().equals(L2_CACHE_POLICY)) {
+      // recreate the cache with the updated policy
+      removeEntityCache(entityKey.getId().toString());
+    }
+    EntityCache entityCache = caches.get(entityKey.getEntityTypeId());
+    if (entityCache != null) {
+      entityCache.getCache().invalidate(entityKey.getId());
     }
   }
 
+  private void removeEntityCache(String entityTypeId) {
+    caches.computeIfPresent(
+        entityTypeId,
+        (id, entityCache) -> {
+          entityCache.remove();
+          removeMeters(getCacheName(id));
+          return null;
+        });
+  }
+
+  /**
+   * Removes the meters of a cache, registering the same meters for a recreated cache would
+   * otherwise return the meters bound to the removed cache.
+   */
+  private void removeMeters(String cacheName) {
+    meterRegistry.getMeters().stream()
+        .filter(meter -> cacheName.equals(meter.getId().getTag("cache")))
+        .forEach(meterRegistry::remove);
+  }
+
+  private static String getCacheName(String entityTypeId) {
+    return "l2." + entityTypeId;
+  }
+
+  @EventListener
+  public void onApplicationEvent(BootstrappingEvent bootstrappingEvent) {
+    bootstrappingDone = bootstrappingEvent.getStatus() == FINISHED;
+    // caches created during bootstrapping didn't apply the cache policies
+    caches.keySet().forEach(this::removeEntityCache);
+  }
+
   /**
    * Retrieves an entity from the cache or the underlying repository.
    *
    * @param repository the underlying repository
    * @param id the ID of the entity to retrieve
    * @return the retrieved Entity, or null if the entity is not present.
-   * @throws com.google.common.util.concurrent.UncheckedExecutionException if the repository throws
-   *     an error when loading the entity
+   * @throws RuntimeException if the repository throws an error when loading the entity
    */
   public Entity get(Repository<Entity> repository, Object id) {
-    LoadingCache<Object, Optional<Map<String, Object>>> cache = getEntityCache(repository);
     EntityType entityType = repository.getEntityType();
-    return cache.getUnchecked(id).map(e -> entityHydration.hydrate(e, entityType)).orElse(null);
+    Entity entity =
+        getDehydrated(repository, id).map(e -> entityHydration.hydrate(e, entityType)).orElse(null);
+    enforceBudget();
+    return entity;
   }
 
   /**
@@ -98,17 +177,18 @@ public class L2Cache implements TransactionListener {
    * @param id the ID of the entity to retrieve
    * @param fetch containing attributes to retrieve, can be null
    * @return the retrieved Entity, or null if the entity is not present.
-   * @throws com.google.common.util.concurrent.UncheckedExecutionException if the repository throws
-   *     an error when loading the entity
+   * @throws RuntimeException if the repository throws an error when loading the entity
    */
   public Entity get(Repository<Entity> repository, Object id, Fetch fetch) {
-    LoadingCache<Object, Optional<Map<String, Object>>> cache = getEntityCache(repository);
     EntityType entityType = repository.getEntityType();
-    return cache
-        .getUnchecked(id)
-        .map(e -> entityHydration.hydrate(e, entityType, fetch))
-        .orElse(null);
+    Entity entity =
+        getDehydrated(repository, id)
+            .map(e -> entityHydration.hydrate(e, entityType, fetch))
+            .orElse(null);
+    enforceBudget();
+    return entity;
   }
+
   /**
    * Retrieves a list of entities from the cache. If the cache doesn't yet exist, will create the
    * cache.
@@ -120,15 +200,14 @@ public class L2Cache implements TransactionListener {
    * @throws RuntimeException if the cache failed to load the entities
    */
   public List<Entity> getBatch(Repository<Entity> repository, Iterable<Object> ids) {
-    try {
-      EntityType entityType = repository.getEntityType();
-      return getEntityCache(repository).getAll(ids).values().stream()
-          .filter(Optional::isPresent)
-          .map(e -> entityHydration.hydrate(e.get(), entityType))
-          .collect(toList());
-    } catch (ExecutionException exception) {
-      throw translateExecutionException(exception);
-    }
+    EntityType entityType = repository.getEntityType();
+    List<Entity> entities =
+        getAllDehydrated(repository, ids).values().stream()
+            .filter(Optional::isPresent)
+            .map(e -> entityHydration.hydrate(e.get(), entityType))
+            .collect(toList());
+    enforceBudget();
+    return entities;
   }
 
   /**
@@ -143,23 +222,66 @@ public class L2Cache implements TransactionListener {
    * @throws RuntimeException if the cache failed to load the entities
    */
   public List<Entity> getBatch(Repository<Entity> repository, Iterable<Object> ids, Fetch fetch) {
-    try {
-      EntityType entityType = repository.getEntityType();
-      return getEntityCache(repository).getAll(ids).values().stream()
-          .filter(Optional::isPresent)
-          .map(e -> entityHydration.hydrate(e.get(), entityType, fetch))
-          .collect(toList());
-    } catch (ExecutionException exception) {
-      throw translateExecutionException(exception);
+    EntityType entityType = repository.getEntityType();
+    List<Entity> entities =
+        getAllDehydrated(repository, ids).values().stream()
+            .filter(Optional::isPresent)
+            .map(e -> entityHydration.hydrate(e.get(), entityType, fetch))
+            .collect(toList());
+    enforceBudget();
+    return entities;
+  }
+
+  private Optional<Map<String, Object>> getDehydrated(Repository<Entity> repository, Object id) {
+    if (!isReadReplicaTransaction()) {
+      return getEntityCache(repository).get(id);
     }
+    EntityCache entityCache = caches.get(repository.getEntityType().getId());
+    Optional<Map<String, Object>> dehydratedEntity =
+        entityCache != null ? entityCache.getCache().getIfPresent(id) : null;
+    return dehydratedEntity != null ? dehydratedEntity : load(repository, id);
   }
 
-  private RuntimeException translateExecutionException(ExecutionException exception) {
-    // rethrow unchecked
-    if (exception.getCause() instanceof RuntimeException) {
-      return (RuntimeException) exception.getCause();
+  private Map<Object, Optional<Map<String, Object>>> getAllDehydrated(
+      Repository<Entity> repository, Iterable<Object> ids) {
+    if (!isReadReplicaTransaction()) {
+      return getEntityCache(repository).getAll(ids);
+    }
+    EntityCache entityCache = caches.get(repository.getEntityType().getId());
+    Map<Object, Optional<Map<String, Object>>> dehydratedEntities = new LinkedHashMap<>();
+    if (entityCache != null) {
+      dehydratedEntities.putAll(entityCache.getCache().getAllPresent(ids));
+    }
+    List<Object> missingIds =
+        stream(ids).filter(id -> !dehydratedEntities.containsKey(id)).collect(toList());
+    if (!missingIds.isEmpty()) {
+      dehydratedEntities.putAll(loadAll(repository, missingIds));
+    }
+    return dehydratedEntities;
+  }
+
+  /**
+   * Read replicas might lag behind the primary data source, so entities read in a transaction that
+   * was routed to a read replica are returned from the cache if present but are not added to it.
+   */
+  private static boolean isReadReplicaTransaction() {
+    return TransactionSynchronizationManager.hasResource(READ_REPLICA_RESOURCE_NAME);
+  }
+
+  /**
+   * Evicts the least recently used entities of the largest caches until the estimated size of all
+   * caches is within the budget.
+   */
+  private void enforceBudget() {
+    while (estimatedSize.get() > budget) {
+      Optional<EntityCache> largestCache =
+          caches.values().stream()
+              .filter(EntityCache::isBudgeted)
+              .max(comparingLong(EntityCache::getEstimatedSize));
+      if (!largestCache.isPresent() || !largestCache.get().evictColdest()) {
+        break;
+      }
     }
-    return new MolgenisDataException(exception);
   }
 
   /** Logs cumulative cache statistics for all known caches. */
@@ -168,9 +290,13 @@ public class L2Cache implements TransactionListener {
     // TODO: do we want to log diff with last log instead?
     if (LOG.isDebugEnabled()) {
       LOG.debug("Cache stats:");
-      for (Map.Entry<String, LoadingCache<Object, Optional<Map<String, Object>>>> cacheEntry :
-          caches.entrySet()) {
-        LOG.debug("{}:{}", cacheEntry.getKey(), cacheEntry.getValue().stats());
+      for (Map.Entry<String, EntityCache> cacheEntry : caches.entrySet()) {
+        EntityCache entityCache = cacheEntry.getValue();
+        LOG.debug(
+            "{}:{} ({} bytes)",
+            cacheEntry.getKey(),
+            entityCache.getCache().stats(),
+            entityCache.getEstimatedSize());
       }
     }
   }
@@ -183,33 +309,140 @@ public class L2Cache implements TransactionListener {
    *     id of the repository is used to look up the existing cache
    * @return the LoadingCache for the repository
    */
-  @SuppressWarnings("squid:S2201") // ignore return values
   private LoadingCache<Object, Optional<Map<String, Object>>> getEntityCache(
       Repository<Entity> repository) {
-    String id = repository.getEntityType().getId();
-    if (!caches.containsKey(id)) {
-      caches.putIfAbsent(id, createEntityCache(repository));
+    EntityType entityType = repository.getEntityType();
+    EntityCache entityCache = caches.get(entityType.getId());
+    if (entityCache == null) {
+      // the policy is retrieved through the data service, so not while computing the cache
+      L2CachePolicy policy =
+          !MetaDataService.isMetaEntityType(entityType) ? getPolicy(entityType) : null;
+      entityCache =
+          caches.computeIfAbsent(
+              entityType.getId(), entityTypeId -> createEntityCache(repository, policy));
+      if (entityCache.startPreload()) {
+        preload(repository, entityCache.getCache(), getMaxEntries(policy));
+      }
     }
-    return caches.get(id);
+    return entityCache.getCache();
   }
 
   /**
    * Creates a new Entity cache
    *
    * @param repository the {@link Repository} to load the entities from
-   * @return newly created LoadingCache
+   * @param policy cache policy of the entity type, null for meta entity types or if the entity type
+   *     doesn't have a policy
+   * @return newly created entity cache
    */
-  private LoadingCache<Object, Optional<Map<String, Object>>> createEntityCache(
-      Repository<Entity> repository) {
+  private EntityCache createEntityCache(
+      Repository<Entity> repository, @Nullable @CheckForNull L2CachePolicy policy) {
+    EntityType entityType = repository.getEntityType();
     Caffeine<Object, Object> cacheBuilder =
         Caffeine.newBuilder().recordStats().expireAfterAccess(10, MINUTES);
-    if (!MetaDataService.isMetaEntityType(repository.getEntityType())) {
-      cacheBuilder.maximumSize(MAX_CACHE_SIZE_PER_ENTITY);
+    EntityCache entityCache;
+    if (!MetaDataService.isMetaEntityType(entityType)) {
+      entityCache = new EntityCache(true, policy != null && policy.isPreload());
+      configureCacheBuilder(cacheBuilder, policy, entityCache);
+    } else {
+      entityCache = new EntityCache(false, false);
+    }
+    entityCache.setCache(cacheBuilder.build(createCacheLoader(repository)));
+
+    String entityTypeId = entityType.getId();
+    String cacheName = getCacheName(entityTypeId);
+    CaffeineCacheMetrics.monitor(meterRegistry, entityCache.getCache(), cacheName);
+    // registered once per cache name, recreated caches are looked up by the gauge
+    Gauge.builder(
+            "cache.estimated.size",
+            caches,
+            entityCaches -> getEstimatedSize(entityCaches, entityTypeId))
+        .tag("cache", cacheName)
+        .description("Estimated size of the cached entities")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    return entityCache;
+  }
+
+  private static long getEstimatedSize(Map<String, EntityCache> entityCaches, String entityTypeId) {
+    EntityCache entityCache = entityCaches.get(entityTypeId);
+    return entityCache != null ? entityCache.getEstimatedSize() : 0L;
+  }
+
+  /**
+   * Limits the cache to the maximum number of entries and the maximum weight of the policy. Both
+   * limits are enforced using a single maximum weight: if both are configured each entity weighs at
+   * least the maximum weight divided by the maximum number of entries.
+   */
+  private void configureCacheBuilder(
+      Caffeine<Object, Object> cacheBuilder,
+      @Nullable @CheckForNull L2CachePolicy policy,
+      EntityCache entityCache) {
+    int maxEntries = getMaxEntries(policy);
+    Long maxWeight = policy != null ? policy.getMaxWeight() : null;
+
+    long maximum;
+    ToLongFunction<Long> entityWeight;
+    if (maxWeight == null) {
+      maximum = maxEntries;
+      entityWeight = size -> 1L;
+    } else if (policy.getMaxEntries() == null) {
+      maximum = maxWeight;
+      entityWeight = size -> size;
+    } else {
+      maximum = maxWeight;
+      long minEntityWeight = maxEntries > 0 ? maxWeight / maxEntries : maxWeight + 1;
+      entityWeight = size -> Math.max(size, minEntityWeight);
+    }
+
+    Integer expireAfterWrite = policy != null ? policy.getExpireAfterWrite() : null;
+    if (expireAfterWrite != null) {
+      cacheBuilder.expireAfterWrite(expireAfterWrite, SECONDS);
     }
-    LoadingCache<Object, Optional<Map<String, Object>>> cache =
-        CaffeinatedGuava.build(cacheBuilder, createCacheLoader(repository));
-    GuavaCacheMetrics.monitor(meterRegistry, cache, "l2." + repository.getEntityType().getId());
-    return cache;
+    cacheBuilder
+        .maximumWeight(maximum)
+        .<Object, Optional<Map<String, Object>>>weigher(
+            (id, entity) -> {
+              long size = estimateSize(entity);
+              entityCache.add(size);
+              return (int) Math.min(entityWeight.applyAsLong(size), Integer.MAX_VALUE);
+            })
+        .removalListener((id, entity, cause) -> entityCache.add(-estimateSize(entity)))
+        .executor(Runnable::run);
+  }
+
+  private static long estimateSize(@Nullable @CheckForNull Optional<Map<String, Object>> entity) {
+    return entity != null ? entity.map(EntitySizeEstimator::estimateSize).orElse(0L) : 0L;
+  }
+
+  private static int getMaxEntries(@Nullable @CheckForNull L2CachePolicy policy) {
+    Integer maxEntries = policy != null ? policy.getMaxEntries() : null;
+    return maxEntries != null ? maxEntries : DEFAULT_MAX_ENTRIES;
+  }
+
+  @Nullable
+  @CheckForNull
+  private L2CachePolicy getPolicy(EntityType entityType) {
+    String entityTypeId = entityType.getId();
+    if (!bootstrappingDone || entityTypeId.equals(L2_CACHE_POLICY)) {
+      return null;
+    }
+    return runAsSystem(
+        () -> dataService.findOneById(L2_CACHE_POLICY, entityTypeId, L2CachePolicy.class));
+  }
+
+  private void preload(
+      Repository<Entity> repository,
+      LoadingCache<Object, Optional<Map<String, Object>>> cache,
+      int maxEntries) {
+    LOG.debug("Preloading L2 cache for {}", repository.getEntityType().getId());
+    repository
+        .findAll(new QueryImpl<>().pageSize(maxEntries))
+        .forEach(entity -> cache.put(entity.getIdValue(), dehydrateEntity(entity)));
+  }
+
+  private Optional<Map<String, Object>> dehydrateEntity(Entity entity) {
+    return Optional.of(entityHydration.dehydrate(entity));
   }
 
   /**
@@ -221,39 +454,111 @@ public class L2Cache implements TransactionListener {
   private CacheLoader<Object, Optional<Map<String, Object>>> createCacheLoader(
       final Repository<Entity> repository) {
     return new CacheLoader<Object, Optional<Map<String, Object>>>() {
-      /**
-       * Loads a single entity from the repository.
-       *
-       * @param id ID value of the entity to retrieve
-       * @return dehydrated entity or empty if the entity was not present in the repository
-       */
       @Override
       public Optional<Map<String, Object>> load(@Nonnull Object id) {
-        return Optional.ofNullable(repository.findOneById(id)).map(entityHydration::dehydrate);
+        return L2Cache.this.load(repository, id);
       }
 
-      /**
-       * Loads multiple entities from the repository.
-       *
-       * @param ids Iterable of String representations of the ID values
-       * @return Map mapping id to loaded entity, or to empty optional if the entity was not present
-       *     in the repository
-       */
       @Override
-      public Map<Object, Optional<Map<String, Object>>> loadAll(Iterable<?> ids) {
-        Stream<Object> typedIds = stream(ids).map(id -> id);
-        Map<Object, Optional<Map<String, Object>>> result =
-            repository.findAll(typedIds).collect(toMap(Entity::getIdValue, this::dehydrateEntity));
-        for (Object key : ids) {
-          // cache the absence of these entities in the backend as empty values
-          result.putIfAbsent(key, empty());
-        }
-        return result;
+      public Map<Object, Optional<Map<String, Object>>> loadAll(
+          @Nonnull Iterable<? extends Object> ids) {
+        return L2Cache.this.loadAll(repository, ids);
       }
+    };
+  }
+
+  /**
+   * Loads a single entity from the repository.
+   *
+   * @param id ID value of the entity to retrieve
+   * @return dehydrated entity or empty if the entity was not present in the repository
+   */
+  private Optional<Map<String, Object>> load(Repository<Entity> repository, Object id) {
+    return Optional.ofNullable(repository.findOneById(id)).map(entityHydration::dehydrate);
+  }
 
-      private Optional<Map<String, Object>> dehydrateEntity(Entity entity) {
-        return Optional.of(entityHydration.dehydrate(entity));
+  /**
+   * Loads multiple entities from the repository.
+   *
+   * @param ids Iterable of String representations of the ID values
+   * @return Map mapping id to loaded entity, or to empty optional if the entity was not present in
+   *     the repository
+   */
+  private Map<Object, Optional<Map<String, Object>>> loadAll(
+      Repository<Entity> repository, Iterable<? extends Object> ids) {
+    Stream<Object> typedIds = stream(ids).map(id -> id);
+    Map<Object, Optional<Map<String, Object>>> result =
+        repository.findAll(typedIds).collect(toMap(Entity::getIdValue, e -> dehydrateEntity(e)));
+    for (Object key : ids) {
+      // cache the absence of these entities in the backend as empty values
+      result.putIfAbsent(key, empty());
+    }
+    return result;
+  }
+
+  /** Entity cache of one entity type that keeps track of the estimated size of its entities. */
+  private class EntityCache {
+    private final boolean budgeted;
+    private final AtomicLong size = new AtomicLong();
+    private final AtomicBoolean preloadPending;
+    private LoadingCache<Object, Optional<Map<String, Object>>> cache;
+    private volatile boolean removed = false;
+
+    EntityCache(boolean budgeted, boolean preload) {
+      this.budgeted = budgeted;
+      this.preloadPending = new AtomicBoolean(preload);
+    }
+
+    /** Returns whether the cache should be preloaded, only returns true once */
+    boolean startPreload() {
+      return preloadPending.compareAndSet(true, false);
+    }
+
+    LoadingCache<Object, Optional<Map<String, Object>>> getCache() {
+      return cache;
+    }
+
+    void setCache(LoadingCache<Object, Optional<Map<String, Object>>> cache) {
+      this.cache = requireNonNull(cache);
+    }
+
+    boolean isBudgeted() {
+      return budgeted;
+    }
+
+    long getEstimatedSize() {
+      return size.get();
+    }
+
+    void add(long entitySize) {
+      size.addAndGet(entitySize);
+      if (budgeted && !removed) {
+        estimatedSize.addAndGet(entitySize);
       }
-    };
+    }
+
+    void remove() {
+      removed = true;
+      if (budgeted) {
+        estimatedSize.addAndGet(-size.get());
+      }
+    }
+
+    /**
+     * Evicts a fraction of the least recently used entities.
+     *
+     * @return whether entities were evicted
+     */
+    boolean evictColdest() {
+      int limit = (int) Math.max(1, cache.estimatedSize() / MAX_EVICTION_FRACTION);
+      Set<Object> ids =
+          cache.policy().eviction().map(eviction -> eviction.coldest(limit).keySet()).orElse(null);
+      if (ids == null || ids.isEmpty()) {
+        return false;
+      }
+      LOG.debug("Evicting {} entities from L2 cache to stay within budget", ids.size());
+      cache.invalidateAll(ids);
+      return true;
+    }
   }
 }
@@ -0,0 +1,76 @@
+package org.molgenis.data.cache.l2.meta;
+
+import static org.molgenis.data.cache.l2.meta.L2CachePolicyMetadata.ENTITY_TYPE_ID;
+import static org.molgenis.data.cache.l2.meta.L2CachePolicyMetadata.EXPIRE_AFTER_WRITE;
+import static org.molgenis.data.cache.l2.meta.L2CachePolicyMetadata.MAX_ENTRIES;
+import static org.molgenis.data.cache.l2.meta.L2CachePolicyMetadata.MAX_WEIGHT;
+import static org.molgenis.data.cache.l2.meta.L2CachePolicyMetadata.PRELOAD;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.molgenis.data.Entity;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.support.StaticEntity;
+
+@SuppressWarnings("unused")
+public class L2CachePolicy extends StaticEntity {
+  public L2CachePolicy(Entity entity) {
+    super(entity);
+  }
+
+  public L2CachePolicy(EntityType entityType) {
+    super(entityType);
+  }
+
+  public L2CachePolicy(String entityTypeId, EntityType entityType) {
+    super(entityType);
+    setEntityTypeId(entityTypeId);
+  }
+
+  public String getEntityTypeId() {
+    return getString(ENTITY_TYPE_ID);
+  }
+
+  public void setEntityTypeId(String entityTypeId) {
+    set(ENTITY_TYPE_ID, entityTypeId);
+  }
+
+  @Nullable
+  @CheckForNull
+  public Integer getMaxEntries() {
+    return getInt(MAX_ENTRIES);
+  }
+
+  public void setMaxEntries(Integer maxEntries) {
+    set(MAX_ENTRIES, maxEntries);
+  }
+
+  @Nullable
+  @CheckForNull
+  public Long getMaxWeight() {
+    return getLong(MAX_WEIGHT);
+  }
+
+  public void setMaxWeight(Long maxWeight) {
+    set(MAX_WEIGHT, maxWeight);
+  }
+
+  @Nullable
+  @CheckForNull
+  public Integer getExpireAfterWrite() {
+    return getInt(EXPIRE_AFTER_WRITE);
+  }
+
+  public void setExpireAfterWrite(Integer expireAfterWrite) {
+    set(EXPIRE_AFTER_WRITE, expireAfterWrite);
+  }
+
+  public boolean isPreload() {
+    Boolean preload = getBoolean(PRELOAD);
+    return preload != null && preload;
+  }
+
+  public void setPreload(boolean preload) {
+    set(PRELOAD, preload);
+  }
+}
@@ -0,0 +1,14 @@
+package org.molgenis.data.cache.l2.meta;
+
+import org.molgenis.data.AbstractSystemEntityFactory;
+import org.molgenis.data.populate.EntityPopulator;
+import org.springframework.stereotype.Component;
+
+@Component
+public class L2CachePolicyFactory
+    extends AbstractSystemEntityFactory<L2CachePolicy, L2CachePolicyMetadata, String> {
+  L2CachePolicyFactory(
+      L2CachePolicyMetadata l2CachePolicyMetadata, EntityPopulator entityPopulator) {
+    super(L2CachePolicy.class, l2CachePolicyMetadata, entityPopulator);
+  }
+}
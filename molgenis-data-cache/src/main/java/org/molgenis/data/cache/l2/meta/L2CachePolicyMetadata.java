@@ -0,0 +1,59 @@
+package org.molgenis.data.cache.l2.meta;
+
+import static java.lang.Boolean.FALSE;
+import static org.molgenis.data.meta.AttributeType.BOOL;
+import static org.molgenis.data.meta.AttributeType.INT;
+import static org.molgenis.data.meta.AttributeType.LONG;
+import static org.molgenis.data.meta.model.EntityType.AttributeRole.ROLE_ID;
+import static org.molgenis.data.meta.model.EntityType.AttributeRole.ROLE_LABEL;
+import static org.molgenis.data.meta.model.Package.PACKAGE_SEPARATOR;
+import static org.molgenis.data.system.model.RootSystemPackage.PACKAGE_SYSTEM;
+
+import org.molgenis.data.meta.SystemEntityType;
+import org.springframework.stereotype.Component;
+
+@Component
+public class L2CachePolicyMetadata extends SystemEntityType {
+  private static final String SIMPLE_NAME = "L2CachePolicy";
+  public static final String L2_CACHE_POLICY = PACKAGE_SYSTEM + PACKAGE_SEPARATOR + SIMPLE_NAME;
+
+  public static final String ENTITY_TYPE_ID = "entityTypeId";
+  public static final String MAX_ENTRIES = "maxEntries";
+  public static final String MAX_WEIGHT = "maxWeight";
+  public static final String EXPIRE_AFTER_WRITE = "expireAfterWrite";
+  public static final String PRELOAD = "preload";
+
+  L2CachePolicyMetadata() {
+    super(SIMPLE_NAME, PACKAGE_SYSTEM);
+  }
+
+  @Override
+  public void init() {
+    setLabel("L2 cache policy");
+    setDescription("Configures the second level entity cache of an entity type.");
+
+    addAttribute(ENTITY_TYPE_ID, ROLE_ID, ROLE_LABEL).setLabel("Entity Type Identifier");
+    addAttribute(MAX_ENTRIES)
+        .setDataType(INT)
+        .setLabel("Maximum entries")
+        .setDescription("Maximum number of cached entities, defaults to 1000")
+        .setRangeMin(0L);
+    addAttribute(MAX_WEIGHT)
+        .setDataType(LONG)
+        .setLabel("Maximum weight")
+        .setDescription("Maximum estimated size in bytes of the cached entities")
+        .setRangeMin(0L);
+    addAttribute(EXPIRE_AFTER_WRITE)
+        .setDataType(INT)
+        .setLabel("Expire after write")
+        .setDescription("Number of seconds after which a cached entity is reloaded")
+        .setRangeMin(1L);
+    addAttribute(PRELOAD)
+        .setDataType(BOOL)
+        .setNillable(false)
+        .setDefaultValue(FALSE.toString())
+        .setLabel("Preload")
+        .setDescription(
+            "Load entities up to the maximum number of entries when creating the cache");
+  }
+}
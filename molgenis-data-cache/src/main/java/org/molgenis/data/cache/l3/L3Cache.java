@@ -4,6 +4,7 @@ import static com.google.common.collect.Maps.newConcurrentMap;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.stream.Collectors.toList;
+import static org.molgenis.data.transaction.TransactionConstants.READ_REPLICA_RESOURCE_NAME;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
@@ -27,6 +28,7 @@ import org.molgenis.data.transaction.TransactionManager;
 import org.slf4j.Logger;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /** In-memory Query cache containing Queries and resulting ids from cacheable repositories */
 @Service
@@ -58,12 +60,23 @@ public class L3Cache implements TransactionListener {
 
   public List<Object> get(Repository<Entity> repository, Query<Entity> query) {
     // Set fetch to null because we are only caching identifiers
-    LoadingCache<Query<Entity>, List<Object>> cache = getQueryCache(repository);
     Query<Entity> fetchlessQuery = new QueryImpl<>(query);
     fetchlessQuery.setFetch(null);
+    if (isReadReplicaTransaction()) {
+      // read replicas might lag behind, return cached identifiers but don't cache new ones
+      LoadingCache<Query<Entity>, List<Object>> cache =
+          caches.get(repository.getEntityType().getId());
+      List<Object> ids = cache != null ? cache.getIfPresent(fetchlessQuery) : null;
+      return ids != null ? ids : loadIds(repository, fetchlessQuery);
+    }
+    LoadingCache<Query<Entity>, List<Object>> cache = getQueryCache(repository);
     return cache.getUnchecked(fetchlessQuery);
   }
 
+  private static boolean isReadReplicaTransaction() {
+    return TransactionSynchronizationManager.hasResource(READ_REPLICA_RESOURCE_NAME);
+  }
+
   @SuppressWarnings("squid:S2201") // ignore return values
   private LoadingCache<Query<Entity>, List<Object>> getQueryCache(Repository<Entity> repository) {
     String id = repository.getEntityType().getId();
@@ -95,27 +108,30 @@ public class L3Cache implements TransactionListener {
    */
   private CacheLoader<Query<Entity>, List<Object>> createCacheLoader(
       final Repository<Entity> repository) {
-    String repositoryName = repository.getName();
-    Fetch idAttributeFetch =
-        new Fetch().field(repository.getEntityType().getIdAttribute().getName());
     return new CacheLoader<Query<Entity>, List<Object>>() {
-      /**
-       * Loads {@link Entity} identifiers for a {@link Query}
-       *
-       * @param query the cache key to load
-       * @return {@link List} of identifier {@link Object}s
-       */
       @Override
       public List<Object> load(@Nonnull Query<Entity> query) {
-        LOG.trace("Loading identifiers from repository {} for query {}", repositoryName, query);
-        return repository
-            .findAll(new QueryImpl<>(query).fetch(idAttributeFetch))
-            .map(Entity::getIdValue)
-            .collect(toList());
+        return loadIds(repository, query);
       }
     };
   }
 
+  /**
+   * Loads {@link Entity} identifiers for a {@link Query}
+   *
+   * @param query the cache key to load
+   * @return {@link List} of identifier {@link Object}s
+   */
+  private static List<Object> loadIds(Repository<Entity> repository, Query<Entity> query) {
+    LOG.trace("Loading identifiers from repository {} for query {}", repository.getName(), query);
+    Fetch idAttributeFetch =
+        new Fetch().field(repository.getEntityType().getIdAttribute().getName());
+    return repository
+        .findAll(new QueryImpl<>(query).fetch(idAttributeFetch))
+        .map(Entity::getIdValue)
+        .collect(toList());
+  }
+
   /** Logs cumulative cache statistics for all known caches. */
   @Scheduled(fixedRate = 60000)
   public void logStatistics() {
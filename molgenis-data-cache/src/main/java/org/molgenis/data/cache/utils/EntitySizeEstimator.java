@@ -0,0 +1,49 @@
+package org.molgenis.data.cache.utils;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Estimates the heap size of dehydrated entities. The estimates are rough approximations of the
+ * object sizes on a 64-bit JVM with compressed references.
+ */
+public class EntitySizeEstimator {
+  private static final int OBJECT_SIZE = 16;
+  private static final int MAP_ENTRY_SIZE = 32;
+  private static final int REFERENCE_SIZE = 4;
+
+  private EntitySizeEstimator() {}
+
+  /**
+   * Estimates the size of a dehydrated entity.
+   *
+   * @param dehydratedEntity map of attribute name to dehydrated value
+   * @return estimated size in bytes
+   */
+  public static long estimateSize(Map<String, Object> dehydratedEntity) {
+    long size = OBJECT_SIZE + (long) dehydratedEntity.size() * MAP_ENTRY_SIZE;
+    for (Map.Entry<String, Object> entry : dehydratedEntity.entrySet()) {
+      // attribute names are shared between entities
+      size += estimateValueSize(entry.getValue());
+    }
+    return size;
+  }
+
+  private static long estimateValueSize(Object value) {
+    if (value == null) {
+      return 0;
+    } else if (value instanceof String) {
+      return 2L * OBJECT_SIZE + ((String) value).length();
+    } else if (value instanceof Collection<?>) {
+      Collection<?> values = (Collection<?>) value;
+      long size = 2L * OBJECT_SIZE + (long) values.size() * REFERENCE_SIZE;
+      for (Object element : values) {
+        size += estimateValueSize(element);
+      }
+      return size;
+    } else {
+      // boxed primitives and date/time values
+      return 2L * OBJECT_SIZE;
+    }
+  }
+}
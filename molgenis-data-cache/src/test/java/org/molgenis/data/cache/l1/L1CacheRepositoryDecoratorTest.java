@@ -215,6 +215,16 @@ class L1CacheRepositoryDecoratorTest extends AbstractMolgenisSpringTest {
     verifyNoMoreInteractions(l1Cache);
   }
 
+  @Test
+  void testUpsertBatch() {
+    List<Entity> entities = singletonList(author);
+    l1CacheRepositoryDecorator.upsertBatch(entities);
+    verify(l1Cache).put(authorEntityName, author);
+    verify(authorRepository).upsertBatch(entities);
+    verify(l1Cache).evictAll(bookMetaData);
+    verifyNoMoreInteractions(l1Cache);
+  }
+
   @Test
   void testFindOneByIdReturnsEntity() {
     when(l1Cache.get(authorEntityName, authorID, authorMetaData))
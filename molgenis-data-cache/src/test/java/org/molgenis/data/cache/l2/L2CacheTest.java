@@ -1,6 +1,7 @@
 package org.molgenis.data.cache.l2;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.lang.Boolean.TRUE;
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
 import static java.util.stream.Collectors.toList;
@@ -10,12 +11,17 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.molgenis.data.EntityManager.CreationMode.NO_POPULATE;
+import static org.molgenis.data.cache.l2.meta.L2CachePolicyMetadata.L2_CACHE_POLICY;
+import static org.molgenis.data.event.BootstrappingEvent.BootstrappingStatus.FINISHED;
+import static org.molgenis.data.transaction.TransactionConstants.READ_REPLICA_RESOURCE_NAME;
 
-import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.List;
@@ -29,15 +35,19 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.molgenis.data.AbstractMolgenisSpringTest;
+import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
 import org.molgenis.data.EntityKey;
 import org.molgenis.data.EntityManager;
 import org.molgenis.data.EntityTestHarness;
 import org.molgenis.data.Fetch;
 import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.Query;
 import org.molgenis.data.Repository;
 import org.molgenis.data.TestHarnessConfig;
+import org.molgenis.data.cache.l2.meta.L2CachePolicy;
 import org.molgenis.data.cache.utils.EntityHydration;
+import org.molgenis.data.event.BootstrappingEvent;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.support.DynamicEntity;
 import org.molgenis.data.support.EntityWithComputedAttributes;
@@ -50,6 +60,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @MockitoSettings(strictness = Strictness.LENIENT)
 @ContextConfiguration(classes = L2CacheTest.Config.class)
@@ -65,6 +76,7 @@ class L2CacheTest extends AbstractMolgenisSpringTest {
   @Mock private TransactionManager transactionManager;
   @Mock private Repository<Entity> repository;
   @Mock private TransactionInformation transactionInformation;
+  @Mock private DataService dataService;
   @Captor private ArgumentCaptor<Stream<Object>> idStreamCaptor;
 
   private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
@@ -91,7 +103,13 @@ class L2CacheTest extends AbstractMolgenisSpringTest {
     when(repository.getName()).thenReturn(emd.getId());
 
     l2Cache =
-        new L2Cache(transactionManager, entityHydration, transactionInformation, meterRegistry);
+        new L2Cache(
+            transactionManager,
+            entityHydration,
+            transactionInformation,
+            meterRegistry,
+            dataService,
+            Long.MAX_VALUE);
   }
 
   @Test
@@ -202,7 +220,7 @@ class L2CacheTest extends AbstractMolgenisSpringTest {
   void testGetStringIdLoaderThrowsException() {
     when(repository.findOneById("2"))
         .thenThrow(new MolgenisDataException("Table is missing for entity TestEntity"));
-    assertThrows(UncheckedExecutionException.class, () -> l2Cache.get(repository, "2"));
+    assertThrows(MolgenisDataException.class, () -> l2Cache.get(repository, "2"));
   }
 
   @SuppressWarnings("unchecked")
@@ -211,8 +229,7 @@ class L2CacheTest extends AbstractMolgenisSpringTest {
     when(repository.findAll(any(Stream.class)))
         .thenThrow(new MolgenisDataException("Table is missing for entity TestEntity"));
     assertThrows(
-        UncheckedExecutionException.class,
-        () -> l2Cache.getBatch(repository, newArrayList("1", "2")));
+        MolgenisDataException.class, () -> l2Cache.getBatch(repository, newArrayList("1", "2")));
   }
 
   @Test
@@ -226,6 +243,50 @@ class L2CacheTest extends AbstractMolgenisSpringTest {
     assertEquals(newArrayList("0", "1", "2", "3"), idStreamCaptor.getValue().collect(toList()));
   }
 
+  @Test
+  void testGetReadReplicaTransactionDoesNotPopulateCache() {
+    Entity entity2 = testEntities.get(2);
+    when(repository.findOneById("2")).thenReturn(entity2);
+
+    TransactionSynchronizationManager.bindResource(READ_REPLICA_RESOURCE_NAME, TRUE);
+    try {
+      assertTrue(EntityUtils.equals(l2Cache.get(repository, "2"), entity2));
+      assertTrue(EntityUtils.equals(l2Cache.get(repository, "2"), entity2));
+    } finally {
+      TransactionSynchronizationManager.unbindResource(READ_REPLICA_RESOURCE_NAME);
+    }
+    verify(repository, times(2)).findOneById("2");
+
+    // reading from the primary data source populates the cache
+    assertTrue(EntityUtils.equals(l2Cache.get(repository, "2"), entity2));
+    assertTrue(EntityUtils.equals(l2Cache.get(repository, "2"), entity2));
+    verify(repository, times(3)).findOneById("2");
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void testGetBatchReadReplicaTransactionUsesCachedEntities() {
+    Entity entity1 = testEntities.get(1);
+    when(repository.findOneById("1")).thenReturn(entity1);
+    l2Cache.get(repository, "1");
+
+    when(repository.findAll(idStreamCaptor.capture()))
+        .thenAnswer(invocation -> Stream.of(testEntities.get(2)));
+    TransactionSynchronizationManager.bindResource(READ_REPLICA_RESOURCE_NAME, TRUE);
+    try {
+      List<Entity> result = l2Cache.getBatch(repository, newArrayList("1", "2"));
+      assertEquals(
+          newArrayList("1", "2"), result.stream().map(Entity::getIdValue).collect(toList()));
+      assertEquals(newArrayList("2"), idStreamCaptor.getValue().collect(toList()));
+
+      l2Cache.getBatch(repository, newArrayList("2"));
+      assertEquals(newArrayList("2"), idStreamCaptor.getValue().collect(toList()));
+    } finally {
+      TransactionSynchronizationManager.unbindResource(READ_REPLICA_RESOURCE_NAME);
+    }
+    verify(repository, times(2)).findAll(any(Stream.class));
+  }
+
   @Test
   void testGetBatchFetch() {
     Fetch fetch = new Fetch().field(EntityTestHarness.ATTR_ID);
@@ -244,6 +305,117 @@ class L2CacheTest extends AbstractMolgenisSpringTest {
     assertEquals(newArrayList("0", "1", "2", "3"), idStreamCaptor.getValue().collect(toList()));
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  void testGetPolicyPreload() {
+    mockPolicy(true);
+    when(repository.findAll(any(Query.class))).thenAnswer(invocation -> testEntities.stream());
+    l2Cache.onApplicationEvent(new BootstrappingEvent(FINISHED));
+
+    Entity result = l2Cache.get(repository, "2");
+    assertTrue(EntityUtils.equals(result, testEntities.get(2)));
+    verify(repository, never()).findOneById("2");
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void testAfterCommitTransactionPolicyChanged() {
+    mockPolicy(true);
+    when(repository.findAll(any(Query.class))).thenAnswer(invocation -> testEntities.stream());
+    l2Cache.onApplicationEvent(new BootstrappingEvent(FINISHED));
+    l2Cache.get(repository, "2");
+
+    when(transactionInformation.getEntirelyDirtyRepositories()).thenReturn(emptySet());
+    when(transactionInformation.getDirtyEntities())
+        .thenReturn(singleton(EntityKey.create(L2_CACHE_POLICY, emd.getId())));
+    l2Cache.afterCommitTransaction("transactionID");
+    l2Cache.get(repository, "2");
+
+    verify(repository, times(2)).findAll(any(Query.class));
+  }
+
+  @Test
+  void testEstimatedSizeGaugeRecreatedCache() {
+    Entity entity2 = testEntities.get(2);
+    when(repository.findOneById("2")).thenReturn(entity2);
+    l2Cache.get(repository, "2");
+
+    Gauge gauge =
+        meterRegistry.get("cache.estimated.size").tag("cache", "l2." + emd.getId()).gauge();
+    double estimatedSize = gauge.value();
+    assertTrue(estimatedSize > 0);
+
+    when(transactionInformation.getEntirelyDirtyRepositories()).thenReturn(singleton(emd.getId()));
+    l2Cache.afterCommitTransaction("transactionID");
+    assertEquals(0, gauge.value());
+
+    l2Cache.get(repository, "2");
+    assertEquals(estimatedSize, gauge.value());
+    assertEquals(
+        1,
+        meterRegistry
+            .get("cache.estimated.size")
+            .tag("cache", "l2." + emd.getId())
+            .gauges()
+            .size());
+  }
+
+  @Test
+  void testCacheMetricsRecreatedCache() {
+    Entity entity2 = testEntities.get(2);
+    when(repository.findOneById("2")).thenReturn(entity2);
+    l2Cache.get(repository, "2");
+    l2Cache.get(repository, "2");
+    assertEquals(1, getCacheHitCount());
+
+    when(transactionInformation.getEntirelyDirtyRepositories()).thenReturn(singleton(emd.getId()));
+    l2Cache.afterCommitTransaction("transactionID");
+
+    l2Cache.get(repository, "2");
+    l2Cache.get(repository, "2");
+    l2Cache.get(repository, "2");
+    assertEquals(2, getCacheHitCount());
+  }
+
+  private double getCacheHitCount() {
+    return meterRegistry
+        .get("cache.gets")
+        .tag("cache", "l2." + emd.getId())
+        .tag("result", "hit")
+        .functionCounter()
+        .count();
+  }
+
+  @Test
+  void testGetBudgetExceeded() {
+    L2Cache budgetedL2Cache =
+        new L2Cache(
+            transactionManager,
+            entityHydration,
+            transactionInformation,
+            new SimpleMeterRegistry(),
+            dataService,
+            1L);
+    Entity entity2 = testEntities.get(2);
+    when(repository.findOneById("2")).thenReturn(entity2);
+
+    assertTrue(EntityUtils.equals(budgetedL2Cache.get(repository, "2"), entity2));
+    assertTrue(EntityUtils.equals(budgetedL2Cache.get(repository, "2"), entity2));
+
+    verify(repository, times(2)).findOneById("2");
+  }
+
+  private L2CachePolicy mockPolicy(boolean preload) {
+    L2CachePolicy policy = mock(L2CachePolicy.class);
+    when(policy.getMaxEntries()).thenReturn(10);
+    when(policy.getMaxWeight()).thenReturn(null);
+    when(policy.getExpireAfterWrite()).thenReturn(null);
+    when(policy.isPreload()).thenReturn(preload);
+    when(dataService.findOneById(L2_CACHE_POLICY, emd.getId(), L2CachePolicy.class))
+        .thenReturn(policy);
+    return policy;
+  }
+
   @Configuration
   @Import({EntityHydration.class, TestHarnessConfig.class})
   static class Config {
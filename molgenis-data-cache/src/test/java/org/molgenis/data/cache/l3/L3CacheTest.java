@@ -1,5 +1,6 @@
 package org.molgenis.data.cache.l3;
 
+import static java.lang.Boolean.TRUE;
 import static java.util.Arrays.asList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -13,6 +14,7 @@ import static org.mockito.Mockito.when;
 import static org.molgenis.data.RepositoryCapability.CACHEABLE;
 import static org.molgenis.data.meta.AttributeType.INT;
 import static org.molgenis.data.meta.model.EntityType.AttributeRole.ROLE_ID;
+import static org.molgenis.data.transaction.TransactionConstants.READ_REPLICA_RESOURCE_NAME;
 
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.UncheckedExecutionException;
@@ -39,6 +41,7 @@ import org.molgenis.data.support.QueryImpl;
 import org.molgenis.data.transaction.TransactionInformation;
 import org.molgenis.data.transaction.TransactionManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @MockitoSettings(strictness = Strictness.LENIENT)
 class L3CacheTest extends AbstractMolgenisSpringTest {
@@ -113,6 +116,31 @@ class L3CacheTest extends AbstractMolgenisSpringTest {
     verifyNoMoreInteractions(decoratedRepository);
   }
 
+  @Test
+  void testGetReadReplicaTransactionDoesNotPopulateCache() {
+    Fetch idAttributeFetch = new Fetch().field(entityType.getIdAttribute().getName());
+    Query<Entity> fetchLessQuery = new QueryImpl<>().eq(COUNTRY, "NL").fetch(idAttributeFetch);
+
+    when(decoratedRepository.findAll(fetchLessQuery))
+        .thenAnswer(invocation -> Stream.of(entity1, entity2));
+
+    Query<Entity> query = new QueryImpl<>().eq(COUNTRY, "NL");
+
+    TransactionSynchronizationManager.bindResource(READ_REPLICA_RESOURCE_NAME, TRUE);
+    try {
+      assertEquals(asList(1, 2), l3Cache.get(decoratedRepository, query));
+      assertEquals(asList(1, 2), l3Cache.get(decoratedRepository, query));
+    } finally {
+      TransactionSynchronizationManager.unbindResource(READ_REPLICA_RESOURCE_NAME);
+    }
+    verify(decoratedRepository, times(2)).findAll(fetchLessQuery);
+
+    // reading from the primary data source populates the cache
+    assertEquals(asList(1, 2), l3Cache.get(decoratedRepository, query));
+    assertEquals(asList(1, 2), l3Cache.get(decoratedRepository, query));
+    verify(decoratedRepository, times(3)).findAll(fetchLessQuery);
+  }
+
   @Test
   void testGetThrowsException() {
     Fetch idAttributeFetch = new Fetch().field(entityType.getIdAttribute().getName());
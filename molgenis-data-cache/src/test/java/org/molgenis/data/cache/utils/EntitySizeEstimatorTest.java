@@ -0,0 +1,32 @@
+package org.molgenis.data.cache.utils;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class EntitySizeEstimatorTest {
+  @Test
+  void testEstimateSizeEmpty() {
+    assertEquals(16L, EntitySizeEstimator.estimateSize(emptyMap()));
+  }
+
+  @Test
+  void testEstimateSizeNull() {
+    assertEquals(48L, EntitySizeEstimator.estimateSize(singletonMap("attr", null)));
+  }
+
+  @Test
+  void testEstimateSizeString() {
+    assertEquals(85L, EntitySizeEstimator.estimateSize(singletonMap("attr", "abcde")));
+  }
+
+  @Test
+  void testEstimateSizeCollection() {
+    assertEquals(
+        16L + 32L + 32L + 2 * 4L + 2 * 32L,
+        EntitySizeEstimator.estimateSize(singletonMap("attr", asList(1, 2))));
+  }
+}
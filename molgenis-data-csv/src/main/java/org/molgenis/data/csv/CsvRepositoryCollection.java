@@ -1,15 +1,20 @@
 package org.molgenis.data.csv;
 
+import static com.google.common.collect.Sets.immutableEnumSet;
+import static org.molgenis.data.RepositoryCollectionCapability.CONCURRENTLY_READABLE;
+
 import com.google.common.collect.Lists;
 import java.io.File;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import org.molgenis.data.Entity;
 import org.molgenis.data.MolgenisDataException;
 import org.molgenis.data.Repository;
+import org.molgenis.data.RepositoryCollectionCapability;
 import org.molgenis.data.file.processor.CellProcessor;
 import org.molgenis.data.file.support.FileRepositoryCollection;
 import org.molgenis.data.meta.model.AttributeFactory;
@@ -63,6 +68,12 @@ public class CsvRepositoryCollection extends FileRepositoryCollection {
     return new CsvRepository(file, entityTypeFactory, attrMetaFactory, id, cellProcessors);
   }
 
+  /** Repositories read the csv files or zip entries with their own reader */
+  @Override
+  public Set<RepositoryCollectionCapability> getCapabilities() {
+    return immutableEnumSet(CONCURRENTLY_READABLE);
+  }
+
   private void loadEntityNames() {
     String extension = StringUtils.getFilenameExtension(file.getName());
     entityTypeIds = Lists.newArrayList();
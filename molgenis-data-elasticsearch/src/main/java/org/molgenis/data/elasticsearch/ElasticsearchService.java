@@ -1,10 +1,11 @@
 package org.molgenis.data.elasticsearch;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
 import static org.molgenis.data.util.EntityTypeUtils.createFetchForReindexing;
 
 import com.google.common.collect.Iterators;
-import com.google.common.collect.Streams;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
@@ -20,7 +21,6 @@ import org.molgenis.data.aggregation.AggregateQuery;
 import org.molgenis.data.aggregation.AggregateResult;
 import org.molgenis.data.elasticsearch.client.ClientFacade;
 import org.molgenis.data.elasticsearch.client.model.SearchHit;
-import org.molgenis.data.elasticsearch.client.model.SearchHits;
 import org.molgenis.data.elasticsearch.generator.ContentGenerators;
 import org.molgenis.data.elasticsearch.generator.model.Document;
 import org.molgenis.data.elasticsearch.generator.model.DocumentAction;
@@ -54,10 +54,18 @@ public class ElasticsearchService implements SearchService, IndexService {
     this.dataService = requireNonNull(dataService);
   }
 
+  /**
+   * Creates a versioned index for the entity type and an alias with the entity type index name that
+   * refers to it, allowing for the index to be replaced by {@link #rebuildIndex(Repository)}.
+   */
   @Override
   public void createIndex(EntityType entityType) {
-    Index index = contentGenerators.createIndex(entityType);
-    IndexSettings indexSettings = IndexSettings.create();
+    Index index = contentGenerators.createVersionedIndex(entityType);
+    createIndex(entityType, index, IndexSettings.create());
+    swapIndex(entityType, index);
+  }
+
+  private void createIndex(EntityType entityType, Index index, IndexSettings indexSettings) {
     Mapping mapping = contentGenerators.createMapping(entityType);
     clientFacade.createIndex(index, indexSettings, Stream.of(mapping));
   }
@@ -70,23 +78,54 @@ public class ElasticsearchService implements SearchService, IndexService {
 
   @Override
   public void deleteIndex(EntityType entityType) {
-    Index index = contentGenerators.createIndex(entityType);
-    clientFacade.deleteIndex(index);
+    clientFacade.deleteIndexes(getIndexes(entityType));
   }
 
+  /**
+   * Builds a new index for the repository entities next to the existing index and replaces the
+   * existing index once it is complete, so that searches keep being answered during the rebuild.
+   */
   @Override
   public void rebuildIndex(Repository<? extends Entity> repository) {
     EntityType entityType = repository.getEntityType();
 
-    if (hasIndex(entityType)) {
-      deleteIndex(entityType);
+    // refresh is disabled while bulk loading and enabled once all documents have been indexed
+    Index index = contentGenerators.createVersionedIndex(entityType);
+    createIndex(entityType, index, IndexSettings.builder().setRefreshEnabled(false).build());
+    try {
+      repository.forEachBatched(
+          createFetchForReindexing(entityType),
+          entities -> index(index, entities.stream()),
+          BATCH_SIZE);
+      clientFacade.enableRefresh(index);
+      clientFacade.refreshIndex(index);
+    } catch (RuntimeException e) {
+      try {
+        clientFacade.deleteIndex(index);
+      } catch (RuntimeException deleteException) {
+        e.addSuppressed(deleteException);
+      }
+      throw e;
     }
 
-    createIndex(entityType);
-    repository.forEachBatched(
-        createFetchForReindexing(entityType),
-        entities -> index(entityType, entities.stream()),
-        BATCH_SIZE);
+    swapIndex(entityType, index);
+  }
+
+  /** Points the entity type index alias to the given index and deletes the replaced indexes. */
+  private void swapIndex(EntityType entityType, Index index) {
+    Index alias = contentGenerators.createIndex(entityType);
+    List<Index> replacedIndexes = hasIndex(entityType) ? getIndexes(entityType) : emptyList();
+    clientFacade.swapAlias(alias, index, replacedIndexes);
+  }
+
+  /**
+   * Returns the indexes referred to by the entity type index alias, or the entity type index itself
+   * if it was created before indexes were accessed through aliases.
+   */
+  private List<Index> getIndexes(EntityType entityType) {
+    Index alias = contentGenerators.createIndex(entityType);
+    List<Index> indexes = clientFacade.getAliasIndexes(alias);
+    return !indexes.isEmpty() ? indexes : singletonList(alias);
   }
 
   @Override
@@ -114,31 +153,16 @@ public class ElasticsearchService implements SearchService, IndexService {
     return search(entityType, q, from, q.getPageSize());
   }
 
+  /**
+   * Returns a lazy stream of entity ids: batches of ids are retrieved from the index while the
+   * stream is consumed.
+   */
   private Stream<Object> search(EntityType entityType, Query<Entity> q, int offset, int pageSize) {
     QueryBuilder query = contentGenerators.createQuery(q, entityType);
     Sort sort = q.getSort() != null ? contentGenerators.createSorts(q.getSort(), entityType) : null;
     Index index = contentGenerators.createIndex(entityType);
-    Stream<SearchHit> searchHits = Stream.empty();
-
-    boolean done = false;
-    int currentOffset;
-    int i = 0;
-    while (!done) {
-      int batchSize = pageSize < MAX_BATCH_SIZE && pageSize != 0 ? pageSize : MAX_BATCH_SIZE;
-      currentOffset = offset + (i * MAX_BATCH_SIZE);
-
-      SearchHits currentSearchHits =
-          clientFacade.search(query, currentOffset, batchSize, sort, index);
-      searchHits = Streams.concat(searchHits, currentSearchHits.getHits().stream());
-
-      if (currentSearchHits.getHits().size() < MAX_BATCH_SIZE) {
-        done = true;
-      }
-
-      if (pageSize != 0) pageSize -= MAX_BATCH_SIZE;
-      i++;
-    }
-
+    Stream<SearchHit> searchHits =
+        clientFacade.searchStream(query, offset, pageSize, sort, index, MAX_BATCH_SIZE);
     return toEntityIds(entityType, searchHits.map(SearchHit::getId));
   }
 
@@ -205,6 +229,10 @@ public class ElasticsearchService implements SearchService, IndexService {
   @Override
   public long index(EntityType entityType, Stream<? extends Entity> entities) {
     Index index = contentGenerators.createIndex(entityType);
+    return index(index, entities);
+  }
+
+  private long index(Index index, Stream<? extends Entity> entities) {
     Stream<DocumentAction> documentActionStream =
         entities.map(entity -> this.toDocumentAction(index, entity));
 
@@ -237,7 +265,14 @@ public class ElasticsearchService implements SearchService, IndexService {
 
   @Override
   public void deleteAll(EntityType entityType, Stream<Object> entityIds) {
-    entityIds.forEach(entityId -> deleteById(entityType, entityId));
+    Index index = contentGenerators.createIndex(entityType);
+    clientFacade.processDocumentActions(
+        entityIds.map(entityId -> toDeleteDocumentAction(index, entityId)));
+  }
+
+  private DocumentAction toDeleteDocumentAction(Index index, Object entityId) {
+    Document document = contentGenerators.createDocument(entityId);
+    return DocumentAction.create(index, document, DocumentAction.Operation.DELETE);
   }
 
   @Override
@@ -1,5 +1,6 @@
 package org.molgenis.data.elasticsearch.client;
 
+import java.util.function.Consumer;
 import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
@@ -7,11 +8,14 @@ import org.elasticsearch.client.Client;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Creates Elasticsearch bulk processors that log bulk updates. */
+/**
+ * Creates Elasticsearch bulk processors that log bulk updates and report failed bulk updates to a
+ * failure handler.
+ */
 class BulkProcessorFactory {
   private static final Logger LOG = LoggerFactory.getLogger(BulkProcessorFactory.class);
 
-  BulkProcessor create(Client client) {
+  BulkProcessor create(Client client, Consumer<String> failureHandler) {
     return BulkProcessor.builder(
             client,
             new BulkProcessor.Listener() {
@@ -24,7 +28,9 @@ class BulkProcessorFactory {
               @Override
               public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
                 if (response.hasFailures()) {
-                  LOG.error("Error executing bulk: {}", response.buildFailureMessage());
+                  String failureMessage = response.buildFailureMessage();
+                  LOG.error("Error executing bulk: {}", failureMessage);
+                  failureHandler.accept(failureMessage);
                 }
                 LOG.trace("Executed bulk composed of {} actions", request.numberOfActions());
               }
@@ -32,6 +38,7 @@ class BulkProcessorFactory {
               @Override
               public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
                 LOG.warn("Error executing bulk", failure);
+                failureHandler.accept(failure.getMessage());
               }
             })
         .build();
@@ -3,6 +3,7 @@ package org.molgenis.data.elasticsearch.client;
 import static java.lang.String.format;
 import static java.util.Arrays.stream;
 import static java.util.Collections.singletonList;
+import static java.util.Collections.synchronizedList;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
@@ -10,8 +11,12 @@ import static org.elasticsearch.action.DocWriteRequest.OpType.INDEX;
 import static org.molgenis.data.elasticsearch.ElasticsearchService.MAX_BATCH_SIZE;
 import static org.molgenis.util.stream.MapCollectors.toLinkedMap;
 
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Streams;
 import java.io.Closeable;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -22,6 +27,11 @@ import org.elasticsearch.ResourceAlreadyExistsException;
 import org.elasticsearch.ResourceNotFoundException;
 import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.ShardOperationFailedException;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequestBuilder;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesResponse;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequestBuilder;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesResponse;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequestBuilder;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequestBuilder;
@@ -30,6 +40,8 @@ import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsReques
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsResponse;
 import org.elasticsearch.action.admin.indices.refresh.RefreshRequestBuilder;
 import org.elasticsearch.action.admin.indices.refresh.RefreshResponse;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequestBuilder;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsResponse;
 import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.delete.DeleteRequestBuilder;
 import org.elasticsearch.action.delete.DeleteResponse;
@@ -43,11 +55,13 @@ import org.elasticsearch.action.search.ShardSearchFailure;
 import org.elasticsearch.action.support.replication.ReplicationResponse;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.client.Requests;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.search.aggregations.AggregationBuilder;
 import org.elasticsearch.search.aggregations.Aggregations;
 import org.elasticsearch.search.sort.SortBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
 import org.molgenis.data.MolgenisDataException;
 import org.molgenis.data.MolgenisQueryException;
 import org.molgenis.data.elasticsearch.client.model.SearchHit;
@@ -72,6 +86,8 @@ import org.slf4j.LoggerFactory;
  */
 public class ClientFacade implements Closeable {
   private static final Logger LOG = LoggerFactory.getLogger(ClientFacade.class);
+  private static final String REFRESH_INTERVAL_SETTING = "index.refresh_interval";
+  private static final String TIEBREAKER_FIELD = "_uid";
 
   private final Client client;
   private final SettingsContentBuilder settingsBuilder;
@@ -168,7 +184,7 @@ public class ClientFacade implements Closeable {
     deleteIndexes(singletonList(index));
   }
 
-  private void deleteIndexes(List<Index> indexes) {
+  public void deleteIndexes(List<Index> indexes) {
     if (LOG.isTraceEnabled()) {
       LOG.trace("Deleting index(es) '{}' ...", toString(indexes));
     }
@@ -234,6 +250,116 @@ public class ClientFacade implements Closeable {
     }
   }
 
+  public void refreshIndex(Index index) {
+    refreshIndexes(singletonList(index));
+  }
+
+  /** Restores the default refresh interval of an index that was created with refresh disabled. */
+  public void enableRefresh(Index index) {
+    if (LOG.isTraceEnabled()) {
+      LOG.trace("Enabling refresh of index '{}' ...", index.getName());
+    }
+
+    UpdateSettingsRequestBuilder updateSettingsRequest =
+        client
+            .admin()
+            .indices()
+            .prepareUpdateSettings(index.getName())
+            .setSettings(Settings.builder().putNull(REFRESH_INTERVAL_SETTING));
+
+    UpdateSettingsResponse updateSettingsResponse;
+    try {
+      updateSettingsResponse = updateSettingsRequest.get();
+    } catch (ResourceNotFoundException e) {
+      LOG.debug("", e);
+      throw new UnknownIndexException(index.getName());
+    } catch (ElasticsearchException e) {
+      LOG.error("", e);
+      throw new IndexException(format("Error enabling refresh of index '%s'.", index.getName()));
+    }
+
+    if (!updateSettingsResponse.isAcknowledged()) {
+      throw new IndexException(format("Error enabling refresh of index '%s'.", index.getName()));
+    }
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Enabled refresh of index '{}'.", index.getName());
+    }
+  }
+
+  /** Returns the indexes that the alias refers to, or an empty list if the alias doesn't exist. */
+  public List<Index> getAliasIndexes(Index alias) {
+    if (LOG.isTraceEnabled()) {
+      LOG.trace("Retrieving indexes of alias '{}' ...", alias.getName());
+    }
+
+    GetAliasesRequestBuilder getAliasesRequest =
+        client.admin().indices().prepareGetAliases(alias.getName());
+
+    GetAliasesResponse getAliasesResponse;
+    try {
+      getAliasesResponse = getAliasesRequest.get();
+    } catch (ElasticsearchException e) {
+      LOG.error("", e);
+      throw new IndexException(format("Error retrieving indexes of alias '%s'.", alias.getName()));
+    }
+
+    List<Index> indexes = new ArrayList<>();
+    getAliasesResponse
+        .getAliases()
+        .forEach(
+            cursor -> {
+              if (!cursor.value.isEmpty()) {
+                indexes.add(Index.create(cursor.key));
+              }
+            });
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Retrieved indexes '{}' of alias '{}'.", toString(indexes), alias.getName());
+    }
+    return indexes;
+  }
+
+  /**
+   * Atomically points the alias to the given index and deletes the replaced indexes, so that
+   * requests on the alias never see a missing or partially filled index.
+   */
+  public void swapAlias(Index alias, Index index, List<Index> replacedIndexes) {
+    if (LOG.isTraceEnabled()) {
+      LOG.trace(
+          "Swapping alias '{}' from index(es) '{}' to index '{}' ...",
+          alias.getName(),
+          toString(replacedIndexes),
+          index.getName());
+    }
+
+    IndicesAliasesRequestBuilder aliasesRequest =
+        client.admin().indices().prepareAliases().addAlias(index.getName(), alias.getName());
+    replacedIndexes.forEach(
+        replacedIndex ->
+            aliasesRequest.addAliasAction(
+                AliasActions.removeIndex().index(replacedIndex.getName())));
+
+    IndicesAliasesResponse aliasesResponse;
+    try {
+      aliasesResponse = aliasesRequest.get();
+    } catch (ResourceNotFoundException e) {
+      LOG.debug("", e);
+      throw new UnknownIndexException(index.getName());
+    } catch (ElasticsearchException e) {
+      LOG.error("", e);
+      throw new IndexException(
+          format("Error swapping alias '%s' to index '%s'.", alias.getName(), index.getName()));
+    }
+
+    if (!aliasesResponse.isAcknowledged()) {
+      throw new IndexException(
+          format("Error swapping alias '%s' to index '%s'.", alias.getName(), index.getName()));
+    }
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Swapped alias '{}' to index '{}'.", alias.getName(), index.getName());
+    }
+  }
+
   public long getCount(Index index) {
     return getCount(singletonList(index));
   }
@@ -312,6 +438,73 @@ public class ClientFacade implements Closeable {
 
   private SearchHits search(
       QueryBuilder query, int from, int size, Sort sort, List<Index> indexes) {
+    List<SortBuilder> sorts = sort != null ? sortContentBuilder.createSorts(sort) : null;
+    return createSearchResponse(executeSearch(query, from, size, sorts, null, indexes));
+  }
+
+  /**
+   * Searches documents and returns a lazy stream of hits: after the first batch, the next batch of
+   * hits is only retrieved once the hits of the previous batch have been consumed. Batches after
+   * the first batch are retrieved using search_after instead of an offset, so that deep pages are
+   * as fast as the first page and the number of hits is not limited by the max_result_window of the
+   * index.
+   *
+   * @param size maximum number of hits, 0 for all hits
+   * @param batchSize maximum number of hits to retrieve per search request
+   */
+  public Stream<SearchHit> searchStream(
+      QueryBuilder query, int from, int size, Sort sort, Index index, int batchSize) {
+    List<Index> indexes = singletonList(index);
+    if (size != 0 && size <= batchSize) {
+      return search(query, from, size, sort, indexes).getHits().stream();
+    }
+
+    List<SortBuilder> sorts = new ArrayList<>();
+    if (sort != null) {
+      sorts.addAll(sortContentBuilder.createSorts(sort));
+    } else {
+      sorts.add(SortBuilders.scoreSort());
+    }
+    // search_after requires a unique sort value per document to continue from
+    sorts.add(SortBuilders.fieldSort(TIEBREAKER_FIELD));
+
+    Iterator<List<SearchHit>> batches =
+        new AbstractIterator<List<SearchHit>>() {
+          private Object[] searchAfter = null;
+          private long remaining = size != 0 ? size : Long.MAX_VALUE;
+
+          @Override
+          protected List<SearchHit> computeNext() {
+            if (remaining == 0) {
+              return endOfData();
+            }
+            int batchFrom = searchAfter == null ? from : 0;
+            int currentBatchSize = (int) Math.min(batchSize, remaining);
+            org.elasticsearch.search.SearchHit[] hits =
+                executeSearch(query, batchFrom, currentBatchSize, sorts, searchAfter, indexes)
+                    .getHits()
+                    .getHits();
+            if (hits.length == 0) {
+              return endOfData();
+            }
+
+            remaining = hits.length < currentBatchSize ? 0 : remaining - hits.length;
+            searchAfter = hits[hits.length - 1].getSortValues();
+            return stream(hits).map(ClientFacade::toSearchHit).collect(toList());
+          }
+        };
+    // retrieve the first batch right away so that search errors surface when searching
+    batches.hasNext();
+    return Streams.stream(batches).flatMap(List::stream);
+  }
+
+  private SearchResponse executeSearch(
+      QueryBuilder query,
+      int from,
+      int size,
+      List<SortBuilder> sort,
+      Object[] searchAfter,
+      List<Index> indexes) {
     if (size > 10000) {
       throw new MolgenisQueryException(
           String.format(
@@ -340,6 +533,9 @@ public class ClientFacade implements Closeable {
 
     SearchRequestBuilder searchRequest =
         createSearchRequest(query, from, size, sort, null, indexes);
+    if (searchAfter != null) {
+      searchRequest.searchAfter(searchAfter);
+    }
 
     SearchResponse searchResponse;
     try {
@@ -389,14 +585,14 @@ public class ClientFacade implements Closeable {
             searchResponse.getTookInMillis());
       }
     }
-    return createSearchResponse(searchResponse);
+    return searchResponse;
   }
 
   private SearchRequestBuilder createSearchRequest(
       QueryBuilder query,
       Integer from,
       Integer size,
-      Sort sort,
+      List<SortBuilder> sorts,
       List<AggregationBuilder> aggregations,
       List<Index> indexes) {
     String[] indexNames = toIndexNames(indexes);
@@ -410,8 +606,7 @@ public class ClientFacade implements Closeable {
     if (size != null) {
       searchRequest.setSize(size);
     }
-    if (sort != null) {
-      List<SortBuilder> sorts = sortContentBuilder.createSorts(sort);
+    if (sorts != null) {
       sorts.forEach(searchRequest::addSort);
     }
     if (aggregations != null) {
@@ -423,12 +618,14 @@ public class ClientFacade implements Closeable {
   private SearchHits createSearchResponse(SearchResponse searchResponse) {
     org.elasticsearch.search.SearchHits searchHits = searchResponse.getHits();
     List<SearchHit> searchHitList =
-        stream(searchHits.getHits())
-            .map(hit -> SearchHit.create(hit.getId(), hit.getIndex()))
-            .collect(toList());
+        stream(searchHits.getHits()).map(ClientFacade::toSearchHit).collect(toList());
     return SearchHits.create(searchHits.getTotalHits(), searchHitList);
   }
 
+  private static SearchHit toSearchHit(org.elasticsearch.search.SearchHit hit) {
+    return SearchHit.create(hit.getId(), hit.getIndex());
+  }
+
   public Aggregations aggregate(
       List<AggregationBuilder> aggregations, QueryBuilder query, Index index) {
     return aggregate(aggregations, query, singletonList(index));
@@ -614,7 +811,8 @@ public class ClientFacade implements Closeable {
 
   public void processDocumentActions(Stream<DocumentAction> documentActions) {
     LOG.trace("Processing document actions ...");
-    BulkProcessor bulkProcessor = bulkProcessorFactory.create(client);
+    List<String> failureMessages = synchronizedList(new ArrayList<>());
+    BulkProcessor bulkProcessor = bulkProcessorFactory.create(client, failureMessages::add);
     try {
       documentActions.forEachOrdered(
           documentAction -> {
@@ -625,10 +823,15 @@ public class ClientFacade implements Closeable {
       waitForCompletion(bulkProcessor);
       LOG.debug("Processed document actions.");
     }
+    if (!failureMessages.isEmpty()) {
+      throw new IndexException(
+          format("Error processing document actions: %s", failureMessages.get(0)));
+    }
   }
 
-  private DocWriteRequest toDocWriteRequest(DocumentAction documentAction) {
+  DocWriteRequest toDocWriteRequest(DocumentAction documentAction) {
     String indexName = documentAction.getIndex().getName();
+    String typeName = documentAction.getIndex().getType();
     String documentId = documentAction.getDocument().getId();
 
     DocWriteRequest docWriteRequest;
@@ -641,13 +844,13 @@ public class ClientFacade implements Closeable {
         }
         docWriteRequest =
             Requests.indexRequest(indexName)
-                .type(indexName)
+                .type(typeName)
                 .id(documentId)
                 .source(source)
                 .opType(INDEX);
         break;
       case DELETE:
-        docWriteRequest = Requests.deleteRequest(indexName).type(indexName).id(documentId);
+        docWriteRequest = Requests.deleteRequest(indexName).type(typeName).id(documentId);
         break;
       default:
         throw new UnexpectedEnumException(documentAction.getOperation());
@@ -14,6 +14,7 @@ import org.molgenis.data.elasticsearch.generator.model.IndexSettings;
 class SettingsContentBuilder {
   private static final String DEFAULT_TOKENIZER = "default_tokenizer";
   private static final String DEFAULT_STEMMER = "default_stemmer";
+  private static final String DISABLED_REFRESH_INTERVAL = "-1";
 
   private final XContentType xContentType;
 
@@ -47,6 +48,9 @@ class SettingsContentBuilder {
 
     contentBuilder.field("number_of_shards", indexSettings.getNumberOfShards());
     contentBuilder.field("number_of_replicas", indexSettings.getNumberOfReplicas());
+    if (!indexSettings.isRefreshEnabled()) {
+      contentBuilder.field("refresh_interval", DISABLED_REFRESH_INTERVAL);
+    }
     createMapperSettings(contentBuilder);
     createMappingSettings(contentBuilder);
     createAnalysisSettings(contentBuilder);
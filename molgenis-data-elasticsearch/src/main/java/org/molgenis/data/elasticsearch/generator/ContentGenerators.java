@@ -38,6 +38,10 @@ public class ContentGenerators {
     return indexGenerator.createIndex(entityType);
   }
 
+  public Index createVersionedIndex(EntityType entityType) {
+    return indexGenerator.createVersionedIndex(entityType);
+  }
+
   public Mapping createMapping(EntityType entityType) {
     return mappingGenerator.createMapping(entityType);
   }
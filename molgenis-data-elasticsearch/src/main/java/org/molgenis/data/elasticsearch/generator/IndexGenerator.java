@@ -2,6 +2,7 @@ package org.molgenis.data.elasticsearch.generator;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.concurrent.atomic.AtomicLong;
 import org.molgenis.data.elasticsearch.generator.model.Index;
 import org.molgenis.data.meta.model.EntityType;
 import org.springframework.stereotype.Component;
@@ -9,14 +10,29 @@ import org.springframework.stereotype.Component;
 /** Generates Elasticsearch index metadata from entity types. */
 @Component
 class IndexGenerator {
+  private static final String VERSION_SEPARATOR = "_v";
+
   private final DocumentIdGenerator documentIdGenerator;
+  /** Last index version, a timestamp that is incremented if indexes are created in the same ms */
+  private final AtomicLong lastVersion = new AtomicLong();
 
   IndexGenerator(DocumentIdGenerator documentIdGenerator) {
     this.documentIdGenerator = requireNonNull(documentIdGenerator);
   }
 
+  /** Creates the index alias through which the entity type documents are accessed. */
   Index createIndex(EntityType entityType) {
     String indexName = documentIdGenerator.generateId(entityType);
     return Index.create(indexName);
   }
+
+  /**
+   * Creates a new uniquely versioned index for the entity type, that stores the documents once the
+   * index alias refers to it. The documents of the index have the type of the index alias.
+   */
+  Index createVersionedIndex(EntityType entityType) {
+    String indexName = documentIdGenerator.generateId(entityType);
+    long version = lastVersion.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+    return Index.create(indexName + VERSION_SEPARATOR + version, indexName);
+  }
 }
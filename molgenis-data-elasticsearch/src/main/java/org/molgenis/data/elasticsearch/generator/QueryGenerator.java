@@ -156,6 +156,10 @@ public class QueryGenerator {
       case NOT:
         throw new MolgenisQueryException(
             format("Unexpected query operator [%s]", queryOperator.toString()));
+      case PERMITTED:
+        // row-level security permissions are not stored in the index
+        throw new MolgenisQueryException(
+            format("Unexpected query operator [%s]", queryOperator.toString()));
       default:
         throw new UnexpectedEnumException(queryOperator);
     }
@@ -580,6 +584,7 @@ public class QueryGenerator {
       case NESTED:
       case NOT:
       case OR:
+      case PERMITTED:
       case RANGE:
       case SEARCH:
       case SHOULD:
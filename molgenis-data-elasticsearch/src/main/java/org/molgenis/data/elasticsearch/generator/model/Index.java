@@ -8,7 +8,14 @@ import com.google.auto.value.AutoValue;
 public abstract class Index {
   public abstract String getName();
 
+  /** Returns the type of the documents in the index, equal to the name unless versioned */
+  public abstract String getType();
+
   public static Index create(String name) {
-    return new AutoValue_Index(name);
+    return create(name, name);
+  }
+
+  public static Index create(String name, String type) {
+    return new AutoValue_Index(name, type);
   }
 }
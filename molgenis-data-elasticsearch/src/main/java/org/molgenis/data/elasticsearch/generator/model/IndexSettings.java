@@ -15,6 +15,9 @@ public abstract class IndexSettings {
   /** The number of replica shards. */
   public abstract int getNumberOfReplicas();
 
+  /** Whether changes are periodically made visible to search, disable while bulk loading. */
+  public abstract boolean isRefreshEnabled();
+
   public static IndexSettings create() {
     return builder().build();
   }
@@ -29,7 +32,8 @@ public abstract class IndexSettings {
   public static Builder builder() {
     return new AutoValue_IndexSettings.Builder()
         .setNumberOfShards(DEFAULT_NUMBER_OF_SHARDS)
-        .setNumberOfReplicas(DEFAULT_NUMBER_OF_REPLICAS);
+        .setNumberOfReplicas(DEFAULT_NUMBER_OF_REPLICAS)
+        .setRefreshEnabled(true);
   }
 
   @AutoValue.Builder
@@ -38,6 +42,8 @@ public abstract class IndexSettings {
 
     public abstract Builder setNumberOfReplicas(int newNumberOfReplicas);
 
+    public abstract Builder setRefreshEnabled(boolean newRefreshEnabled);
+
     public abstract IndexSettings build();
   }
 }
@@ -1,27 +1,51 @@
 package org.molgenis.data.elasticsearch;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.molgenis.data.elasticsearch.ElasticsearchService.MAX_BATCH_SIZE;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.elasticsearch.index.query.QueryBuilder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
+import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.Repository;
 import org.molgenis.data.elasticsearch.client.ClientFacade;
 import org.molgenis.data.elasticsearch.client.model.SearchHit;
-import org.molgenis.data.elasticsearch.client.model.SearchHits;
 import org.molgenis.data.elasticsearch.generator.ContentGenerators;
+import org.molgenis.data.elasticsearch.generator.model.Document;
+import org.molgenis.data.elasticsearch.generator.model.DocumentAction;
+import org.molgenis.data.elasticsearch.generator.model.Index;
+import org.molgenis.data.elasticsearch.generator.model.IndexSettings;
+import org.molgenis.data.elasticsearch.generator.model.Mapping;
+import org.molgenis.data.index.exception.IndexException;
+import org.molgenis.data.meta.AttributeType;
+import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.support.QueryImpl;
 import org.molgenis.test.AbstractMockitoTest;
@@ -45,70 +69,200 @@ class ElasticsearchServiceTest extends AbstractMockitoTest {
 
   @Test
   @SuppressWarnings("unchecked")
-  void testBatchingSearchPageSizeZero() {
+  void testSearch() {
     QueryImpl<Entity> query = mock(QueryImpl.class);
     when(query.getPageSize()).thenReturn(0);
-    when(query.getOffset()).thenReturn(0);
+    when(query.getOffset()).thenReturn(20);
+    QueryBuilder queryBuilder = mock(QueryBuilder.class);
+    when(contentGenerators.createQuery(query, entityType)).thenReturn(queryBuilder);
+    Index index = Index.create("index");
+    when(contentGenerators.createIndex(entityType)).thenReturn(index);
+    Attribute idAttribute = mock(Attribute.class);
+    when(idAttribute.getDataType()).thenReturn(AttributeType.INT);
+    when(entityType.getIdAttribute()).thenReturn(idAttribute);
+
+    when(clientFacade.searchStream(queryBuilder, 20, 0, null, index, MAX_BATCH_SIZE))
+        .thenReturn(Stream.of(SearchHit.create("1", "index"), SearchHit.create("2", "index")));
+
+    assertEquals(asList(1, 2), elasticsearchService.search(entityType, query).collect(toList()));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testSearchOne() {
+    QueryImpl<Entity> query = mock(QueryImpl.class);
+    when(query.getOffset()).thenReturn(5);
+    QueryBuilder queryBuilder = mock(QueryBuilder.class);
+    when(contentGenerators.createQuery(query, entityType)).thenReturn(queryBuilder);
+    Index index = Index.create("index");
+    when(contentGenerators.createIndex(entityType)).thenReturn(index);
+    Attribute idAttribute = mock(Attribute.class);
+    when(idAttribute.getDataType()).thenReturn(AttributeType.STRING);
+    when(entityType.getIdAttribute()).thenReturn(idAttribute);
+
+    when(clientFacade.searchStream(queryBuilder, 5, 1, null, index, MAX_BATCH_SIZE))
+        .thenReturn(Stream.of(SearchHit.create("id", "index")));
 
-    SearchHits searchHitsBatch = mock(SearchHits.class);
-    when(searchHitsBatch.getHits()).thenReturn(asList(new SearchHit[10000]));
+    assertEquals("id", elasticsearchService.searchOne(entityType, query));
+  }
 
-    SearchHits finalSearchHitsBatch = mock(SearchHits.class);
-    when(finalSearchHitsBatch.getHits()).thenReturn(asList(new SearchHit[5000]));
+  @Test
+  void testCreateIndex() {
+    Index alias = Index.create("entityType");
+    Index index = Index.create("entityType_v1");
+    Mapping mapping = mock(Mapping.class);
+    when(contentGenerators.createIndex(entityType)).thenReturn(alias);
+    when(contentGenerators.createVersionedIndex(entityType)).thenReturn(index);
+    when(contentGenerators.createMapping(entityType)).thenReturn(mapping);
 
-    when(clientFacade.search(any(), eq(0), eq(10000), any(), any())).thenReturn(searchHitsBatch);
-    when(clientFacade.search(any(), eq(10000), anyInt(), any(), any())).thenReturn(searchHitsBatch);
-    when(clientFacade.search(any(), eq(20000), anyInt(), any(), any()))
-        .thenReturn(finalSearchHitsBatch);
+    elasticsearchService.createIndex(entityType);
 
-    elasticsearchService.search(entityType, query);
+    verify(clientFacade).createIndex(eq(index), eq(IndexSettings.create()), any());
+    verify(clientFacade).swapAlias(alias, index, emptyList());
+  }
+
+  @Test
+  void testDeleteIndex() {
+    Index alias = Index.create("entityType");
+    Index index = Index.create("entityType_v1");
+    when(contentGenerators.createIndex(entityType)).thenReturn(alias);
+    when(clientFacade.getAliasIndexes(alias)).thenReturn(singletonList(index));
 
-    verify(clientFacade, times(1)).search(any(), eq(0), eq(MAX_BATCH_SIZE), any(), any());
-    verify(clientFacade, times(1)).search(any(), eq(10000), eq(MAX_BATCH_SIZE), any(), any());
-    verify(clientFacade, times(1)).search(any(), eq(20000), eq(MAX_BATCH_SIZE), any(), any());
-    verifyNoMoreInteractions(clientFacade);
+    elasticsearchService.deleteIndex(entityType);
+
+    verify(clientFacade).deleteIndexes(singletonList(index));
+  }
+
+  @Test
+  void testDeleteIndexWithoutAlias() {
+    Index index = Index.create("entityType");
+    when(contentGenerators.createIndex(entityType)).thenReturn(index);
+    when(clientFacade.getAliasIndexes(index)).thenReturn(emptyList());
+
+    elasticsearchService.deleteIndex(entityType);
+
+    verify(clientFacade).deleteIndexes(singletonList(index));
   }
 
   @Test
   @SuppressWarnings("unchecked")
-  void testSingleBatchSearch() {
-    QueryImpl<Entity> query = mock(QueryImpl.class);
-    when(query.getPageSize()).thenReturn(50);
-    when(query.getOffset()).thenReturn(20);
+  void testRebuildIndex() {
+    Index alias = Index.create("entityType");
+    Index oldIndex = Index.create("entityType_v1");
+    Index newIndex = Index.create("entityType_v2");
+    when(contentGenerators.createIndex(entityType)).thenReturn(alias);
+    when(contentGenerators.createVersionedIndex(entityType)).thenReturn(newIndex);
+    when(clientFacade.indexesExist(alias)).thenReturn(true);
+    when(clientFacade.getAliasIndexes(alias)).thenReturn(singletonList(oldIndex));
+    Repository<Entity> repository = mock(Repository.class);
+    when(repository.getEntityType()).thenReturn(entityType);
 
-    SearchHits searchHitsBatch = mock(SearchHits.class);
-    when(searchHitsBatch.getHits()).thenReturn(asList(new SearchHit[50]));
+    elasticsearchService.rebuildIndex(repository);
 
-    when(clientFacade.search(any(), eq(20), eq(50), any(), any())).thenReturn(searchHitsBatch);
+    InOrder inOrder = inOrder(clientFacade, repository);
+    inOrder
+        .verify(clientFacade)
+        .createIndex(
+            eq(newIndex), eq(IndexSettings.builder().setRefreshEnabled(false).build()), any());
+    inOrder.verify(repository).forEachBatched(any(), any(), eq(1000));
+    inOrder.verify(clientFacade).enableRefresh(newIndex);
+    inOrder.verify(clientFacade).refreshIndex(newIndex);
+    inOrder.verify(clientFacade).swapAlias(alias, newIndex, singletonList(oldIndex));
+    verify(clientFacade, never()).deleteIndex(any());
+  }
 
-    elasticsearchService.search(entityType, query);
+  @Test
+  @SuppressWarnings("unchecked")
+  void testRebuildIndexFailure() {
+    Index newIndex = Index.create("entityType_v2");
+    when(contentGenerators.createVersionedIndex(entityType)).thenReturn(newIndex);
+    Repository<Entity> repository = mock(Repository.class);
+    when(repository.getEntityType()).thenReturn(entityType);
+    doThrow(new MolgenisDataException()).when(repository).forEachBatched(any(), any(), eq(1000));
 
-    verify(clientFacade, times(1)).search(any(), eq(20), eq(50), any(), any());
-    verifyNoMoreInteractions(clientFacade);
+    assertThrows(MolgenisDataException.class, () -> elasticsearchService.rebuildIndex(repository));
+
+    verify(clientFacade).deleteIndex(newIndex);
+    verify(clientFacade, never()).swapAlias(any(), any(), any());
   }
 
   @Test
   @SuppressWarnings("unchecked")
-  void testBatchingSearchPageSizeLargerThanMax() {
-    QueryImpl<Entity> query = mock(QueryImpl.class);
-    when(query.getPageSize()).thenReturn(10001);
-    when(query.getOffset()).thenReturn(5000);
+  void testRebuildIndexFailureDeleteIndexFailure() {
+    Index newIndex = Index.create("entityType_v2");
+    when(contentGenerators.createVersionedIndex(entityType)).thenReturn(newIndex);
+    Repository<Entity> repository = mock(Repository.class);
+    when(repository.getEntityType()).thenReturn(entityType);
+    MolgenisDataException rebuildException = new MolgenisDataException();
+    doThrow(rebuildException).when(repository).forEachBatched(any(), any(), eq(1000));
+    IndexException deleteException = new IndexException("delete failed");
+    doThrow(deleteException).when(clientFacade).deleteIndex(newIndex);
 
-    SearchHits searchHitsBatch = mock(SearchHits.class);
-    when(searchHitsBatch.getHits()).thenReturn(asList(new SearchHit[10000]));
+    Exception exception =
+        assertThrows(
+            MolgenisDataException.class, () -> elasticsearchService.rebuildIndex(repository));
+    assertSame(rebuildException, exception);
+    assertArrayEquals(new Throwable[] {deleteException}, exception.getSuppressed());
+    verify(clientFacade, never()).swapAlias(any(), any(), any());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testRebuildIndexDocumentType() {
+    Index alias = Index.create("entityType");
+    Index newIndex = Index.create("entityType_v2", "entityType");
+    when(contentGenerators.createIndex(entityType)).thenReturn(alias);
+    when(contentGenerators.createVersionedIndex(entityType)).thenReturn(newIndex);
+    Entity entity = mock(Entity.class);
+    Document document = Document.builder().setId("id").build();
+    when(contentGenerators.createDocument(entity)).thenReturn(document);
+    Repository<Entity> repository = mock(Repository.class);
+    when(repository.getEntityType()).thenReturn(entityType);
+    doAnswer(
+            invocation -> {
+              Consumer<List<Entity>> consumer = invocation.getArgument(1);
+              consumer.accept(singletonList(entity));
+              return null;
+            })
+        .when(repository)
+        .forEachBatched(any(), any(), eq(1000));
+    List<DocumentAction> documentActions = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              Stream<DocumentAction> documentActionStream = invocation.getArgument(0);
+              documentActionStream.forEach(documentActions::add);
+              return null;
+            })
+        .when(clientFacade)
+        .processDocumentActions(any());
 
-    SearchHits finalSearchHitsBatch = mock(SearchHits.class);
-    when(finalSearchHitsBatch.getHits()).thenReturn(asList(new SearchHit[1]));
+    elasticsearchService.rebuildIndex(repository);
 
-    when(clientFacade.search(any(), eq(5000), eq(MAX_BATCH_SIZE), any(), any()))
-        .thenReturn(searchHitsBatch);
-    when(clientFacade.search(any(), eq(15000), eq(1), any(), any()))
-        .thenReturn(finalSearchHitsBatch);
+    assertEquals(
+        singletonList(DocumentAction.create(newIndex, document, DocumentAction.Operation.INDEX)),
+        documentActions);
+    assertEquals("entityType", documentActions.get(0).getIndex().getType());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void testDeleteAll() {
+    Index index = Index.create("index");
+    when(contentGenerators.createIndex(entityType)).thenReturn(index);
+    Document document1 = Document.builder().setId("id1").build();
+    Document document2 = Document.builder().setId("id2").build();
+    when(contentGenerators.createDocument("id1")).thenReturn(document1);
+    when(contentGenerators.createDocument("id2")).thenReturn(document2);
 
-    elasticsearchService.search(entityType, query);
+    elasticsearchService.deleteAll(entityType, Stream.of("id1", "id2"));
 
-    verify(clientFacade, times(1)).search(any(), eq(5000), eq(MAX_BATCH_SIZE), any(), any());
-    verify(clientFacade, times(1)).search(any(), eq(15000), eq(1), any(), any());
-    verifyNoMoreInteractions(clientFacade);
+    ArgumentCaptor<Stream<DocumentAction>> captor = ArgumentCaptor.forClass(Stream.class);
+    verify(clientFacade).processDocumentActions(captor.capture());
+    assertEquals(
+        asList(
+            DocumentAction.create(index, document1, DocumentAction.Operation.DELETE),
+            DocumentAction.create(index, document2, DocumentAction.Operation.DELETE)),
+        captor.getValue().collect(toList()));
+    verify(clientFacade, never()).deleteById(any(), any());
   }
 }
@@ -5,13 +5,21 @@ import static ch.qos.logback.classic.Level.ERROR;
 import static ch.qos.logback.classic.Level.TRACE;
 import static ch.qos.logback.classic.Level.WARN;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.argThat;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -24,6 +32,10 @@ import java.util.stream.Stream;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ResourceAlreadyExistsException;
 import org.elasticsearch.ResourceNotFoundException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequestBuilder;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesResponse;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequestBuilder;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequestBuilder;
@@ -31,6 +43,9 @@ import org.elasticsearch.action.admin.indices.delete.DeleteIndexResponse;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsRequestBuilder;
 import org.elasticsearch.action.admin.indices.refresh.RefreshRequestBuilder;
 import org.elasticsearch.action.admin.indices.refresh.RefreshResponse;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequestBuilder;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.explain.ExplainRequestBuilder;
@@ -58,6 +73,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.molgenis.data.elasticsearch.client.model.SearchHit;
 import org.molgenis.data.elasticsearch.generator.model.Document;
+import org.molgenis.data.elasticsearch.generator.model.DocumentAction;
 import org.molgenis.data.elasticsearch.generator.model.FieldMapping;
 import org.molgenis.data.elasticsearch.generator.model.Index;
 import org.molgenis.data.elasticsearch.generator.model.IndexSettings;
@@ -279,6 +295,46 @@ class ClientFacadeTest {
         .containsPattern("Error determining index\\(es\\) 'index' existence\\.");
   }
 
+  @Test
+  void testSwapAliasThrowsException() {
+    Index alias = Index.create("alias");
+    Index index = Index.create("index");
+
+    IndicesAliasesRequestBuilder indicesAliasesRequestBuilder =
+        mock(IndicesAliasesRequestBuilder.class);
+    when(indicesAdminClient.prepareAliases()).thenReturn(indicesAliasesRequestBuilder);
+    when(indicesAliasesRequestBuilder.addAlias("index", "alias"))
+        .thenReturn(indicesAliasesRequestBuilder);
+    when(indicesAliasesRequestBuilder.get()).thenThrow(new ElasticsearchException("exception"));
+
+    Exception exception =
+        assertThrows(IndexException.class, () -> clientFacade.swapAlias(alias, index, emptyList()));
+    assertThat(exception.getMessage())
+        .containsPattern("Error swapping alias 'alias' to index 'index'\\.");
+  }
+
+  @Test
+  void testSwapAliasNotAcknowledged() {
+    Index alias = Index.create("alias");
+    Index index = Index.create("index");
+
+    IndicesAliasesRequestBuilder indicesAliasesRequestBuilder =
+        mock(IndicesAliasesRequestBuilder.class);
+    IndicesAliasesResponse indicesAliasesResponse = mock(IndicesAliasesResponse.class);
+    when(indicesAdminClient.prepareAliases()).thenReturn(indicesAliasesRequestBuilder);
+    when(indicesAliasesRequestBuilder.addAlias("index", "alias"))
+        .thenReturn(indicesAliasesRequestBuilder);
+    when(indicesAliasesRequestBuilder.get()).thenReturn(indicesAliasesResponse);
+    when(indicesAliasesResponse.isAcknowledged()).thenReturn(false);
+
+    Exception exception =
+        assertThrows(
+            IndexException.class,
+            () -> clientFacade.swapAlias(alias, index, singletonList(Index.create("old"))));
+    assertThat(exception.getMessage())
+        .containsPattern("Error swapping alias 'alias' to index 'index'\\.");
+  }
+
   @Test
   void testDeleteIndexThrowsException() {
     Index index = Index.create("index");
@@ -403,6 +459,44 @@ class ClientFacadeTest {
             "Timeout searching counting docs in index\\(es\\) 'index'  with query 'a == b'\\.");
   }
 
+  @Test
+  void testSearchStream() {
+    Index index = Index.create("index");
+
+    when(client.prepareSearch("index")).thenReturn(searchRequestBuilder);
+    SearchResponse firstSearchResponse = createSearchResponse("id0", "id1");
+    SearchResponse secondSearchResponse = createSearchResponse("id2");
+    when(searchRequestBuilder.get()).thenReturn(firstSearchResponse, secondSearchResponse);
+
+    Stream<SearchHit> searchHits = clientFacade.searchStream(queryBuilder, 0, 0, null, index, 2);
+    verify(searchRequestBuilder, times(1)).get();
+    verify(searchRequestBuilder, never()).searchAfter(any());
+
+    assertThat(searchHits.collect(toList()))
+        .containsExactly(
+            SearchHit.create("id0", "index"),
+            SearchHit.create("id1", "index"),
+            SearchHit.create("id2", "index"));
+    verify(searchRequestBuilder).searchAfter(new Object[] {"index#id1"});
+    verify(searchRequestBuilder, times(2)).get();
+  }
+
+  private static SearchResponse createSearchResponse(String... ids) {
+    org.elasticsearch.search.SearchHit[] hits = new org.elasticsearch.search.SearchHit[ids.length];
+    for (int i = 0; i < ids.length; i++) {
+      hits[i] = mock(org.elasticsearch.search.SearchHit.class);
+      when(hits[i].getId()).thenReturn(ids[i]);
+      when(hits[i].getIndex()).thenReturn("index");
+      when(hits[i].getSortValues()).thenReturn(new Object[] {"index#" + ids[i]});
+    }
+    org.elasticsearch.search.SearchHits searchHits =
+        mock(org.elasticsearch.search.SearchHits.class);
+    when(searchHits.getHits()).thenReturn(hits);
+    SearchResponse searchResponse = mock(SearchResponse.class);
+    when(searchResponse.getHits()).thenReturn(searchHits);
+    return searchResponse;
+  }
+
   @Test
   void testSearchFailedShards() {
     Index index = Index.create("index");
@@ -650,4 +744,60 @@ class ClientFacadeTest {
 
     verify(mockAppender).doAppend(matcher(ERROR, "Error closing Elasticsearch client"));
   }
+
+  @Test
+  void testToDocWriteRequestVersionedIndex() throws Exception {
+    Index index = Index.create("entityType_v1", "entityType");
+    Document document =
+        Document.builder().setId("id").setContent(jsonBuilder().startObject().endObject()).build();
+    DocumentAction documentAction =
+        DocumentAction.create(index, document, DocumentAction.Operation.INDEX);
+
+    DocWriteRequest docWriteRequest = clientFacade.toDocWriteRequest(documentAction);
+    assertEquals("entityType_v1", docWriteRequest.index());
+    assertEquals("entityType", docWriteRequest.type());
+    assertEquals("id", docWriteRequest.id());
+  }
+
+  @Test
+  void testToDocWriteRequestVersionedIndexDelete() {
+    Index index = Index.create("entityType_v1", "entityType");
+    Document document = Document.builder().setId("id").build();
+    DocumentAction documentAction =
+        DocumentAction.create(index, document, DocumentAction.Operation.DELETE);
+
+    DocWriteRequest docWriteRequest = clientFacade.toDocWriteRequest(documentAction);
+    assertEquals("entityType_v1", docWriteRequest.index());
+    assertEquals("entityType", docWriteRequest.type());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void testProcessDocumentActionsBulkFailure() {
+    when(client.settings()).thenReturn(Settings.EMPTY);
+    BulkItemResponse failedItem =
+        new BulkItemResponse(
+            0,
+            DocWriteRequest.OpType.DELETE,
+            new BulkItemResponse.Failure(
+                "entityType_v1", "entityType", "id", new ElasticsearchException("failure")));
+    doAnswer(
+            invocation -> {
+              ActionListener<BulkResponse> listener = invocation.getArgument(1);
+              listener.onResponse(new BulkResponse(new BulkItemResponse[] {failedItem}, 1L));
+              return null;
+            })
+        .when(client)
+        .bulk(any(BulkRequest.class), any(ActionListener.class));
+
+    Index index = Index.create("entityType_v1", "entityType");
+    Document document = Document.builder().setId("id").build();
+    Stream<DocumentAction> documentActions =
+        Stream.of(DocumentAction.create(index, document, DocumentAction.Operation.DELETE));
+
+    Exception exception =
+        assertThrows(
+            IndexException.class, () -> clientFacade.processDocumentActions(documentActions));
+    assertThat(exception.getMessage()).containsPattern("Error processing document actions: .*");
+  }
 }
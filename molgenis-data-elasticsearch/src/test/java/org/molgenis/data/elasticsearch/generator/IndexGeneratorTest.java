@@ -0,0 +1,42 @@
+package org.molgenis.data.elasticsearch.generator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.molgenis.data.elasticsearch.generator.model.Index;
+import org.molgenis.data.meta.model.EntityType;
+
+class IndexGeneratorTest {
+  private IndexGenerator indexGenerator;
+  private EntityType entityType;
+
+  @BeforeEach
+  void setUpBeforeMethod() {
+    DocumentIdGenerator documentIdGenerator = mock(DocumentIdGenerator.class);
+    entityType = mock(EntityType.class);
+    when(documentIdGenerator.generateId(entityType)).thenReturn("entityType");
+    indexGenerator = new IndexGenerator(documentIdGenerator);
+  }
+
+  @Test
+  void testCreateIndex() {
+    assertEquals(Index.create("entityType", "entityType"), indexGenerator.createIndex(entityType));
+  }
+
+  @Test
+  void testCreateVersionedIndex() {
+    Index index = indexGenerator.createVersionedIndex(entityType);
+    assertEquals("entityType", index.getType());
+  }
+
+  @Test
+  void testCreateVersionedIndexUnique() {
+    Index index = indexGenerator.createVersionedIndex(entityType);
+    Index otherIndex = indexGenerator.createVersionedIndex(entityType);
+    assertNotEquals(index.getName(), otherIndex.getName());
+  }
+}
@@ -1,6 +1,8 @@
 package org.molgenis.data.elasticsearch.generator;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
 import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
 import static org.elasticsearch.index.query.QueryBuilders.constantScoreQuery;
 import static org.elasticsearch.index.query.QueryBuilders.existsQuery;
@@ -16,6 +18,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static org.molgenis.data.QueryRule.Operator.PERMITTED;
 import static org.molgenis.data.elasticsearch.FieldConstants.DEFAULT_ANALYZER;
 import static org.molgenis.data.elasticsearch.FieldConstants.FIELD_NOT_ANALYZED;
 import static org.molgenis.data.meta.AttributeType.BOOL;
@@ -53,7 +56,9 @@ import org.molgenis.data.AbstractMolgenisSpringTest;
 import org.molgenis.data.DataConverter;
 import org.molgenis.data.Entity;
 import org.molgenis.data.MolgenisQueryException;
+import org.molgenis.data.PermissionFilter;
 import org.molgenis.data.Query;
+import org.molgenis.data.QueryRule;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.AttributeFactory;
 import org.molgenis.data.meta.model.EntityType;
@@ -222,6 +227,15 @@ class QueryGeneratorTest extends AbstractMolgenisSpringTest {
     assertQueryBuilderEquals(query, expectedQuery);
   }
 
+  @Test
+  void generateOneQueryRulePermitted() {
+    PermissionFilter permissionFilter =
+        PermissionFilter.create("entity-entity", 1, singleton("user"), emptySet());
+    Query<Entity> q = new QueryImpl<>(new QueryRule(PERMITTED, permissionFilter));
+    assertThrows(
+        MolgenisQueryException.class, () -> queryGenerator.createQueryBuilder(q, entityType));
+  }
+
   @Test
   void generateOneQueryRuleGreaterEqualInvalidAttribute() {
     String value = "str";
@@ -1,5 +1,7 @@
 package org.molgenis.data.excel;
 
+import static java.util.Collections.singleton;
+
 import javax.annotation.PostConstruct;
 import org.molgenis.data.file.FileRepositoryCollectionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +18,9 @@ public class ExcelDataConfig {
   @PostConstruct
   public void registerExcelRepositorySource() {
     fileRepositoryCollectionFactory.addFileRepositoryCollectionClass(
-        ExcelRepositoryCollection.class, ExcelFileExtensions.getExcel());
+        ExcelRepositoryCollection.class, singleton(ExcelFileExtensions.XLS.toString()));
+    // stream xlsx files instead of loading the workbook in memory
+    fileRepositoryCollectionFactory.addFileRepositoryCollectionClass(
+        XlsxRepositoryCollection.class, singleton(ExcelFileExtensions.XLSX.toString()));
   }
 }
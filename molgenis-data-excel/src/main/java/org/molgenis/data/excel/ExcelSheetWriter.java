@@ -47,6 +47,13 @@ public class ExcelSheetWriter extends AbstractWritable {
       throw new MolgenisDataException(
           "The attribute names are not defined, call writeAttributeNames first");
 
+    if (row >= sheet.getWorkbook().getSpreadsheetVersion().getMaxRows()) {
+      throw new MolgenisDataException(
+          String.format(
+              "Total number of rows exceeds the maximum of %s for sheet '%s', please use .csv instead",
+              sheet.getWorkbook().getSpreadsheetVersion().getMaxRows(), sheet.getSheetName()));
+    }
+
     int i = 0;
     Row poiRow = sheet.createRow(row++);
     for (Attribute attribute : cachedAttributes) {
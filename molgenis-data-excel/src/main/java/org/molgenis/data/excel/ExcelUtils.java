@@ -54,13 +54,7 @@ public class ExcelUtils {
             LocaleUtil.resetUserTimeZone();
           }
         } else {
-          // excel stores integer values as double values
-          // read an integer if the double value equals the
-          // integer value
-          double x = cell.getNumericCellValue();
-          if (x == Math.rint(x) && !Double.isNaN(x) && !Double.isInfinite(x))
-            value = String.valueOf((long) x);
-          else value = String.valueOf(x);
+          value = toNumericValue(cell.getNumericCellValue());
         }
         break;
       case BOOLEAN:
@@ -84,25 +78,9 @@ public class ExcelUtils {
             break;
           case NUMERIC:
             if (DateUtil.isCellDateFormatted(cell)) {
-              try {
-                // Excel dates are LocalDateTime, stored without timezone.
-                // Interpret them as UTC to prevent ambiguous DST overlaps which happen in other
-                // timezones.
-                LocaleUtil.setUserTimeZone(LocaleUtil.TIMEZONE_UTC);
-                Date javaDate = DateUtil.getJavaDate(cellValue.getNumberValue(), false);
-                value = formatUTCDateAsLocalDateTime(javaDate);
-
-              } finally {
-                LocaleUtil.resetUserTimeZone();
-              }
+              value = toDateValue(cellValue.getNumberValue());
             } else {
-              // excel stores integer values as double values
-              // read an integer if the double value equals the
-              // integer value
-              double x = cellValue.getNumberValue();
-              if (x == Math.rint(x) && !Double.isNaN(x) && !Double.isInfinite(x))
-                value = String.valueOf((long) x);
-              else value = String.valueOf(x);
+              value = toNumericValue(cellValue.getNumberValue());
             }
             break;
           case STRING:
@@ -123,6 +101,32 @@ public class ExcelUtils {
     return AbstractCellProcessor.processCell(value, false, cellProcessors);
   }
 
+  /** Converts the value of a date formatted numeric cell to a LocalDateTime string. */
+  static String toDateValue(double excelDate) {
+    try {
+      // Excel dates are LocalDateTime, stored without timezone.
+      // Interpret them as UTC to prevent ambiguous DST overlaps which happen in other
+      // timezones.
+      LocaleUtil.setUserTimeZone(LocaleUtil.TIMEZONE_UTC);
+      Date javaDate = DateUtil.getJavaDate(excelDate, false);
+      return formatUTCDateAsLocalDateTime(javaDate);
+    } finally {
+      LocaleUtil.resetUserTimeZone();
+    }
+  }
+
+  /** Converts the value of a numeric cell to a string. */
+  static String toNumericValue(double x) {
+    // excel stores integer values as double values
+    // read an integer if the double value equals the
+    // integer value
+    if (x == Math.rint(x) && !Double.isNaN(x) && !Double.isInfinite(x)) {
+      return String.valueOf((long) x);
+    } else {
+      return String.valueOf(x);
+    }
+  }
+
   public static void renameSheet(String newSheetname, File file, int index) {
     try (FileInputStream fis = new FileInputStream(file);
         Workbook workbook = WorkbookFactory.create(fis)) {
@@ -136,6 +140,9 @@ public class ExcelUtils {
 
   public static int getNumberOfSheets(File file) {
     if (!isExcelFile(file.getName())) return -1;
+    if (isXlsxFile(file.getName())) {
+      return XlsxRepositoryCollection.getSheetNames(file).size();
+    }
     try (FileInputStream fis = new FileInputStream(file);
         Workbook workbook = WorkbookFactory.create(fis)) {
       return workbook.getNumberOfSheets();
@@ -149,6 +156,11 @@ public class ExcelUtils {
     return ExcelFileExtensions.getExcel().contains(extension);
   }
 
+  static boolean isXlsxFile(String filename) {
+    return FilenameUtils.getExtension(filename)
+        .equalsIgnoreCase(ExcelFileExtensions.XLSX.toString());
+  }
+
   /**
    * Formats parsed Date as LocalDateTime string at zone UTC to express that we don't know the
    * timezone.
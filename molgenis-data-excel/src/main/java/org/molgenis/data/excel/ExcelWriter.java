@@ -13,15 +13,20 @@ import java.util.stream.Collectors;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.molgenis.data.MolgenisDataException;
 import org.molgenis.data.WritableFactory;
+import org.molgenis.data.excel.xlsx.XlsxWriterFactory;
 import org.molgenis.data.file.processor.CellProcessor;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.AttributeFactory;
 import org.molgenis.data.support.AbstractWritable.AttributeWriteMode;
 
-/** Creates new Excel sheets */
+/**
+ * Creates new Excel sheets
+ *
+ * <p>Xlsx sheets are streamed: only a window of rows is kept in memory.
+ */
 public class ExcelWriter implements WritableFactory {
   private final Workbook workbook;
   private final OutputStream os;
@@ -41,7 +46,9 @@ public class ExcelWriter implements WritableFactory {
     this.os = requireNonNull(os);
     this.attrMetaFactory = requireNonNull(attrMetaFactory);
     this.workbook =
-        requireNonNull(format) == FileFormat.XLS ? new HSSFWorkbook() : new XSSFWorkbook();
+        requireNonNull(format) == FileFormat.XLS
+            ? new HSSFWorkbook()
+            : XlsxWriterFactory.createWorkbook();
   }
 
   public ExcelWriter(File file, AttributeFactory attrMetaFactory) throws FileNotFoundException {
@@ -71,6 +78,10 @@ public class ExcelWriter implements WritableFactory {
       workbook.write(os);
     } catch (IOException e) {
       throw new MolgenisDataException("Exception writing to excel file", e);
+    } finally {
+      if (workbook instanceof SXSSFWorkbook) {
+        ((SXSSFWorkbook) workbook).dispose();
+      }
     }
     os.close();
   }
@@ -0,0 +1,332 @@
+package org.molgenis.data.excel;
+
+import static java.lang.String.format;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.molgenis.data.Entity;
+import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.UnknownEntityTypeException;
+import org.molgenis.data.file.processor.AbstractCellProcessor;
+import org.molgenis.data.file.processor.CellProcessor;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.support.ArrayEntity;
+import org.molgenis.util.CloseableIterator;
+import org.xml.sax.SAXException;
+
+/**
+ * Iterates the rows of a xlsx sheet without loading the sheet in memory. The sheet xml is parsed
+ * row by row, the first row contains the headers. Empty rows are skipped.
+ *
+ * <p>Formulas are not evaluated, the value that Excel cached when the workbook was saved is used
+ * instead.
+ */
+class XlsxIterator implements CloseableIterator<Entity> {
+  private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+  private final String sheetName;
+  private final List<CellProcessor> cellProcessors;
+  private final EntityType entityType;
+  private final OPCPackage opcPackage;
+  private final ReadOnlySharedStringsTable sharedStringsTable;
+  private final StylesTable stylesTable;
+  private final InputStream sheetInputStream;
+  private final XMLStreamReader xmlStreamReader;
+  /** column index by column name */
+  private final Map<String, Integer> colNamesMap;
+
+  private Entity next;
+  private boolean getNext = true;
+
+  XlsxIterator(
+      File file, String sheetName, @Nullable @CheckForNull List<CellProcessor> cellProcessors) {
+    this(file, sheetName, cellProcessors, null);
+  }
+
+  XlsxIterator(
+      File file,
+      String sheetName,
+      @Nullable @CheckForNull List<CellProcessor> cellProcessors,
+      @Nullable @CheckForNull EntityType entityType) {
+    this.sheetName = sheetName;
+    this.cellProcessors = cellProcessors;
+    this.entityType = entityType;
+
+    try {
+      opcPackage = OPCPackage.open(file, PackageAccess.READ);
+    } catch (OpenXML4JException e) {
+      throw new MolgenisDataException(format("Exception reading [%s]", file.getName()), e);
+    }
+    try {
+      XSSFReader xssfReader = new XSSFReader(opcPackage);
+      sharedStringsTable = new ReadOnlySharedStringsTable(opcPackage);
+      stylesTable = xssfReader.getStylesTable();
+      sheetInputStream = getSheetInputStream(xssfReader, sheetName);
+      xmlStreamReader = XML_INPUT_FACTORY.createXMLStreamReader(sheetInputStream);
+
+      Map<Integer, String> headerRow = readRow();
+      colNamesMap = headerRow != null ? toColNamesMap(headerRow) : new LinkedHashMap<>();
+    } catch (IOException | OpenXML4JException | SAXException | XMLStreamException e) {
+      close();
+      throw new MolgenisDataException(format("Exception reading [%s]", file.getName()), e);
+    } catch (RuntimeException e) {
+      close();
+      throw e;
+    }
+  }
+
+  private static InputStream getSheetInputStream(XSSFReader xssfReader, String sheetName)
+      throws IOException, OpenXML4JException {
+    XSSFReader.SheetIterator sheetIterator = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+    while (sheetIterator.hasNext()) {
+      InputStream inputStream = sheetIterator.next();
+      if (sheetIterator.getSheetName().equals(sheetName)) {
+        return inputStream;
+      }
+      inputStream.close();
+    }
+    throw new UnknownEntityTypeException(sheetName);
+  }
+
+  Map<String, Integer> getColNamesMap() {
+    return colNamesMap;
+  }
+
+  @Override
+  public boolean hasNext() {
+    boolean hasNext = get() != null;
+    if (!hasNext) {
+      close();
+    }
+    return hasNext;
+  }
+
+  @Override
+  public Entity next() {
+    Entity entity = get();
+    if (entity == null) {
+      throw new NoSuchElementException();
+    }
+    getNext = true;
+    return entity;
+  }
+
+  private Entity get() {
+    if (getNext) {
+      try {
+        next = null;
+        Map<Integer, String> row;
+        while (next == null && (row = readRow()) != null) {
+          next = toEntity(row);
+        }
+        getNext = false;
+      } catch (XMLStreamException e) {
+        throw new MolgenisDataException(
+            format("Exception reading row of sheet [%s]", sheetName), e);
+      }
+    }
+    return next;
+  }
+
+  /** Returns the entity for the given row or null if the row is empty */
+  private Entity toEntity(Map<Integer, String> row) {
+    Entity entity = new ArrayEntity(entityType);
+    boolean isEmpty = true;
+    for (Map.Entry<String, Integer> entry : colNamesMap.entrySet()) {
+      String value =
+          AbstractCellProcessor.processCell(row.get(entry.getValue()), false, cellProcessors);
+      if (StringUtils.isNotEmpty(value)) {
+        isEmpty = false;
+      }
+      entity.set(entry.getKey(), value);
+    }
+    return isEmpty ? null : entity;
+  }
+
+  private Map<String, Integer> toColNamesMap(Map<Integer, String> headerRow) {
+    Map<String, Integer> columnIdx = new LinkedHashMap<>();
+    headerRow.entrySet().stream()
+        .sorted(Map.Entry.comparingByKey())
+        .forEach(
+            entry -> {
+              String header =
+                  AbstractCellProcessor.processCell(entry.getValue(), true, cellProcessors);
+              if (header != null) {
+                if (columnIdx.containsKey(header)) {
+                  throw new MolgenisDataException(
+                      format(
+                          "Duplicate column header '%s' in sheet '%s' not allowed",
+                          header, sheetName));
+                }
+                columnIdx.put(header, entry.getKey());
+              }
+            });
+    return columnIdx;
+  }
+
+  /** Returns the cell values by column index of the next row or null if there are no more rows */
+  private Map<Integer, String> readRow() throws XMLStreamException {
+    while (xmlStreamReader.hasNext()) {
+      if (xmlStreamReader.next() == START_ELEMENT) {
+        switch (xmlStreamReader.getLocalName()) {
+          case "row":
+            return readCells();
+          case "mergeCell":
+            throw new MolgenisDataException(
+                format("Sheet [%s] contains merged regions which is not supported", sheetName));
+          default:
+            break;
+        }
+      }
+    }
+    return null;
+  }
+
+  private Map<Integer, String> readCells() throws XMLStreamException {
+    Map<Integer, String> cells = new HashMap<>();
+    int columnIndex = -1;
+    while (xmlStreamReader.hasNext()) {
+      int event = xmlStreamReader.next();
+      if (event == START_ELEMENT && xmlStreamReader.getLocalName().equals("c")) {
+        String cellReference = xmlStreamReader.getAttributeValue(null, "r");
+        columnIndex =
+            cellReference != null ? new CellReference(cellReference).getCol() : columnIndex + 1;
+        String value = readCell(cellReference);
+        if (value != null) {
+          cells.put(columnIndex, value);
+        }
+      } else if (event == END_ELEMENT && xmlStreamReader.getLocalName().equals("row")) {
+        break;
+      }
+    }
+    return cells;
+  }
+
+  private String readCell(@Nullable @CheckForNull String cellReference) throws XMLStreamException {
+    String cellType = xmlStreamReader.getAttributeValue(null, "t");
+    String cellStyle = xmlStreamReader.getAttributeValue(null, "s");
+
+    String value = null;
+    StringBuilder inlineString = null;
+    boolean isFormula = false;
+    while (xmlStreamReader.hasNext()) {
+      int event = xmlStreamReader.next();
+      if (event == START_ELEMENT) {
+        switch (xmlStreamReader.getLocalName()) {
+          case "v":
+            value = xmlStreamReader.getElementText();
+            break;
+          case "t":
+            if (inlineString == null) {
+              inlineString = new StringBuilder();
+            }
+            inlineString.append(xmlStreamReader.getElementText());
+            break;
+          case "f":
+            xmlStreamReader.getElementText();
+            isFormula = true;
+            break;
+          default:
+            break;
+        }
+      } else if (event == END_ELEMENT && xmlStreamReader.getLocalName().equals("c")) {
+        break;
+      }
+    }
+
+    if (isFormula && value == null) {
+      // formulas are not evaluated, the workbook should contain the calculated value
+      throw new MolgenisDataException(
+          format(
+              "Formula cell [%s] in sheet [%s] has no calculated value, recalculate and save the workbook",
+              cellReference, sheetName));
+    }
+    if (cellType == null) {
+      cellType = "n";
+    }
+    switch (cellType) {
+      case "s":
+        return value != null
+            ? sharedStringsTable.getItemAt(Integer.parseInt(value)).getString()
+            : null;
+      case "inlineStr":
+        return inlineString != null ? inlineString.toString() : null;
+      case "str":
+      case "d":
+        return value;
+      case "b":
+        return value != null ? String.valueOf(value.equals("1")) : null;
+      case "n":
+        return value != null ? toNumericValue(Double.parseDouble(value), cellStyle) : null;
+      default:
+        throw new MolgenisDataException("unsupported cell type: " + cellType);
+    }
+  }
+
+  private String toNumericValue(double value, @Nullable @CheckForNull String cellStyle) {
+    if (cellStyle != null && DateUtil.isValidExcelDate(value)) {
+      XSSFCellStyle style = stylesTable.getStyleAt(Integer.parseInt(cellStyle));
+      if (style != null
+          && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString())) {
+        return ExcelUtils.toDateValue(value);
+      }
+    }
+    return ExcelUtils.toNumericValue(value);
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void close() {
+    if (xmlStreamReader != null) {
+      try {
+        xmlStreamReader.close();
+      } catch (XMLStreamException e) {
+        // ignore
+      }
+    }
+    if (sheetInputStream != null) {
+      try {
+        sheetInputStream.close();
+      } catch (IOException e) {
+        // ignore
+      }
+    }
+    if (opcPackage != null) {
+      opcPackage.revert();
+    }
+  }
+
+  private static XMLInputFactory createXmlInputFactory() {
+    XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+    xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return xmlInputFactory;
+  }
+}
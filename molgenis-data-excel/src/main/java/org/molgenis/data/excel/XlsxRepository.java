@@ -0,0 +1,92 @@
+package org.molgenis.data.excel;
+
+import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.meta.AttributeType.STRING;
+
+import com.google.common.collect.Iterables;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.molgenis.data.Entity;
+import org.molgenis.data.RepositoryCapability;
+import org.molgenis.data.file.processor.CellProcessor;
+import org.molgenis.data.meta.model.AttributeFactory;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.meta.model.EntityTypeFactory;
+import org.molgenis.data.support.AbstractRepository;
+
+/**
+ * Xlsx sheet {@link org.molgenis.data.Repository} implementation that streams the rows of the sheet
+ * instead of loading the workbook in memory.
+ *
+ * <p>It is assumed that the first row of the sheet is the header row.
+ *
+ * <p>All attributes will be of the string type. The cell values are converted to string.
+ */
+public class XlsxRepository extends AbstractRepository {
+  private final File file;
+  private final String sheetName;
+  private final EntityTypeFactory entityTypeFactory;
+  private final AttributeFactory attrMetaFactory;
+
+  /** process cells after reading */
+  private List<CellProcessor> cellProcessors;
+
+  private EntityType entityType;
+
+  public XlsxRepository(
+      File file,
+      String sheetName,
+      EntityTypeFactory entityTypeFactory,
+      AttributeFactory attrMetaFactory,
+      @Nullable @CheckForNull List<CellProcessor> cellProcessors) {
+    this.file = requireNonNull(file);
+    this.sheetName = requireNonNull(sheetName);
+    this.entityTypeFactory = requireNonNull(entityTypeFactory);
+    this.attrMetaFactory = requireNonNull(attrMetaFactory);
+    this.cellProcessors = cellProcessors;
+  }
+
+  @Override
+  public Iterator<Entity> iterator() {
+    return new XlsxIterator(file, sheetName, cellProcessors, getEntityType());
+  }
+
+  public void addCellProcessor(CellProcessor cellProcessor) {
+    if (cellProcessors == null) cellProcessors = new ArrayList<>();
+    cellProcessors.add(cellProcessor);
+  }
+
+  public EntityType getEntityType() {
+    if (entityType == null) {
+      EntityType newEntityType = entityTypeFactory.create(sheetName).setLabel(sheetName);
+
+      XlsxIterator it = new XlsxIterator(file, sheetName, cellProcessors);
+      try {
+        for (String colName : it.getColNamesMap().keySet()) {
+          newEntityType.addAttribute(attrMetaFactory.create().setName(colName).setDataType(STRING));
+        }
+      } finally {
+        it.close();
+      }
+      this.entityType = newEntityType;
+    }
+
+    return entityType;
+  }
+
+  @Override
+  public Set<RepositoryCapability> getCapabilities() {
+    return Collections.emptySet();
+  }
+
+  @Override
+  public long count() {
+    return Iterables.size(this);
+  }
+}
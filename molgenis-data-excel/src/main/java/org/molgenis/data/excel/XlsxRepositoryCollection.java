@@ -0,0 +1,147 @@
+package org.molgenis.data.excel;
+
+import static com.google.common.collect.Sets.immutableEnumSet;
+import static java.lang.String.format;
+import static org.molgenis.data.RepositoryCollectionCapability.CONCURRENTLY_READABLE;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.molgenis.data.Entity;
+import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.Repository;
+import org.molgenis.data.RepositoryCollectionCapability;
+import org.molgenis.data.file.processor.CellProcessor;
+import org.molgenis.data.file.processor.TrimProcessor;
+import org.molgenis.data.file.support.FileRepositoryCollection;
+import org.molgenis.data.meta.model.AttributeFactory;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.meta.model.EntityTypeFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Reads a xlsx file sheet by sheet without loading the workbook in memory.
+ *
+ * <p>A sheet is exposed as a forward-only {@link org.molgenis.data.Repository} with the sheetname
+ * as the Repository name. Use {@link ExcelRepositoryCollection} to read xls files or to write
+ * workbooks.
+ */
+public class XlsxRepositoryCollection extends FileRepositoryCollection {
+  private static final String REPOSITORY_COLLECTION_NAME = "EXCEL";
+
+  private final File file;
+  private final List<String> sheetNames;
+
+  private EntityTypeFactory entityTypeFactory;
+  private AttributeFactory attributeFactory;
+
+  public XlsxRepositoryCollection(File file) {
+    this(file, new TrimProcessor());
+  }
+
+  public XlsxRepositoryCollection(File file, CellProcessor... cellProcessors) {
+    super(ExcelFileExtensions.getExcel(), cellProcessors);
+    this.file = file;
+    this.sheetNames = getSheetNames(file);
+  }
+
+  /** Returns the sheet names of a xlsx file in workbook order */
+  static List<String> getSheetNames(File file) {
+    OPCPackage opcPackage = null;
+    try {
+      opcPackage = OPCPackage.open(file, PackageAccess.READ);
+      List<String> sheetNames = new ArrayList<>();
+      XSSFReader.SheetIterator sheetIterator =
+          (XSSFReader.SheetIterator) new XSSFReader(opcPackage).getSheetsData();
+      while (sheetIterator.hasNext()) {
+        sheetIterator.next().close();
+        sheetNames.add(sheetIterator.getSheetName());
+      }
+      return sheetNames;
+    } catch (IOException | OpenXML4JException e) {
+      throw new MolgenisDataException(format("Exception reading [%s]", file.getName()), e);
+    } finally {
+      // revert instead of close, closing a read-only package logs a warning
+      if (opcPackage != null) {
+        opcPackage.revert();
+      }
+    }
+  }
+
+  @Override
+  public void init() {
+    // no operation
+  }
+
+  @Override
+  public Iterable<String> getEntityTypeIds() {
+    return sheetNames;
+  }
+
+  @Override
+  public Repository<Entity> getRepository(String name) {
+    if (!hasRepository(name)) {
+      return null;
+    }
+    return new XlsxRepository(file, name, entityTypeFactory, attributeFactory, cellProcessors);
+  }
+
+  /** Repositories open their own package of the xlsx file */
+  @Override
+  public Set<RepositoryCollectionCapability> getCapabilities() {
+    return immutableEnumSet(CONCURRENTLY_READABLE);
+  }
+
+  public int getNumberOfSheets() {
+    return sheetNames.size();
+  }
+
+  @Override
+  public String getName() {
+    return REPOSITORY_COLLECTION_NAME;
+  }
+
+  @Override
+  public Iterator<Repository<Entity>> iterator() {
+    return new Iterator<Repository<Entity>>() {
+      Iterator<String> it = getEntityTypeIds().iterator();
+
+      @Override
+      public boolean hasNext() {
+        return it.hasNext();
+      }
+
+      @Override
+      public Repository<Entity> next() {
+        return getRepository(it.next());
+      }
+    };
+  }
+
+  @Override
+  public boolean hasRepository(String name) {
+    return name != null && sheetNames.contains(name);
+  }
+
+  @Override
+  public boolean hasRepository(EntityType entityType) {
+    return hasRepository(entityType.getId());
+  }
+
+  @Autowired
+  public void setEntityTypeFactory(EntityTypeFactory entityTypeFactory) {
+    this.entityTypeFactory = entityTypeFactory;
+  }
+
+  @Autowired
+  public void setAttributeFactory(AttributeFactory attributeFactory) {
+    this.attributeFactory = attributeFactory;
+  }
+}
@@ -11,6 +11,14 @@ public class XlsxWriterFactory {
   private XlsxWriterFactory() {}
 
   public static XlsxWriter create(Path target, TimeZone timeZone) {
-    return new XlsxWriter(target, new SXSSFWorkbook(ROWS_IN_MEMORY), timeZone);
+    return new XlsxWriter(target, createWorkbook(), timeZone);
+  }
+
+  /**
+   * Creates a workbook that keeps a window of rows in memory and flushes older rows to temporary
+   * files. Dispose the workbook after writing it to delete the temporary files.
+   */
+  public static SXSSFWorkbook createWorkbook() {
+    return new SXSSFWorkbook(ROWS_IN_MEMORY);
   }
 }
@@ -1,5 +1,7 @@
 package org.molgenis.data.excel;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -12,6 +14,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.molgenis.data.AbstractMolgenisSpringTest;
 import org.molgenis.data.Entity;
+import org.molgenis.data.MolgenisDataException;
 import org.molgenis.data.file.processor.CellProcessor;
 import org.molgenis.data.meta.model.AttributeFactory;
 import org.molgenis.data.meta.model.EntityType;
@@ -58,6 +61,28 @@ class ExcelSheetWriterTest extends AbstractMolgenisSpringTest {
     verify(processor).process("val2");
   }
 
+  @Test
+  void addTooManyRows() {
+    Entity entity =
+        new DynamicEntity(mock(EntityType.class)) {
+          @Override
+          protected void validateValueType(String attrName, Object value) {
+            // noop
+          }
+        };
+    entity.set("col1", "val1");
+    entity.set("col2", "val2");
+
+    // the header row is the first of 65536 xls rows
+    for (int i = 0; i < 65535; i++) {
+      excelSheetWriter.add(entity);
+    }
+    Exception exception =
+        assertThrows(MolgenisDataException.class, () -> excelSheetWriter.add(entity));
+    assertThat(exception.getMessage())
+        .containsPattern("Total number of rows exceeds the maximum of 65536 for sheet 'sheet'");
+  }
+
   @Test
   void write() throws IOException {
     Entity entity1 =
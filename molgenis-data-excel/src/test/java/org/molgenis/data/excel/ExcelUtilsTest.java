@@ -74,6 +74,12 @@ class ExcelUtilsTest {
     assertEquals(3, getNumberOfSheets(file));
   }
 
+  @Test
+  void getNumberOfSheetsTestXLSX() {
+    File file = ResourceUtils.getFile(getClass(), "/test.xlsx");
+    assertEquals(1, getNumberOfSheets(file));
+  }
+
   @Test
   void getNumberOfSheetsTestCSV() {
     File file = ResourceUtils.getFile(getClass(), "/test.csv");
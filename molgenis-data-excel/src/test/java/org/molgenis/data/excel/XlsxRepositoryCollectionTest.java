@@ -0,0 +1,191 @@
+package org.molgenis.data.excel;
+
+import static java.util.Arrays.asList;
+import static java.util.Calendar.MARCH;
+import static java.util.Collections.singleton;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.molgenis.data.RepositoryCollectionCapability.CONCURRENTLY_READABLE;
+
+import com.google.common.collect.Lists;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.GregorianCalendar;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.StreamSupport;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.molgenis.data.AbstractMolgenisSpringTest;
+import org.molgenis.data.Entity;
+import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.Repository;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.AttributeFactory;
+import org.molgenis.data.meta.model.EntityTypeFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+class XlsxRepositoryCollectionTest extends AbstractMolgenisSpringTest {
+  @Autowired private EntityTypeFactory entityTypeFactory;
+  @Autowired private AttributeFactory attributeFactory;
+
+  private File file;
+  private XlsxRepositoryCollection xlsxRepositoryCollection;
+
+  @BeforeEach
+  void setUpBeforeEach() throws IOException {
+    file = File.createTempFile("unittest_", ".xlsx");
+    try (Workbook workbook = new XSSFWorkbook();
+        OutputStream outputStream = new FileOutputStream(file)) {
+      Sheet sheet = workbook.createSheet("test");
+      Row header = sheet.createRow(0);
+      header.createCell(0).setCellValue(" col1 ");
+      header.createCell(2).setCellValue("col2");
+      header.createCell(3).setCellValue("col3");
+
+      CellStyle dateStyle = workbook.createCellStyle();
+      dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("m/d/yy"));
+
+      Row row1 = sheet.createRow(1);
+      row1.createCell(0).setCellValue(" str1 ");
+      row1.createCell(1).setCellValue("ignored");
+      row1.createCell(2).setCellValue(1.2342151234E10);
+      row1.createCell(3).setCellValue(true);
+      // row 2 is empty
+      sheet.createRow(2).createCell(0).setCellValue(" ");
+      Row row3 = sheet.createRow(3);
+      row3.createCell(0).setCellValue(1.5);
+      row3.createCell(2).setCellValue(LocalDateTime.of(2019, 3, 14, 0, 0).toString());
+      row3.createCell(3).setCellValue(new GregorianCalendar(2019, MARCH, 14, 12, 30));
+      row3.getCell(3).setCellStyle(dateStyle);
+      Row row4 = sheet.createRow(4);
+      row4.createCell(0).setCellFormula("CONCATENATE(\"a\",\"b\")");
+      row4.getCell(0).setCellValue("ab");
+
+      Sheet mergedSheet = workbook.createSheet("merged");
+      mergedSheet.createRow(0).createCell(0).setCellValue("col1");
+      mergedSheet.createRow(1).createCell(0).setCellValue("value");
+      mergedSheet.addMergedRegion(new CellRangeAddress(1, 2, 0, 0));
+
+      workbook.write(outputStream);
+    }
+
+    xlsxRepositoryCollection = new XlsxRepositoryCollection(file);
+    xlsxRepositoryCollection.setEntityTypeFactory(entityTypeFactory);
+    xlsxRepositoryCollection.setAttributeFactory(attributeFactory);
+  }
+
+  @AfterEach
+  void tearDownAfterEach() {
+    //noinspection ResultOfMethodCallIgnored
+    file.delete();
+  }
+
+  @Test
+  void testGetEntityTypeIds() {
+    assertEquals(
+        asList("test", "merged"), Lists.newArrayList(xlsxRepositoryCollection.getEntityTypeIds()));
+  }
+
+  @Test
+  void testGetNumberOfSheets() {
+    assertEquals(2, xlsxRepositoryCollection.getNumberOfSheets());
+  }
+
+  @Test
+  void testGetCapabilities() {
+    assertEquals(singleton(CONCURRENTLY_READABLE), xlsxRepositoryCollection.getCapabilities());
+  }
+
+  @Test
+  void testGetRepositoryNotExists() {
+    assertNull(xlsxRepositoryCollection.getRepository("blaat"));
+  }
+
+  @Test
+  void testGetEntityType() {
+    Repository<Entity> repository = xlsxRepositoryCollection.getRepository("test");
+    assertEquals("test", repository.getName());
+    List<String> attributeNames =
+        StreamSupport.stream(repository.getEntityType().getAtomicAttributes().spliterator(), false)
+            .map(Attribute::getName)
+            .collect(toList());
+    assertEquals(asList("col1", "col2", "col3"), attributeNames);
+  }
+
+  @Test
+  void testIterator() {
+    Repository<Entity> repository = xlsxRepositoryCollection.getRepository("test");
+    Iterator<Entity> it = repository.iterator();
+
+    Entity entity = it.next();
+    assertEquals("str1", entity.getString("col1"));
+    assertEquals("12342151234", entity.getString("col2"));
+    assertEquals("true", entity.getString("col3"));
+
+    entity = it.next();
+    assertEquals("1.5", entity.getString("col1"));
+    assertEquals("2019-03-14T00:00", entity.getString("col2"));
+    assertEquals("2019-03-14T12:30", entity.getString("col3"));
+
+    entity = it.next();
+    assertEquals("ab", entity.getString("col1"));
+    assertNull(entity.getString("col2"));
+
+    assertFalse(it.hasNext());
+    assertThrows(NoSuchElementException.class, it::next);
+  }
+
+  @Test
+  void testCount() {
+    assertEquals(3, xlsxRepositoryCollection.getRepository("test").count());
+  }
+
+  @Test
+  void testIteratorMergedRegions() {
+    Repository<Entity> repository = xlsxRepositoryCollection.getRepository("merged");
+    Iterator<Entity> it = repository.iterator();
+    it.next();
+    assertThrows(MolgenisDataException.class, it::hasNext);
+  }
+
+  @Test
+  void testIteratorFormulaWithoutCalculatedValue() throws IOException {
+    File formulaFile = File.createTempFile("unittest_", ".xlsx");
+    try {
+      try (Workbook workbook = new XSSFWorkbook();
+          OutputStream outputStream = new FileOutputStream(formulaFile)) {
+        Sheet sheet = workbook.createSheet("formula");
+        sheet.createRow(0).createCell(0).setCellValue("col1");
+        sheet.createRow(1).createCell(0).setCellFormula("CONCATENATE(\"a\",\"b\")");
+        workbook.write(outputStream);
+      }
+
+      XlsxRepositoryCollection repositoryCollection = new XlsxRepositoryCollection(formulaFile);
+      repositoryCollection.setEntityTypeFactory(entityTypeFactory);
+      repositoryCollection.setAttributeFactory(attributeFactory);
+      Iterator<Entity> it = repositoryCollection.getRepository("formula").iterator();
+      Exception exception = assertThrows(MolgenisDataException.class, it::hasNext);
+      assertEquals(
+          "Formula cell [A2] in sheet [formula] has no calculated value, recalculate and save the workbook",
+          exception.getMessage());
+    } finally {
+      //noinspection ResultOfMethodCallIgnored
+      formulaFile.delete();
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package org.molgenis.data.i18n;
 
+import java.util.List;
 import java.util.stream.Stream;
 import org.molgenis.data.AbstractRepositoryDecorator;
 import org.molgenis.data.MolgenisDataException;
@@ -50,6 +51,11 @@ class LanguageRepositoryDecorator extends AbstractRepositoryDecorator<Language>
     return delegate().add(languageStream.filter(this::validateLanguage));
   }
 
+  @Override
+  public void upsertBatch(List<Language> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
+
   private boolean validateLanguage(Language language) {
     String languageCode = language.getCode();
     return validateLanguage(languageCode);
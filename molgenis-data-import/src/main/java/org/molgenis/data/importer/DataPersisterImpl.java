@@ -1,5 +1,8 @@
 package org.molgenis.data.importer;
 
+import static com.google.common.collect.Iterators.concat;
+import static com.google.common.collect.Iterators.transform;
+import static com.google.common.collect.Streams.stream;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.function.Function.identity;
@@ -8,13 +11,25 @@ import static org.molgenis.data.meta.model.EntityTypeMetadata.ENTITY_TYPE_META_D
 import static org.molgenis.data.meta.model.EntityTypeMetadata.ID;
 import static org.molgenis.util.stream.MapCollectors.toLinkedMap;
 
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
+import javax.annotation.PreDestroy;
 import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
 import org.molgenis.data.MolgenisDataException;
@@ -26,22 +41,51 @@ import org.molgenis.data.meta.MetaDataService;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.util.UnexpectedEnumException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Persists the entity types and entities of a {@link DataProvider} in one transaction.
+ *
+ * <p>Entity types are persisted per dependency level: a level contains the entity types that only
+ * depend on entity types of earlier levels. The metadata of the entity types of a level is
+ * persisted first. Next, the entities of all entity types of the level are read and converted
+ * concurrently while the entities are written one entity type after another in the import
+ * transaction, so that the import remains all or nothing.
+ */
 @Component
 public class DataPersisterImpl implements DataPersister {
+  private static final int BATCH_SIZE = 1000;
+  /** Maximum number of batches that a reader reads ahead of the writer */
+  private static final int MAX_READ_AHEAD_BATCHES = 2;
+  /** Marks the end of the batches of a reader, compared by identity */
+  private static final List<Entity> END_OF_BATCHES = new ArrayList<>(0);
+
   private final MetaDataService metaDataService;
   private final DataService dataService;
   private final EntityTypeDependencyResolver entityTypeDependencyResolver;
+  // the executor for the entity readers
+  private final ExecutorService executorService;
 
   DataPersisterImpl(
       MetaDataService metaDataService,
       DataService dataService,
-      EntityTypeDependencyResolver entityTypeDependencyResolver) {
+      EntityTypeDependencyResolver entityTypeDependencyResolver,
+      @Value("${import.readers.max:4}") int maxReaders) {
     this.metaDataService = requireNonNull(metaDataService);
     this.dataService = requireNonNull(dataService);
     this.entityTypeDependencyResolver = requireNonNull(entityTypeDependencyResolver);
+    this.executorService =
+        Executors.newFixedThreadPool(
+            maxReaders,
+            new ThreadFactoryBuilder().setNameFormat("molgenis-import-%d").setDaemon(true).build());
+  }
+
+  @PreDestroy
+  void preDestroy() {
+    executorService.shutdownNow();
   }
 
   @Transactional
@@ -80,23 +124,105 @@ public class DataPersisterImpl implements DataPersister {
       DataMode dataMode,
       List<EntityType> topologicalSortedEntityTypes) {
     ImmutableMap.Builder<String, Long> persistResultBuilder = ImmutableMap.builder();
-    topologicalSortedEntityTypes.forEach(
+    getDependencyLevels(topologicalSortedEntityTypes)
+        .forEach(
+            entityTypes ->
+                persistFirstPass(
+                    dataProvider, metadataMode, dataMode, entityTypes, persistResultBuilder));
+    return PersistResult.create(persistResultBuilder.build());
+  }
+
+  /**
+   * Persists the entity types of one dependency level, reading their entities concurrently if the
+   * data provider allows it. The metadata of all entity types of the level is persisted before the
+   * readers start, so that the readers don't read entity types that are being persisted.
+   */
+  private void persistFirstPass(
+      DataProvider dataProvider,
+      MetadataMode metadataMode,
+      DataMode dataMode,
+      List<EntityType> entityTypes,
+      ImmutableMap.Builder<String, Long> persistResultBuilder) {
+    Map<String, EntityType> persistedEntityTypes = new HashMap<>();
+    entityTypes.forEach(
         entityType -> {
           EntityType persistedEntityType = persistEntityTypeFirstPass(entityType, metadataMode);
-          if (dataProvider.hasEntities(entityType)) {
-            if (entityType.isAbstract()) {
-              throw new MolgenisDataException(
-                  format(
-                      "Abstract entity type '%s' with id '%s' cannot contain entities",
-                      entityType.getLabel(), entityType.getId()));
-            }
-            Stream<Entity> entities = dataProvider.getEntities(entityType);
+          if (entityType.isAbstract() && dataProvider.hasEntities(entityType)) {
+            throw new MolgenisDataException(
+                format(
+                    "Abstract entity type '%s' with id '%s' cannot contain entities",
+                    entityType.getLabel(), entityType.getId()));
+          }
+          persistedEntityTypes.put(entityType.getId(), persistedEntityType);
+        });
+
+    List<EntityType> entityTypesWithEntities =
+        entityTypes.stream().filter(dataProvider::hasEntities).collect(toList());
+    boolean concurrentReads = dataProvider.isConcurrentlyReadable();
+    Map<String, EntityReader> entityReaders = new HashMap<>();
+    try {
+      if (concurrentReads) {
+        entityTypesWithEntities.forEach(
+            entityType -> {
+              EntityReader entityReader = new EntityReader(dataProvider, entityType);
+              entityReader.start(executorService);
+              entityReaders.put(entityType.getId(), entityReader);
+            });
+      }
+
+      entityTypesWithEntities.forEach(
+          entityType -> {
+            EntityType persistedEntityType = persistedEntityTypes.get(entityType.getId());
+            Stream<Entity> entities =
+                concurrentReads
+                    ? entityReaders.get(entityType.getId()).getEntities()
+                    : dataProvider.getEntities(entityType);
             long nrPersistedEntities =
                 persistEntitiesFirstPass(persistedEntityType, entities, dataMode);
             persistResultBuilder.put(entityType.getId(), nrPersistedEntities);
+          });
+    } finally {
+      entityReaders.values().forEach(EntityReader::stop);
+    }
+  }
+
+  /**
+   * Groups topological sorted entity types in dependency levels. Entity types of a level only
+   * depend on entity types of earlier levels or on entity types that are not imported.
+   */
+  private static List<List<EntityType>> getDependencyLevels(
+      List<EntityType> topologicalSortedEntityTypes) {
+    Map<String, Integer> levels = new HashMap<>();
+    List<List<EntityType>> dependencyLevels = new ArrayList<>();
+    topologicalSortedEntityTypes.forEach(
+        entityType -> {
+          int level =
+              getDependencies(entityType)
+                  .map(levels::get)
+                  .filter(Objects::nonNull)
+                  .mapToInt(dependencyLevel -> dependencyLevel + 1)
+                  .max()
+                  .orElse(0);
+          levels.put(entityType.getId(), level);
+          if (level == dependencyLevels.size()) {
+            dependencyLevels.add(new ArrayList<>());
           }
+          dependencyLevels.get(level).add(entityType);
         });
-    return PersistResult.create(persistResultBuilder.build());
+    return dependencyLevels;
+  }
+
+  /** Returns the identifiers of the entity types that the given entity type depends on */
+  private static Stream<String> getDependencies(EntityType entityType) {
+    Stream<String> refEntityTypeIds =
+        stream(entityType.getOwnAllAttributes())
+            .filter(attribute -> attribute.hasRefEntity() && !attribute.isMappedBy())
+            .map(attribute -> attribute.getRefEntity().getId())
+            .filter(refEntityTypeId -> !refEntityTypeId.equals(entityType.getId()));
+    EntityType extendsEntityType = entityType.getExtends();
+    return extendsEntityType != null
+        ? Stream.concat(refEntityTypeIds, Stream.of(extendsEntityType.getId()))
+        : refEntityTypeIds;
   }
 
   private void persistSecondPass(
@@ -194,7 +320,7 @@ public class DataPersisterImpl implements DataPersister {
   private void upsertEntitiesFirstPass(EntityType entityType, Stream<Entity> entities) {
     String entityTypeId = entityType.getId();
     Repository<Entity> repository = dataService.getRepository(entityTypeId);
-    Iterators.partition(entities.iterator(), 1000).forEachRemaining(repository::upsertBatch);
+    Iterators.partition(entities.iterator(), BATCH_SIZE).forEachRemaining(repository::upsertBatch);
   }
 
   private void persistEntitiesSecondPass(EntityType entityType, Stream<Entity> entities) {
@@ -282,4 +408,76 @@ public class DataPersisterImpl implements DataPersister {
   private List<EntityType> getTopologicalSortedEntityTypes(Stream<EntityType> entityTypeStream) {
     return entityTypeDependencyResolver.resolve(entityTypeStream.collect(toList()));
   }
+
+  /**
+   * Reads the entities of an entity type in batches on another thread. The reader blocks when the
+   * writer falls {@link #MAX_READ_AHEAD_BATCHES} batches behind.
+   */
+  private static class EntityReader implements Runnable {
+    private final DataProvider dataProvider;
+    private final EntityType entityType;
+    private final BlockingQueue<List<Entity>> batches;
+    private volatile RuntimeException exception;
+    private Future<?> future;
+
+    EntityReader(DataProvider dataProvider, EntityType entityType) {
+      this.dataProvider = requireNonNull(dataProvider);
+      this.entityType = requireNonNull(entityType);
+      this.batches = new ArrayBlockingQueue<>(MAX_READ_AHEAD_BATCHES);
+    }
+
+    void start(ExecutorService executorService) {
+      future = executorService.submit(new DelegatingSecurityContextRunnable(this));
+    }
+
+    void stop() {
+      future.cancel(true);
+    }
+
+    @Override
+    public void run() {
+      try {
+        try (Stream<Entity> entities = dataProvider.getEntities(entityType)) {
+          Iterator<List<Entity>> it = Iterators.partition(entities.iterator(), BATCH_SIZE);
+          while (it.hasNext()) {
+            batches.put(it.next());
+          }
+        } catch (RuntimeException e) {
+          exception = e;
+        }
+        batches.put(END_OF_BATCHES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    /** Returns the entities that were read, rethrows the exception of the reader if it failed */
+    Stream<Entity> getEntities() {
+      Iterator<List<Entity>> batchIterator =
+          new AbstractIterator<List<Entity>>() {
+            @Override
+            protected List<Entity> computeNext() {
+              List<Entity> batch = takeBatch();
+              if (batch == END_OF_BATCHES) {
+                if (exception != null) {
+                  throw exception;
+                }
+                return endOfData();
+              }
+              return batch;
+            }
+          };
+      return stream(concat(transform(batchIterator, List::iterator)));
+    }
+
+    private List<Entity> takeBatch() {
+      try {
+        return batches.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new MolgenisDataException(
+            format("Interrupted reading entities of entity type '%s'", entityType.getId()), e);
+      }
+    }
+  }
 }
@@ -18,4 +18,7 @@ public interface DataProvider {
 
   /** Returns data for the given metadata. */
   Stream<Entity> getEntities(EntityType entityType);
+
+  /** Returns whether data for different metadata can be read concurrently. */
+  boolean isConcurrentlyReadable();
 }
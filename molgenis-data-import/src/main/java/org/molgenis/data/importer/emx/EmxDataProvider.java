@@ -4,6 +4,7 @@ import static com.google.common.collect.Streams.stream;
 import static java.util.Collections.emptyList;
 import static java.util.Objects.requireNonNull;
 import static org.molgenis.data.EntityManager.CreationMode.POPULATE;
+import static org.molgenis.data.RepositoryCollectionCapability.CONCURRENTLY_READABLE;
 import static org.molgenis.data.meta.model.Package.PACKAGE_SEPARATOR;
 
 import java.util.ArrayList;
@@ -74,6 +75,11 @@ class EmxDataProvider implements DataProvider {
     return stream(repository).map(sourceEntity -> toEntity(entityType, sourceEntity));
   }
 
+  @Override
+  public boolean isConcurrentlyReadable() {
+    return job.getSource().getCapabilities().contains(CONCURRENTLY_READABLE);
+  }
+
   /**
    * Create an entity from the EMX entity
    *
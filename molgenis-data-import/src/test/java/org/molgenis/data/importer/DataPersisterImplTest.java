@@ -2,9 +2,12 @@ package org.molgenis.data.importer;
 
 import static com.google.common.collect.ImmutableMap.of;
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.RETURNS_SELF;
 import static org.mockito.Mockito.any;
@@ -15,12 +18,17 @@ import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.molgenis.data.importer.PersistResult.create;
 import static org.molgenis.data.meta.model.EntityTypeMetadata.ENTITY_TYPE_META_DATA;
 
 import com.google.common.collect.Sets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,6 +46,7 @@ import org.molgenis.data.importer.DataPersister.MetadataMode;
 import org.molgenis.data.meta.EntityTypeDependencyResolver;
 import org.molgenis.data.meta.EntityTypeWithoutMappedByAttributes;
 import org.molgenis.data.meta.MetaDataService;
+import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.meta.model.EntityTypeMetadata;
 import org.molgenis.test.AbstractMockitoTest;
@@ -60,7 +69,7 @@ class DataPersisterImplTest extends AbstractMockitoTest {
   void setUpBeforeMethod() {
     dataService = mock(DataService.class);
     dataPersisterImpl =
-        new DataPersisterImpl(metaDataService, dataService, entityTypeDependencyResolver);
+        new DataPersisterImpl(metaDataService, dataService, entityTypeDependencyResolver, 2);
 
     String entityTypeId0 = "entityTypeId0";
     entityType0 = mock(EntityType.class);
@@ -119,7 +128,7 @@ class DataPersisterImplTest extends AbstractMockitoTest {
 
   @Test
   void testGenericDataPersisterImpl() {
-    assertThrows(NullPointerException.class, () -> new DataPersisterImpl(null, null, null));
+    assertThrows(NullPointerException.class, () -> new DataPersisterImpl(null, null, null, 2));
   }
 
   @SuppressWarnings("unchecked")
@@ -218,9 +227,9 @@ class DataPersisterImplTest extends AbstractMockitoTest {
     InOrder inOrder = inOrder(metaDataService, dataService);
     inOrder.verify(metaDataService).addEntityType(entityType2);
     inOrder.verify(metaDataService).addEntityType(entityType1);
+    inOrder.verify(metaDataService).addEntityType(entityType0);
     // stream consumed, cannot verify content
     inOrder.verify(dataService).add(eq(entityType1.getId()), any(Stream.class));
-    inOrder.verify(metaDataService).addEntityType(entityType0);
     // stream consumed, cannot verify content
     inOrder.verify(dataService).add(eq(entityType0.getId()), any(Stream.class));
 
@@ -239,9 +248,9 @@ class DataPersisterImplTest extends AbstractMockitoTest {
     InOrder inOrder = inOrder(metaDataService, dataService);
     inOrder.verify(metaDataService).addEntityType(entityType2);
     inOrder.verify(metaDataService).addEntityType(entityType1);
+    inOrder.verify(metaDataService).addEntityType(any(EntityTypeWithoutMappedByAttributes.class));
     // stream consumed, cannot verify content
     inOrder.verify(dataService).add(eq(entityType1.getId()), any(Stream.class));
-    inOrder.verify(metaDataService).addEntityType(any(EntityTypeWithoutMappedByAttributes.class));
     // stream consumed, cannot verify content
     inOrder.verify(dataService).add(eq(entityType0.getId()), any(Stream.class));
     inOrder.verify(metaDataService).updateEntityType(entityType0);
@@ -280,8 +289,8 @@ class DataPersisterImplTest extends AbstractMockitoTest {
     InOrder inOrder = inOrder(metaDataService, dataService);
     inOrder.verify(metaDataService).updateEntityType(entityType2);
     inOrder.verify(metaDataService).updateEntityType(entityType1);
-    inOrder.verify(dataService).add(eq(entityType1.getId()), any(Stream.class));
     inOrder.verify(metaDataService).updateEntityType(entityType0);
+    inOrder.verify(dataService).add(eq(entityType1.getId()), any(Stream.class));
     inOrder.verify(dataService).add(eq(entityType0.getId()), any(Stream.class));
 
     // verifyNoMoreInteractions on dataService not possible due to data service reads
@@ -322,11 +331,136 @@ class DataPersisterImplTest extends AbstractMockitoTest {
     InOrder inOrder = inOrder(metaDataService, dataService);
     inOrder.verify(metaDataService).updateEntityType(entityType2);
     inOrder.verify(metaDataService).updateEntityType(entityType1);
-    inOrder.verify(dataService).add(eq(entityType1.getId()), any(Stream.class));
     inOrder.verify(metaDataService).addEntityType(entityType0);
+    inOrder.verify(dataService).add(eq(entityType1.getId()), any(Stream.class));
     inOrder.verify(dataService).add(eq(entityType0.getId()), any(Stream.class));
 
     // verifyNoMoreInteractions on dataService not possible due to data service reads
     verifyNoMoreInteractions(metaDataService);
   }
+
+  @Test
+  void testPersistReadsEntitiesOfDependencyLevelConcurrently() {
+    when(dataProvider.isConcurrentlyReadable()).thenReturn(true);
+    CountDownLatch latch = new CountDownLatch(1);
+    Entity entity0 = mock(Entity.class);
+    Entity entity1 = mock(Entity.class);
+    // entities of entityType1 can only be read after the reader of entityType0 started
+    when(dataProvider.getEntities(entityType1))
+        .thenReturn(Stream.of(entity1).filter(entity -> await(latch)));
+    when(dataProvider.getEntities(entityType0))
+        .thenAnswer(
+            invocation -> {
+              latch.countDown();
+              return Stream.of(entity0);
+            });
+
+    PersistResult persistResult =
+        dataPersisterImpl.persist(dataProvider, MetadataMode.NONE, DataMode.ADD);
+    assertEquals(create(of(entityType0.getId(), 1L, entityType1.getId(), 1L)), persistResult);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void testPersistReadsEntitiesOfDependencyLevelSequentially() {
+    PersistResult persistResult =
+        dataPersisterImpl.persist(dataProvider, MetadataMode.NONE, DataMode.ADD);
+    assertEquals(create(of(entityType0.getId(), 2L, entityType1.getId(), 3L)), persistResult);
+
+    // entities of entityType0 are read after the entities of entityType1 were written
+    InOrder inOrder = inOrder(dataService, dataProvider);
+    inOrder.verify(dataService).add(eq(entityType1.getId()), any(Stream.class));
+    inOrder.verify(dataProvider).getEntities(entityType0);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void testPersistMetaUpsertPersistsMetadataOfDependencyLevelBeforeReading() {
+    // more entity types with entities than readers, some of them are added and some updated
+    EntityType entityType3 = mock(EntityType.class);
+    when(entityType3.getId()).thenReturn("entityTypeId3");
+    when(dataProvider.getEntityTypes())
+        .thenReturn(Stream.of(entityType0, entityType1, entityType2, entityType3));
+    when(entityTypeDependencyResolver.resolve(
+            asList(entityType0, entityType1, entityType2, entityType3)))
+        .thenReturn(asList(entityType3, entityType2, entityType1, entityType0));
+    when(dataProvider.hasEntities(entityType3)).thenReturn(true);
+
+    EntityType existingEntityType1 = mock(EntityType.class);
+    when(dataService.findOneById(ENTITY_TYPE_META_DATA, entityType1.getId(), EntityType.class))
+        .thenReturn(existingEntityType1);
+    EntityType existingEntityType3 = mock(EntityType.class);
+    when(dataService.findOneById(ENTITY_TYPE_META_DATA, entityType3.getId(), EntityType.class))
+        .thenReturn(existingEntityType3);
+    when(dataService.query(ENTITY_TYPE_META_DATA, EntityType.class))
+        .thenReturn(mock(Query.class, RETURNS_SELF));
+
+    AtomicInteger nrPersistedEntityTypes = new AtomicInteger();
+    doAnswer(invocation -> nrPersistedEntityTypes.incrementAndGet())
+        .when(metaDataService)
+        .addEntityType(any(EntityType.class));
+    doAnswer(invocation -> nrPersistedEntityTypes.incrementAndGet())
+        .when(metaDataService)
+        .updateEntityType(any(EntityType.class));
+    List<Integer> nrPersistedEntityTypesOnRead = new CopyOnWriteArrayList<>();
+    when(dataProvider.getEntities(any(EntityType.class)))
+        .thenAnswer(
+            invocation -> {
+              nrPersistedEntityTypesOnRead.add(nrPersistedEntityTypes.get());
+              return Stream.of(mock(Entity.class));
+            });
+
+    PersistResult persistResult =
+        dataPersisterImpl.persist(dataProvider, MetadataMode.UPSERT, DataMode.ADD);
+    assertEquals(
+        create(of(entityType3.getId(), 1L, entityType1.getId(), 1L, entityType0.getId(), 1L)),
+        persistResult);
+
+    verify(metaDataService).updateEntityType(entityType3);
+    verify(metaDataService).addEntityType(entityType2);
+    verify(metaDataService).updateEntityType(entityType1);
+    verify(metaDataService).addEntityType(entityType0);
+    // the metadata of all entity types was persisted before the first reader started, the second
+    // pass reads the entities again
+    assertEquals(asList(4, 4, 4, 4, 4, 4), nrPersistedEntityTypesOnRead);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void testPersistDependencyLevels() {
+    Attribute refAttribute = mock(Attribute.class);
+    when(refAttribute.hasRefEntity()).thenReturn(true);
+    when(refAttribute.getRefEntity()).thenReturn(entityType1);
+    when(entityType0.getOwnAllAttributes()).thenReturn(singletonList(refAttribute));
+
+    PersistResult persistResult =
+        dataPersisterImpl.persist(dataProvider, MetadataMode.ADD, DataMode.ADD);
+    assertEquals(create(of(entityType0.getId(), 2L, entityType1.getId(), 3L)), persistResult);
+
+    // entities of entityType0 are read after the entities of entityType1 were written
+    InOrder inOrder = inOrder(dataService, dataProvider);
+    inOrder.verify(dataService).add(eq(entityType1.getId()), any(Stream.class));
+    inOrder.verify(dataProvider).getEntities(entityType0);
+  }
+
+  @Test
+  void testPersistReadException() {
+    MolgenisDataException readException = new MolgenisDataException("read error");
+    when(dataProvider.getEntities(entityType1)).thenThrow(readException);
+
+    Exception exception =
+        assertThrows(
+            MolgenisDataException.class,
+            () -> dataPersisterImpl.persist(dataProvider, MetadataMode.NONE, DataMode.ADD));
+    assertSame(readException, exception);
+  }
+
+  private static boolean await(CountDownLatch latch) {
+    try {
+      return latch.await(10, SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
 }
@@ -1,6 +1,8 @@
 package org.molgenis.data.importer.emx;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
 import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -9,6 +11,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static org.molgenis.data.RepositoryCollectionCapability.CONCURRENTLY_READABLE;
 
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
@@ -75,6 +78,24 @@ class EmxDataProviderTest extends AbstractMockitoTest {
     assertFalse(emxDataProvider.hasEntities(entityType));
   }
 
+  @Test
+  void testIsConcurrentlyReadableTrue() {
+    RepositoryCollection repositoryCollection = mock(RepositoryCollection.class);
+    when(repositoryCollection.getCapabilities()).thenReturn(singleton(CONCURRENTLY_READABLE));
+    when(emxImportJob.getSource()).thenReturn(repositoryCollection);
+
+    assertTrue(emxDataProvider.isConcurrentlyReadable());
+  }
+
+  @Test
+  void testIsConcurrentlyReadableFalse() {
+    RepositoryCollection repositoryCollection = mock(RepositoryCollection.class);
+    when(repositoryCollection.getCapabilities()).thenReturn(emptySet());
+    when(emxImportJob.getSource()).thenReturn(repositoryCollection);
+
+    assertFalse(emxDataProvider.isConcurrentlyReadable());
+  }
+
   @Test
   void testHasEntitiesExistingPackageFalse() {
     String entityTypeId = "test_EntityTypeId";
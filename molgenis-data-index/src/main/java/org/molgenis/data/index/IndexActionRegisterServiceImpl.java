@@ -1,14 +1,11 @@
 package org.molgenis.data.index;
 
 import static com.google.common.collect.Lists.newArrayList;
-import static com.google.common.collect.Multimaps.synchronizedSetMultimap;
 import static com.google.common.collect.Streams.mapWithIndex;
 import static java.util.Collections.emptyList;
-import static java.util.Collections.emptySet;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
-import static org.molgenis.data.index.Impact.createSingleEntityImpact;
 import static org.molgenis.data.index.IndexDependencyModel.ENTITY_TYPE_FETCH;
 import static org.molgenis.data.index.meta.IndexActionGroupMetadata.INDEX_ACTION_GROUP;
 import static org.molgenis.data.index.meta.IndexActionMetadata.INDEX_ACTION;
@@ -18,11 +15,8 @@ import static org.molgenis.data.meta.model.AttributeMetadata.REF_ENTITY_TYPE;
 import static org.molgenis.data.meta.model.EntityTypeMetadata.ENTITY_TYPE_META_DATA;
 import static org.molgenis.data.transaction.TransactionConstants.TRANSACTION_ID_RESOURCE_NAME;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
 import org.molgenis.data.DataService;
@@ -38,6 +32,7 @@ import org.molgenis.data.transaction.TransactionInformation;
 import org.molgenis.security.core.runas.RunAsSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
@@ -45,21 +40,25 @@ import org.springframework.transaction.support.TransactionSynchronizationManager
 /**
  * Registers changes made to an indexed repository that need to be fixed by indexing the relevant
  * data.
+ *
+ * <p>The changes are buffered per transaction in a resource bound to the transaction, so concurrent
+ * transactions do not contend. Once a transaction changes more entities of an entity type than the
+ * configured collapse threshold, the changes of that entity type are registered as a change to the
+ * entire repository.
  */
 @Component
 public class IndexActionRegisterServiceImpl
     implements TransactionInformation, IndexActionRegisterService {
   private static final Logger LOG = LoggerFactory.getLogger(IndexActionRegisterServiceImpl.class);
-  private static final int LOG_EVERY = 1000;
   private static final int ENTITY_FETCH_PAGE_SIZE = 1000;
-
-  private final SetMultimap<String, Impact> changesPerTransaction =
-      synchronizedSetMultimap(HashMultimap.create());
+  private static final String TRANSACTION_IMPACTS_RESOURCE_NAME = "indexTransactionImpacts";
+  private static final TransactionImpacts NO_IMPACTS = new TransactionImpacts("", 0);
 
   private final DataService dataService;
   private final IndexActionFactory indexActionFactory;
   private final IndexActionGroupFactory indexActionGroupFactory;
   private final IndexingStrategy indexingStrategy;
+  private final int collapseThreshold;
 
   private final Set<String> excludedEntities = Sets.newConcurrentHashSet();
 
@@ -67,11 +66,13 @@ public class IndexActionRegisterServiceImpl
       DataService dataService,
       IndexActionFactory indexActionFactory,
       IndexActionGroupFactory indexActionGroupFactory,
-      IndexingStrategy indexingStrategy) {
+      IndexingStrategy indexingStrategy,
+      @Value("${indexing.collapse.threshold:10000}") int collapseThreshold) {
     this.dataService = requireNonNull(dataService);
     this.indexActionFactory = requireNonNull(indexActionFactory);
     this.indexActionGroupFactory = requireNonNull(indexActionGroupFactory);
     this.indexingStrategy = requireNonNull(indexingStrategy);
+    this.collapseThreshold = collapseThreshold;
 
     addExcludedEntity(INDEX_ACTION_GROUP);
     addExcludedEntity(INDEX_ACTION);
@@ -84,23 +85,12 @@ public class IndexActionRegisterServiceImpl
 
   @Transactional
   @Override
-  public synchronized void register(EntityType entityType, Object entityId) {
+  public void register(EntityType entityType, Object entityId) {
     String transactionId =
         (String) TransactionSynchronizationManager.getResource(TRANSACTION_ID_RESOURCE_NAME);
     if (transactionId != null) {
-      Impact impact = createSingleEntityImpact(entityType.getId(), entityId);
-      LOG.debug("register({})", impact);
-
-      final boolean newlyRegistered = changesPerTransaction.put(transactionId, impact);
-      if (newlyRegistered && LOG.isWarnEnabled()) {
-        final int size = changesPerTransaction.get(transactionId).size();
-        if (size >= LOG_EVERY && size % LOG_EVERY == 0) {
-          LOG.warn(
-              "Transaction {} has caused {} IndexActions to be created. Consider streaming your data manipulations.",
-              transactionId,
-              size);
-        }
-      }
+      LOG.debug("register({}, {})", entityType.getId(), entityId);
+      getOrCreateTransactionImpacts(transactionId).add(entityType.getId(), entityId);
     } else {
       LOG.error(
           "Transaction id is unknown, register of entityFullName [{}], entityId [{}]",
@@ -112,14 +102,13 @@ public class IndexActionRegisterServiceImpl
   @Override
   @RunAsSystem
   public void storeIndexActions(String transactionId) {
-    Set<Impact> changes = getChangesForCurrentTransaction();
-    if (changes.isEmpty()) {
-      return;
-    }
-    if (changes.stream().allMatch(impact -> excludedEntities.contains(impact.getEntityTypeId()))) {
+    TransactionImpacts transactionImpacts = getTransactionImpacts();
+    if (transactionImpacts.isEmpty() || transactionImpacts.isOnlyImpacting(excludedEntities)) {
       return;
     }
 
+    Set<Impact> changes = transactionImpacts.getImpacts();
+
     IndexActionGroup indexActionGroup = indexActionGroupFactory.create(transactionId);
     IndexDependencyModel dependencyModel = createIndexDependencyModel(changes);
     Stream<Impact> impactStream =
@@ -188,58 +177,61 @@ public class IndexActionRegisterServiceImpl
   @Override
   public boolean forgetIndexActions(String transactionId) {
     LOG.debug("Forget index actions for transaction {}", transactionId);
-    return !changesPerTransaction.removeAll(transactionId).stream()
-        .map(Impact::getEntityTypeId)
-        .allMatch(excludedEntities::contains);
+    TransactionImpacts transactionImpacts =
+        (TransactionImpacts)
+            TransactionSynchronizationManager.unbindResourceIfPossible(
+                TRANSACTION_IMPACTS_RESOURCE_NAME);
+    return transactionImpacts != null && !transactionImpacts.isOnlyImpacting(excludedEntities);
   }
 
-  private Set<Impact> getChangesForCurrentTransaction() {
-    String transactionId =
-        (String) TransactionSynchronizationManager.getResource(TRANSACTION_ID_RESOURCE_NAME);
-    return Optional.of(changesPerTransaction.get(transactionId)).orElse(emptySet());
+  private TransactionImpacts getOrCreateTransactionImpacts(String transactionId) {
+    TransactionImpacts transactionImpacts =
+        (TransactionImpacts)
+            TransactionSynchronizationManager.getResource(TRANSACTION_IMPACTS_RESOURCE_NAME);
+    if (transactionImpacts == null) {
+      transactionImpacts = new TransactionImpacts(transactionId, collapseThreshold);
+      TransactionSynchronizationManager.bindResource(
+          TRANSACTION_IMPACTS_RESOURCE_NAME, transactionImpacts);
+    }
+    return transactionImpacts;
+  }
+
+  private TransactionImpacts getTransactionImpacts() {
+    TransactionImpacts transactionImpacts =
+        (TransactionImpacts)
+            TransactionSynchronizationManager.getResource(TRANSACTION_IMPACTS_RESOURCE_NAME);
+    return transactionImpacts != null ? transactionImpacts : NO_IMPACTS;
   }
 
   /* TransactionInformation implementation */
 
   @Override
   public boolean isEntityDirty(EntityKey entityKey) {
-    return getChangesForCurrentTransaction().stream()
-        .filter(Impact::isSingleEntity)
-        .map(Impact::toEntityKey)
-        .anyMatch(entityKey::equals);
+    return getTransactionImpacts().isEntityDirty(entityKey);
   }
 
   @Override
   public boolean isEntireRepositoryDirty(EntityType entityType) {
-    return getChangesForCurrentTransaction().stream()
-        .filter(Impact::isWholeRepository)
-        .map(Impact::getEntityTypeId)
-        .anyMatch(entityType.getId()::equals);
+    return getTransactionImpacts().isEntireRepositoryDirty(entityType.getId());
   }
 
   @Override
   public boolean isRepositoryCompletelyClean(EntityType entityType) {
-    return !getDirtyRepositories().contains(entityType.getId());
+    return !getTransactionImpacts().isRepositoryDirty(entityType.getId());
   }
 
   @Override
   public Set<EntityKey> getDirtyEntities() {
-    return getChangesForCurrentTransaction().stream()
-        .filter(Impact::isSingleEntity)
-        .map(Impact::toEntityKey)
-        .collect(toSet());
+    return getTransactionImpacts().getDirtyEntities();
   }
 
   @Override
   public Set<String> getEntirelyDirtyRepositories() {
-    return getChangesForCurrentTransaction().stream()
-        .filter(Impact::isWholeRepository)
-        .map(Impact::getEntityTypeId)
-        .collect(toSet());
+    return getTransactionImpacts().getEntirelyDirtyRepositories();
   }
 
   @Override
   public Set<String> getDirtyRepositories() {
-    return getChangesForCurrentTransaction().stream().map(Impact::getEntityTypeId).collect(toSet());
+    return getTransactionImpacts().getDirtyRepositories();
   }
 }
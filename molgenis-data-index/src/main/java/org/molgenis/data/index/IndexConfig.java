@@ -24,6 +24,7 @@ import org.molgenis.jobs.JobExecutor;
 import org.molgenis.jobs.JobFactory;
 import org.molgenis.jobs.model.JobExecutionMetaData;
 import org.molgenis.jobs.model.JobPackage;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -52,6 +53,9 @@ public class IndexConfig {
   private final EntityTypeFactory entityTypeFactory;
   private final JobExecutor jobExecutor;
 
+  @Value("${index.jobs.max.running:4}")
+  private int maxRunningIndexJobs;
+
   public IndexConfig(
       IndexActionRegisterService indexActionRegisterService,
       TransactionManager transactionManager,
@@ -84,7 +88,8 @@ public class IndexConfig {
 
   @Bean
   public IndexJobScheduler indexJobScheduler() {
-    return new IndexJobSchedulerImpl(dataService, indexJobExecutionFactory, jobExecutor);
+    return new IndexJobSchedulerImpl(
+        dataService, indexJobExecutionFactory, jobExecutor, maxRunningIndexJobs);
   }
 
   @Bean
@@ -1,24 +1,36 @@
 package org.molgenis.data.index;
 
+import static com.google.common.collect.Iterators.partition;
+import static com.google.common.collect.Streams.stream;
 import static java.lang.String.format;
 import static java.util.Collections.unmodifiableSet;
 import static java.util.Objects.requireNonNull;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+import static org.molgenis.data.QueryRule.Operator.PERMITTED;
 import static org.molgenis.data.QueryUtils.containsAnyOperator;
 import static org.molgenis.data.QueryUtils.containsComputedAttribute;
 import static org.molgenis.data.QueryUtils.containsNestedQueryRuleField;
+import static org.molgenis.data.QueryUtils.containsOperator;
 import static org.molgenis.data.RepositoryCapability.AGGREGATEABLE;
 import static org.molgenis.data.RepositoryCapability.QUERYABLE;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 import org.molgenis.data.AbstractRepositoryDecorator;
 import org.molgenis.data.Entity;
+import org.molgenis.data.Fetch;
 import org.molgenis.data.MolgenisDataException;
 import org.molgenis.data.Query;
+import org.molgenis.data.QueryRule;
 import org.molgenis.data.QueryRule.Operator;
 import org.molgenis.data.Repository;
 import org.molgenis.data.RepositoryCapability;
@@ -26,6 +38,7 @@ import org.molgenis.data.aggregation.AggregateQuery;
 import org.molgenis.data.aggregation.AggregateResult;
 import org.molgenis.data.index.exception.UnknownIndexException;
 import org.molgenis.data.index.job.IndexJobScheduler;
+import org.molgenis.data.support.QueryImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,6 +50,7 @@ class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity> {
   private static final Logger LOG = LoggerFactory.getLogger(IndexedRepositoryDecorator.class);
   private static final String INDEX_REPOSITORY = "Index Repository";
   private static final String DECORATED_REPOSITORY = "Decorated Repository";
+  private static final int PERMITTED_BATCH_SIZE = 1000;
 
   private final SearchService searchService;
   private final IndexJobScheduler indexJobScheduler;
@@ -58,6 +72,9 @@ class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity> {
 
   @Override
   public Entity findOne(Query<Entity> q) {
+    if (isPermittedIndexQuery(q)) {
+      return findAllPermitted(q).findFirst().orElse(null);
+    }
     if (querySupported(q)) {
       LOG.debug(
           "public Entity findOne({}) entityTypeId: [{}] repository: [{}]",
@@ -78,6 +95,9 @@ class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity> {
 
   @Override
   public Stream<Entity> findAll(Query<Entity> q) {
+    if (isPermittedIndexQuery(q)) {
+      return findAllPermitted(q);
+    }
     if (querySupported(q)) {
       LOG.debug(
           "public Entity findAll({}) entityTypeId: [{}] repository: [{}]",
@@ -119,6 +139,11 @@ class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity> {
   public long count(Query<Entity> q) {
     // TODO check if the index is stable. If index is stable you can better check index for count
     // results
+    if (isPermittedIndexQuery(q)) {
+      QueryImpl<Entity> idQuery = new QueryImpl<>(q);
+      idQuery.setFetch(new Fetch().field(getEntityType().getIdAttribute().getName()));
+      return findAllPermitted(idQuery).count();
+    }
     if (querySupported(q)) {
       LOG.debug(
           "public long count({}) entityTypeId: [{}] repository: [{}]",
@@ -179,9 +204,85 @@ class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity> {
         && !containsNestedQueryRuleField(q);
   }
 
+  /**
+   * Returns whether the query contains a {@link Operator#PERMITTED} rule, that can only be
+   * evaluated by the decorated repository, and other rules that can only be evaluated by the index.
+   */
+  private boolean isPermittedIndexQuery(Query<Entity> q) {
+    return containsOperator(q, PERMITTED) && !querySupported(q);
+  }
+
+  /**
+   * Retrieves the identifiers of the entities matching all but the {@link Operator#PERMITTED} rule
+   * from the index and selects the permitted entities in batches from the decorated repository,
+   * preserving the order of the index results.
+   */
+  private Stream<Entity> findAllPermitted(Query<Entity> q) {
+    LOG.debug(
+        "public Entity findAll({}) entityTypeId: [{}] repository: [{}, {}]",
+        q,
+        getEntityType().getId(),
+        INDEX_REPOSITORY,
+        DECORATED_REPOSITORY);
+
+    List<QueryRule> rules = new ArrayList<>(q.getRules());
+    QueryRule permittedRule = removePermittedRule(rules);
+    QueryImpl<Entity> indexQuery = new QueryImpl<>(rules);
+    indexQuery.setSort(q.getSort());
+
+    Stream<Object> entityIds = tryTwice(() -> searchService.search(getEntityType(), indexQuery));
+    Stream<Entity> entities =
+        stream(partition(entityIds.iterator(), PERMITTED_BATCH_SIZE))
+            .flatMap(batch -> findAllPermitted(batch, permittedRule, q.getFetch()));
+    if (q.getOffset() > 0) {
+      entities = entities.skip(q.getOffset());
+    }
+    if (q.getPageSize() > 0) {
+      entities = entities.limit(q.getPageSize());
+    }
+    return entities;
+  }
+
+  private Stream<Entity> findAllPermitted(
+      List<Object> entityIds, QueryRule permittedRule, Fetch fetch) {
+    QueryImpl<Entity> batchQuery = new QueryImpl<>();
+    batchQuery.addRule(
+        new QueryRule(getEntityType().getIdAttribute().getName(), Operator.IN, entityIds));
+    batchQuery.addRule(new QueryRule(Operator.AND));
+    batchQuery.addRule(permittedRule);
+    batchQuery.setFetch(fetch);
+
+    Map<Object, Entity> permittedEntities =
+        delegate().findAll(batchQuery).collect(toMap(Entity::getIdValue, identity()));
+    return entityIds.stream().map(permittedEntities::get).filter(Objects::nonNull);
+  }
+
+  /**
+   * Removes the top-level {@link Operator#PERMITTED} rule and the {@link Operator#AND} rule that
+   * combines it with the other rules.
+   */
+  private static QueryRule removePermittedRule(List<QueryRule> rules) {
+    for (int i = 0; i < rules.size(); i++) {
+      QueryRule rule = rules.get(i);
+      if (rule.getOperator() == PERMITTED) {
+        rules.remove(i);
+        if (i > 0 && rules.get(i - 1).getOperator() == Operator.AND) {
+          rules.remove(i - 1);
+        } else if (i < rules.size() && rules.get(i).getOperator() == Operator.AND) {
+          rules.remove(i);
+        }
+        return rule;
+      }
+    }
+    throw new MolgenisDataException(
+        format(
+            "Query operator [%s] is only supported as top-level query rule in queries with operators that require the index",
+            PERMITTED));
+  }
+
   private void waitForIndexToBeStable() {
     try {
-      indexJobScheduler.waitForIndexToBeStableIncludingReferences(getEntityType());
+      indexJobScheduler.waitForIndexToBeStable(getEntityType());
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
     }
@@ -1,23 +1,60 @@
 package org.molgenis.data.index;
 
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
-import static com.google.common.collect.Sets.union;
+import static com.google.common.collect.Streams.stream;
+import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.partitioningBy;
+import static java.util.stream.Collectors.toCollection;
+import static java.util.stream.Collectors.toList;
 
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.molgenis.data.DataService;
+import org.molgenis.data.Entity;
+import org.molgenis.data.Fetch;
+import org.molgenis.data.Query;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.support.QueryImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-/** Determines the impact of changes. */
+/**
+ * Determines the impact of changes.
+ *
+ * <p>Changes to specific entities only impact the entities of dependent entity types that reference
+ * them. These entities are looked up using the reference attributes of the dependent entity types.
+ * If they cannot be looked up or if there are too many of them, the whole repository of the
+ * dependent entity type is impacted instead.
+ */
 @Component
 public class IndexingStrategy {
   private static final Logger LOG = LoggerFactory.getLogger(IndexingStrategy.class);
 
+  /** Maximum number of entities of a dependent entity type that are impacted one by one */
+  static final int MAX_SINGLE_ENTITY_IMPACTS = 1000;
+
+  private static final int ID_BATCH_SIZE = 1000;
+
+  private final DataService dataService;
+
+  IndexingStrategy(DataService dataService) {
+    this.dataService = requireNonNull(dataService);
+  }
+
   /**
    * Determines which {@link Impact}s follow from a set of changes.
    *
@@ -57,16 +94,142 @@ public class IndexingStrategy {
       List<Impact> wholeRepoActions,
       Set<String> dependentEntityIds) {
     Set<String> wholeRepoIds =
-        union(
-            wholeRepoActions.stream().map(Impact::getEntityTypeId).collect(toImmutableSet()),
-            dependentEntityIds);
+        wholeRepoActions.stream().map(Impact::getEntityTypeId).collect(toCollection(HashSet::new));
+    Map<String, Set<Object>> singleEntityIds = new LinkedHashMap<>();
+    singleEntityChanges.stream()
+        .filter(action -> !wholeRepoIds.contains(action.getEntityTypeId()))
+        .forEach(
+            action ->
+                singleEntityIds
+                    .computeIfAbsent(action.getEntityTypeId(), id -> new LinkedHashSet<>())
+                    .add(action.getId()));
+
+    resolveDependentImpact(singleEntityIds, wholeRepoIds, dependentEntityIds);
 
     ImmutableSet.Builder<Impact> result = ImmutableSet.builder();
     result.addAll(wholeRepoActions);
-    dependentEntityIds.stream().map(Impact::createWholeRepositoryImpact).forEach(result::add);
-    singleEntityChanges.stream()
-        .filter(action -> !wholeRepoIds.contains(action.getEntityTypeId()))
-        .forEach(result::add);
+    wholeRepoIds.stream().map(Impact::createWholeRepositoryImpact).forEach(result::add);
+    singleEntityIds.forEach(
+        (entityTypeId, ids) ->
+            ids.forEach(id -> result.add(Impact.createSingleEntityImpact(entityTypeId, id))));
     return result.build();
   }
+
+  /**
+   * Adds the entities of dependent entity types that reference impacted entities to the impact,
+   * until no new entities are impacted. Dependent entity types that reference an entity type of
+   * which the whole repository is impacted are impacted as a whole as well.
+   *
+   * @param singleEntityIds ids of impacted entities per entity type, gets updated
+   * @param wholeRepoIds ids of entity types that are impacted as a whole, gets updated
+   * @param dependentEntityIds ids of entity types that are dependent on one or more of the changes
+   */
+  private void resolveDependentImpact(
+      Map<String, Set<Object>> singleEntityIds,
+      Set<String> wholeRepoIds,
+      Set<String> dependentEntityIds) {
+    Deque<Impacted> queue = new ArrayDeque<>();
+    wholeRepoIds.forEach(entityTypeId -> queue.add(new Impacted(entityTypeId, null)));
+    singleEntityIds.forEach(
+        (entityTypeId, ids) -> queue.add(new Impacted(entityTypeId, new HashSet<>(ids))));
+
+    while (!queue.isEmpty()) {
+      Impacted impacted = queue.remove();
+      for (String entityTypeId : dependentEntityIds) {
+        if (wholeRepoIds.contains(entityTypeId)) {
+          continue;
+        }
+
+        EntityType entityType = dataService.getEntityType(entityTypeId);
+        List<Attribute> attributes =
+            entityType != null ? getReferencingAttributes(entityType, impacted.entityTypeId) : null;
+        if (attributes != null && attributes.isEmpty()) {
+          continue;
+        }
+
+        Set<Object> referencingIds =
+            attributes != null && impacted.ids != null
+                ? findReferencingIds(entityType, attributes, impacted.ids)
+                : null;
+        Set<Object> ids =
+            singleEntityIds.computeIfAbsent(entityTypeId, id -> new LinkedHashSet<>());
+        if (referencingIds == null
+            || ids.size() + referencingIds.size() > MAX_SINGLE_ENTITY_IMPACTS) {
+          LOG.debug("Entity type '{}' is impacted as a whole", entityTypeId);
+          singleEntityIds.remove(entityTypeId);
+          wholeRepoIds.add(entityTypeId);
+          queue.add(new Impacted(entityTypeId, null));
+        } else {
+          Set<Object> addedIds =
+              referencingIds.stream().filter(ids::add).collect(toCollection(HashSet::new));
+          if (!addedIds.isEmpty()) {
+            queue.add(new Impacted(entityTypeId, addedIds));
+          }
+        }
+      }
+    }
+    singleEntityIds.values().removeIf(Set::isEmpty);
+  }
+
+  /**
+   * Looks up the ids of the entities that reference one or more of the given entities.
+   *
+   * @return ids of the referencing entities or <tt>null</tt> if they cannot be looked up or if
+   *     there are more than {@link #MAX_SINGLE_ENTITY_IMPACTS} of them
+   */
+  @Nullable
+  @CheckForNull
+  private Set<Object> findReferencingIds(
+      EntityType entityType, List<Attribute> attributes, Set<Object> refIds) {
+    if (attributes.stream().anyMatch(attr -> attr.hasExpression() || attr.isMappedBy())) {
+      return null;
+    }
+
+    Fetch fetch = new Fetch().field(entityType.getIdAttribute().getName());
+    Set<Object> referencingIds = new HashSet<>();
+    Iterator<List<Object>> batches = Iterators.partition(refIds.iterator(), ID_BATCH_SIZE);
+    while (batches.hasNext()) {
+      Query<Entity> query = createReferencingQuery(attributes, batches.next());
+      query.fetch(fetch).pageSize(MAX_SINGLE_ENTITY_IMPACTS + 1);
+      dataService
+          .findAll(entityType.getId(), query)
+          .map(Entity::getIdValue)
+          .forEach(referencingIds::add);
+      if (referencingIds.size() > MAX_SINGLE_ENTITY_IMPACTS) {
+        return null;
+      }
+    }
+    return referencingIds;
+  }
+
+  private static Query<Entity> createReferencingQuery(
+      List<Attribute> attributes, List<Object> ids) {
+    Query<Entity> query = new QueryImpl<>();
+    for (Attribute attribute : attributes) {
+      if (!query.getRules().isEmpty()) {
+        query.or();
+      }
+      query.in(attribute.getName(), ids);
+    }
+    return query;
+  }
+
+  private static List<Attribute> getReferencingAttributes(
+      EntityType entityType, String refEntityTypeId) {
+    return stream(entityType.getAtomicAttributes())
+        .filter(Attribute::hasRefEntity)
+        .filter(attr -> attr.getRefEntity().getId().equals(refEntityTypeId))
+        .collect(toList());
+  }
+
+  /** Entities of an entity type that were added to the impact, <tt>null</tt> ids means all. */
+  private static class Impacted {
+    private final String entityTypeId;
+    private final Set<Object> ids;
+
+    Impacted(String entityTypeId, @Nullable Set<Object> ids) {
+      this.entityTypeId = entityTypeId;
+      this.ids = ids;
+    }
+  }
 }
@@ -0,0 +1,125 @@
+package org.molgenis.data.index;
+
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.index.Impact.createSingleEntityImpact;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.molgenis.data.EntityKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link Impact}s of the changes made in one transaction.
+ *
+ * <p>Once more than a given number of entities of an entity type have changed, the single entity
+ * impacts of that entity type are collapsed into one whole repository impact.
+ *
+ * <p>Not thread-safe: instances are bound to the thread of the transaction.
+ */
+class TransactionImpacts {
+  private static final Logger LOG = LoggerFactory.getLogger(TransactionImpacts.class);
+
+  private final String transactionId;
+  private final int collapseThreshold;
+  private final Map<String, Set<Object>> entityIds = new HashMap<>();
+  private final Set<String> wholeRepositories = new HashSet<>();
+
+  TransactionImpacts(String transactionId, int collapseThreshold) {
+    this.transactionId = requireNonNull(transactionId);
+    this.collapseThreshold = collapseThreshold;
+  }
+
+  String getTransactionId() {
+    return transactionId;
+  }
+
+  /**
+   * Adds the impact of a change.
+   *
+   * @param entityTypeId id of the changed entity type
+   * @param entityId id of the changed entity, may be null to indicate change to entire repository
+   */
+  void add(String entityTypeId, Object entityId) {
+    if (wholeRepositories.contains(entityTypeId)) {
+      return;
+    }
+
+    if (entityId == null) {
+      addWholeRepository(entityTypeId);
+    } else {
+      Set<Object> ids = entityIds.computeIfAbsent(entityTypeId, id -> new LinkedHashSet<>());
+      if (ids.add(entityId) && ids.size() > collapseThreshold) {
+        LOG.debug(
+            "Transaction {} changed more than {} entities of entity type '{}', collapsing into a whole repository impact",
+            transactionId,
+            collapseThreshold,
+            entityTypeId);
+        addWholeRepository(entityTypeId);
+      }
+    }
+  }
+
+  private void addWholeRepository(String entityTypeId) {
+    entityIds.remove(entityTypeId);
+    wholeRepositories.add(entityTypeId);
+  }
+
+  boolean isEmpty() {
+    return entityIds.isEmpty() && wholeRepositories.isEmpty();
+  }
+
+  Set<Impact> getImpacts() {
+    Stream<Impact> singleEntityImpacts =
+        entityIds.entrySet().stream()
+            .flatMap(
+                entry ->
+                    entry.getValue().stream()
+                        .map(id -> createSingleEntityImpact(entry.getKey(), id)));
+    Stream<Impact> wholeRepositoryImpacts =
+        wholeRepositories.stream().map(Impact::createWholeRepositoryImpact);
+    return Stream.concat(wholeRepositoryImpacts, singleEntityImpacts).collect(toImmutableSet());
+  }
+
+  boolean isEntityDirty(EntityKey entityKey) {
+    Set<Object> ids = entityIds.get(entityKey.getEntityTypeId());
+    return ids != null && ids.contains(entityKey.getId());
+  }
+
+  boolean isEntireRepositoryDirty(String entityTypeId) {
+    return wholeRepositories.contains(entityTypeId);
+  }
+
+  boolean isRepositoryDirty(String entityTypeId) {
+    return wholeRepositories.contains(entityTypeId) || entityIds.containsKey(entityTypeId);
+  }
+
+  Set<EntityKey> getDirtyEntities() {
+    return entityIds.entrySet().stream()
+        .flatMap(entry -> entry.getValue().stream().map(id -> EntityKey.create(entry.getKey(), id)))
+        .collect(toImmutableSet());
+  }
+
+  Set<String> getEntirelyDirtyRepositories() {
+    return ImmutableSet.copyOf(wholeRepositories);
+  }
+
+  Set<String> getDirtyRepositories() {
+    return ImmutableSet.<String>builder()
+        .addAll(wholeRepositories)
+        .addAll(entityIds.keySet())
+        .build();
+  }
+
+  /** Returns whether all impacted entity types are contained in the given set. */
+  boolean isOnlyImpacting(Set<String> entityTypeIds) {
+    return entityTypeIds.containsAll(wholeRepositories)
+        && entityTypeIds.containsAll(entityIds.keySet());
+  }
+}
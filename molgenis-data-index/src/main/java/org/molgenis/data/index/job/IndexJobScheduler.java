@@ -14,6 +14,9 @@ public interface IndexJobScheduler {
 
   void waitForAllIndicesStable() throws InterruptedException;
 
+  /** Waits until the index actions of the entity type are performed. */
+  void waitForIndexToBeStable(EntityType entityType) throws InterruptedException;
+
   void waitForIndexToBeStableIncludingReferences(EntityType entityType) throws InterruptedException;
 
   void cleanupJobExecutions();
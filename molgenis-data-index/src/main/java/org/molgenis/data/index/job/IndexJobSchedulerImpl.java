@@ -12,9 +12,15 @@ import static org.molgenis.jobs.model.JobExecutionMetaData.END_DATE;
 import static org.molgenis.jobs.model.JobExecutionMetaData.STATUS;
 import static org.molgenis.security.core.runas.RunAsSystemAspect.runAsSystem;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.stream.Stream;
@@ -29,23 +35,36 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 
+/**
+ * Runs index jobs of independent entity types in parallel. An index job waits for earlier index
+ * jobs that index one or more of the same entity types. The index actions of a transaction include
+ * the entity types that depend on the changed entity types, so index jobs of dependent entity types
+ * run after the index jobs of their dependencies.
+ */
 public class IndexJobSchedulerImpl implements IndexJobScheduler {
   private static final Logger LOG = LoggerFactory.getLogger(IndexJobSchedulerImpl.class);
 
   private final DataService dataService;
   private final IndexJobExecutionFactory indexJobExecutionFactory;
   // the executor for the index jobs.
-  private ExecutorService executorService = Executors.newSingleThreadExecutor();
+  private final ExecutorService executorService;
   private final JobExecutor jobExecutor;
   private final IndexStatus indexStatus = new IndexStatus();
+  /** Index jobs that did not finish yet in order of scheduling, guarded by this */
+  private final List<ScheduledIndexJob> scheduledIndexJobs = new ArrayList<>();
 
   public IndexJobSchedulerImpl(
       DataService dataService,
       IndexJobExecutionFactory indexJobExecutionFactory,
-      JobExecutor jobExecutor) {
+      JobExecutor jobExecutor,
+      int maxRunningIndexJobs) {
     this.dataService = requireNonNull(dataService);
     this.indexJobExecutionFactory = requireNonNull(indexJobExecutionFactory);
     this.jobExecutor = requireNonNull(jobExecutor);
+    this.executorService =
+        Executors.newFixedThreadPool(
+            maxRunningIndexJobs,
+            new ThreadFactoryBuilder().setNameFormat("molgenis-index-%d").build());
   }
 
   @Override
@@ -64,22 +83,65 @@ public class IndexJobSchedulerImpl implements IndexJobScheduler {
               groupingBy(indexAction -> indexAction.getString(ENTITY_TYPE_ID), counting()));
       indexStatus.addActionCounts(numberOfActionsPerEntity);
 
-      IndexJobExecution indexJobExecution = indexJobExecutionFactory.create();
-      indexJobExecution.setIndexActionJobID(transactionId);
-      jobExecutor
-          .submit(indexJobExecution, executorService)
-          .whenComplete((a, b) -> indexStatus.removeActionCounts(numberOfActionsPerEntity));
+      synchronized (this) {
+        scheduledIndexJobs.add(new ScheduledIndexJob(transactionId, numberOfActionsPerEntity));
+      }
+      startIndexJobs();
     } else {
       LOG.debug("No index job found for id [{}].", transactionId);
     }
   }
 
+  /** Starts the index jobs that do not index entity types of earlier unfinished index jobs. */
+  private void startIndexJobs() {
+    List<ScheduledIndexJob> startableIndexJobs = new ArrayList<>();
+    synchronized (this) {
+      Set<String> claimedEntityTypeIds = new HashSet<>();
+      for (ScheduledIndexJob scheduledIndexJob : scheduledIndexJobs) {
+        Set<String> entityTypeIds = scheduledIndexJob.getEntityTypeIds();
+        if (!scheduledIndexJob.isStarted()
+            && Collections.disjoint(claimedEntityTypeIds, entityTypeIds)) {
+          scheduledIndexJob.setStarted();
+          startableIndexJobs.add(scheduledIndexJob);
+        }
+        claimedEntityTypeIds.addAll(entityTypeIds);
+      }
+    }
+    startableIndexJobs.forEach(this::startIndexJob);
+  }
+
+  private void startIndexJob(ScheduledIndexJob scheduledIndexJob) {
+    try {
+      IndexJobExecution indexJobExecution = indexJobExecutionFactory.create();
+      indexJobExecution.setIndexActionJobID(scheduledIndexJob.getTransactionId());
+      runAsSystem(() -> jobExecutor.submit(indexJobExecution, executorService))
+          .whenComplete((a, b) -> indexJobFinished(scheduledIndexJob));
+    } catch (RuntimeException e) {
+      LOG.error("Error starting index job for transaction [{}]", scheduledIndexJob, e);
+      indexJobFinished(scheduledIndexJob);
+    }
+  }
+
+  private void indexJobFinished(ScheduledIndexJob scheduledIndexJob) {
+    indexStatus.removeActionCounts(scheduledIndexJob.getNumberOfActionsPerEntity());
+    synchronized (this) {
+      scheduledIndexJobs.remove(scheduledIndexJob);
+    }
+    startIndexJobs();
+  }
+
   @Override
   @RunAsSystem
   public void waitForAllIndicesStable() throws InterruptedException {
     indexStatus.waitForAllEntitiesToBeStable();
   }
 
+  @Override
+  @RunAsSystem
+  public void waitForIndexToBeStable(EntityType entityType) throws InterruptedException {
+    indexStatus.waitForIndexToBeStable(entityType);
+  }
+
   @Override
   @RunAsSystem
   public void waitForIndexToBeStableIncludingReferences(EntityType entityType)
@@ -115,4 +177,40 @@ public class IndexJobSchedulerImpl implements IndexJobScheduler {
           }
         });
   }
+
+  private static class ScheduledIndexJob {
+    private final String transactionId;
+    private final Map<String, Long> numberOfActionsPerEntity;
+    private boolean started;
+
+    ScheduledIndexJob(String transactionId, Map<String, Long> numberOfActionsPerEntity) {
+      this.transactionId = requireNonNull(transactionId);
+      this.numberOfActionsPerEntity = requireNonNull(numberOfActionsPerEntity);
+    }
+
+    String getTransactionId() {
+      return transactionId;
+    }
+
+    Map<String, Long> getNumberOfActionsPerEntity() {
+      return numberOfActionsPerEntity;
+    }
+
+    Set<String> getEntityTypeIds() {
+      return numberOfActionsPerEntity.keySet();
+    }
+
+    boolean isStarted() {
+      return started;
+    }
+
+    void setStarted() {
+      started = true;
+    }
+
+    @Override
+    public String toString() {
+      return transactionId;
+    }
+  }
 }
@@ -1,20 +1,28 @@
 package org.molgenis.data.index.job;
 
+import static com.google.common.collect.Lists.partition;
 import static java.text.MessageFormat.format;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toCollection;
 import static java.util.stream.Collectors.toList;
 import static org.molgenis.data.QueryRule.Operator.EQUALS;
 import static org.molgenis.data.index.meta.IndexActionGroupMetadata.INDEX_ACTION_GROUP;
 import static org.molgenis.data.index.meta.IndexActionMetadata.ACTION_ORDER;
 import static org.molgenis.data.index.meta.IndexActionMetadata.INDEX_ACTION;
 import static org.molgenis.data.index.meta.IndexActionMetadata.INDEX_ACTION_GROUP_ATTR;
+import static org.molgenis.data.util.EntityTypeUtils.createFetchForReindexing;
 import static org.molgenis.data.util.EntityUtils.getTypedValue;
 
 import io.micrometer.core.annotation.Timed;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
-import org.molgenis.data.MolgenisDataException;
 import org.molgenis.data.Query;
 import org.molgenis.data.QueryRule;
 import org.molgenis.data.Repository;
@@ -23,6 +31,7 @@ import org.molgenis.data.index.IndexService;
 import org.molgenis.data.index.meta.IndexAction;
 import org.molgenis.data.index.meta.IndexActionGroup;
 import org.molgenis.data.index.meta.IndexActionMetadata;
+import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.meta.model.EntityTypeFactory;
 import org.molgenis.data.support.QueryImpl;
@@ -33,6 +42,7 @@ import org.slf4j.LoggerFactory;
 /** Executes the {@link IndexAction}s stored in an {@link IndexActionGroup}. */
 public class IndexJobService {
   private static final Logger LOG = LoggerFactory.getLogger(IndexJobService.class);
+  private static final int BATCH_SIZE = 1000;
 
   private final DataService dataService;
   private final IndexService indexService;
@@ -65,7 +75,8 @@ public class IndexJobService {
   }
 
   /**
-   * Performs the IndexActions.
+   * Performs the IndexActions. Single entity IndexActions are grouped per entity type and performed
+   * in batches.
    *
    * @param progress {@link Progress} instance to log progress information to
    */
@@ -77,8 +88,21 @@ public class IndexJobService {
     try {
       boolean success = true;
       int count = 0;
+      Map<String, List<IndexAction>> singleEntityIndexActions = new LinkedHashMap<>();
       for (IndexAction indexAction : indexActions) {
-        success &= performAction(progress, count++, indexAction);
+        if (indexAction.getEntityId() != null) {
+          singleEntityIndexActions
+              .computeIfAbsent(indexAction.getEntityTypeId(), id -> new ArrayList<>())
+              .add(indexAction);
+        } else {
+          success &= performAction(progress, count++, indexAction);
+        }
+      }
+      for (Entry<String, List<IndexAction>> entry : singleEntityIndexActions.entrySet()) {
+        for (List<IndexAction> batch : partition(entry.getValue(), BATCH_SIZE)) {
+          success &= performActions(progress, count, entry.getKey(), batch);
+          count += batch.size();
+        }
       }
       if (success) {
         progress.progress(count, "Executed all index actions, cleaning up the actions...");
@@ -97,7 +121,7 @@ public class IndexJobService {
   }
 
   /**
-   * Performs a single IndexAction
+   * Performs a single IndexAction for an entire repository
    *
    * @param progress {@link Progress} to report progress to
    * @param progressCount the progress count for this IndexAction
@@ -111,29 +135,11 @@ public class IndexJobService {
     try {
       if (dataService.hasEntityType(entityTypeId)) {
         EntityType entityType = dataService.getEntityType(entityTypeId);
-        if (indexAction.getEntityId() != null) {
-          progress.progress(
-              progressCount,
-              format("Indexing {0}.{1}", entityType.getId(), indexAction.getEntityId()));
-          rebuildIndexOneEntity(entityTypeId, indexAction.getEntityId());
-        } else {
-          progress.progress(progressCount, format("Indexing {0}", entityType.getId()));
-          final Repository<Entity> repository = dataService.getRepository(entityType.getId());
-          indexService.rebuildIndex(repository);
-        }
+        progress.progress(progressCount, format("Indexing {0}", entityType.getId()));
+        final Repository<Entity> repository = dataService.getRepository(entityType.getId());
+        indexService.rebuildIndex(repository);
       } else {
-        EntityType entityType = getEntityType(indexAction);
-        if (indexService.hasIndex(entityType)) {
-          progress.progress(
-              progressCount, format("Dropping entityType with id: {0}", entityType.getId()));
-          indexService.deleteIndex(entityType);
-        } else {
-          // Index Job is finished, here we concluded that we don't have enough info to continue the
-          // index job
-          progress.progress(
-              progressCount,
-              format("Skip index entity {0}.{1}", entityType.getId(), indexAction.getEntityId()));
-        }
+        deleteIndex(progress, progressCount, entityTypeId);
       }
       updateIndexActionStatus(indexAction, IndexActionMetadata.IndexStatus.FINISHED);
       return true;
@@ -144,6 +150,50 @@ public class IndexJobService {
     }
   }
 
+  /**
+   * Performs a batch of single entity IndexActions for one entity type
+   *
+   * @param progress {@link Progress} to report progress to
+   * @param progressCount the progress count for the first IndexAction
+   * @param entityTypeId the id of the entity type of the IndexActions
+   * @param indexActions IndexActions with an entity id
+   * @return boolean indicating success or failure
+   */
+  private boolean performActions(
+      Progress progress, int progressCount, String entityTypeId, List<IndexAction> indexActions) {
+    updateIndexActionStatus(indexActions, IndexActionMetadata.IndexStatus.STARTED);
+    try {
+      if (dataService.hasEntityType(entityTypeId)) {
+        EntityType entityType = dataService.getEntityType(entityTypeId);
+        progress.progress(
+            progressCount,
+            format("Indexing {0} entities of {1}", indexActions.size(), entityType.getId()));
+        rebuildIndexEntities(entityType, indexActions);
+      } else {
+        deleteIndex(progress, progressCount, entityTypeId);
+      }
+      updateIndexActionStatus(indexActions, IndexActionMetadata.IndexStatus.FINISHED);
+      return true;
+    } catch (Exception ex) {
+      LOG.error("Index job failed", ex);
+      updateIndexActionStatus(indexActions, IndexActionMetadata.IndexStatus.FAILED);
+      return false;
+    }
+  }
+
+  private void deleteIndex(Progress progress, int progressCount, String entityTypeId) {
+    EntityType entityType = entityTypeFactory.create(entityTypeId);
+    if (indexService.hasIndex(entityType)) {
+      progress.progress(
+          progressCount, format("Dropping entityType with id: {0}", entityType.getId()));
+      indexService.deleteIndex(entityType);
+    } else {
+      // Index Job is finished, here we concluded that we don't have enough info to continue the
+      // index job
+      progress.progress(progressCount, format("Skip index entity {0}", entityType.getId()));
+    }
+  }
+
   /**
    * Updates the {@link IndexStatus} of a IndexAction and stores the change.
    *
@@ -157,39 +207,57 @@ public class IndexJobService {
   }
 
   /**
-   * Indexes one single entity instance.
+   * Updates the {@link IndexStatus} of IndexActions and stores the changes in one batch.
    *
-   * @param entityTypeId the id of the entity's repository
-   * @param untypedEntityId the identifier of the entity to update
+   * @param indexActions the IndexActions of which the status is updated
+   * @param status the new {@link IndexStatus}
    */
-  private void rebuildIndexOneEntity(String entityTypeId, String untypedEntityId) {
-    LOG.trace("Indexing [{}].[{}]... ", entityTypeId, untypedEntityId);
-
-    // convert entity id string to typed entity id
-    EntityType entityType = dataService.getEntityType(entityTypeId);
-    if (null != entityType) {
-      Object entityId = getTypedValue(untypedEntityId, entityType.getIdAttribute());
-      String entityFullName = entityType.getId();
-
-      Entity actualEntity = dataService.findOneById(entityFullName, entityId);
-
-      if (null == actualEntity) {
-        // Delete
-        LOG.debug("Index delete [{}].[{}].", entityFullName, entityId);
-        indexService.deleteById(entityType, entityId);
-        return;
-      }
+  private void updateIndexActionStatus(
+      List<IndexAction> indexActions, IndexActionMetadata.IndexStatus status) {
+    indexActions.forEach(indexAction -> indexAction.setIndexStatus(status));
+    dataService.update(INDEX_ACTION, indexActions.stream());
+  }
+
+  /**
+   * Indexes a batch of entity instances. Entities that no longer exist are deleted from the index.
+   *
+   * @param entityType the entity type of the entities
+   * @param indexActions IndexActions containing the identifiers of the entities to update
+   */
+  private void rebuildIndexEntities(EntityType entityType, List<IndexAction> indexActions) {
+    String entityTypeId = entityType.getId();
+    LOG.trace("Indexing [{}] {} entities... ", entityTypeId, indexActions.size());
+
+    // convert entity id strings to typed entity ids
+    Attribute idAttribute = entityType.getIdAttribute();
+    Set<Object> deletedEntityIds =
+        indexActions.stream()
+            .map(indexAction -> getTypedValue(indexAction.getEntityId(), idAttribute))
+            .collect(toCollection(LinkedHashSet::new));
+
+    List<Entity> actualEntities =
+        dataService
+            .findAll(
+                entityTypeId,
+                new ArrayList<>(deletedEntityIds).stream(),
+                createFetchForReindexing(entityType))
+            .collect(toList());
+    actualEntities.forEach(entity -> deletedEntityIds.remove(entity.getIdValue()));
 
+    if (!actualEntities.isEmpty()) {
       boolean indexEntityExists = indexService.hasIndex(entityType);
       if (!indexEntityExists) {
         LOG.debug("Create mapping of repository [{}] because it was not exist yet", entityTypeId);
         indexService.createIndex(entityType);
       }
 
-      LOG.debug("Index [{}].[{}].", entityTypeId, entityId);
-      indexService.index(actualEntity.getEntityType(), actualEntity);
-    } else {
-      throw new MolgenisDataException("Unknown EntityType for entityTypeId: " + entityTypeId);
+      LOG.debug("Index [{}] {} entities.", entityTypeId, actualEntities.size());
+      indexService.index(entityType, actualEntities.stream());
+    }
+
+    if (!deletedEntityIds.isEmpty()) {
+      LOG.debug("Index delete [{}] {} entities.", entityTypeId, deletedEntityIds.size());
+      indexService.deleteAll(entityType, deletedEntityIds.stream());
     }
   }
 
@@ -200,8 +268,4 @@ public class IndexJobService {
     q.setSort(new Sort(ACTION_ORDER));
     return q;
   }
-
-  private EntityType getEntityType(IndexAction indexAction) {
-    return entityTypeFactory.create(indexAction.getEntityTypeId());
-  }
 }
@@ -85,6 +85,17 @@ public class IndexStatus {
     return referencedEntityIds.stream().noneMatch(actionCountsPerEntity::containsKey);
   }
 
+  void waitForIndexToBeStable(EntityType entityType) throws InterruptedException {
+    lock.lock();
+    try {
+      while (actionCountsPerEntity.containsKey(entityType.getId())) {
+        singleEntityStable.await();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
   void waitForIndexToBeStableIncludingReferences(EntityType emd) throws InterruptedException {
     lock.lock();
     try {
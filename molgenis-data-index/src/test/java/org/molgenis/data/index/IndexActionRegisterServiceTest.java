@@ -1,6 +1,7 @@
 package org.molgenis.data.index;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
 import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -54,11 +55,16 @@ class IndexActionRegisterServiceTest extends AbstractMockitoTest {
         TransactionConstants.TRANSACTION_ID_RESOURCE_NAME, "1");
     indexActionRegisterServiceImpl =
         new IndexActionRegisterServiceImpl(
-            dataService, indexActionFactory, indexActionGroupFactory, new IndexingStrategy());
+            dataService,
+            indexActionFactory,
+            indexActionGroupFactory,
+            new IndexingStrategy(dataService),
+            2);
   }
 
   @AfterEach
   void afterMethod() {
+    indexActionRegisterServiceImpl.forgetIndexActions("1");
     TransactionSynchronizationManager.unbindResource(
         TransactionConstants.TRANSACTION_ID_RESOURCE_NAME);
   }
@@ -143,4 +149,26 @@ class IndexActionRegisterServiceTest extends AbstractMockitoTest {
     EntityKey entityKey = EntityKey.create(entityTypeId, otherId);
     assertFalse(indexActionRegisterServiceImpl.isEntityDirty(entityKey));
   }
+
+  @Test
+  void testRegisterCollapse() {
+    EntityType entityType = mock(EntityType.class);
+    when(entityType.getId()).thenReturn("entityTypeId");
+    indexActionRegisterServiceImpl.register(entityType, 1);
+    indexActionRegisterServiceImpl.register(entityType, 2);
+    assertFalse(indexActionRegisterServiceImpl.isEntireRepositoryDirty(entityType));
+
+    indexActionRegisterServiceImpl.register(entityType, 3);
+    assertTrue(indexActionRegisterServiceImpl.isEntireRepositoryDirty(entityType));
+    assertFalse(indexActionRegisterServiceImpl.isEntityDirty(EntityKey.create("entityTypeId", 1)));
+    assertEquals(emptySet(), indexActionRegisterServiceImpl.getDirtyEntities());
+  }
+
+  @Test
+  void testForgetIndexActionsExcludedEntities() {
+    EntityType entityType = mock(EntityType.class);
+    when(entityType.getId()).thenReturn(INDEX_ACTION);
+    indexActionRegisterServiceImpl.register(entityType, 123);
+    assertFalse(indexActionRegisterServiceImpl.forgetIndexActions("1"));
+  }
 }
@@ -2,6 +2,7 @@ package org.molgenis.data.index;
 
 import static java.lang.Integer.valueOf;
 import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 import static java.util.EnumSet.of;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.mock;
@@ -12,6 +13,7 @@ import static org.mockito.internal.verification.VerificationModeFactory.times;
 import static org.molgenis.data.RepositoryCapability.INDEXABLE;
 import static org.molgenis.data.RepositoryCapability.MANAGABLE;
 
+import java.util.List;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -96,6 +98,30 @@ class IndexActionRepositoryDecoratorTest {
     verifyNoMoreInteractions(indexActionRegisterService);
   }
 
+  @Test
+  void upsertBatch() {
+    initEntityMeta();
+
+    List<Entity> entities = singletonList(mock(Entity.class));
+    indexActionRepositoryDecorator.upsertBatch(entities);
+    verify(delegateRepository, times(1)).upsertBatch(entities);
+    verify(indexActionRegisterService).register(entityType, null);
+    verifyNoMoreInteractions(indexActionRegisterService);
+  }
+
+  @Test
+  void upsertBatchBidi() {
+    initEntityMetaBidi();
+
+    List<Entity> entities = singletonList(mock(Entity.class));
+    indexActionRepositoryDecorator.upsertBatch(entities);
+    verify(delegateRepository, times(1)).upsertBatch(entities);
+    verify(indexActionRegisterService).register(entityType, null);
+    verify(indexActionRegisterService).register(mappedByEntity, null);
+    verify(indexActionRegisterService).register(inversedByEntity, null);
+    verifyNoMoreInteractions(indexActionRegisterService);
+  }
+
   @Test
   void deleteEntity() {
     initEntityMeta();
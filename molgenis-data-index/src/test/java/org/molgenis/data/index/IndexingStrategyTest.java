@@ -3,31 +3,46 @@ package org.molgenis.data.index;
 import static com.google.common.collect.ImmutableSet.of;
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 import static org.molgenis.data.index.Impact.createSingleEntityImpact;
 import static org.molgenis.data.index.Impact.createWholeRepositoryImpact;
+import static org.molgenis.data.index.IndexingStrategy.MAX_SINGLE_ENTITY_IMPACTS;
 
 import com.google.common.collect.ImmutableSet;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import org.molgenis.data.DataService;
+import org.molgenis.data.Entity;
+import org.molgenis.data.Query;
 import org.molgenis.data.index.config.IndexTestConfig;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.support.QueryImpl;
 import org.molgenis.test.AbstractMockitoTest;
 import org.springframework.test.context.ContextConfiguration;
 
 @ContextConfiguration(classes = {IndexTestConfig.class})
 class IndexingStrategyTest extends AbstractMockitoTest {
   @Mock private IndexDependencyModel dependencyModel;
+  @Mock private DataService dataService;
 
   IndexingStrategy indexingStrategy;
 
   @BeforeEach
   private void beforeMethod() {
-    indexingStrategy = new IndexingStrategy();
+    indexingStrategy = new IndexingStrategy(dataService);
     reset(dependencyModel);
   }
 
@@ -38,20 +53,74 @@ class IndexingStrategyTest extends AbstractMockitoTest {
 
   @Test
   void testDetermineImpact() {
+    EntityType entityTypeA = createEntityType("A");
+    EntityType entityTypeB = createEntityType("B", createRefAttribute("refA", entityTypeA));
+    createEntityType("C", createRefAttribute("refB", entityTypeB));
+    when(dataService.findAll(eq("B"), eq(createReferencingQuery("refA", "id"))))
+        .thenAnswer(invocation -> Stream.of(createEntity("b1")));
+    when(dataService.findAll(eq("C"), eq(createReferencingQuery("refB", "b1"))))
+        .thenAnswer(invocation -> Stream.of(createEntity("c1")));
+
     Impact indexAction = createSingleEntityImpact("A", "id");
     Set<Impact> registeredIndexActions = singleton(indexAction);
     when(dependencyModel.getEntityTypesDependentOn("A")).thenReturn(Stream.of("A", "B", "C"));
     Set<Impact> actual = indexingStrategy.determineImpact(registeredIndexActions, dependencyModel);
     assertEquals(
         of(
-            createWholeRepositoryImpact("A"),
-            createWholeRepositoryImpact("B"),
-            createWholeRepositoryImpact("C")),
+            createSingleEntityImpact("A", "id"),
+            createSingleEntityImpact("B", "b1"),
+            createSingleEntityImpact("C", "c1")),
         actual);
   }
 
+  @Test
+  void testDetermineImpactNoReferencingEntities() {
+    EntityType entityTypeA = createEntityType("A");
+    createEntityType("B", createRefAttribute("refA", entityTypeA));
+    when(dataService.findAll(eq("B"), eq(createReferencingQuery("refA", "id"))))
+        .thenAnswer(invocation -> Stream.empty());
+
+    Set<Impact> registeredIndexActions = singleton(createSingleEntityImpact("A", "id"));
+    when(dependencyModel.getEntityTypesDependentOn("A")).thenReturn(Stream.of("B"));
+    Set<Impact> actual = indexingStrategy.determineImpact(registeredIndexActions, dependencyModel);
+    assertEquals(of(createSingleEntityImpact("A", "id")), actual);
+  }
+
+  @Test
+  void testDetermineImpactTooManyReferencingEntities() {
+    EntityType entityTypeA = createEntityType("A");
+    createEntityType("B", createRefAttribute("refA", entityTypeA));
+    when(dataService.findAll(eq("B"), eq(createReferencingQuery("refA", "id"))))
+        .thenAnswer(
+            invocation ->
+                IntStream.rangeClosed(0, MAX_SINGLE_ENTITY_IMPACTS)
+                    .mapToObj(i -> createEntity("b" + i)));
+
+    Set<Impact> registeredIndexActions = singleton(createSingleEntityImpact("A", "id"));
+    when(dependencyModel.getEntityTypesDependentOn("A")).thenReturn(Stream.of("B"));
+    Set<Impact> actual = indexingStrategy.determineImpact(registeredIndexActions, dependencyModel);
+    assertEquals(of(createSingleEntityImpact("A", "id"), createWholeRepositoryImpact("B")), actual);
+  }
+
+  @Test
+  void testDetermineImpactMappedByAttribute() {
+    EntityType entityTypeA = createEntityType("A");
+    Attribute mappedByAttribute = createRefAttribute("refA", entityTypeA);
+    when(mappedByAttribute.isMappedBy()).thenReturn(true);
+    createEntityType("B", mappedByAttribute);
+
+    Set<Impact> registeredIndexActions = singleton(createSingleEntityImpact("A", "id"));
+    when(dependencyModel.getEntityTypesDependentOn("A")).thenReturn(Stream.of("B"));
+    Set<Impact> actual = indexingStrategy.determineImpact(registeredIndexActions, dependencyModel);
+    assertEquals(of(createSingleEntityImpact("A", "id"), createWholeRepositoryImpact("B")), actual);
+  }
+
   @Test
   void testDetermineImpact2() {
+    EntityType entityTypeA = createEntityType("A");
+    EntityType entityTypeB = createEntityType("B", createRefAttribute("refA", entityTypeA));
+    createEntityType("C", createRefAttribute("refB", entityTypeB));
+
     Impact change = createSingleEntityImpact("A", null);
     Set<Impact> registeredIndexActions = ImmutableSet.of(change);
 
@@ -76,4 +145,35 @@ class IndexingStrategyTest extends AbstractMockitoTest {
     Set<Impact> actual = indexingStrategy.determineImpact(registeredIndexActions, dependencyModel);
     assertEquals(of(createSingleEntityImpact("A", "6")), actual);
   }
+
+  private EntityType createEntityType(String entityTypeId, Attribute... refAttributes) {
+    EntityType entityType = mock(EntityType.class, withSettings().lenient());
+    when(entityType.getId()).thenReturn(entityTypeId);
+    Attribute idAttribute = mock(Attribute.class, withSettings().lenient());
+    when(idAttribute.getName()).thenReturn("id");
+    when(entityType.getIdAttribute()).thenReturn(idAttribute);
+    when(entityType.getAtomicAttributes()).thenReturn(List.of(refAttributes));
+    lenient().when(dataService.getEntityType(entityTypeId)).thenReturn(entityType);
+    return entityType;
+  }
+
+  private static Attribute createRefAttribute(String name, EntityType refEntityType) {
+    Attribute attribute = mock(Attribute.class, withSettings().lenient());
+    when(attribute.getName()).thenReturn(name);
+    when(attribute.hasRefEntity()).thenReturn(true);
+    when(attribute.getRefEntity()).thenReturn(refEntityType);
+    return attribute;
+  }
+
+  private static Entity createEntity(Object id) {
+    Entity entity = mock(Entity.class);
+    when(entity.getIdValue()).thenReturn(id);
+    return entity;
+  }
+
+  private static Query<Entity> createReferencingQuery(String attributeName, Object id) {
+    return new QueryImpl<>()
+        .in(attributeName, singletonList(id))
+        .pageSize(MAX_SINGLE_ENTITY_IMPACTS + 1);
+  }
 }
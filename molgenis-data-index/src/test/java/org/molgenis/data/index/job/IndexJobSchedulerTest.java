@@ -2,17 +2,28 @@ package org.molgenis.data.index.job;
 
 import static java.time.Duration.between;
 import static java.time.Instant.now;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.molgenis.data.index.job.IndexJobExecutionMetadata.INDEX_JOB_EXECUTION;
 import static org.molgenis.data.index.meta.IndexActionGroupMetadata.INDEX_ACTION_GROUP;
+import static org.molgenis.data.index.meta.IndexActionMetadata.ENTITY_TYPE_ID;
+import static org.molgenis.data.index.meta.IndexActionMetadata.INDEX_ACTION;
 import static org.molgenis.data.util.MolgenisDateFormat.parseInstant;
 
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -30,6 +41,7 @@ import org.molgenis.data.index.IndexActionRegisterServiceImpl;
 import org.molgenis.data.index.IndexConfig;
 import org.molgenis.data.index.IndexService;
 import org.molgenis.data.index.config.IndexTestConfig;
+import org.molgenis.data.index.meta.IndexActionGroup;
 import org.molgenis.data.support.QueryImpl;
 import org.molgenis.data.transaction.TransactionListener;
 import org.molgenis.data.transaction.TransactionManager;
@@ -80,6 +92,68 @@ class IndexJobSchedulerTest extends AbstractMolgenisSpringTest {
     verify(jobExecutor, never()).submit(any());
   }
 
+  @Test
+  void testScheduleIndexJobIndependentEntityTypesInParallel() {
+    CompletableFuture<Void> future0 = mockIndexJob("transaction0", "entityType0", "entityType1");
+    CompletableFuture<Void> future1 = mockIndexJob("transaction1", "entityType1");
+    mockIndexJob("transaction2", "entityType2");
+
+    indexJobScheduler.scheduleIndexJob("transaction0");
+    indexJobScheduler.scheduleIndexJob("transaction1");
+    indexJobScheduler.scheduleIndexJob("transaction2");
+
+    verify(jobExecutor, times(2))
+        .submit(indexJobExecutionCaptor.capture(), any(ExecutorService.class));
+    assertEquals(
+        asList("transaction0", "transaction2"),
+        indexJobExecutionCaptor.getAllValues().stream()
+            .map(IndexJobExecution::getIndexActionJobID)
+            .collect(toList()));
+
+    future0.complete(null);
+    verify(jobExecutor, times(3))
+        .submit(indexJobExecutionCaptor.capture(), any(ExecutorService.class));
+    assertEquals(
+        "transaction1",
+        indexJobExecutionCaptor
+            .getAllValues()
+            .get(indexJobExecutionCaptor.getAllValues().size() - 1)
+            .getIndexActionJobID());
+    future1.complete(null);
+  }
+
+  @SuppressWarnings("unchecked")
+  private CompletableFuture<Void> mockIndexJob(String transactionId, String... entityTypeIds) {
+    IndexActionGroup indexActionGroup = mock(IndexActionGroup.class);
+    when(indexActionGroup.getIdValue()).thenReturn(transactionId);
+    when(dataService.findOneById(INDEX_ACTION_GROUP, transactionId, IndexActionGroup.class))
+        .thenReturn(indexActionGroup);
+    when(dataService.findAll(
+            eq(INDEX_ACTION),
+            argThat(
+                (Query<Entity> q) ->
+                    q != null && transactionId.equals(q.getRules().get(0).getValue()))))
+        .thenAnswer(
+            invocation ->
+                Arrays.stream(entityTypeIds)
+                    .map(
+                        entityTypeId -> {
+                          Entity indexAction = mock(Entity.class);
+                          when(indexAction.getString(ENTITY_TYPE_ID)).thenReturn(entityTypeId);
+                          return indexAction;
+                        }));
+
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    when(jobExecutor.submit(
+            argThat(
+                (IndexJobExecution indexJobExecution) ->
+                    indexJobExecution != null
+                        && transactionId.equals(indexJobExecution.getIndexActionJobID())),
+            any(ExecutorService.class)))
+        .thenReturn(future);
+    return future;
+  }
+
   @Test
   void testCleanupJobExecutions() throws Exception {
     when(dataService.getRepository(INDEX_JOB_EXECUTION)).thenReturn(repository);
@@ -1,13 +1,13 @@
 package org.molgenis.data.index.job;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Stream.empty;
 import static java.util.stream.Stream.of;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
@@ -34,6 +34,7 @@ import org.molgenis.data.AbstractMolgenisSpringTest;
 import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
 import org.molgenis.data.EntityTestHarness;
+import org.molgenis.data.Fetch;
 import org.molgenis.data.MolgenisDataException;
 import org.molgenis.data.Query;
 import org.molgenis.data.TestHarnessConfig;
@@ -59,6 +60,7 @@ import org.springframework.test.context.ContextConfiguration;
 @ContextConfiguration(classes = {IndexJobServiceTest.Config.class})
 public class IndexJobServiceTest extends AbstractMolgenisSpringTest {
   @Captor private ArgumentCaptor<Stream<Entity>> streamCaptor;
+  @Captor private ArgumentCaptor<Stream<Object>> idStreamCaptor;
 
   @Autowired private Progress progress;
   @Autowired private Authentication authentication;
@@ -130,8 +132,10 @@ public class IndexJobServiceTest extends AbstractMolgenisSpringTest {
   }
 
   @Test
+  @SuppressWarnings("unchecked")
   public void rebuildIndexDeleteSingleEntityTest() {
-    when(dataService.findOneById("TypeTestRefDynamic", "entityId")).thenReturn(null);
+    when(dataService.findAll(eq("TypeTestRefDynamic"), any(Stream.class), any(Fetch.class)))
+        .thenReturn(empty());
 
     IndexAction indexAction =
         indexActionFactory
@@ -149,28 +153,35 @@ public class IndexJobServiceTest extends AbstractMolgenisSpringTest {
     indexJobService.executeJob(progress, transactionId);
     assertEquals(FINISHED, indexAction.getIndexStatus());
 
-    verify(indexService).deleteById(testEntityType, "entityId");
+    verify(indexService).deleteAll(eq(testEntityType), idStreamCaptor.capture());
+    assertEquals(singletonList("entityId"), idStreamCaptor.getValue().collect(toList()));
+    verify(indexService, never()).index(eq(testEntityType), any(Stream.class));
 
     // verify progress messages
     verify(progress).status("Start indexing for transaction id: [aabbcc]");
     verify(progress).setProgressMax(1);
-    verify(progress).progress(0, "Indexing TypeTestRefDynamic.entityId");
+    verify(progress).progress(0, "Indexing 1 entities of TypeTestRefDynamic");
     verify(progress).progress(1, "Executed all index actions, cleaning up the actions...");
     verify(progress).status("Refresh index start");
     verify(progress).status("Refresh index done");
     verify(progress).status("Finished indexing for transaction id: [aabbcc]");
     verify(indexService).refreshIndex();
-    verify(dataService, times(2)).update(INDEX_ACTION, indexAction);
+    verify(dataService, times(2)).update(eq(INDEX_ACTION), any(Stream.class));
   }
 
   @Test
+  @SuppressWarnings("unchecked")
   public void rebuildIndexCreateSingleEntityTest() {
+    Object entityId = toIndexEntity.getIdValue();
+    when(dataService.findAll(eq("TypeTestRefDynamic"), any(Stream.class), any(Fetch.class)))
+        .thenReturn(of(toIndexEntity));
+
     IndexAction indexAction =
         indexActionFactory
             .create()
             .setIndexActionGroup(indexActionGroup)
             .setEntityTypeId("entityType")
-            .setEntityId("entityId")
+            .setEntityId(entityId.toString())
             .setActionOrder(0)
             .setIndexStatus(IndexActionMetadata.IndexStatus.PENDING);
     mockGetAllIndexActions(of(indexAction));
@@ -180,17 +191,20 @@ public class IndexJobServiceTest extends AbstractMolgenisSpringTest {
     indexJobService.executeJob(progress, transactionId);
     assertEquals(FINISHED, indexAction.getIndexStatus());
 
-    verify(this.indexService).index(testEntityType, toIndexEntity);
+    verify(indexService).createIndex(testEntityType);
+    verify(indexService).index(eq(testEntityType), streamCaptor.capture());
+    assertEquals(singletonList(toIndexEntity), streamCaptor.getValue().collect(toList()));
+    verify(indexService, never()).deleteAll(eq(testEntityType), any(Stream.class));
 
     verify(progress).status("Start indexing for transaction id: [aabbcc]");
     verify(progress).setProgressMax(1);
-    verify(progress).progress(0, "Indexing TypeTestRefDynamic.entityId");
+    verify(progress).progress(0, "Indexing 1 entities of TypeTestRefDynamic");
     verify(progress).progress(1, "Executed all index actions, cleaning up the actions...");
     verify(progress).status("Refresh index start");
     verify(progress).status("Refresh index done");
     verify(progress).status("Finished indexing for transaction id: [aabbcc]");
 
-    verify(dataService, times(2)).update(INDEX_ACTION, indexAction);
+    verify(dataService, times(2)).update(eq(INDEX_ACTION), any(Stream.class));
   }
 
   @Test
@@ -308,7 +322,8 @@ public class IndexJobServiceTest extends AbstractMolgenisSpringTest {
   }
 
   @Test
-  public void indexSingleEntityindexServiceThrowsExceptionOnSecondEntityId() {
+  @SuppressWarnings("unchecked")
+  public void indexSingleEntitiesIndexServiceThrowsException() {
     IndexAction indexAction1 =
         indexActionFactory
             .create()
@@ -327,41 +342,27 @@ public class IndexJobServiceTest extends AbstractMolgenisSpringTest {
             .setActionOrder(1)
             .setIndexStatus(IndexActionMetadata.IndexStatus.PENDING);
 
-    IndexAction indexAction3 =
-        indexActionFactory
-            .create()
-            .setIndexActionGroup(indexActionGroup)
-            .setEntityTypeId("entityType")
-            .setEntityId("entityId3")
-            .setActionOrder(2)
-            .setIndexStatus(IndexActionMetadata.IndexStatus.PENDING);
-
-    mockGetAllIndexActions(of(indexAction1, indexAction2, indexAction3));
-    indexActionGroup.setCount(3);
+    mockGetAllIndexActions(of(indexAction1, indexAction2));
+    indexActionGroup.setCount(2);
 
+    when(dataService.findAll(eq("TypeTestRefDynamic"), any(Stream.class), any(Fetch.class)))
+        .thenReturn(empty());
     MolgenisDataException mde = new MolgenisDataException("Random unrecoverable exception");
-    doThrow(mde).when(indexService).deleteById(testEntityType, "entityId2");
+    doThrow(mde).when(indexService).deleteAll(eq(testEntityType), any(Stream.class));
 
     when(dataService.hasRepository("TypeTestRefDynamic")).thenReturn(true);
 
-    try {
-      indexJobService.executeJob(progress, transactionId);
-    } catch (Exception expected) {
-      assertSame(expected, mde);
-    }
-
-    verify(indexService).deleteById(testEntityType, "entityId1");
-    verify(indexService).deleteById(testEntityType, "entityId2");
-    verify(indexService).deleteById(testEntityType, "entityId3");
+    indexJobService.executeJob(progress, transactionId);
 
+    verify(indexService).deleteAll(eq(testEntityType), idStreamCaptor.capture());
+    assertEquals(asList("entityId1", "entityId2"), idStreamCaptor.getValue().collect(toList()));
     verify(indexService).refreshIndex();
 
     // Make sure the action status got updated and that the actionJob didn't get deleted
-    assertEquals(FINISHED, indexAction1.getIndexStatus());
+    assertEquals(FAILED, indexAction1.getIndexStatus());
     assertEquals(FAILED, indexAction2.getIndexStatus());
-    verify(dataService, atLeast(1)).update(INDEX_ACTION, indexAction1);
-    verify(dataService, atLeast(1)).update(INDEX_ACTION, indexAction2);
-    verify(dataService, never()).delete(INDEX_ACTION_GROUP, indexActionGroup);
+    verify(dataService, times(2)).update(eq(INDEX_ACTION), any(Stream.class));
+    verify(dataService, never()).deleteById(INDEX_ACTION_GROUP, transactionId);
   }
 
   @Configuration
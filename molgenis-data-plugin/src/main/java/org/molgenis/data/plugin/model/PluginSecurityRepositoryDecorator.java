@@ -1,5 +1,6 @@
 package org.molgenis.data.plugin.model;
 
+import java.util.List;
 import java.util.stream.Stream;
 import org.molgenis.data.AbstractRepositoryDecorator;
 import org.molgenis.data.EntityAlreadyExistsException;
@@ -36,6 +37,11 @@ public class PluginSecurityRepositoryDecorator extends AbstractRepositoryDecorat
             }));
   }
 
+  @Override
+  public void upsertBatch(List<Plugin> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
+
   @Override
   public void delete(Plugin plugin) {
     deleteAcl(plugin);
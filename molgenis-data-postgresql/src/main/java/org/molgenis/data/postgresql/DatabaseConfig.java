@@ -2,6 +2,7 @@ package org.molgenis.data.postgresql;
 
 import static java.util.Objects.requireNonNull;
 
+import java.time.Duration;
 import javax.sql.DataSource;
 import org.molgenis.data.config.DataSourceConfig;
 import org.molgenis.data.populate.IdGenerator;
@@ -33,6 +34,10 @@ public class DatabaseConfig implements TransactionManagementConfigurer {
   @Value("${db_password:@null}")
   private String dbPassword;
 
+  /** Seconds after a commit during which the committing user doesn't read from a read replica */
+  @Value("${db_replica_read_your_writes_seconds:10}")
+  private long dbReplicaReadYourWritesSeconds;
+
   private final IdGenerator idGenerator;
   private final DataSource dataSource;
   private final TransactionExceptionTranslatorRegistry transactionExceptionTranslatorRegistry;
@@ -50,7 +55,10 @@ public class DatabaseConfig implements TransactionManagementConfigurer {
   @Bean
   public TransactionManager transactionManager() {
     return new PostgreSqlTransactionManager(
-        idGenerator, dataSource, transactionExceptionTranslatorRegistry);
+        idGenerator,
+        dataSource,
+        transactionExceptionTranslatorRegistry,
+        Duration.ofSeconds(dbReplicaReadYourWritesSeconds));
   }
 
   @Override
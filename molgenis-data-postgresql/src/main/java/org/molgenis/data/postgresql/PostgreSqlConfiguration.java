@@ -6,12 +6,21 @@ import javax.sql.DataSource;
 import org.molgenis.data.DataService;
 import org.molgenis.data.RepositoryCollection;
 import org.molgenis.data.postgresql.identifier.EntityTypeRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 @Configuration
 public class PostgreSqlConfiguration {
+  /** Add entities using COPY instead of batched INSERT statements, e.g. for large imports */
+  @Value("${db_copy_enabled:false}")
+  private boolean copyEnabled;
+
+  /** Maximum number of cached SQL statements generated for queries */
+  @Value("${db_query_cache_size:1000}")
+  private long queryCacheSize;
+
   private final PostgreSqlEntityFactory postgreSqlEntityFactory;
   private final DataSource dataSource;
   private final DataService dataService;
@@ -42,7 +51,12 @@ public class PostgreSqlConfiguration {
   public RepositoryCollection postgreSqlRepositoryCollection() {
     return new PostgreSqlRepositoryCollectionDecorator(
         new PostgreSqlRepositoryCollection(
-            postgreSqlEntityFactory, dataSource, jdbcTemplate(), dataService),
+            postgreSqlEntityFactory,
+            dataSource,
+            jdbcTemplate(),
+            dataService,
+            copyEnabled,
+            new PostgreSqlQueryCache(queryCacheSize)),
         entityTypeRegistry);
   }
 }
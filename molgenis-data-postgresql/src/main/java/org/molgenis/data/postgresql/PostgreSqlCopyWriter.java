@@ -0,0 +1,102 @@
+package org.molgenis.data.postgresql;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+/**
+ * Writes rows to a table with a <tt>COPY ... FROM STDIN</tt> statement in PostgreSQL text format.
+ *
+ * @see <a href="https://www.postgresql.org/docs/11/sql-copy.html">COPY</a>
+ */
+class PostgreSqlCopyWriter {
+  private static final char COLUMN_SEPARATOR = '\t';
+  private static final char ROW_SEPARATOR = '\n';
+  private static final String NULL_VALUE = "\\N";
+
+  private PostgreSqlCopyWriter() {}
+
+  /** Returns whether the COPY protocol is available for the given connection. */
+  static boolean isCopySupported(Connection connection) throws SQLException {
+    return connection.isWrapperFor(PGConnection.class);
+  }
+
+  /**
+   * Writes rows using the given COPY statement.
+   *
+   * @param connection connection that supports the COPY protocol
+   * @param copySql <tt>COPY ... FROM STDIN</tt> statement
+   * @param rows rows with values in the column order of the COPY statement
+   * @return number of written rows
+   */
+  static long copy(Connection connection, String copySql, Iterable<List<Object>> rows)
+      throws SQLException {
+    CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+    CopyIn copyIn = copyManager.copyIn(copySql);
+    try {
+      StringBuilder row = new StringBuilder();
+      for (List<Object> values : rows) {
+        row.setLength(0);
+        appendRow(row, values);
+        byte[] bytes = row.toString().getBytes(UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+      }
+      return copyIn.endCopy();
+    } finally {
+      if (copyIn.isActive()) {
+        copyIn.cancelCopy();
+      }
+    }
+  }
+
+  static void appendRow(StringBuilder row, List<Object> values) {
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) {
+        row.append(COLUMN_SEPARATOR);
+      }
+      appendValue(row, values.get(i));
+    }
+    row.append(ROW_SEPARATOR);
+  }
+
+  /**
+   * Appends a value as returned by {@link PostgreSqlUtils#getPostgreSqlValue} in text format.
+   * Temporal values are written in ISO 8601 format.
+   */
+  private static void appendValue(StringBuilder row, Object value) {
+    if (value == null) {
+      row.append(NULL_VALUE);
+    } else if (value instanceof Boolean) {
+      row.append((boolean) value ? 't' : 'f');
+    } else {
+      appendEscaped(row, value.toString());
+    }
+  }
+
+  private static void appendEscaped(StringBuilder row, String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '\\':
+          row.append("\\\\");
+          break;
+        case '\t':
+          row.append("\\t");
+          break;
+        case '\n':
+          row.append("\\n");
+          break;
+        case '\r':
+          row.append("\\r");
+          break;
+        default:
+          row.append(c);
+      }
+    }
+  }
+}
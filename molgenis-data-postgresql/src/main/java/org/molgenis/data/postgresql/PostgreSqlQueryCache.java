@@ -0,0 +1,216 @@
+package org.molgenis.data.postgresql;
+
+import static com.google.common.collect.Iterables.size;
+import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.meta.AttributeType.BOOL;
+import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlParameters;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import org.molgenis.data.Entity;
+import org.molgenis.data.Fetch;
+import org.molgenis.data.PermissionFilter;
+import org.molgenis.data.Query;
+import org.molgenis.data.QueryRule;
+import org.molgenis.data.Sort;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+
+/**
+ * Caches the SQL generated for queries by query shape: the entity type, the query rules without
+ * their values, the fetch, the sort and the paging. Queries that only differ in their values share
+ * the same SQL, so that repeated queries skip SQL generation and the statement text stays stable
+ * for prepared statement reuse. Only the parameters are collected for queries with a cached shape.
+ *
+ * <p>Entity types are compared by identity, so that a changed entity type never matches SQL that
+ * was generated for its previous version. {@link #invalidateAll()} must be called when an entity
+ * type is changed in place.
+ */
+class PostgreSqlQueryCache {
+  private final Cache<QueryShape, String> sqlCache;
+
+  PostgreSqlQueryCache(long maximumSize) {
+    this.sqlCache = Caffeine.newBuilder().maximumSize(maximumSize).build();
+  }
+
+  /**
+   * Returns the SQL to select the entities that match the query without MREF values.
+   *
+   * @see PostgreSqlQueryGenerator#getSqlSelect(EntityType, Query, List, boolean)
+   */
+  <E extends Entity> String getSqlSelect(
+      EntityType entityType, Query<E> q, List<Object> parameters) {
+    return getSql(
+        QueryShape.createSelectShape(entityType, q),
+        entityType,
+        q,
+        parameters,
+        sqlParameters ->
+            PostgreSqlQueryGenerator.getSqlSelect(entityType, q, sqlParameters, false));
+  }
+
+  /**
+   * Returns the SQL to count the entities that match the query.
+   *
+   * @see PostgreSqlQueryGenerator#getSqlCount(EntityType, Query, List)
+   */
+  <E extends Entity> String getSqlCount(
+      EntityType entityType, Query<E> q, List<Object> parameters) {
+    return getSql(
+        QueryShape.createCountShape(entityType, q),
+        entityType,
+        q,
+        parameters,
+        sqlParameters -> PostgreSqlQueryGenerator.getSqlCount(entityType, q, sqlParameters));
+  }
+
+  void invalidateAll() {
+    sqlCache.invalidateAll();
+  }
+
+  private <E extends Entity> String getSql(
+      QueryShape queryShape,
+      EntityType entityType,
+      Query<E> q,
+      List<Object> parameters,
+      Function<List<Object>, String> sqlGenerator) {
+    String sql = sqlCache.getIfPresent(queryShape);
+    if (sql != null) {
+      getSqlParameters(entityType, q.getRules(), parameters);
+    } else {
+      sql = sqlGenerator.apply(parameters);
+      sqlCache.put(queryShape, sql);
+    }
+    return sql;
+  }
+
+  private static final class QueryShape {
+    private final EntityType entityType;
+    private final boolean count;
+    private final String rules;
+    @Nullable private final Fetch fetch;
+    @Nullable private final Sort sort;
+    private final int pageSize;
+    private final int offset;
+
+    private QueryShape(
+        EntityType entityType,
+        boolean count,
+        String rules,
+        @Nullable Fetch fetch,
+        @Nullable Sort sort,
+        int pageSize,
+        int offset) {
+      this.entityType = requireNonNull(entityType);
+      this.count = count;
+      this.rules = requireNonNull(rules);
+      this.fetch = fetch;
+      this.sort = sort;
+      this.pageSize = pageSize;
+      this.offset = offset;
+    }
+
+    static QueryShape createSelectShape(EntityType entityType, Query<?> q) {
+      return new QueryShape(
+          entityType,
+          false,
+          getRulesShape(entityType, q.getRules()),
+          q.getFetch(),
+          q.getSort(),
+          q.getPageSize(),
+          q.getOffset());
+    }
+
+    /** Counts ignore the fetch, sort and paging of the query */
+    static QueryShape createCountShape(EntityType entityType, Query<?> q) {
+      return new QueryShape(
+          entityType, true, getRulesShape(entityType, q.getRules()), null, null, 0, 0);
+    }
+
+    private static String getRulesShape(EntityType entityType, List<QueryRule> rules) {
+      StringBuilder shape = new StringBuilder();
+      appendRulesShape(entityType, rules, shape);
+      return shape.toString();
+    }
+
+    /**
+     * Appends the operators and fields of the rules, and the parts of the values that determine the
+     * generated SQL: null and boolean EQUALS values and the number of IN and PERMITTED values.
+     */
+    private static void appendRulesShape(
+        EntityType entityType, List<QueryRule> rules, StringBuilder shape) {
+      for (QueryRule rule : rules) {
+        shape.append(rule.getOperator()).append('(');
+        if (rule.getField() != null) {
+          shape.append(rule.getField());
+        }
+        shape.append(':');
+
+        Object value = rule.getValue();
+        switch (rule.getOperator()) {
+          case NESTED:
+            appendRulesShape(entityType, rule.getNestedRules(), shape);
+            break;
+          case EQUALS:
+            if (value == null) {
+              shape.append("null");
+            } else {
+              Attribute attr =
+                  rule.getField() != null ? entityType.getAttribute(rule.getField()) : null;
+              if (attr != null && attr.getDataType() == BOOL) {
+                shape.append(PostgreSqlUtils.getPostgreSqlQueryValue(value, attr));
+              }
+            }
+            break;
+          case IN:
+            if (value instanceof Iterable<?>) {
+              shape.append(size((Iterable<?>) value));
+            }
+            break;
+          case PERMITTED:
+            if (value instanceof PermissionFilter) {
+              PermissionFilter permissionFilter = (PermissionFilter) value;
+              shape
+                  .append(permissionFilter.getPrincipalSids().size())
+                  .append(',')
+                  .append(permissionFilter.getAuthoritySids().size());
+            }
+            break;
+            // $CASES-OMITTED$
+          default:
+            // values are bound as parameters
+            break;
+        }
+        shape.append(')');
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      QueryShape that = (QueryShape) o;
+      return entityType == that.entityType
+          && count == that.count
+          && pageSize == that.pageSize
+          && offset == that.offset
+          && rules.equals(that.rules)
+          && Objects.equals(fetch, that.fetch)
+          && Objects.equals(sort, that.sort);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(
+          System.identityHashCode(entityType), count, rules, fetch, sort, pageSize, offset);
+    }
+  }
+}
@@ -3,6 +3,7 @@ package org.molgenis.data.postgresql;
 import static com.google.common.collect.Streams.stream;
 import static java.lang.String.format;
 import static java.time.ZoneOffset.UTC;
+import static java.util.Collections.emptyIterator;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.IntStream.range;
@@ -15,6 +16,7 @@ import static org.molgenis.data.QueryRule.Operator.LIKE;
 import static org.molgenis.data.QueryRule.Operator.NESTED;
 import static org.molgenis.data.QueryRule.Operator.RANGE;
 import static org.molgenis.data.meta.AttributeType.BOOL;
+import static org.molgenis.data.meta.AttributeType.COMPOUND;
 import static org.molgenis.data.meta.AttributeType.ENUM;
 import static org.molgenis.data.meta.AttributeType.ONE_TO_MANY;
 import static org.molgenis.data.postgresql.PostgreSqlNameGenerator.getCheckConstraintName;
@@ -34,6 +36,7 @@ import static org.molgenis.data.postgresql.PostgreSqlQueryUtils.getPersistedAttr
 import static org.molgenis.data.postgresql.PostgreSqlQueryUtils.getTableAttributes;
 import static org.molgenis.data.postgresql.PostgreSqlQueryUtils.isPersistedInPostgreSql;
 import static org.molgenis.data.util.EntityTypeUtils.isMultipleReferenceType;
+import static org.molgenis.data.util.EntityTypeUtils.isReferenceType;
 import static org.molgenis.data.util.EntityTypeUtils.isSingleReferenceType;
 import static org.molgenis.data.util.EntityTypeUtils.isStringType;
 import static org.molgenis.data.util.EntityTypeUtils.isTextType;
@@ -46,12 +49,16 @@ import java.time.temporal.ChronoUnit;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.molgenis.data.Entity;
+import org.molgenis.data.Fetch;
 import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.PermissionFilter;
 import org.molgenis.data.Query;
 import org.molgenis.data.QueryRule;
 import org.molgenis.data.QueryRule.Operator;
@@ -436,6 +443,32 @@ class PostgreSqlQueryGenerator {
     return sql.toString();
   }
 
+  /**
+   * Returns INSERT statement that updates the existing row with the same id instead of adding a
+   * row. The parameters are the same as for {@link #getSqlInsert(EntityType)}.
+   */
+  static String getSqlUpsert(EntityType entityType) {
+    Attribute idAttribute = entityType.getIdAttribute();
+    String idColumnName = getColumnName(idAttribute);
+    StringBuilder sql =
+        new StringBuilder(getSqlInsert(entityType))
+            .append(" ON CONFLICT (")
+            .append(idColumnName)
+            .append(") DO ");
+    String updateColumns =
+        getTableAttributes(entityType)
+            .filter(attr -> !attr.getName().equals(idAttribute.getName()))
+            .map(PostgreSqlNameGenerator::getColumnName)
+            .map(columnName -> columnName + " = EXCLUDED." + columnName)
+            .collect(joining(", "));
+    if (updateColumns.isEmpty()) {
+      sql.append("NOTHING");
+    } else {
+      sql.append("UPDATE SET ").append(updateColumns);
+    }
+    return sql.toString();
+  }
+
   static String getSqlInsertJunction(EntityType entityType, Attribute attr) {
     String junctionTableName = getJunctionTableName(entityType, attr);
     return "INSERT INTO "
@@ -449,6 +482,29 @@ class PostgreSqlQueryGenerator {
         + ") VALUES (?,?,?)";
   }
 
+  /** Returns COPY statement that reads table attribute values in text format from STDIN. */
+  static String getSqlCopy(EntityType entityType) {
+    String columns =
+        getTableAttributes(entityType)
+            .map(PostgreSqlNameGenerator::getColumnName)
+            .collect(joining(", "));
+    return "COPY " + getTableName(entityType) + " (" + columns + ") FROM STDIN";
+  }
+
+  /** Returns COPY statement that reads junction table rows in text format from STDIN. */
+  static String getSqlCopyJunction(EntityType entityType, Attribute attr) {
+    String junctionTableName = getJunctionTableName(entityType, attr);
+    return "COPY "
+        + junctionTableName
+        + " ("
+        + getJunctionTableOrderColumnName()
+        + ','
+        + getColumnName(entityType.getIdAttribute())
+        + ','
+        + getColumnName(attr)
+        + ") FROM STDIN";
+  }
+
   static String getSqlDeleteAll(EntityType entityType) {
     return "DELETE FROM " + getTableName(entityType);
   }
@@ -583,9 +639,8 @@ class PostgreSqlQueryGenerator {
                               + getColumnName(attr);
                       select.append(mrefSelect);
                     } else {
-                      // TODO retrieve mref values in separate queries to allow specifying limit and
-                      // offset after nested MOLGENIS queries are implemented as sub-queries instead
-                      // of query rules
+                      // correlated subquery per row, PostgreSqlRepository selects the values of
+                      // a page of entities in separate junction table queries instead
                       String mrefSelect =
                           MessageFormat.format(
                               "(SELECT array_agg(DISTINCT ARRAY[{0}.{1}::TEXT,{0}.{0}::TEXT]) "
@@ -1039,6 +1094,24 @@ class PostgreSqlQueryGenerator {
           }
           result.append(predicate);
           break;
+        case PERMITTED:
+          Object permissionFilter = r.getValue();
+          if (!(permissionFilter instanceof PermissionFilter)) {
+            throw new MolgenisDataException(
+                format(
+                    "PERMITTED value is of type [%s] instead of [PermissionFilter]",
+                    permissionFilter != null ? permissionFilter.getClass().getSimpleName() : null));
+          }
+          predicate.append(
+              getSqlPermitted(entityType, (PermissionFilter) permissionFilter, parameters));
+          if (result.length() > 0
+              && !result.toString().endsWith(" OR ")
+              && !result.toString().endsWith(" AND ")
+              && !result.toString().endsWith(" NOT ")) {
+            result.append(" AND ");
+          }
+          result.append(predicate);
+          break;
         case DIS_MAX:
         case FUZZY_MATCH:
         case FUZZY_MATCH_NGRAM:
@@ -1057,6 +1130,121 @@ class PostgreSqlQueryGenerator {
     return result.toString().trim();
   }
 
+  /**
+   * Collects the prepared statement parameters for the given rules in the order in which {@link
+   * #getSqlWhere(EntityType, Query, List, AtomicInteger)} adds them, without generating SQL. Only
+   * valid for rules for which SQL was generated before.
+   *
+   * @param entityType entity type
+   * @param rules query rules
+   * @param parameters prepared statement parameters
+   */
+  static void getSqlParameters(
+      EntityType entityType, List<QueryRule> rules, List<Object> parameters) {
+    for (QueryRule r : rules) {
+      Attribute attr = r.getField() != null ? entityType.getAttribute(r.getField()) : null;
+      Object value = r.getValue();
+      switch (r.getOperator()) {
+        case NESTED:
+          getSqlParameters(entityType, r.getNestedRules(), parameters);
+          break;
+        case LIKE:
+          parameters.add("%" + PostgreSqlUtils.getPostgreSqlQueryValue(value, attr) + '%');
+          break;
+        case IN:
+          for (Object inValue : (Iterable<?>) value) {
+            parameters.add(PostgreSqlUtils.getPostgreSqlQueryValue(inValue, attr));
+          }
+          break;
+        case RANGE:
+          Iterator<?> rangeValues = ((Iterable<?>) value).iterator();
+          parameters.add(rangeValues.next()); // from
+          parameters.add(rangeValues.next()); // to
+          break;
+        case EQUALS:
+          if (value != null && attr.getDataType() != BOOL) {
+            parameters.add(PostgreSqlUtils.getPostgreSqlQueryValue(value, attr));
+          }
+          break;
+        case GREATER:
+        case GREATER_EQUAL:
+        case LESS:
+        case LESS_EQUAL:
+          parameters.add(PostgreSqlUtils.getPostgreSqlQueryValue(value, attr));
+          break;
+        case PERMITTED:
+          PermissionFilter permissionFilter = (PermissionFilter) value;
+          if (!permissionFilter.getPrincipalSids().isEmpty()
+              || !permissionFilter.getAuthoritySids().isEmpty()) {
+            parameters.add(permissionFilter.getAclClass());
+            parameters.add(permissionFilter.getMask());
+            parameters.addAll(permissionFilter.getPrincipalSids());
+            parameters.addAll(permissionFilter.getAuthoritySids());
+          }
+          break;
+          // $CASES-OMITTED$
+        default:
+          break;
+      }
+    }
+  }
+
+  /**
+   * Returns a predicate that matches the rows with an access control list that contains a granting
+   * entry for one of the security identities of the permission filter with a permission mask that
+   * has at least one bit in common with the mask of the permission filter.
+   *
+   * <p>Row-level access control lists are created without parent, so inherited entries are not
+   * taken into account.
+   */
+  private static String getSqlPermitted(
+      EntityType entityType, PermissionFilter permissionFilter, List<Object> parameters) {
+    Set<String> principalSids = permissionFilter.getPrincipalSids();
+    Set<String> authoritySids = permissionFilter.getAuthoritySids();
+    if (principalSids.isEmpty() && authoritySids.isEmpty()) {
+      return "FALSE";
+    }
+
+    StringBuilder sql =
+        new StringBuilder("EXISTS (SELECT 1 FROM acl_object_identity")
+            .append(" JOIN acl_class ON acl_object_identity.object_id_class = acl_class.id")
+            .append(" JOIN acl_entry ON acl_entry.acl_object_identity = acl_object_identity.id")
+            .append(" JOIN acl_sid ON acl_entry.sid = acl_sid.id")
+            .append(" WHERE acl_class.class = ?")
+            .append(" AND acl_object_identity.object_id_identity = CAST(this.")
+            .append(getColumnName(entityType.getIdAttribute()))
+            .append(" AS VARCHAR)")
+            .append(" AND acl_entry.granting AND (acl_entry.mask & ?) <> 0 AND (");
+    parameters.add(permissionFilter.getAclClass());
+    parameters.add(permissionFilter.getMask());
+
+    if (!principalSids.isEmpty()) {
+      sql.append("(acl_sid.principal AND acl_sid.sid IN (");
+      appendSqlParameters(principalSids, sql, parameters);
+      sql.append("))");
+    }
+    if (!authoritySids.isEmpty()) {
+      if (!principalSids.isEmpty()) {
+        sql.append(" OR ");
+      }
+      sql.append("(NOT acl_sid.principal AND acl_sid.sid IN (");
+      appendSqlParameters(authoritySids, sql, parameters);
+      sql.append("))");
+    }
+    return sql.append("))").toString();
+  }
+
+  private static void appendSqlParameters(
+      Collection<?> values, StringBuilder sql, List<Object> parameters) {
+    for (Iterator<?> it = values.iterator(); it.hasNext(); ) {
+      parameters.add(it.next());
+      sql.append('?');
+      if (it.hasNext()) {
+        sql.append(',');
+      }
+    }
+  }
+
   private static void getSqlWhereForInQueryRule(
       QueryRule r,
       EntityType entityType,
@@ -1148,6 +1336,44 @@ class PostgreSqlQueryGenerator {
     return sortSql.toString();
   }
 
+  /**
+   * Returns the attribute that allows for keyset pagination of the query results (WHERE attr > ?
+   * ORDER BY attr LIMIT ?) instead of offset pagination, or <tt>null</tt> if the query isn't sorted
+   * on a single unique non-null attribute stored in the entity table.
+   */
+  @CheckForNull
+  @Nullable
+  static <E extends Entity> Attribute getKeysetAttribute(EntityType entityType, Query<E> q) {
+    Attribute attribute;
+    Sort sort = q.getSort();
+    Iterator<Sort.Order> orders = sort != null ? sort.iterator() : emptyIterator();
+    if (!orders.hasNext()) {
+      attribute = entityType.getIdAttribute();
+    } else {
+      attribute = entityType.getAttribute(orders.next().getAttr());
+      if (orders.hasNext() || !isKeysetAttribute(entityType, attribute)) {
+        return null;
+      }
+    }
+
+    Fetch fetch = q.getFetch();
+    if (fetch != null && !fetch.hasField(attribute)) {
+      return null;
+    }
+    return attribute;
+  }
+
+  private static boolean isKeysetAttribute(EntityType entityType, Attribute attribute) {
+    if (attribute.equals(entityType.getIdAttribute())) {
+      return true;
+    }
+    return attribute.isUnique()
+        && !attribute.isNillable()
+        && attribute.getExpression() == null
+        && attribute.getDataType() != COMPOUND
+        && !isReferenceType(attribute);
+  }
+
   private static boolean hasUniqueSortAttribute(EntityType entityType, Sort sort) {
     for (Sort.Order order : sort) {
       String attributeName = order.getAttr();
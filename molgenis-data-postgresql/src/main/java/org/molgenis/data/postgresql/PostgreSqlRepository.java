@@ -3,6 +3,7 @@ package org.molgenis.data.postgresql;
 import static com.google.common.base.Stopwatch.createStarted;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
 import static com.google.common.collect.Streams.stream;
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
@@ -22,9 +23,11 @@ import static org.molgenis.data.QueryRule.Operator.LIKE;
 import static org.molgenis.data.QueryRule.Operator.NESTED;
 import static org.molgenis.data.QueryRule.Operator.NOT;
 import static org.molgenis.data.QueryRule.Operator.OR;
+import static org.molgenis.data.QueryRule.Operator.PERMITTED;
 import static org.molgenis.data.QueryRule.Operator.RANGE;
 import static org.molgenis.data.RepositoryCapability.CACHEABLE;
 import static org.molgenis.data.RepositoryCapability.MANAGABLE;
+import static org.molgenis.data.RepositoryCapability.PERMISSION_FILTERABLE;
 import static org.molgenis.data.RepositoryCapability.QUERYABLE;
 import static org.molgenis.data.RepositoryCapability.VALIDATE_NOTNULL_CONSTRAINT;
 import static org.molgenis.data.RepositoryCapability.VALIDATE_READONLY_CONSTRAINT;
@@ -32,9 +35,12 @@ import static org.molgenis.data.RepositoryCapability.VALIDATE_REFERENCE_CONSTRAI
 import static org.molgenis.data.RepositoryCapability.VALIDATE_UNIQUE_CONSTRAINT;
 import static org.molgenis.data.RepositoryCapability.WRITABLE;
 import static org.molgenis.data.meta.AttributeType.ONE_TO_MANY;
+import static org.molgenis.data.postgresql.PostgreSqlCopyWriter.isCopySupported;
 import static org.molgenis.data.postgresql.PostgreSqlExceptionTranslator.VALUE_TOO_LONG_MSG;
 import static org.molgenis.data.postgresql.PostgreSqlNameGenerator.getJunctionTableOrderColumnName;
-import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlCount;
+import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getKeysetAttribute;
+import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlCopy;
+import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlCopyJunction;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlDelete;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlDeleteAll;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlInsert;
@@ -42,6 +48,7 @@ import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlInsert
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlJunctionTableSelect;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlSelect;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlUpdate;
+import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlUpsert;
 import static org.molgenis.data.postgresql.PostgreSqlQueryUtils.getJunctionTableAttributes;
 import static org.molgenis.data.postgresql.PostgreSqlQueryUtils.getTableAttributes;
 import static org.molgenis.data.postgresql.PostgreSqlUtils.getPostgreSqlValue;
@@ -54,11 +61,13 @@ import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
@@ -67,6 +76,7 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import javax.sql.DataSource;
 import org.molgenis.data.Entity;
 import org.molgenis.data.Fetch;
@@ -84,11 +94,14 @@ import org.molgenis.util.UnexpectedEnumException;
 import org.molgenis.validation.ConstraintViolation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceUtils;
 
 /**
  * Repository that persists entities in a PostgreSQL database
@@ -104,6 +117,10 @@ class PostgreSqlRepository extends AbstractRepository {
 
   /** JDBC batch operation size */
   static final int BATCH_SIZE = 1000;
+  /** Number of entities per COPY operation */
+  static final int COPY_BATCH_SIZE = 10000;
+  /** Minimum number of entities for which COPY is faster than batched INSERT statements */
+  static final int COPY_THRESHOLD = 100;
   /** Repository capabilities */
   private static final Set<RepositoryCapability> REPO_CAPABILITIES =
       unmodifiableSet(
@@ -115,7 +132,8 @@ class PostgreSqlRepository extends AbstractRepository {
               VALIDATE_UNIQUE_CONSTRAINT,
               VALIDATE_NOTNULL_CONSTRAINT,
               VALIDATE_READONLY_CONSTRAINT,
-              CACHEABLE));
+              CACHEABLE,
+              PERMISSION_FILTERABLE));
 
   /** Supported query operators */
   private static final Set<Operator> QUERY_OPERATORS =
@@ -132,22 +150,34 @@ class PostgreSqlRepository extends AbstractRepository {
               NOT,
               AND,
               OR,
-              NESTED));
+              NESTED,
+              PERMITTED));
 
   private final PostgreSqlEntityFactory postgreSqlEntityFactory;
   private final JdbcTemplate jdbcTemplate;
   private final DataSource dataSource;
   private final EntityType entityType;
+  private final boolean copyEnabled;
+  private final PostgreSqlQueryCache queryCache;
 
+  /**
+   * @param copyEnabled whether to add entities using <tt>COPY ... FROM STDIN</tt> instead of
+   *     batched INSERT statements
+   * @param queryCache cache for the SQL generated for queries, shared between repositories
+   */
   PostgreSqlRepository(
       PostgreSqlEntityFactory postgreSqlEntityFactory,
       JdbcTemplate jdbcTemplate,
       DataSource dataSource,
-      EntityType entityType) {
+      EntityType entityType,
+      boolean copyEnabled,
+      PostgreSqlQueryCache queryCache) {
     this.postgreSqlEntityFactory = requireNonNull(postgreSqlEntityFactory);
     this.jdbcTemplate = requireNonNull(jdbcTemplate);
     this.dataSource = requireNonNull(dataSource);
     this.entityType = requireNonNull(entityType);
+    this.copyEnabled = copyEnabled;
+    this.queryCache = requireNonNull(queryCache);
   }
 
   @Override
@@ -174,7 +204,7 @@ class PostgreSqlRepository extends AbstractRepository {
   @Override
   public long count(Query<Entity> q) {
     List<Object> parameters = Lists.newArrayList();
-    String sql = getSqlCount(entityType, q, parameters);
+    String sql = queryCache.getSqlCount(entityType, q, parameters);
 
     if (LOG.isDebugEnabled()) {
       LOG.debug("Counting [{}] rows for query [{}]", getName(), q);
@@ -282,6 +312,57 @@ class PostgreSqlRepository extends AbstractRepository {
     return addBatching(entities.iterator());
   }
 
+  /**
+   * Upserts entities with one INSERT ... ON CONFLICT statement per batch instead of looking up the
+   * existing entities and adding and updating them separately. The junction table rows of the
+   * upserted entities are replaced.
+   */
+  @Override
+  public void upsertBatch(List<Entity> entities) {
+    final List<Attribute> junctionTableAttrs =
+        getJunctionTableAttributes(entityType).collect(toList());
+    if (junctionTableAttrs.stream().anyMatch(Attribute::isReadOnly)) {
+      // junction table rows of readonly attributes of existing entities may not be replaced
+      super.upsertBatch(entities);
+      return;
+    }
+
+    final Attribute idAttr = entityType.getIdAttribute();
+    final List<Attribute> tableAttrs = getTableAttributes(entityType).collect(toList());
+    final String upsertSql = getSqlUpsert(entityType);
+
+    for (List<Entity> entitiesBatch : Lists.partition(entities, BATCH_SIZE)) {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Upserting {} [{}] entities", entitiesBatch.size(), getName());
+        if (LOG.isTraceEnabled()) {
+          LOG.trace("SQL: {}", upsertSql);
+        }
+      }
+
+      // upsert values in entity table
+      jdbcTemplate.batchUpdate(
+          upsertSql, new BatchAddPreparedStatementSetter(entitiesBatch, tableAttrs));
+
+      // replace values in entity junction table
+      if (!junctionTableAttrs.isEmpty()) {
+        Map<String, List<Map<String, Object>>> mrefs =
+            createMrefMap(idAttr, junctionTableAttrs, entitiesBatch);
+
+        List<Object> ids =
+            entitiesBatch.stream()
+                .map(entity -> getPostgreSqlValue(entity, idAttr))
+                .collect(toList());
+        for (Attribute attr : junctionTableAttrs) {
+          removeMrefs(ids, attr);
+          List<Map<String, Object>> attrMrefs = mrefs.get(attr.getName());
+          if (attrMrefs != null && !attrMrefs.isEmpty()) {
+            addMrefs(attrMrefs, attr);
+          }
+        }
+      }
+    }
+  }
+
   @Override
   public void forEachBatched(Fetch fetch, Consumer<List<Entity>> consumer, int batchSize) {
     final Stopwatch stopwatch = createStarted();
@@ -448,26 +529,89 @@ class PostgreSqlRepository extends AbstractRepository {
   }
 
   private BatchingQueryResult<Entity> findAllBatching(Query<Entity> q) {
-    return new BatchingQueryResult<Entity>(BATCH_SIZE, q) {
+    Attribute keysetAttribute = getKeysetAttribute(getEntityType(), q);
+    String keysetAttributeName = keysetAttribute != null ? keysetAttribute.getName() : null;
+    return new BatchingQueryResult<Entity>(BATCH_SIZE, q, keysetAttributeName) {
       @Override
       protected List<Entity> getBatch(Query<Entity> batchQuery) {
-        List<Object> parameters = new ArrayList<>();
+        List<Attribute> mrefAttrs = getFetchedJunctionTableAttributes(batchQuery.getFetch());
+        Query<Entity> selectQuery = createSelectQuery(batchQuery, mrefAttrs);
 
-        String sql = getSqlSelect(getEntityType(), batchQuery, parameters, true);
+        List<Object> parameters = new ArrayList<>();
+        String sql = queryCache.getSqlSelect(getEntityType(), selectQuery, parameters);
         RowMapper<Entity> entityMapper =
-            postgreSqlEntityFactory.createRowMapper(getEntityType(), batchQuery.getFetch());
+            postgreSqlEntityFactory.createRowMapper(getEntityType(), selectQuery.getFetch());
         LOG.debug("Fetching [{}] data for query [{}]", getName(), batchQuery);
         LOG.trace("SQL: {}, parameters: {}", sql, parameters);
         Stopwatch sw = createStarted();
         List<Entity> result =
             jdbcTemplate.query(
                 sql, parameters.toArray(new Object[parameters.size()]), entityMapper);
+        if (!result.isEmpty() && !mrefAttrs.isEmpty()) {
+          selectMrefs(result, mrefAttrs);
+        }
         LOG.trace("That took {}", sw);
         return result;
       }
     };
   }
 
+  private List<Attribute> getFetchedJunctionTableAttributes(@Nullable Fetch fetch) {
+    return getJunctionTableAttributes(entityType)
+        .filter(attr -> fetch == null || fetch.hasField(attr.getName()))
+        .collect(toList());
+  }
+
+  /**
+   * Returns the query to select the entity table rows with. The id attribute is added to the fetch
+   * when MREF values have to be selected, since the junction table rows are looked up by id.
+   */
+  private Query<Entity> createSelectQuery(Query<Entity> query, List<Attribute> mrefAttrs) {
+    Fetch fetch = query.getFetch();
+    String idAttrName = entityType.getIdAttribute().getName();
+    if (mrefAttrs.isEmpty() || fetch == null || fetch.hasField(idAttrName)) {
+      return query;
+    }
+
+    Fetch selectFetch = new Fetch();
+    fetch.forEach(entry -> selectFetch.field(entry.getKey(), entry.getValue()));
+    selectFetch.field(idAttrName);
+    return new QueryImpl<>(query).fetch(selectFetch);
+  }
+
+  /**
+   * Selects the MREF values of a page of entities with one junction table query per MREF attribute
+   * instead of one correlated subquery per MREF attribute per entity. Entities without values keep
+   * a <tt>null</tt> value, as if the values were selected with the entity table row.
+   *
+   * @param entities page of entities selected without MREF values
+   * @param mrefAttrs MREF attributes to select the values for
+   */
+  private void selectMrefs(List<Entity> entities, List<Attribute> mrefAttrs) {
+    Map<Object, Entity> entitiesById = newLinkedHashMap();
+    entities.forEach(entity -> entitiesById.put(entity.getIdValue(), entity));
+
+    AttributeType idAttributeDataType = entityType.getIdAttribute().getDataType();
+    for (Attribute mrefAttr : mrefAttrs) {
+      EntityType refEntityType = mrefAttr.getRefEntity();
+      Multimap<Object, Object> mrefIDs =
+          selectMrefIDsForAttribute(
+              entityType,
+              idAttributeDataType,
+              mrefAttr,
+              entitiesById.keySet(),
+              refEntityType.getIdAttribute().getDataType());
+      for (Map.Entry<Object, Collection<Object>> entry : mrefIDs.asMap().entrySet()) {
+        entitiesById
+            .get(entry.getKey())
+            .set(
+                mrefAttr.getName(),
+                postgreSqlEntityFactory.getReferences(
+                    refEntityType, newArrayList(entry.getValue())));
+      }
+    }
+  }
+
   private Integer addBatching(Iterator<? extends Entity> entities) {
     AtomicInteger count = new AtomicInteger();
 
@@ -477,39 +621,133 @@ class PostgreSqlRepository extends AbstractRepository {
         getJunctionTableAttributes(entityType).collect(toList());
     final String insertSql = getSqlInsert(entityType);
 
-    Iterators.partition(entities, BATCH_SIZE)
+    Iterators.partition(entities, copyEnabled ? COPY_BATCH_SIZE : BATCH_SIZE)
         .forEachRemaining(
             entitiesBatch -> {
-              if (LOG.isDebugEnabled()) {
-                LOG.debug("Adding {} [{}] entities", entitiesBatch.size(), getName());
-                if (LOG.isTraceEnabled()) {
-                  LOG.trace("SQL: {}", insertSql);
-                }
-              }
-
-              // persist values in entity table
-              jdbcTemplate.batchUpdate(
-                  insertSql, new BatchAddPreparedStatementSetter(entitiesBatch, tableAttrs));
-
-              // persist values in entity junction table
-              if (!junctionTableAttrs.isEmpty()) {
-                Map<String, List<Map<String, Object>>> mrefs =
-                    createMrefMap(idAttr, junctionTableAttrs, entitiesBatch);
-
-                for (Attribute attr : junctionTableAttrs) {
-                  List<Map<String, Object>> attrMrefs = mrefs.get(attr.getName());
-                  if (attrMrefs != null && !attrMrefs.isEmpty()) {
-                    addMrefs(attrMrefs, attr);
+              if (copyEnabled && entitiesBatch.size() >= COPY_THRESHOLD) {
+                Connection connection = DataSourceUtils.getConnection(dataSource);
+                try {
+                  if (isCopySupported(connection)) {
+                    copyBatch(connection, entitiesBatch, tableAttrs, junctionTableAttrs, idAttr);
+                    count.addAndGet(entitiesBatch.size());
+                    return;
                   }
+                } catch (SQLException e) {
+                  throw translateException("COPY", null, e);
+                } finally {
+                  DataSourceUtils.releaseConnection(connection, dataSource);
                 }
               }
 
+              for (List<? extends Entity> insertBatch :
+                  Lists.partition(entitiesBatch, BATCH_SIZE)) {
+                insertBatch(insertBatch, insertSql, tableAttrs, junctionTableAttrs, idAttr);
+              }
               count.addAndGet(entitiesBatch.size());
             });
 
     return count.get();
   }
 
+  private void insertBatch(
+      List<? extends Entity> entitiesBatch,
+      String insertSql,
+      List<Attribute> tableAttrs,
+      List<Attribute> junctionTableAttrs,
+      Attribute idAttr) {
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Adding {} [{}] entities", entitiesBatch.size(), getName());
+      if (LOG.isTraceEnabled()) {
+        LOG.trace("SQL: {}", insertSql);
+      }
+    }
+
+    // persist values in entity table
+    jdbcTemplate.batchUpdate(
+        insertSql, new BatchAddPreparedStatementSetter(entitiesBatch, tableAttrs));
+
+    // persist values in entity junction table
+    if (!junctionTableAttrs.isEmpty()) {
+      Map<String, List<Map<String, Object>>> mrefs =
+          createMrefMap(idAttr, junctionTableAttrs, entitiesBatch);
+
+      for (Attribute attr : junctionTableAttrs) {
+        List<Map<String, Object>> attrMrefs = mrefs.get(attr.getName());
+        if (attrMrefs != null && !attrMrefs.isEmpty()) {
+          addMrefs(attrMrefs, attr);
+        }
+      }
+    }
+  }
+
+  /** Adds entities to the entity table and the junction tables using the COPY protocol. */
+  private void copyBatch(
+      Connection connection,
+      List<? extends Entity> entitiesBatch,
+      List<Attribute> tableAttrs,
+      List<Attribute> junctionTableAttrs,
+      Attribute idAttr) {
+    String copySql = getSqlCopy(entityType);
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Copying {} [{}] entities", entitiesBatch.size(), getName());
+      if (LOG.isTraceEnabled()) {
+        LOG.trace("SQL: {}", copySql);
+      }
+    }
+
+    Iterable<List<Object>> rows =
+        () ->
+            entitiesBatch.stream()
+                .map(
+                    entity ->
+                        tableAttrs.stream()
+                            .map(attr -> getPostgreSqlValue(entity, attr))
+                            .collect(toList()))
+                .iterator();
+    copy(connection, copySql, rows);
+
+    if (!junctionTableAttrs.isEmpty()) {
+      Map<String, List<Map<String, Object>>> mrefs =
+          createMrefMap(idAttr, junctionTableAttrs, entitiesBatch);
+
+      for (Attribute attr : junctionTableAttrs) {
+        List<Map<String, Object>> attrMrefs = mrefs.get(attr.getName());
+        if (attrMrefs != null && !attrMrefs.isEmpty()) {
+          String copyJunctionSql = getSqlCopyJunction(entityType, attr);
+          if (LOG.isTraceEnabled()) {
+            LOG.trace("SQL: {}", copyJunctionSql);
+          }
+          Iterable<List<Object>> junctionRows =
+              () ->
+                  attrMrefs.stream()
+                      .map(mref -> createJunctionTableRow(mref, attr, idAttr))
+                      .iterator();
+          try {
+            copy(connection, copyJunctionSql, junctionRows);
+          } catch (MolgenisValidationException mve) {
+            throw translateMrefValueTooLong(mve, attr);
+          }
+        }
+      }
+    }
+  }
+
+  private void copy(Connection connection, String copySql, Iterable<List<Object>> rows) {
+    try {
+      PostgreSqlCopyWriter.copy(connection, copySql, rows);
+    } catch (SQLException e) {
+      throw translateException("COPY", copySql, e);
+    }
+  }
+
+  private RuntimeException translateException(String task, String sql, SQLException e) {
+    DataAccessException dataAccessException =
+        jdbcTemplate.getExceptionTranslator().translate(task, sql, e);
+    return dataAccessException != null
+        ? dataAccessException
+        : new UncategorizedSQLException(task, sql, e);
+  }
+
   private static Map<String, List<Map<String, Object>>> createMrefMap(
       Attribute idAttr, List<Attribute> junctionTableAttrs, List<? extends Entity> entitiesBatch) {
     Map<String, List<Map<String, Object>>> mrefs =
@@ -554,6 +792,23 @@ class PostgreSqlRepository extends AbstractRepository {
     return mref;
   }
 
+  /** Returns the order, id and referenced id values of a junction table row. */
+  private static List<Object> createJunctionTableRow(
+      Map<String, Object> mref, Attribute attr, Attribute idAttr) {
+    Object idValue0;
+    Object idValue1;
+    if (attr.isMappedBy()) {
+      Entity mrefEntity = (Entity) mref.get(attr.getName());
+      idValue0 = getPostgreSqlValue(mrefEntity, attr.getRefEntity().getIdAttribute());
+      idValue1 = mref.get(idAttr.getName());
+    } else {
+      idValue0 = mref.get(idAttr.getName());
+      Entity mrefEntity = (Entity) mref.get(attr.getName());
+      idValue1 = getPostgreSqlValue(mrefEntity, mrefEntity.getEntityType().getIdAttribute());
+    }
+    return Arrays.asList(mref.get(getJunctionTableOrderColumnName()), idValue0, idValue1);
+  }
+
   private void updateBatching(Iterator<? extends Entity> entities) {
     final Attribute idAttr = entityType.getIdAttribute();
     final List<Attribute> tableAttrs = getTableAttributes(entityType).collect(toList());
@@ -651,18 +906,23 @@ class PostgreSqlRepository extends AbstractRepository {
           insertMrefSql, new BatchJunctionTableAddPreparedStatementSetter(mrefs, attr, idAttr));
 
     } catch (MolgenisValidationException mve) {
-      if (mve.getMessage().equals(VALUE_TOO_LONG_MSG)) {
-        mve =
-            new MolgenisValidationException(
-                new ConstraintViolation(
-                    format(
-                        "One of the mref values in entity type [%s] attribute [%s] is too long.",
-                        getEntityType().getId(), attr.getName())));
-      }
-      throw mve;
+      throw translateMrefValueTooLong(mve, attr);
     }
   }
 
+  private MolgenisValidationException translateMrefValueTooLong(
+      MolgenisValidationException mve, Attribute attr) {
+    if (mve.getMessage().equals(VALUE_TOO_LONG_MSG)) {
+      mve =
+          new MolgenisValidationException(
+              new ConstraintViolation(
+                  format(
+                      "One of the mref values in entity type [%s] attribute [%s] is too long.",
+                      getEntityType().getId(), attr.getName())));
+    }
+    return mve;
+  }
+
   private void removeMrefs(final List<Object> ids, final Attribute attr) {
     final Attribute idAttr = attr.isMappedBy() ? attr.getMappedBy() : entityType.getIdAttribute();
     String deleteMrefSql =
@@ -771,22 +1031,10 @@ class PostgreSqlRepository extends AbstractRepository {
 
     @Override
     public void setValues(PreparedStatement preparedStatement, int i) throws SQLException {
-      Map<String, Object> mref = mrefs.get(i);
-
-      Object idValue0;
-      Object idValue1;
-      if (attr.isMappedBy()) {
-        Entity mrefEntity = (Entity) mref.get(attr.getName());
-        idValue0 = getPostgreSqlValue(mrefEntity, attr.getRefEntity().getIdAttribute());
-        idValue1 = mref.get(idAttr.getName());
-      } else {
-        idValue0 = mref.get(idAttr.getName());
-        Entity mrefEntity = (Entity) mref.get(attr.getName());
-        idValue1 = getPostgreSqlValue(mrefEntity, mrefEntity.getEntityType().getIdAttribute());
-      }
-      preparedStatement.setInt(1, (int) mref.get(getJunctionTableOrderColumnName()));
-      preparedStatement.setObject(2, idValue0);
-      preparedStatement.setObject(3, idValue1);
+      List<Object> row = createJunctionTableRow(mrefs.get(i), attr, idAttr);
+      preparedStatement.setInt(1, (int) row.get(0));
+      preparedStatement.setObject(2, row.get(1));
+      preparedStatement.setObject(3, row.get(2));
     }
 
     @Override
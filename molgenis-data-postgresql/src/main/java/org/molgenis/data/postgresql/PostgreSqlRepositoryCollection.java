@@ -96,16 +96,22 @@ public class PostgreSqlRepositoryCollection extends AbstractRepositoryCollection
   private final DataSource dataSource;
   private final JdbcTemplate jdbcTemplate;
   private final DataService dataService;
+  private final boolean copyEnabled;
+  private final PostgreSqlQueryCache queryCache;
 
   PostgreSqlRepositoryCollection(
       PostgreSqlEntityFactory postgreSqlEntityFactory,
       DataSource dataSource,
       JdbcTemplate jdbcTemplate,
-      DataService dataService) {
+      DataService dataService,
+      boolean copyEnabled,
+      PostgreSqlQueryCache queryCache) {
     this.postgreSqlEntityFactory = requireNonNull(postgreSqlEntityFactory);
     this.dataSource = requireNonNull(dataSource);
     this.jdbcTemplate = requireNonNull(jdbcTemplate);
     this.dataService = requireNonNull(dataService);
+    this.copyEnabled = copyEnabled;
+    this.queryCache = requireNonNull(queryCache);
   }
 
   @Override
@@ -187,11 +193,13 @@ public class PostgreSqlRepositoryCollection extends AbstractRepositoryCollection
       throw new UnknownRepositoryException(entityType.getId());
     }
     dropTables(entityType);
+    queryCache.invalidateAll();
   }
 
   @Override
   public void updateRepository(EntityType entityType, EntityType updatedEntityType) {
-    //  no actions needed
+    //  no table changes needed, but the entity type might be updated in place
+    queryCache.invalidateAll();
   }
 
   private void dropTables(EntityType entityType) {
@@ -233,6 +241,7 @@ public class PostgreSqlRepositoryCollection extends AbstractRepositoryCollection
               "Adding attribute operation failed. Attribute already exists [%s]", attr.getName()));
     }
     addAttributeInternal(entityType, attr);
+    queryCache.invalidateAll();
   }
 
   @Override
@@ -243,6 +252,7 @@ public class PostgreSqlRepositoryCollection extends AbstractRepositoryCollection
               "Cannot update attribute [%s] for abstract entity type [%s].",
               attr.getName(), entityType.getId()));
     }
+    queryCache.invalidateAll();
     if (!isPersisted(attr) && !isPersisted(updatedAttr)) {
       return;
     }
@@ -267,6 +277,7 @@ public class PostgreSqlRepositoryCollection extends AbstractRepositoryCollection
     if (entityType.getAttribute(attr.getName()) == null) {
       throw new UnknownAttributeException(entityType, attr.getName());
     }
+    queryCache.invalidateAll();
     if (!isPersisted(attr)) {
       return;
     }
@@ -698,7 +709,8 @@ public class PostgreSqlRepositoryCollection extends AbstractRepositoryCollection
 
   /** Return a new PostgreSQL repository */
   private PostgreSqlRepository createPostgreSqlRepository(EntityType entityType) {
-    return new PostgreSqlRepository(postgreSqlEntityFactory, jdbcTemplate, dataSource, entityType);
+    return new PostgreSqlRepository(
+        postgreSqlEntityFactory, jdbcTemplate, dataSource, entityType, copyEnabled, queryCache);
   }
 
   private boolean isTableExists(EntityType entityType) {
@@ -2,11 +2,19 @@ package org.molgenis.data.postgresql.transaction;
 
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
+import static org.molgenis.security.core.utils.SecurityUtils.currentUserIsSystem;
+import static org.molgenis.security.core.utils.SecurityUtils.getCurrentUsername;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import javax.sql.DataSource;
 import org.apache.commons.logging.LogFactory;
+import org.molgenis.data.config.ReadReplicaRoutingDataSource;
 import org.molgenis.data.populate.IdGenerator;
 import org.molgenis.data.transaction.MolgenisTransaction;
 import org.molgenis.data.transaction.TransactionConstants;
@@ -29,26 +37,48 @@ import org.springframework.transaction.support.TransactionSynchronizationManager
  * rollback of transactions that are not readonly.
  *
  * <p>Each transaction is given a unique transaction id.
+ *
+ * <p>Read-only transactions are routed to a read replica when the data source is a {@link
+ * ReadReplicaRoutingDataSource}, unless the current user committed a transaction that was not
+ * read-only within the read-your-writes window. Such users read from the primary data source, so
+ * that they see their own changes before the replicas have caught up. Transactions routed to a read
+ * replica are marked with the {@link TransactionConstants#READ_REPLICA_RESOURCE_NAME} resource.
  */
 @SuppressWarnings("squid:S1948") // The transactionmanager will never be serialized
 public class PostgreSqlTransactionManager extends DataSourceTransactionManager
     implements TransactionManager {
   private static final long serialVersionUID = 1L;
   private static final Logger LOG = LoggerFactory.getLogger(PostgreSqlTransactionManager.class);
+  private static final String SYSTEM_PIN_KEY = "SYSTEM";
   private final IdGenerator idGenerator;
   private final List<TransactionListener> transactionListeners = new ArrayList<>();
   private final TransactionExceptionTranslatorRegistry transactionExceptionTranslatorRegistry;
+  /** Users that read from the primary data source after committing changes */
+  private final Cache<String, Boolean> primaryPinnedUsers;
 
   public PostgreSqlTransactionManager(
       IdGenerator idGenerator,
       DataSource dataSource,
       TransactionExceptionTranslatorRegistry transactionExceptionTranslatorRegistry) {
+    this(idGenerator, dataSource, transactionExceptionTranslatorRegistry, Duration.ZERO);
+  }
+
+  /**
+   * @param readYourWritesWindow time after a commit during which read-only transactions of the
+   *     committing user are not routed to a read replica
+   */
+  public PostgreSqlTransactionManager(
+      IdGenerator idGenerator,
+      DataSource dataSource,
+      TransactionExceptionTranslatorRegistry transactionExceptionTranslatorRegistry,
+      Duration readYourWritesWindow) {
     super(dataSource);
     super.logger = LogFactory.getLog(DataSourceTransactionManager.class);
     setNestedTransactionAllowed(false);
     this.idGenerator = idGenerator;
     this.transactionExceptionTranslatorRegistry =
         requireNonNull(transactionExceptionTranslatorRegistry);
+    this.primaryPinnedUsers = Caffeine.newBuilder().expireAfterWrite(readYourWritesWindow).build();
   }
 
   @Override
@@ -81,7 +111,23 @@ public class PostgreSqlTransactionManager extends DataSourceTransactionManager
       LOG.debug("Start transaction [{}]", molgenisTransaction.getId());
     }
 
-    super.doBegin(molgenisTransaction.getDataSourceTransaction(), definition);
+    // the connection of the transaction is obtained in doBegin
+    boolean routeToReplica =
+        definition.isReadOnly()
+            && getDataSource() instanceof ReadReplicaRoutingDataSource
+            && !isPinnedToPrimary();
+    ReadReplicaRoutingDataSource.setRouteToReplica(routeToReplica);
+    try {
+      super.doBegin(molgenisTransaction.getDataSourceTransaction(), definition);
+    } finally {
+      ReadReplicaRoutingDataSource.setRouteToReplica(false);
+    }
+
+    if (routeToReplica) {
+      // replicas might lag behind, shared caches should not be populated by this transaction
+      TransactionSynchronizationManager.bindResource(
+          TransactionConstants.READ_REPLICA_RESOURCE_NAME, Boolean.TRUE);
+    }
 
     if (!definition.isReadOnly()) {
       TransactionSynchronizationManager.bindResource(
@@ -117,10 +163,29 @@ public class PostgreSqlTransactionManager extends DataSourceTransactionManager
     }
 
     if (!status.isReadOnly()) {
+      pinToPrimary();
       transactionListeners.forEach(j -> j.afterCommitTransaction(transaction.getId()));
     }
   }
 
+  private void pinToPrimary() {
+    String pinKey = getPinKey();
+    if (pinKey != null) {
+      primaryPinnedUsers.put(pinKey, Boolean.TRUE);
+    }
+  }
+
+  private boolean isPinnedToPrimary() {
+    String pinKey = getPinKey();
+    return pinKey != null && primaryPinnedUsers.getIfPresent(pinKey) != null;
+  }
+
+  @Nullable
+  @CheckForNull
+  private static String getPinKey() {
+    return currentUserIsSystem() ? SYSTEM_PIN_KEY : getCurrentUsername();
+  }
+
   @Override
   protected void doRollback(DefaultTransactionStatus status) {
     MolgenisTransaction transaction = (MolgenisTransaction) status.getTransaction();
@@ -176,6 +241,8 @@ public class PostgreSqlTransactionManager extends DataSourceTransactionManager
     super.doCleanupAfterCompletion(molgenisTransaction.getDataSourceTransaction());
     TransactionSynchronizationManager.unbindResourceIfPossible(
         TransactionConstants.TRANSACTION_ID_RESOURCE_NAME);
+    TransactionSynchronizationManager.unbindResourceIfPossible(
+        TransactionConstants.READ_REPLICA_RESOURCE_NAME);
 
     transactionListeners.forEach(j -> j.doCleanupAfterCompletion(molgenisTransaction.getId()));
   }
@@ -183,13 +250,23 @@ public class PostgreSqlTransactionManager extends DataSourceTransactionManager
   @Override
   protected Object doSuspend(Object transaction) {
     MolgenisTransaction molgenisTransaction = (MolgenisTransaction) transaction;
-    return super.doSuspend(molgenisTransaction.getDataSourceTransaction());
+    Object readReplica =
+        TransactionSynchronizationManager.unbindResourceIfPossible(
+            TransactionConstants.READ_REPLICA_RESOURCE_NAME);
+    return new SuspendedResources(
+        super.doSuspend(molgenisTransaction.getDataSourceTransaction()), readReplica != null);
   }
 
   @Override
   protected void doResume(Object transaction, Object suspendedResources) {
     MolgenisTransaction molgenisTransaction = (MolgenisTransaction) transaction;
-    super.doResume(molgenisTransaction.getDataSourceTransaction(), suspendedResources);
+    SuspendedResources resources = (SuspendedResources) suspendedResources;
+    super.doResume(
+        molgenisTransaction.getDataSourceTransaction(), resources.getDataSourceResources());
+    if (resources.isReadReplica()) {
+      TransactionSynchronizationManager.bindResource(
+          TransactionConstants.READ_REPLICA_RESOURCE_NAME, Boolean.TRUE);
+    }
   }
 
   private RuntimeException translateTransactionException(
@@ -206,4 +283,23 @@ public class PostgreSqlTransactionManager extends DataSourceTransactionManager
         format("Unexpected exception class [%s]", transactionException.getClass().getSimpleName()),
         transactionException);
   }
+
+  /** Resources of a suspended transaction */
+  private static class SuspendedResources {
+    private final Object dataSourceResources;
+    private final boolean readReplica;
+
+    SuspendedResources(Object dataSourceResources, boolean readReplica) {
+      this.dataSourceResources = dataSourceResources;
+      this.readReplica = readReplica;
+    }
+
+    Object getDataSourceResources() {
+      return dataSourceResources;
+    }
+
+    boolean isReadReplica() {
+      return readReplica;
+    }
+  }
 }
@@ -0,0 +1,24 @@
+package org.molgenis.data.postgresql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class PostgreSqlCopyWriterTest {
+  @Test
+  void testAppendRow() {
+    StringBuilder row = new StringBuilder();
+    PostgreSqlCopyWriter.appendRow(
+        row, Arrays.asList("str", null, true, 1, 2L, 1.5, LocalDate.of(2019, 10, 17)));
+    assertEquals("str\t\\N\tt\t1\t2\t1.5\t2019-10-17\n", row.toString());
+  }
+
+  @Test
+  void testAppendRowEscaped() {
+    StringBuilder row = new StringBuilder();
+    PostgreSqlCopyWriter.appendRow(row, Arrays.asList("a\\b\tc\nd\re", false));
+    assertEquals("a\\\\b\\tc\\nd\\re\tf\n", row.toString());
+  }
+}
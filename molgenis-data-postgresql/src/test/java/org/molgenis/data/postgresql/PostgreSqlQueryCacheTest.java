@@ -0,0 +1,136 @@
+package org.molgenis.data.postgresql;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+import static org.molgenis.data.meta.AttributeType.BOOL;
+import static org.molgenis.data.meta.AttributeType.INT;
+import static org.molgenis.data.meta.AttributeType.STRING;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.molgenis.data.Entity;
+import org.molgenis.data.Query;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.support.QueryImpl;
+import org.molgenis.test.AbstractMockitoTest;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PostgreSqlQueryCacheTest extends AbstractMockitoTest {
+  @Mock private EntityType entityType;
+  @Mock private Attribute idAttr;
+  @Mock private Attribute intAttr;
+  @Mock private Attribute boolAttr;
+  private PostgreSqlQueryCache queryCache;
+
+  @BeforeEach
+  void setUpBeforeEach() {
+    when(idAttr.getName()).thenReturn("id");
+    when(idAttr.getDataType()).thenReturn(STRING);
+    when(idAttr.isUnique()).thenReturn(true);
+    when(intAttr.getName()).thenReturn("int");
+    when(intAttr.getDataType()).thenReturn(INT);
+    when(boolAttr.getName()).thenReturn("bool");
+    when(boolAttr.getDataType()).thenReturn(BOOL);
+
+    when(entityType.getId()).thenReturn("entity");
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+    when(entityType.getAtomicAttributes()).thenReturn(asList(idAttr, intAttr, boolAttr));
+    when(entityType.getAttribute("id")).thenReturn(idAttr);
+    when(entityType.getAttribute("int")).thenReturn(intAttr);
+    when(entityType.getAttribute("bool")).thenReturn(boolAttr);
+
+    queryCache = new PostgreSqlQueryCache(100);
+  }
+
+  @Test
+  void testGetSqlSelectSameShape() {
+    String sql = assertSqlSelectEquals(createQuery("a", asList(1, 2), "b", 3));
+    assertSame(sql, assertSqlSelectEquals(createQuery("c", asList(4, 5), "d", 6)));
+  }
+
+  @Test
+  void testGetSqlSelectOtherPageSize() {
+    String sql = assertSqlSelectEquals(createQuery("a", asList(1, 2), "b", 3).pageSize(10));
+    assertNotEquals(sql, assertSqlSelectEquals(createQuery("a", asList(1, 2), "b", 3)));
+  }
+
+  @Test
+  void testGetSqlSelectOtherInSize() {
+    String sql = assertSqlSelectEquals(createQuery("a", asList(1, 2), "b", 3));
+    assertNotEquals(sql, assertSqlSelectEquals(createQuery("a", asList(1, 2, 3), "b", 3)));
+  }
+
+  @Test
+  void testGetSqlSelectEqualsBool() {
+    String sql = assertSqlSelectEquals(new QueryImpl<>().eq("bool", true).and().eq("id", "a"));
+    assertNotEquals(
+        sql, assertSqlSelectEquals(new QueryImpl<>().eq("bool", false).and().eq("id", "a")));
+  }
+
+  @Test
+  void testGetSqlSelectEqualsNull() {
+    String sql = assertSqlSelectEquals(new QueryImpl<>().eq("int", 1));
+    assertNotEquals(sql, assertSqlSelectEquals(new QueryImpl<>().eq("int", null)));
+  }
+
+  @Test
+  void testGetSqlCountSameShape() {
+    String sql = assertSqlCountEquals(new QueryImpl<>().rng("int", 1, 2).pageSize(10));
+    assertSame(sql, assertSqlCountEquals(new QueryImpl<>().rng("int", 3, 4).offset(10)));
+  }
+
+  @Test
+  void testInvalidateAll() {
+    String sql = assertSqlSelectEquals(new QueryImpl<>().eq("int", 1));
+    queryCache.invalidateAll();
+    assertNotSame(sql, assertSqlSelectEquals(new QueryImpl<>().eq("int", 1)));
+  }
+
+  private static Query<Entity> createQuery(
+      String id, List<Integer> ints, String likeId, int minInt) {
+    return new QueryImpl<>()
+        .eq("id", id)
+        .and()
+        .in("int", ints)
+        .or()
+        .nest()
+        .like("id", likeId)
+        .and()
+        .ge("int", minInt)
+        .unnest();
+  }
+
+  /** Asserts that the cached SQL and parameters equal the generated SQL and parameters */
+  private String assertSqlSelectEquals(Query<Entity> q) {
+    List<Object> expectedParameters = new ArrayList<>();
+    String expectedSql =
+        PostgreSqlQueryGenerator.getSqlSelect(entityType, q, expectedParameters, false);
+
+    List<Object> parameters = new ArrayList<>();
+    String sql = queryCache.getSqlSelect(entityType, q, parameters);
+    assertEquals(expectedSql, sql);
+    assertEquals(expectedParameters, parameters);
+    return sql;
+  }
+
+  private String assertSqlCountEquals(Query<Entity> q) {
+    List<Object> expectedParameters = new ArrayList<>();
+    String expectedSql = PostgreSqlQueryGenerator.getSqlCount(entityType, q, expectedParameters);
+
+    List<Object> parameters = new ArrayList<>();
+    String sql = queryCache.getSqlCount(entityType, q, parameters);
+    assertEquals(expectedSql, sql);
+    assertEquals(expectedParameters, parameters);
+    return sql;
+  }
+}
@@ -3,7 +3,10 @@ package org.molgenis.data.postgresql;
 import static com.google.common.collect.Lists.newArrayList;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -11,6 +14,7 @@ import static org.molgenis.data.QueryRule.Operator.AND;
 import static org.molgenis.data.QueryRule.Operator.EQUALS;
 import static org.molgenis.data.QueryRule.Operator.NESTED;
 import static org.molgenis.data.QueryRule.Operator.OR;
+import static org.molgenis.data.QueryRule.Operator.PERMITTED;
 import static org.molgenis.data.meta.AttributeType.BOOL;
 import static org.molgenis.data.meta.AttributeType.CATEGORICAL;
 import static org.molgenis.data.meta.AttributeType.CATEGORICAL_MREF;
@@ -33,6 +37,7 @@ import static org.molgenis.data.meta.AttributeType.TEXT;
 import static org.molgenis.data.meta.AttributeType.XREF;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.ColumnMode.EXCLUDE_DEFAULT_CONSTRAINT;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.ColumnMode.INCLUDE_DEFAULT_CONSTRAINT;
+import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getKeysetAttribute;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlJunctionTableSelect;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlSelect;
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.getSqlSort;
@@ -49,6 +54,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.molgenis.data.Entity;
 import org.molgenis.data.Fetch;
 import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.PermissionFilter;
 import org.molgenis.data.Query;
 import org.molgenis.data.QueryRule;
 import org.molgenis.data.Sort;
@@ -1372,6 +1378,81 @@ class PostgreSqlQueryGeneratorTest {
         sqlWhere);
   }
 
+  @Test
+  void getKeysetAttributeNoSort() {
+    Attribute idAttribute = createIdAttribute("id");
+    EntityType entityType = createMockEntityWithIdAttribute("entity", idAttribute, "id");
+    assertEquals(idAttribute, getKeysetAttribute(entityType, new QueryImpl<>()));
+  }
+
+  @Test
+  void getKeysetAttributeSortUniqueAttribute() {
+    Attribute idAttribute = createIdAttribute("id");
+    EntityType entityType = createMockEntityWithIdAttribute("entity", idAttribute, "id");
+    Attribute attribute = when(mock(Attribute.class).getName()).thenReturn("attr").getMock();
+    when(attribute.getDataType()).thenReturn(INT);
+    when(attribute.isUnique()).thenReturn(true);
+    when(entityType.getAttribute("attr")).thenReturn(attribute);
+
+    Query<Entity> q = new QueryImpl<>().sort(new Sort("attr", Sort.Direction.DESC));
+    assertEquals(attribute, getKeysetAttribute(entityType, q));
+  }
+
+  @Test
+  void getKeysetAttributeSortNillableUniqueAttribute() {
+    Attribute idAttribute = createIdAttribute("id");
+    EntityType entityType = createMockEntityWithIdAttribute("entity", idAttribute, "id");
+    Attribute attribute = when(mock(Attribute.class).getName()).thenReturn("attr").getMock();
+    when(attribute.isUnique()).thenReturn(true);
+    when(attribute.isNillable()).thenReturn(true);
+    when(entityType.getAttribute("attr")).thenReturn(attribute);
+
+    assertNull(getKeysetAttribute(entityType, new QueryImpl<>().sort(new Sort("attr"))));
+  }
+
+  @Test
+  void getKeysetAttributeSortMultipleAttributes() {
+    Attribute idAttribute = createIdAttribute("id");
+    EntityType entityType = createMockEntityWithIdAttribute("entity", idAttribute, "id");
+
+    Query<Entity> q = new QueryImpl<>().sort(new Sort("id").on("attr"));
+    assertNull(getKeysetAttribute(entityType, q));
+  }
+
+  @Test
+  void getKeysetAttributeFetchWithoutAttribute() {
+    Attribute idAttribute = createIdAttribute("id");
+    EntityType entityType = createMockEntityWithIdAttribute("entity", idAttribute, "id");
+
+    Query<Entity> q = new QueryImpl<>().fetch(new Fetch().field("attr"));
+    assertNull(getKeysetAttribute(entityType, q));
+  }
+
+  @Test
+  void getSqlWherePermitted() {
+    Attribute idAttribute = createIdAttribute("id");
+    EntityType entityType = createMockEntityWithIdAttribute("entity", idAttribute, "id");
+    when(entityType.getAtomicAttributes()).thenReturn(singletonList(idAttribute));
+
+    PermissionFilter permissionFilter =
+        PermissionFilter.create("entity-entity", 4, singleton("user"), singleton("ROLE_USER"));
+    QueryImpl<Entity> q = new QueryImpl<>(new QueryRule(PERMITTED, permissionFilter));
+
+    List<Object> parameters = Lists.newArrayList();
+    String sqlWhere =
+        PostgreSqlQueryGenerator.getSqlWhere(entityType, q, parameters, new AtomicInteger());
+    assertEquals(
+        "EXISTS (SELECT 1 FROM acl_object_identity"
+            + " JOIN acl_class ON acl_object_identity.object_id_class = acl_class.id"
+            + " JOIN acl_entry ON acl_entry.acl_object_identity = acl_object_identity.id"
+            + " JOIN acl_sid ON acl_entry.sid = acl_sid.id"
+            + " WHERE acl_class.class = ? AND acl_object_identity.object_id_identity = CAST(this.\"id\" AS VARCHAR)"
+            + " AND acl_entry.granting AND (acl_entry.mask & ?) <> 0"
+            + " AND ((acl_sid.principal AND acl_sid.sid IN (?)) OR (NOT acl_sid.principal AND acl_sid.sid IN (?))))",
+        sqlWhere);
+    assertEquals(asList("entity-entity", 4, "user", "ROLE_USER"), parameters);
+  }
+
   @Test
   void testGetSqlUpdate() {
     String idAttributeName = "MyIdAttribute";
@@ -1392,6 +1473,42 @@ class PostgreSqlQueryGeneratorTest {
     assertEquals(expectedSqlUpdate, sqlUpdate);
   }
 
+  @Test
+  void testGetSqlUpsert() {
+    String idAttributeName = "MyIdAttribute";
+    Attribute idAttribute =
+        when(mock(Attribute.class).getName()).thenReturn(idAttributeName).getMock();
+    when(idAttribute.getDataType()).thenReturn(STRING);
+    String entityTypeId = "MyEntityTypeId";
+    EntityType entityType = when(mock(EntityType.class).getId()).thenReturn(entityTypeId).getMock();
+    when(entityType.getIdAttribute()).thenReturn(idAttribute);
+    String labelAttributeName = "MyLabelAttribute";
+    Attribute labelAttribute =
+        when(mock(Attribute.class).getName()).thenReturn(labelAttributeName).getMock();
+    when(labelAttribute.getDataType()).thenReturn(STRING);
+    when(entityType.getAtomicAttributes()).thenReturn(asList(idAttribute, labelAttribute));
+    String sqlUpsert = PostgreSqlQueryGenerator.getSqlUpsert(entityType);
+    String expectedSqlUpsert =
+        "INSERT INTO \"MyEntityTypeId#55dde9c3\" (\"MyIdAttribute\", \"MyLabelAttribute\") VALUES (?, ?) ON CONFLICT (\"MyIdAttribute\") DO UPDATE SET \"MyLabelAttribute\" = EXCLUDED.\"MyLabelAttribute\"";
+    assertEquals(expectedSqlUpsert, sqlUpsert);
+  }
+
+  @Test
+  void testGetSqlUpsertIdOnly() {
+    String idAttributeName = "MyIdAttribute";
+    Attribute idAttribute =
+        when(mock(Attribute.class).getName()).thenReturn(idAttributeName).getMock();
+    when(idAttribute.getDataType()).thenReturn(STRING);
+    String entityTypeId = "MyEntityTypeId";
+    EntityType entityType = when(mock(EntityType.class).getId()).thenReturn(entityTypeId).getMock();
+    when(entityType.getIdAttribute()).thenReturn(idAttribute);
+    when(entityType.getAtomicAttributes()).thenReturn(singletonList(idAttribute));
+    String sqlUpsert = PostgreSqlQueryGenerator.getSqlUpsert(entityType);
+    String expectedSqlUpsert =
+        "INSERT INTO \"MyEntityTypeId#55dde9c3\" (\"MyIdAttribute\") VALUES (?) ON CONFLICT (\"MyIdAttribute\") DO NOTHING";
+    assertEquals(expectedSqlUpsert, sqlUpsert);
+  }
+
   @Test
   void testGetSqlUpdateAttribute() {
     String idAttributeName = "MyIdAttribute";
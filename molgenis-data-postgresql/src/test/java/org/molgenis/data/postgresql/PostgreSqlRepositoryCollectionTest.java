@@ -44,6 +44,7 @@ class PostgreSqlRepositoryCollectionTest {
   private PostgreSqlRepositoryCollection postgreSqlRepoCollection;
   private JdbcTemplate jdbcTemplate;
   private DataService dataService;
+  private PostgreSqlQueryCache queryCache;
 
   @BeforeEach
   void setUpBeforeMethod() {
@@ -51,9 +52,10 @@ class PostgreSqlRepositoryCollectionTest {
     DataSource dataSource = mock(DataSource.class);
     jdbcTemplate = mock(JdbcTemplate.class);
     dataService = mock(DataService.class);
+    queryCache = mock(PostgreSqlQueryCache.class);
     postgreSqlRepoCollection =
         new PostgreSqlRepositoryCollection(
-            postgreSqlEntityFactory, dataSource, jdbcTemplate, dataService);
+            postgreSqlEntityFactory, dataSource, jdbcTemplate, dataService, false, queryCache);
   }
 
   @Test
@@ -67,6 +69,7 @@ class PostgreSqlRepositoryCollectionTest {
     when(updatedAttr.getLabel()).thenReturn("updated label");
     postgreSqlRepoCollection.updateAttribute(entityType, attr, updatedAttr);
     verifyZeroInteractions(jdbcTemplate);
+    verify(queryCache).invalidateAll();
   }
 
   @Test
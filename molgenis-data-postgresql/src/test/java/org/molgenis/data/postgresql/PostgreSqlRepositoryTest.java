@@ -2,16 +2,21 @@ package org.molgenis.data.postgresql;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.isNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockitoSession;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -29,11 +34,13 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimap;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import javax.sql.DataSource;
 import org.junit.jupiter.api.AfterEach;
@@ -49,9 +56,13 @@ import org.molgenis.data.QueryRule;
 import org.molgenis.data.meta.AttributeType;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.support.QueryImpl;
 import org.molgenis.data.validation.MolgenisValidationException;
 import org.molgenis.util.UnexpectedEnumException;
 import org.molgenis.validation.ConstraintViolation;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowCallbackHandler;
@@ -72,7 +83,13 @@ class PostgreSqlRepositoryTest {
   void setUpBeforeMethod() throws Exception {
     mockitoSession = mockitoSession().initMocks(this).strictness(STRICT_STUBS).startMocking();
     postgreSqlRepo =
-        new PostgreSqlRepository(postgreSqlEntityFactory, jdbcTemplate, dataSource, entityType);
+        new PostgreSqlRepository(
+            postgreSqlEntityFactory,
+            jdbcTemplate,
+            dataSource,
+            entityType,
+            false,
+            new PostgreSqlQueryCache(1000));
   }
 
   @AfterEach
@@ -161,7 +178,13 @@ class PostgreSqlRepositoryTest {
     when(entityType.getAtomicAttributes()).thenReturn(newArrayList(idAttr, oneToManyAttr));
     EntityType entityType = this.entityType;
     postgreSqlRepo =
-        new PostgreSqlRepository(postgreSqlEntityFactory, jdbcTemplate, dataSource, entityType);
+        new PostgreSqlRepository(
+            postgreSqlEntityFactory,
+            jdbcTemplate,
+            dataSource,
+            entityType,
+            false,
+            new PostgreSqlQueryCache(1000));
 
     int queryValue = 2;
     QueryRule queryRule = new QueryRule(oneToManyAttrName, EQUALS, queryValue);
@@ -177,6 +200,62 @@ class PostgreSqlRepositoryTest {
     assertEquals(singletonList(entity0), postgreSqlRepo.findAll(query).collect(toList()));
   }
 
+  @Test
+  void findAllQueryMrefsSelectedPerPage() throws SQLException {
+    Attribute refIdAttr = mock(Attribute.class);
+    when(refIdAttr.getDataType()).thenReturn(STRING);
+    EntityType refEntityType = mock(EntityType.class);
+    when(refEntityType.getIdAttribute()).thenReturn(refIdAttr);
+
+    Attribute idAttr = mock(Attribute.class);
+    when(idAttr.getName()).thenReturn("id");
+    when(idAttr.getDataType()).thenReturn(STRING);
+    Attribute mrefAttr = mock(Attribute.class);
+    when(mrefAttr.getName()).thenReturn("mref");
+    when(mrefAttr.getDataType()).thenReturn(MREF);
+    when(mrefAttr.getRefEntity()).thenReturn(refEntityType);
+
+    when(entityType.getId()).thenReturn("entity");
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+    when(entityType.getAtomicAttributes()).thenReturn(asList(idAttr, mrefAttr));
+    when(entityType.getAttribute("id")).thenReturn(idAttr);
+
+    when(postgreSqlEntityFactory.createRowMapper(entityType, null)).thenReturn(rowMapper);
+    Entity entity0 = mock(Entity.class);
+    when(entity0.getIdValue()).thenReturn("id0");
+    Entity entity1 = mock(Entity.class);
+    when(entity1.getIdValue()).thenReturn("id1");
+    when(jdbcTemplate.query(
+            "SELECT this.\"id\", NULL AS \"mref\" FROM \"entity#6844280e\" AS this ORDER BY \"id\" ASC LIMIT 1000",
+            new Object[0],
+            rowMapper))
+        .thenReturn(asList(entity0, entity1));
+
+    ResultSet row = mock(ResultSet.class);
+    when(row.getString(1)).thenReturn("id0");
+    when(row.getString(3)).thenReturn("refId0");
+    doAnswer(
+            invocation -> {
+              invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+              return null;
+            })
+        .when(jdbcTemplate)
+        .query(
+            eq(
+                "SELECT \"id\",\"order\",\"mref\" FROM \"entity#6844280e_mref\" WHERE \"id\" in (?, ?) ORDER BY \"id\",\"order\""),
+            any(RowCallbackHandler.class),
+            eq("id0"),
+            eq("id1"));
+    Iterable<Entity> refEntities = singletonList(mock(Entity.class));
+    when(postgreSqlEntityFactory.getReferences(refEntityType, singletonList("refId0")))
+        .thenReturn(refEntities);
+
+    assertEquals(
+        asList(entity0, entity1), postgreSqlRepo.findAll(new QueryImpl<>()).collect(toList()));
+    verify(entity0).set("mref", refEntities);
+    verify(entity1, never()).set(eq("mref"), any());
+  }
+
   @Test
   void testUpdateEntitiesExist() {
     Attribute idAttr = mock(Attribute.class);
@@ -198,6 +277,73 @@ class PostgreSqlRepositoryTest {
     verifyNoMoreInteractions(jdbcTemplate);
   }
 
+  @Test
+  void testUpsertBatch() {
+    Attribute idAttr = mock(Attribute.class);
+    when(idAttr.getName()).thenReturn("attr");
+    when(idAttr.getDataType()).thenReturn(STRING);
+
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+    when(entityType.getAtomicAttributes()).thenReturn(singletonList(idAttr));
+    when(entityType.getId()).thenReturn("entity");
+
+    Entity entity0 = mock(Entity.class);
+    Entity entity1 = mock(Entity.class);
+
+    postgreSqlRepo.upsertBatch(asList(entity0, entity1));
+    verify(jdbcTemplate)
+        .batchUpdate(
+            eq(
+                "INSERT INTO \"entity#6844280e\" (\"attr\") VALUES (?) ON CONFLICT (\"attr\") DO NOTHING"),
+            any(BatchPreparedStatementSetter.class));
+    verifyNoMoreInteractions(jdbcTemplate);
+  }
+
+  @Test
+  void testAddCopy() throws SQLException {
+    Attribute idAttr = mock(Attribute.class);
+    when(idAttr.getName()).thenReturn("attr");
+    when(idAttr.getDataType()).thenReturn(STRING);
+
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+    when(entityType.getAtomicAttributes()).thenReturn(singletonList(idAttr));
+    when(entityType.getId()).thenReturn("entity");
+
+    Connection connection = mock(Connection.class);
+    when(dataSource.getConnection()).thenReturn(connection);
+    when(connection.isWrapperFor(PGConnection.class)).thenReturn(true);
+    PGConnection pgConnection = mock(PGConnection.class);
+    when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+    CopyManager copyManager = mock(CopyManager.class);
+    when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+    CopyIn copyIn = mock(CopyIn.class);
+    when(copyManager.copyIn("COPY \"entity#6844280e\" (\"attr\") FROM STDIN")).thenReturn(copyIn);
+
+    List<Entity> entities =
+        IntStream.range(0, PostgreSqlRepository.COPY_THRESHOLD)
+            .mapToObj(
+                i -> {
+                  Entity entity = mock(Entity.class);
+                  when(entity.getString("attr")).thenReturn("id" + i);
+                  return entity;
+                })
+            .collect(toList());
+
+    PostgreSqlRepository copyRepo =
+        new PostgreSqlRepository(
+            postgreSqlEntityFactory,
+            jdbcTemplate,
+            dataSource,
+            entityType,
+            true,
+            new PostgreSqlQueryCache(1000));
+    assertEquals(PostgreSqlRepository.COPY_THRESHOLD, copyRepo.add(entities.stream()));
+
+    verify(copyIn).writeToCopy("id0\n".getBytes(UTF_8), 0, 4);
+    verify(copyIn).endCopy();
+    verifyNoMoreInteractions(jdbcTemplate);
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   void testUpdateEntityDoesNotExist() {
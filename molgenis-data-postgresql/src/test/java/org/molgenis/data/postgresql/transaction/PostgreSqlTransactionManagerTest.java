@@ -1,17 +1,33 @@
 package org.molgenis.data.postgresql.transaction;
 
+import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.molgenis.data.transaction.TransactionConstants.READ_REPLICA_RESOURCE_NAME;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
 import javax.sql.DataSource;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.molgenis.data.config.ReadReplicaRoutingDataSource;
 import org.molgenis.data.populate.IdGenerator;
 import org.molgenis.data.transaction.MolgenisTransaction;
 import org.molgenis.data.transaction.TransactionExceptionTranslatorRegistry;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 class PostgreSqlTransactionManagerTest {
   private PostgreSqlTransactionManager molgenisTransactionManager;
@@ -39,4 +55,89 @@ class PostgreSqlTransactionManagerTest {
     MolgenisTransaction molgenisTransaction = (MolgenisTransaction) trans;
     assertEquals(id, molgenisTransaction.getId());
   }
+
+  @Test
+  void testReadOnlyTransactionRoutedToReplica() throws SQLException {
+    DataSource primary = mock(DataSource.class);
+    DataSource replica = mockDataSource();
+    PostgreSqlTransactionManager transactionManager = createTransactionManager(primary, replica);
+
+    executeTransaction(transactionManager, true);
+
+    verify(replica).getConnection();
+    verifyNoInteractions(primary);
+  }
+
+  @Test
+  void testReadOnlyTransactionRoutedToReplicaBindsReadReplicaResource() throws SQLException {
+    PostgreSqlTransactionManager transactionManager =
+        createTransactionManager(mock(DataSource.class), mockDataSource());
+
+    DefaultTransactionDefinition transactionDefinition = new DefaultTransactionDefinition();
+    transactionDefinition.setReadOnly(true);
+    TransactionStatus transactionStatus = transactionManager.getTransaction(transactionDefinition);
+    assertTrue(TransactionSynchronizationManager.hasResource(READ_REPLICA_RESOURCE_NAME));
+    transactionManager.commit(transactionStatus);
+
+    assertFalse(TransactionSynchronizationManager.hasResource(READ_REPLICA_RESOURCE_NAME));
+  }
+
+  @Test
+  void testReadOnlyTransactionWithoutReplicasDoesNotBindReadReplicaResource() throws SQLException {
+    PostgreSqlTransactionManager transactionManager =
+        new PostgreSqlTransactionManager(
+            idGenerator, mockDataSource(), mock(TransactionExceptionTranslatorRegistry.class));
+    when(idGenerator.generateId()).thenReturn("id");
+
+    DefaultTransactionDefinition transactionDefinition = new DefaultTransactionDefinition();
+    transactionDefinition.setReadOnly(true);
+    TransactionStatus transactionStatus = transactionManager.getTransaction(transactionDefinition);
+    assertFalse(TransactionSynchronizationManager.hasResource(READ_REPLICA_RESOURCE_NAME));
+    transactionManager.commit(transactionStatus);
+  }
+
+  @Test
+  void testReadOnlyTransactionAfterCommitRoutedToPrimary() throws SQLException {
+    DataSource primary = mockDataSource();
+    DataSource replica = mock(DataSource.class);
+    PostgreSqlTransactionManager transactionManager = createTransactionManager(primary, replica);
+
+    SecurityContext previousContext = SecurityContextHolder.getContext();
+    try {
+      SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+      securityContext.setAuthentication(new TestingAuthenticationToken("user", null));
+      SecurityContextHolder.setContext(securityContext);
+
+      executeTransaction(transactionManager, false);
+      executeTransaction(transactionManager, true);
+    } finally {
+      SecurityContextHolder.setContext(previousContext);
+    }
+
+    verify(primary, times(2)).getConnection();
+    verifyNoInteractions(replica);
+  }
+
+  private PostgreSqlTransactionManager createTransactionManager(
+      DataSource primary, DataSource replica) {
+    when(idGenerator.generateId()).thenReturn("id");
+    return new PostgreSqlTransactionManager(
+        idGenerator,
+        new ReadReplicaRoutingDataSource(primary, singletonList(replica)),
+        mock(TransactionExceptionTranslatorRegistry.class),
+        Duration.ofMinutes(1));
+  }
+
+  private static DataSource mockDataSource() throws SQLException {
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+    return dataSource;
+  }
+
+  private static void executeTransaction(
+      PostgreSqlTransactionManager transactionManager, boolean readOnly) {
+    DefaultTransactionDefinition transactionDefinition = new DefaultTransactionDefinition();
+    transactionDefinition.setReadOnly(readOnly);
+    transactionManager.commit(transactionManager.getTransaction(transactionDefinition));
+  }
 }
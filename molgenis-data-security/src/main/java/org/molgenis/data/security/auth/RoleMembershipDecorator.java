@@ -2,6 +2,7 @@ package org.molgenis.data.security.auth;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.List;
 import java.util.stream.Stream;
 import org.molgenis.data.AbstractRepositoryDecorator;
 import org.molgenis.data.Repository;
@@ -39,6 +40,11 @@ public class RoleMembershipDecorator extends AbstractRepositoryDecorator<RoleMem
     super.update(roleMembershipStream.filter(this::validateRoleMembership));
   }
 
+  @Override
+  public void upsertBatch(List<RoleMembership> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
+
   private boolean validateRoleMembership(RoleMembership roleMembership) {
     roleMembershipValidator.validate(roleMembership);
     return true;
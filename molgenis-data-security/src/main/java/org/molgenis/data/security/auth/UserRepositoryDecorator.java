@@ -3,6 +3,7 @@ package org.molgenis.data.security.auth;
 import static java.util.Objects.requireNonNull;
 
 import com.google.common.collect.Iterators;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 import org.molgenis.data.AbstractRepositoryDecorator;
@@ -57,6 +58,11 @@ public class UserRepositoryDecorator extends AbstractRepositoryDecorator<User> {
     delegate().update(entities);
   }
 
+  @Override
+  public void upsertBatch(List<User> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
+
   private void updatePassword(User user) {
     User currentUser = findOneById(user.getId());
 
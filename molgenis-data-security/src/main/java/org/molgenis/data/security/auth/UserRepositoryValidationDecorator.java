@@ -2,6 +2,7 @@ package org.molgenis.data.security.auth;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.List;
 import java.util.stream.Stream;
 import org.molgenis.data.AbstractRepositoryDecorator;
 import org.molgenis.data.Repository;
@@ -39,6 +40,11 @@ class UserRepositoryValidationDecorator extends AbstractRepositoryDecorator<User
     super.update(userStream.filter(this::validateUpdateUser));
   }
 
+  @Override
+  public void upsertBatch(List<User> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
+
   private boolean validateAddUser(User user) {
     userValidator.validate(user);
     return true;
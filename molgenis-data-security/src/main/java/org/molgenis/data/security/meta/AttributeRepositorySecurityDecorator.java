@@ -180,6 +180,11 @@ public class AttributeRepositorySecurityDecorator extends AbstractRepositoryDeco
                 }));
   }
 
+  @Override
+  public void upsertBatch(List<Attribute> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
+
   @Override
   public void delete(Attribute attr) {
     validateDeleteAllowed(attr);
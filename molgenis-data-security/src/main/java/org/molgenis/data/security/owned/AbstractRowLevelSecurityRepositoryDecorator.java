@@ -14,6 +14,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.molgenis.data.AbstractRepositoryDecorator;
 import org.molgenis.data.Entity;
 import org.molgenis.data.Fetch;
@@ -69,12 +71,12 @@ public abstract class AbstractRowLevelSecurityRepositoryDecorator<E extends Enti
 
   @Override
   public long count() {
-    return findAllPermitted(COUNT).count();
+    return countPermitted(new QueryImpl<>());
   }
 
   @Override
   public long count(Query<E> q) {
-    return findAllPermitted(q, COUNT).count();
+    return countPermitted(q);
   }
 
   @Override
@@ -150,6 +152,11 @@ public abstract class AbstractRowLevelSecurityRepositoryDecorator<E extends Enti
                 }));
   }
 
+  @Override
+  public void upsertBatch(List<E> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
+
   @Override
   public void delete(E entity) {
     if (!isActionPermitted(entity, DELETE)) {
@@ -224,11 +231,20 @@ public abstract class AbstractRowLevelSecurityRepositoryDecorator<E extends Enti
                 }));
   }
 
-  private Stream<E> findAllPermitted(Action action) {
-    return findAllPermitted(new QueryImpl<>(), action);
+  private long countPermitted(Query<E> query) {
+    Query<E> permittedQuery = createPermittedQuery(query, COUNT);
+    if (permittedQuery != null) {
+      return delegate().count(permittedQuery);
+    }
+    return findAllPermitted(query, COUNT).count();
   }
 
   private Stream<E> findAllPermitted(Query<E> query, Action action) {
+    Query<E> permittedQuery = createPermittedQuery(query, action);
+    if (permittedQuery != null) {
+      return delegate().findAll(permittedQuery);
+    }
+
     Query<E> qWithoutLimitOffset = new QueryImpl<>(query);
     qWithoutLimitOffset.offset(0).pageSize(Integer.MAX_VALUE);
     Stream<E> permittedEntityStream =
@@ -242,6 +258,18 @@ public abstract class AbstractRowLevelSecurityRepositoryDecorator<E extends Enti
     return permittedEntityStream;
   }
 
+  /**
+   * Returns a query that only matches the entities of the given query on which the action is
+   * permitted, so that filtering, sorting, paging and counting can be done by the delegate
+   * repository. Returns <tt>null</tt> if the delegate repository can't do this, in which case
+   * permissions are checked entity by entity.
+   */
+  @Nullable
+  @CheckForNull
+  Query<E> createPermittedQuery(Query<E> query, Action action) {
+    return null;
+  }
+
   void deleteAcl(ObjectIdentity objectIdentity) {
     mutableAclService.deleteAcl(objectIdentity, true);
   }
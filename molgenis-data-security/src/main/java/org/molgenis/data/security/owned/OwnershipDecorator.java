@@ -47,6 +47,11 @@ public class OwnershipDecorator extends AbstractRepositoryDecorator<Entity> {
     return result;
   }
 
+  @Override
+  public void upsertBatch(List<Entity> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
+
   @Override
   public void add(Entity entity) {
     super.add(entity);
@@ -1,21 +1,39 @@
 package org.molgenis.data.security.owned;
 
+import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.RepositoryCapability.PERMISSION_FILTERABLE;
+import static org.molgenis.security.core.utils.SecurityUtils.currentUserIsSuOrSystem;
 
+import java.util.HashSet;
+import java.util.Set;
 import org.molgenis.data.Entity;
 import org.molgenis.data.EntityAlreadyExistsException;
+import org.molgenis.data.PermissionFilter;
+import org.molgenis.data.Query;
+import org.molgenis.data.QueryRule;
+import org.molgenis.data.QueryRule.Operator;
 import org.molgenis.data.Repository;
+import org.molgenis.data.RepositoryCapability;
 import org.molgenis.data.security.EntityIdentity;
+import org.molgenis.data.security.EntityIdentityUtils;
 import org.molgenis.data.security.EntityPermission;
 import org.molgenis.data.security.exception.EntityPermissionDeniedException;
+import org.molgenis.data.support.QueryImpl;
+import org.molgenis.security.core.PermissionRegistry;
 import org.molgenis.security.core.PermissionSet;
 import org.molgenis.security.core.SidUtils;
 import org.molgenis.security.core.UserPermissionEvaluator;
 import org.molgenis.util.UnexpectedEnumException;
+import org.springframework.security.acls.domain.GrantedAuthoritySid;
+import org.springframework.security.acls.domain.PrincipalSid;
 import org.springframework.security.acls.model.AlreadyExistsException;
 import org.springframework.security.acls.model.MutableAcl;
 import org.springframework.security.acls.model.MutableAclService;
 import org.springframework.security.acls.model.Sid;
+import org.springframework.security.acls.model.SidRetrievalStrategy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 /**
  * RepositoryDecorator that works on EntityTypes that are row-level secured. It is reponsible to
@@ -25,14 +43,20 @@ public class RowLevelSecurityRepositoryDecorator
     extends AbstractRowLevelSecurityRepositoryDecorator<Entity> {
   private final UserPermissionEvaluator userPermissionEvaluator;
   private final MutableAclService mutableAclService;
+  private final SidRetrievalStrategy sidRetrievalStrategy;
+  private final PermissionRegistry permissionRegistry;
 
   RowLevelSecurityRepositoryDecorator(
       Repository<Entity> delegateRepository,
       UserPermissionEvaluator userPermissionEvaluator,
-      MutableAclService mutableAclService) {
+      MutableAclService mutableAclService,
+      SidRetrievalStrategy sidRetrievalStrategy,
+      PermissionRegistry permissionRegistry) {
     super(delegateRepository, mutableAclService);
     this.userPermissionEvaluator = requireNonNull(userPermissionEvaluator);
     this.mutableAclService = requireNonNull(mutableAclService);
+    this.sidRetrievalStrategy = requireNonNull(sidRetrievalStrategy);
+    this.permissionRegistry = requireNonNull(permissionRegistry);
   }
 
   @Override
@@ -58,6 +82,60 @@ public class RowLevelSecurityRepositoryDecorator
     return userPermissionEvaluator.hasPermission(entityIdentity, entityPermission);
   }
 
+  /**
+   * Adds a {@link Operator#PERMITTED} rule to the query if the delegate repository is {@link
+   * RepositoryCapability#PERMISSION_FILTERABLE}, so that the permission checks are done as part of
+   * the query instead of entity by entity.
+   */
+  @Override
+  Query<Entity> createPermittedQuery(Query<Entity> query, Action action) {
+    if (currentUserIsSuOrSystem()) {
+      return query;
+    }
+    if (!delegate().getCapabilities().contains(PERMISSION_FILTERABLE)) {
+      return null;
+    }
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null) {
+      return null;
+    }
+
+    QueryImpl<Entity> permittedQuery = new QueryImpl<>();
+    if (!query.getRules().isEmpty()) {
+      permittedQuery.addRule(new QueryRule(query.getRules()));
+      permittedQuery.addRule(new QueryRule(Operator.AND));
+    }
+    permittedQuery.addRule(
+        new QueryRule(Operator.PERMITTED, createPermissionFilter(authentication, action)));
+    permittedQuery.setOffset(query.getOffset());
+    permittedQuery.setPageSize(query.getPageSize());
+    permittedQuery.setSort(query.getSort());
+    permittedQuery.setFetch(query.getFetch());
+    return permittedQuery;
+  }
+
+  private PermissionFilter createPermissionFilter(Authentication authentication, Action action) {
+    int mask =
+        permissionRegistry.getPermissions(getPermission(action)).stream()
+            .mapToInt(PermissionSet::getMask)
+            .reduce(0, (left, right) -> left | right);
+
+    Set<String> principalSids = new HashSet<>();
+    Set<String> authoritySids = new HashSet<>();
+    for (Sid sid : sidRetrievalStrategy.getSids(authentication)) {
+      if (sid instanceof PrincipalSid) {
+        principalSids.add(((PrincipalSid) sid).getPrincipal());
+      } else if (sid instanceof GrantedAuthoritySid) {
+        authoritySids.add(((GrantedAuthoritySid) sid).getGrantedAuthority());
+      } else {
+        throw new IllegalArgumentException(
+            format("Unknown Sid type [%s]", sid.getClass().getSimpleName()));
+      }
+    }
+    return PermissionFilter.create(
+        EntityIdentityUtils.toType(getEntityType()), mask, principalSids, authoritySids);
+  }
+
   /**
    * Finds out what permission to check for an operation that is being performed on this repository.
    *
@@ -6,8 +6,10 @@ import org.molgenis.data.Entity;
 import org.molgenis.data.Repository;
 import org.molgenis.data.security.EntityIdentityUtils;
 import org.molgenis.security.acl.MutableAclClassService;
+import org.molgenis.security.core.PermissionRegistry;
 import org.molgenis.security.core.UserPermissionEvaluator;
 import org.springframework.security.acls.model.MutableAclService;
+import org.springframework.security.acls.model.SidRetrievalStrategy;
 import org.springframework.stereotype.Component;
 
 /** @see RowLevelSecurityRepositoryDecorator */
@@ -16,14 +18,20 @@ public class RowLevelSecurityRepositoryDecoratorFactory {
   private final UserPermissionEvaluator userPermissionEvaluator;
   private final MutableAclService mutableAclService;
   private final MutableAclClassService mutableAclClassService;
+  private final SidRetrievalStrategy sidRetrievalStrategy;
+  private final PermissionRegistry permissionRegistry;
 
   RowLevelSecurityRepositoryDecoratorFactory(
       UserPermissionEvaluator userPermissionEvaluator,
       MutableAclService mutableAclService,
-      MutableAclClassService mutableAclClassService) {
+      MutableAclClassService mutableAclClassService,
+      SidRetrievalStrategy sidRetrievalStrategy,
+      PermissionRegistry permissionRegistry) {
     this.userPermissionEvaluator = requireNonNull(userPermissionEvaluator);
     this.mutableAclService = requireNonNull(mutableAclService);
     this.mutableAclClassService = requireNonNull(mutableAclClassService);
+    this.sidRetrievalStrategy = requireNonNull(sidRetrievalStrategy);
+    this.permissionRegistry = requireNonNull(permissionRegistry);
   }
 
   public Repository<Entity> createDecoratedRepository(Repository<Entity> repository) {
@@ -31,7 +39,11 @@ public class RowLevelSecurityRepositoryDecoratorFactory {
     if (isRowLevelSecured(repository)) {
       decoratedRepository =
           new RowLevelSecurityRepositoryDecorator(
-              repository, userPermissionEvaluator, mutableAclService);
+              repository,
+              userPermissionEvaluator,
+              mutableAclService,
+              sidRetrievalStrategy,
+              permissionRegistry);
     } else {
       decoratedRepository = repository;
     }
@@ -1,5 +1,6 @@
 package org.molgenis.data.security;
 
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
@@ -460,6 +461,32 @@ class RepositorySecurityDecoratorTest extends AbstractMockitoTest {
         .containsPattern("permission:UPDATE_DATA entityTypeId:entityTypeId");
   }
 
+  @Test
+  void testUpsertBatchPermissionGranted() {
+    initPermissionServiceMock(ADD_DATA, true);
+    when(permissionService.hasPermission(
+            new EntityTypeIdentity("entityTypeId"), EntityTypePermission.UPDATE_DATA))
+        .thenReturn(true);
+    List<Entity> entities = singletonList(mock(Entity.class));
+    repositorySecurityDecorator.upsertBatch(entities);
+    verify(delegateRepository).upsertBatch(entities);
+  }
+
+  @Test
+  void testUpsertBatchPermissionDenied() {
+    initPermissionServiceMock(ADD_DATA, true);
+    when(permissionService.hasPermission(
+            new EntityTypeIdentity("entityTypeId"), EntityTypePermission.UPDATE_DATA))
+        .thenReturn(false);
+    List<Entity> entities = singletonList(mock(Entity.class));
+    Exception exception =
+        assertThrows(
+            EntityTypePermissionDeniedException.class,
+            () -> repositorySecurityDecorator.upsertBatch(entities));
+    assertThat(exception.getMessage())
+        .containsPattern("permission:UPDATE_DATA entityTypeId:entityTypeId");
+  }
+
   private void initPermissionServiceMock(EntityTypePermission permission, boolean hasPermission) {
     EntityType entityType = mock(EntityType.class);
     String entityTypeId = "entityTypeId";
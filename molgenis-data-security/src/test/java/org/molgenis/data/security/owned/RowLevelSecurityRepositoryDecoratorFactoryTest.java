@@ -13,28 +13,36 @@ import org.molgenis.data.Entity;
 import org.molgenis.data.Repository;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.security.acl.MutableAclClassService;
+import org.molgenis.security.core.PermissionRegistry;
 import org.molgenis.security.core.UserPermissionEvaluator;
 import org.molgenis.test.AbstractMockitoTest;
 import org.springframework.security.acls.model.MutableAclService;
+import org.springframework.security.acls.model.SidRetrievalStrategy;
 
 class RowLevelSecurityRepositoryDecoratorFactoryTest extends AbstractMockitoTest {
   @Mock private UserPermissionEvaluator userPermissionEvaluator;
   @Mock private MutableAclService mutableAclService;
   @Mock private MutableAclClassService mutableAclClassService;
+  @Mock private SidRetrievalStrategy sidRetrievalStrategy;
+  @Mock private PermissionRegistry permissionRegistry;
   private RowLevelSecurityRepositoryDecoratorFactory rowLevelSecurityRepositoryDecoratorFactory;
 
   @BeforeEach
   void setUpBeforeMethod() {
     rowLevelSecurityRepositoryDecoratorFactory =
         new RowLevelSecurityRepositoryDecoratorFactory(
-            userPermissionEvaluator, mutableAclService, mutableAclClassService);
+            userPermissionEvaluator,
+            mutableAclService,
+            mutableAclClassService,
+            sidRetrievalStrategy,
+            permissionRegistry);
   }
 
   @Test
   void testRowLevelSecurityRepositoryDecoratorFactory() {
     assertThrows(
         NullPointerException.class,
-        () -> new RowLevelSecurityRepositoryDecoratorFactory(null, null, null));
+        () -> new RowLevelSecurityRepositoryDecoratorFactory(null, null, null, null, null));
   }
 
   @Test
@@ -3,6 +3,7 @@ package org.molgenis.data.security.owned;
 import static com.google.common.collect.Lists.newArrayList;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Stream.of;
@@ -17,8 +18,10 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.molgenis.data.RepositoryCapability.PERMISSION_FILTERABLE;
 import static org.molgenis.data.security.EntityPermission.READ;
 
+import com.google.common.collect.ImmutableSet;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
@@ -30,7 +33,10 @@ import org.mockito.Mock;
 import org.molgenis.data.Entity;
 import org.molgenis.data.EntityAlreadyExistsException;
 import org.molgenis.data.Fetch;
+import org.molgenis.data.PermissionFilter;
 import org.molgenis.data.Query;
+import org.molgenis.data.QueryRule;
+import org.molgenis.data.QueryRule.Operator;
 import org.molgenis.data.Repository;
 import org.molgenis.data.aggregation.AggregateQuery;
 import org.molgenis.data.aggregation.AggregateResult;
@@ -39,13 +45,16 @@ import org.molgenis.data.security.EntityIdentity;
 import org.molgenis.data.security.EntityPermission;
 import org.molgenis.data.security.exception.EntityPermissionDeniedException;
 import org.molgenis.data.support.QueryImpl;
+import org.molgenis.security.core.PermissionRegistry;
 import org.molgenis.security.core.PermissionSet;
 import org.molgenis.security.core.UserPermissionEvaluator;
 import org.molgenis.test.AbstractMockitoSpringContextTests;
+import org.springframework.security.acls.domain.GrantedAuthoritySid;
 import org.springframework.security.acls.domain.PrincipalSid;
 import org.springframework.security.acls.model.AlreadyExistsException;
 import org.springframework.security.acls.model.MutableAcl;
 import org.springframework.security.acls.model.MutableAclService;
+import org.springframework.security.acls.model.SidRetrievalStrategy;
 import org.springframework.security.test.context.annotation.SecurityTestExecutionListeners;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
@@ -58,20 +67,26 @@ class RowLevelSecurityRepositoryDecoratorTest extends AbstractMockitoSpringConte
   @Mock private Repository<Entity> delegateRepository;
   @Mock private UserPermissionEvaluator userPermissionEvaluator;
   @Mock private MutableAclService mutableAclService;
+  @Mock private SidRetrievalStrategy sidRetrievalStrategy;
+  @Mock private PermissionRegistry permissionRegistry;
   private RowLevelSecurityRepositoryDecorator rowLevelSecurityRepositoryDecorator;
 
   @BeforeEach
   void setUpBeforeMethod() {
     rowLevelSecurityRepositoryDecorator =
         new RowLevelSecurityRepositoryDecorator(
-            delegateRepository, userPermissionEvaluator, mutableAclService);
+            delegateRepository,
+            userPermissionEvaluator,
+            mutableAclService,
+            sidRetrievalStrategy,
+            permissionRegistry);
   }
 
   @Test
   void testRowLevelSecurityRepositoryDecorator() {
     assertThrows(
         NullPointerException.class,
-        () -> new RowLevelSecurityRepositoryDecorator(null, null, null));
+        () -> new RowLevelSecurityRepositoryDecorator(null, null, null, null, null));
   }
 
   @WithMockUser(username = USERNAME)
@@ -417,6 +432,64 @@ class RowLevelSecurityRepositoryDecoratorTest extends AbstractMockitoSpringConte
     assertEquals(emptyList(), rowLevelSecurityRepositoryDecorator.findAll(query).collect(toList()));
   }
 
+  @WithMockUser(username = USERNAME)
+  @Test
+  void testFindAllQueryPermissionFilterable() {
+    Entity entity = mock(Entity.class);
+    Query<Entity> query = new QueryImpl<>().eq("attr", "value").pageSize(10);
+    mockPermissionFilterable();
+
+    PermissionFilter permissionFilter =
+        PermissionFilter.create(
+            "entity-entityTypeId",
+            PermissionSet.READ.getMask() | PermissionSet.WRITE.getMask(),
+            singleton(USERNAME),
+            singleton("ROLE_USER"));
+    QueryImpl<Entity> permittedQuery = new QueryImpl<>();
+    permittedQuery.addRule(new QueryRule(query.getRules()));
+    permittedQuery.addRule(new QueryRule(Operator.AND));
+    permittedQuery.addRule(new QueryRule(Operator.PERMITTED, permissionFilter));
+    permittedQuery.setPageSize(10);
+    when(delegateRepository.findAll(permittedQuery)).thenAnswer(invocation -> Stream.of(entity));
+    assertEquals(
+        singletonList(entity),
+        rowLevelSecurityRepositoryDecorator.findAll(query).collect(toList()));
+  }
+
+  @SuppressWarnings("unchecked")
+  @WithMockUser(username = USERNAME)
+  @Test
+  void testCountQueryPermissionFilterable() {
+    mockPermissionFilterable();
+    when(delegateRepository.count(any(Query.class))).thenReturn(3L);
+    assertEquals(3L, rowLevelSecurityRepositoryDecorator.count(new QueryImpl<>()));
+
+    ArgumentCaptor<Query<Entity>> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    verify(delegateRepository).count(queryCaptor.capture());
+    assertEquals(
+        singletonList(Operator.PERMITTED),
+        queryCaptor.getValue().getRules().stream().map(QueryRule::getOperator).collect(toList()));
+  }
+
+  @WithMockUser(username = USERNAME, roles = "SU")
+  @Test
+  void testCountQuerySuperuser() {
+    Query<Entity> query = new QueryImpl<>().eq("attr", "value");
+    when(delegateRepository.count(query)).thenReturn(3L);
+    assertEquals(3L, rowLevelSecurityRepositoryDecorator.count(query));
+  }
+
+  private void mockPermissionFilterable() {
+    EntityType entityType = mock(EntityType.class);
+    when(entityType.getId()).thenReturn("entityTypeId");
+    when(delegateRepository.getEntityType()).thenReturn(entityType);
+    when(delegateRepository.getCapabilities()).thenReturn(singleton(PERMISSION_FILTERABLE));
+    when(sidRetrievalStrategy.getSids(any()))
+        .thenReturn(asList(new PrincipalSid(USERNAME), new GrantedAuthoritySid("ROLE_USER")));
+    when(permissionRegistry.getPermissions(READ))
+        .thenReturn(ImmutableSet.of(PermissionSet.READ, PermissionSet.WRITE));
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   void testFindAllStream() {
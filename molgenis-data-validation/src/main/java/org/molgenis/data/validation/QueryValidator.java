@@ -19,6 +19,7 @@ import javax.annotation.Nullable;
 import org.molgenis.data.Entity;
 import org.molgenis.data.EntityManager;
 import org.molgenis.data.Fetch;
+import org.molgenis.data.PermissionFilter;
 import org.molgenis.data.Query;
 import org.molgenis.data.QueryRule;
 import org.molgenis.data.QueryRule.Operator;
@@ -87,6 +88,9 @@ public class QueryValidator {
       case SEARCH:
         validateSearchQueryRule(queryRule);
         break;
+      case PERMITTED:
+        validatePermittedQueryRule(queryRule);
+        break;
       case IN:
       case RANGE:
         validateIterableQueryRule(queryRule, entityType, operator);
@@ -138,6 +142,19 @@ public class QueryValidator {
     }
   }
 
+  private void validatePermittedQueryRule(QueryRule queryRule) {
+    Object queryRuleValue = queryRule.getValue();
+    if (!(queryRuleValue instanceof PermissionFilter)) {
+      throw new MolgenisValidationException(
+          new ConstraintViolation(
+              format(
+                  "Query rule with operator [%s] value is of type [%s] instead of [%s]",
+                  Operator.PERMITTED,
+                  queryRuleValue != null ? queryRuleValue.getClass().getSimpleName() : null,
+                  PermissionFilter.class.getSimpleName())));
+    }
+  }
+
   private Attribute getQueryRuleAttribute(QueryRule queryRule, EntityType entityType) {
     try {
       return QueryUtils.getQueryRuleAttribute(queryRule, entityType);
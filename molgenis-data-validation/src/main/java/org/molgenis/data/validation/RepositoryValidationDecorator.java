@@ -1,11 +1,15 @@
 package org.molgenis.data.validation;
 
+import static com.google.common.collect.Iterators.partition;
 import static com.google.common.collect.Streams.stream;
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 import static java.util.Collections.unmodifiableList;
 import static java.util.Collections.unmodifiableMap;
 import static java.util.Collections.unmodifiableSet;
@@ -20,7 +24,6 @@ import static org.molgenis.data.util.EntityTypeUtils.isReferenceType;
 import static org.molgenis.data.util.EntityTypeUtils.isSingleReferenceType;
 
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +45,8 @@ import org.molgenis.util.HugeSet;
 import org.molgenis.validation.ConstraintViolation;
 
 public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<Entity> {
+  private static final int BATCH_SIZE = 1000;
+
   private enum ValidationMode {
     ADD,
     UPDATE
@@ -94,6 +99,24 @@ public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<E
     }
   }
 
+  /**
+   * Validates the new entities as added entities and the existing entities as updated entities
+   * before upserting the entities in one go.
+   */
+  @Override
+  public void upsertBatch(List<Entity> entities) {
+    Map<Boolean, List<Entity>> entitiesByExistence = partitionByExistence(entities);
+    try (ValidationResource validationResource = new ValidationResource()) {
+      validate(entitiesByExistence.get(FALSE).stream(), validationResource, ValidationMode.ADD)
+          .forEach(entity -> {});
+    }
+    try (ValidationResource validationResource = new ValidationResource()) {
+      validate(entitiesByExistence.get(TRUE).stream(), validationResource, ValidationMode.UPDATE)
+          .forEach(entity -> {});
+    }
+    delegate().upsertBatch(entities);
+  }
+
   @Override
   public void delete(Entity entity) {
     defaultValueReferenceValidator.validateEntityNotReferenced(entity);
@@ -136,18 +159,26 @@ public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<E
 
     ValidationProfile validationProfile = new ValidationProfile().invoke();
 
-    // add validation operation to stream
-    return entities.filter(
-        entity -> {
-          validate(entity, validationResource, validationMode, validationProfile);
-
-          return true;
-        });
+    // add validation operation to stream, prepare validation of each batch of entities
+    return stream(partition(entities.iterator(), BATCH_SIZE))
+        .flatMap(
+            batch -> {
+              initBatchValidation(batch, validationResource);
+              return batch.stream();
+            })
+        .filter(
+            entity -> {
+              validate(entity, validationResource, validationMode, validationProfile);
+
+              return true;
+            })
+        .onClose(entities::close);
   }
 
   private void validate(
       Entity entity, ValidationResource validationResource, ValidationMode validationMode) {
     initValidation(validationResource, validationMode);
+    initBatchValidation(singletonList(entity), validationResource);
     validate(entity, validationResource, validationMode, new ValidationProfile().invoke());
   }
 
@@ -229,28 +260,13 @@ public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<E
               .collect(toList());
     }
 
-    // get referenced entity ids
+    // referenced entity ids are verified per batch of validated entities
     if (!refAttrs.isEmpty()) {
       Map<String, HugeSet<Object>> refEntitiesIds = new HashMap<>();
       refAttrs.forEach(
-          refAttr -> {
-            EntityType refEntityType = refAttr.getRefEntity();
-            String refEntityName = refEntityType.getId();
-            HugeSet<Object> refEntityIds = refEntitiesIds.get(refEntityName);
-            if (refEntityIds == null) {
-              refEntityIds = new HugeSet<>();
-              refEntitiesIds.put(refEntityName, refEntityIds);
-
-              Query<Entity> q =
-                  new QueryImpl<>()
-                      .fetch(new Fetch().field(refEntityType.getIdAttribute().getName()));
-              for (Iterator<Entity> it = dataService.findAll(refEntityName, q).iterator();
-                  it.hasNext(); ) {
-                refEntityIds.add(it.next().getIdValue());
-              }
-            }
-          });
-
+          refAttr ->
+              refEntitiesIds.computeIfAbsent(
+                  refAttr.getRefEntity().getId(), id -> new HugeSet<>()));
       validationResource.setRefEntitiesIds(refEntitiesIds);
     }
 
@@ -260,6 +276,100 @@ public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<E
     validationResource.setRefAttrs(refAttrs);
   }
 
+  private void initBatchValidation(List<Entity> entities, ValidationResource validationResource) {
+    initBatchReferenceValidation(entities, validationResource);
+    initBatchUniqueValidation(entities, validationResource);
+  }
+
+  /**
+   * Looks up the referenced entity ids of a batch of entities that were not verified before with
+   * one query per referenced entity type.
+   */
+  private void initBatchReferenceValidation(
+      List<Entity> entities, ValidationResource validationResource) {
+    Map<String, EntityType> refEntityTypes = new HashMap<>();
+    Map<String, Set<Object>> unverifiedRefEntitiesIds = new HashMap<>();
+    validationResource
+        .getRefAttrs()
+        .forEach(
+            refAttr -> {
+              EntityType refEntityType = refAttr.getRefEntity();
+              String refEntityTypeId = refEntityType.getId();
+              HugeSet<Object> refEntityIds =
+                  validationResource.getRefEntitiesIds().get(refEntityTypeId);
+              for (Entity entity : entities) {
+                for (Entity refEntity : getRefEntities(entity, refAttr)) {
+                  Object refEntityId = refEntity.getIdValue();
+                  if (!refEntityIds.contains(refEntityId)) {
+                    refEntityTypes.putIfAbsent(refEntityTypeId, refEntityType);
+                    unverifiedRefEntitiesIds
+                        .computeIfAbsent(refEntityTypeId, id -> new LinkedHashSet<>())
+                        .add(refEntityId);
+                  }
+                }
+              }
+            });
+
+    unverifiedRefEntitiesIds.forEach(
+        (refEntityTypeId, refEntityIds) -> {
+          EntityType refEntityType = refEntityTypes.get(refEntityTypeId);
+          Fetch fetch = new Fetch().field(refEntityType.getIdAttribute().getName());
+          HugeSet<Object> verifiedRefEntityIds =
+              validationResource.getRefEntitiesIds().get(refEntityTypeId);
+          dataService
+              .findAll(refEntityTypeId, refEntityIds.stream(), fetch)
+              .forEach(refEntity -> verifiedRefEntityIds.add(refEntity.getIdValue()));
+        });
+  }
+
+  /**
+   * Looks up the existing entities that have one of the unique attribute values of a batch of
+   * entities. Values that occurred before in the validated entities are not looked up again, these
+   * are validated against the values of the previously validated entities.
+   */
+  private void initBatchUniqueValidation(
+      List<Entity> entities, ValidationResource validationResource) {
+    String idAttrName = getEntityType().getIdAttribute().getName();
+    validationResource
+        .getUniqueAttrs()
+        .forEach(
+            uniqueAttr -> {
+              HugeMap<Object, Object> uniqueAttrValues =
+                  validationResource.getUniqueAttrsValues().get(uniqueAttr.getName());
+              Set<Object> attrValues = new LinkedHashSet<>();
+              for (Entity entity : entities) {
+                Object attrValue = getUniqueAttrValue(entity, uniqueAttr);
+                if (attrValue != null && !uniqueAttrValues.containsKey(attrValue)) {
+                  attrValues.add(attrValue);
+                }
+              }
+
+              if (!attrValues.isEmpty()) {
+                Query<Entity> q =
+                    new QueryImpl<>()
+                        .in(uniqueAttr.getName(), attrValues)
+                        .fetch(new Fetch().field(idAttrName).field(uniqueAttr.getName()));
+                delegate()
+                    .findAll(q)
+                    .forEach(
+                        entity -> {
+                          Object attrValue = getUniqueAttrValue(entity, uniqueAttr);
+                          if (attrValue != null) {
+                            uniqueAttrValues.putIfAbsent(attrValue, entity.getIdValue());
+                          }
+                        });
+              }
+            });
+  }
+
+  private static Object getUniqueAttrValue(Entity entity, Attribute uniqueAttr) {
+    Object attrValue = entity.get(uniqueAttr.getName());
+    if (attrValue != null && isSingleReferenceType(uniqueAttr)) {
+      attrValue = ((Entity) attrValue).getIdValue();
+    }
+    return attrValue;
+  }
+
   private boolean isDifferentBackend(String backend, Attribute attr) {
     EntityType refEntity = attr.getRefEntity();
     String refEntityBackend = dataService.getMeta().getBackend(refEntity).getName();
@@ -274,35 +384,11 @@ public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<E
               .filter(attr -> attr.isUnique() && attr.getExpression() == null)
               .collect(toList());
 
-      // get existing values for each attributes
+      // existing values are looked up per batch of validated entities
       if (!uniqueAttrs.isEmpty()) {
         Map<String, HugeMap<Object, Object>> uniqueAttrsValues = new HashMap<>();
-
-        Fetch fetch = new Fetch();
         uniqueAttrs.forEach(
-            uniqueAttr -> {
-              uniqueAttrsValues.put(uniqueAttr.getName(), new HugeMap<>());
-              fetch.field(uniqueAttr.getName());
-            });
-
-        Query<Entity> q = new QueryImpl<>().fetch(fetch);
-        delegate()
-            .findAll(q)
-            .forEach(
-                entity ->
-                    uniqueAttrs.forEach(
-                        uniqueAttr -> {
-                          HugeMap<Object, Object> uniqueAttrValues =
-                              uniqueAttrsValues.get(uniqueAttr.getName());
-                          Object attrValue = entity.get(uniqueAttr.getName());
-                          if (attrValue != null) {
-                            if (isSingleReferenceType(uniqueAttr)) {
-                              attrValue = ((Entity) attrValue).getIdValue();
-                            }
-                            uniqueAttrValues.put(attrValue, entity.getIdValue());
-                          }
-                        }));
-
+            uniqueAttr -> uniqueAttrsValues.put(uniqueAttr.getName(), new HugeMap<>()));
         validationResource.setUniqueAttrsValues(uniqueAttrsValues);
       }
 
@@ -362,12 +448,8 @@ public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<E
         .getUniqueAttrs()
         .forEach(
             uniqueAttr -> {
-              Object attrValue = entity.get(uniqueAttr.getName());
+              Object attrValue = getUniqueAttrValue(entity, uniqueAttr);
               if (attrValue != null) {
-                if (isSingleReferenceType(uniqueAttr)) {
-                  attrValue = ((Entity) attrValue).getIdValue();
-                }
-
                 HugeMap<Object, Object> uniqueAttrValues =
                     validationResource.getUniqueAttrsValues().get(uniqueAttr.getName());
                 Object existingEntityId = uniqueAttrValues.get(attrValue);
@@ -397,19 +479,7 @@ public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<E
               HugeSet<Object> refEntityIds =
                   validationResource.getRefEntitiesIds().get(refAttr.getRefEntity().getId());
 
-              Iterable<Entity> refEntities;
-              if (isSingleReferenceType(refAttr)) {
-                Entity refEntity = entity.getEntity(refAttr.getName());
-                if (refEntity != null) {
-                  refEntities = singleton(refEntity);
-                } else {
-                  refEntities = emptyList();
-                }
-              } else {
-                refEntities = entity.getEntities(refAttr.getName());
-              }
-
-              for (Entity refEntity : refEntities) {
+              for (Entity refEntity : getRefEntities(entity, refAttr)) {
                 if (!refEntityIds.contains(refEntity.getIdValue())) {
                   boolean selfReference =
                       entity.getEntityType().getId().equals(refAttr.getRefEntity().getId());
@@ -435,6 +505,21 @@ public class RepositoryValidationDecorator extends AbstractRepositoryDecorator<E
             });
   }
 
+  private static Iterable<Entity> getRefEntities(Entity entity, Attribute refAttr) {
+    Iterable<Entity> refEntities;
+    if (isSingleReferenceType(refAttr)) {
+      Entity refEntity = entity.getEntity(refAttr.getName());
+      if (refEntity != null) {
+        refEntities = singleton(refEntity);
+      } else {
+        refEntities = emptyList();
+      }
+    } else {
+      refEntities = entity.getEntities(refAttr.getName());
+    }
+    return refEntities;
+  }
+
   @SuppressWarnings("unchecked")
   private void validateEntityValueReadOnly(Entity entity, ValidationResource validationResource) {
     if (validationResource.getReadonlyAttrs().isEmpty()) {
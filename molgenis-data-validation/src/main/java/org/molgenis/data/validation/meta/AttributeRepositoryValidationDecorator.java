@@ -2,6 +2,7 @@ package org.molgenis.data.validation.meta;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.List;
 import java.util.stream.Stream;
 import org.molgenis.data.AbstractRepositoryDecorator;
 import org.molgenis.data.Repository;
@@ -34,6 +35,11 @@ public class AttributeRepositoryValidationDecorator extends AbstractRepositoryDe
                 }));
   }
 
+  @Override
+  public void upsertBatch(List<Attribute> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
+
   @Override
   public void add(Attribute attr) {
     attributeValidator.validate(attr, ValidationMode.ADD);
@@ -2,6 +2,7 @@ package org.molgenis.data.validation.meta;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.List;
 import java.util.stream.Stream;
 import org.molgenis.data.AbstractRepositoryDecorator;
 import org.molgenis.data.Repository;
@@ -35,6 +36,11 @@ public class EntityTypeRepositoryValidationDecorator
                 }));
   }
 
+  @Override
+  public void upsertBatch(List<EntityType> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
+
   @Override
   public void add(EntityType entityType) {
     entityTypeValidator.validate(entityType);
@@ -2,6 +2,7 @@ package org.molgenis.data.validation.meta;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.List;
 import java.util.stream.Stream;
 import org.molgenis.data.AbstractRepositoryDecorator;
 import org.molgenis.data.Repository;
@@ -52,6 +53,11 @@ public class PackageRepositoryValidationDecorator extends AbstractRepositoryDeco
                 }));
   }
 
+  @Override
+  public void upsertBatch(List<Package> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
+
   @Override
   public void delete(Package aPackage) {
     packageValidator.validate(aPackage);
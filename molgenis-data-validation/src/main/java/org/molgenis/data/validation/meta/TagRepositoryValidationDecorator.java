@@ -2,6 +2,7 @@ package org.molgenis.data.validation.meta;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.List;
 import java.util.stream.Stream;
 import org.molgenis.data.AbstractRepositoryDecorator;
 import org.molgenis.data.Repository;
@@ -50,4 +51,9 @@ public class TagRepositoryValidationDecorator extends AbstractRepositoryDecorato
                   return true;
                 }));
   }
+
+  @Override
+  public void upsertBatch(List<Tag> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
 }
@@ -2,22 +2,33 @@ package org.molgenis.data.validation;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.molgenis.data.RepositoryCapability.VALIDATE_NOTNULL_CONSTRAINT;
+import static org.molgenis.data.RepositoryCapability.VALIDATE_UNIQUE_CONSTRAINT;
 import static org.molgenis.data.meta.AttributeType.MREF;
 import static org.molgenis.data.meta.AttributeType.STRING;
 import static org.molgenis.data.meta.AttributeType.XREF;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -29,6 +40,7 @@ import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
 import org.molgenis.data.Fetch;
 import org.molgenis.data.Query;
+import org.molgenis.data.QueryRule;
 import org.molgenis.data.Repository;
 import org.molgenis.data.RepositoryCapability;
 import org.molgenis.data.RepositoryCollection;
@@ -187,19 +199,14 @@ class RepositoryValidationDecoratorTest {
     delegateRepository = mock(Repository.class);
     when(delegateRepository.getEntityType()).thenReturn(entityType);
     when(delegateRepository.getName()).thenReturn(entityTypeId);
-    when(delegateRepository.findAll(
-            new QueryImpl<>()
-                .fetch(new Fetch().field(attrUniqueStringName).field(attrUniqueXrefName))))
-        .thenReturn(Stream.empty());
     refRepo = mock(Repository.class);
     when(refRepo.getEntityType()).thenReturn(refEntityType);
 
     dataService = mock(DataService.class);
     when(dataService.getRepository(entityTypeId)).thenReturn(delegateRepository);
     when(dataService.getRepository(refEntityName)).thenReturn(refRepo);
-    when(dataService.findAll(
-            refEntityName, new QueryImpl<>().fetch(new Fetch().field(refAttrIdName))))
-        .thenReturn(Stream.of(refEntity0, refEntity1));
+    stubFindAllById(refEntityName, refAttrIdName, refEntity0, refEntity1);
+    stubFindAllByUniqueValue();
 
     metaDataService = mock(MetaDataService.class);
     when(dataService.getMeta()).thenReturn(metaDataService);
@@ -493,8 +500,7 @@ class RepositoryValidationDecoratorTest {
     when(entity0.get(attrUniqueXrefName)).thenReturn(refEntity0);
 
     // actual tests
-    when(dataService.findAll(entityTypeId, new QueryImpl<>().fetch(new Fetch().field(attrIdName))))
-        .thenReturn(Stream.of(entity0));
+    stubFindAllById(entityTypeId, attrIdName, entity0);
     repositoryValidationDecorator.add(entity0);
 
     verify(delegateRepository, times(1)).add(entity0);
@@ -643,8 +649,7 @@ class RepositoryValidationDecoratorTest {
     when(entityInBackend0.get(attrUniqueStringName)).thenReturn("unique0");
     when(entityInBackend0.get(attrUniqueXrefName)).thenReturn(refEntity0);
 
-    when(delegateRepository.findAll(new QueryImpl<>().fetch(new Fetch().field(attrIdName))))
-        .thenReturn(Stream.of(entityInBackend0));
+    stubFindAllByUniqueValue(entityInBackend0);
 
     // entities
     Entity entity0 = mock(Entity.class);
@@ -701,8 +706,7 @@ class RepositoryValidationDecoratorTest {
     when(entityInBackend0.get(attrUniqueStringName)).thenReturn("unique0");
     when(entityInBackend0.get(attrUniqueXrefName)).thenReturn(refEntity0);
 
-    when(delegateRepository.findAll(new QueryImpl<>().fetch(new Fetch().field(attrIdName))))
-        .thenReturn(Stream.of(entityInBackend0));
+    stubFindAllByUniqueValue(entityInBackend0);
 
     // entities
     Entity entity0 = mock(Entity.class);
@@ -753,8 +757,7 @@ class RepositoryValidationDecoratorTest {
     when(entityInBackend0.get(attrUniqueStringName)).thenReturn("unique0");
     when(entityInBackend0.get(attrUniqueXrefName)).thenReturn(refEntity0);
 
-    when(delegateRepository.findAll(new QueryImpl<>().fetch(new Fetch().field(attrIdName))))
-        .thenReturn(Stream.of(entityInBackend0));
+    stubFindAllByUniqueValue(entityInBackend0);
 
     // entities
     Entity entity0 = mock(Entity.class);
@@ -823,6 +826,86 @@ class RepositoryValidationDecoratorTest {
     verify(entityAttributesValidator, times(1)).validate(entity0, entityType);
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  void addStreamReferencesLookedUpPerBatch() {
+    when(delegateRepository.getCapabilities())
+        .thenReturn(EnumSet.of(VALIDATE_NOTNULL_CONSTRAINT, VALIDATE_UNIQUE_CONSTRAINT));
+
+    Entity entity0 = mock(Entity.class);
+    when(entity0.getEntityType()).thenReturn(entityType);
+    when(entity0.getIdValue()).thenReturn("id0");
+    when(entity0.getEntity(attrXrefName)).thenReturn(refEntity0);
+    when(entity0.getEntities(attrMrefName)).thenReturn(Arrays.asList(refEntity0, refEntity1));
+    when(entity0.getEntities(attrNillableMrefName)).thenReturn(emptyList());
+
+    Entity entity1 = mock(Entity.class);
+    when(entity1.getEntityType()).thenReturn(entityType);
+    when(entity1.getIdValue()).thenReturn("id1");
+    when(entity1.getEntity(attrXrefName)).thenReturn(refEntity1);
+    when(entity1.getEntities(attrMrefName)).thenReturn(Arrays.asList(refEntity0));
+    when(entity1.getEntities(attrNillableMrefName)).thenReturn(emptyList());
+
+    // the looked up id stream is consumed by the data service, collect the ids while answering
+    List<Object> ids = new ArrayList<>();
+    when(dataService.findAll(
+            eq(refEntityName), any(Stream.class), eq(new Fetch().field(refAttrIdName))))
+        .thenAnswer(
+            invocation -> {
+              ((Stream<Object>) invocation.getArgument(1)).forEach(ids::add);
+              return Stream.of(refEntity0, refEntity1);
+            });
+
+    repositoryValidationDecorator.add(Stream.of(entity0, entity1));
+
+    ArgumentCaptor<Stream<Entity>> captor = ArgumentCaptor.forClass(Stream.class);
+    verify(delegateRepository).add(captor.capture());
+    captor.getValue().collect(toList()); // process stream to enable validation
+
+    verify(dataService, times(1))
+        .findAll(eq(refEntityName), any(Stream.class), eq(new Fetch().field(refAttrIdName)));
+    assertEquals(asList("idref0", "idref1"), ids);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void addStreamUniqueValuesLookedUpPerBatch() {
+    when(delegateRepository.getCapabilities()).thenReturn(EnumSet.of(VALIDATE_NOTNULL_CONSTRAINT));
+
+    Entity entity0 = mock(Entity.class);
+    when(entity0.getEntityType()).thenReturn(entityType);
+    when(entity0.getIdValue()).thenReturn("id0");
+    when(entity0.getEntity(attrXrefName)).thenReturn(refEntity0);
+    when(entity0.getEntities(attrMrefName)).thenReturn(emptyList());
+    when(entity0.getEntities(attrNillableMrefName)).thenReturn(emptyList());
+    when(entity0.get(attrUniqueStringName)).thenReturn("unique0");
+
+    Entity entity1 = mock(Entity.class);
+    when(entity1.getEntityType()).thenReturn(entityType);
+    when(entity1.getIdValue()).thenReturn("id1");
+    when(entity1.getEntity(attrXrefName)).thenReturn(refEntity0);
+    when(entity1.getEntities(attrMrefName)).thenReturn(emptyList());
+    when(entity1.getEntities(attrNillableMrefName)).thenReturn(emptyList());
+    when(entity1.get(attrUniqueStringName)).thenReturn("unique1");
+
+    repositoryValidationDecorator.add(Stream.of(entity0, entity1));
+
+    ArgumentCaptor<Stream<Entity>> captor = ArgumentCaptor.forClass(Stream.class);
+    verify(delegateRepository).add(captor.capture());
+    captor.getValue().collect(toList()); // process stream to enable validation
+
+    verify(delegateRepository)
+        .findAll(
+            new QueryImpl<>()
+                .in(attrUniqueStringName, new LinkedHashSet<>(asList("unique0", "unique1")))
+                .fetch(new Fetch().field(attrIdName).field(attrUniqueStringName)));
+    verify(delegateRepository, never())
+        .findAll(
+            new QueryImpl<>()
+                .in(attrUniqueXrefName, emptySet())
+                .fetch(new Fetch().field(attrIdName).field(attrUniqueXrefName)));
+  }
+
   @SuppressWarnings({"rawtypes", "unchecked"})
   @Test
   void addStreamEntityAttributesValidationError() {
@@ -1034,8 +1117,7 @@ class RepositoryValidationDecoratorTest {
 
     // actual tests
     List<Entity> entities = Arrays.asList(entity0);
-    when(dataService.findAll(entityTypeId, new QueryImpl<>().fetch(new Fetch().field(attrIdName))))
-        .thenReturn(Stream.of(entity0));
+    stubFindAllById(entityTypeId, attrIdName, entity0);
     repositoryValidationDecorator.add(entities.stream());
 
     ArgumentCaptor<Stream<Entity>> captor = ArgumentCaptor.forClass(Stream.class);
@@ -1093,8 +1175,7 @@ class RepositoryValidationDecoratorTest {
 
     // actual tests
     List<Entity> entities = Arrays.asList(entity0, entity1);
-    when(dataService.findAll(entityTypeId, new QueryImpl<>().fetch(new Fetch().field(attrIdName))))
-        .thenReturn(Stream.empty());
+    stubFindAllById(entityTypeId, attrIdName);
     repositoryValidationDecorator.add(entities.stream());
 
     ArgumentCaptor<Stream<Entity>> captor = ArgumentCaptor.forClass(Stream.class);
@@ -1332,8 +1413,7 @@ class RepositoryValidationDecoratorTest {
     when(entityInBackend0.get(attrUniqueStringName)).thenReturn("unique0");
     when(entityInBackend0.get(attrUniqueXrefName)).thenReturn(refEntity0);
 
-    when(delegateRepository.findAll(new QueryImpl<>().fetch(new Fetch().field(attrIdName))))
-        .thenReturn(Stream.of(entityInBackend0));
+    stubFindAllByUniqueValue(entityInBackend0);
 
     // entities
     Entity entity0 = mock(Entity.class);
@@ -1398,8 +1478,7 @@ class RepositoryValidationDecoratorTest {
     when(entityInBackend0.get(attrUniqueStringName)).thenReturn("unique0");
     when(entityInBackend0.get(attrUniqueXrefName)).thenReturn(refEntity0);
 
-    when(delegateRepository.findAll(new QueryImpl<>().fetch(new Fetch().field(attrIdName))))
-        .thenReturn(Stream.of(entityInBackend0));
+    stubFindAllByUniqueValue(entityInBackend0);
 
     // entities
     Entity entity0 = mock(Entity.class);
@@ -1519,8 +1598,7 @@ class RepositoryValidationDecoratorTest {
     when(entityInBackend0.get(attrUniqueStringName)).thenReturn("unique0");
     when(entityInBackend0.get(attrUniqueXrefName)).thenReturn(refEntity0);
 
-    when(delegateRepository.findAll(new QueryImpl<>().fetch(new Fetch().field(attrIdName))))
-        .thenReturn(Stream.of(entityInBackend0));
+    stubFindAllByUniqueValue(entityInBackend0);
 
     // entities
     Entity entity0 = mock(Entity.class);
@@ -1747,8 +1825,7 @@ class RepositoryValidationDecoratorTest {
     when(entity0.get(attrUniqueXrefName)).thenReturn(refEntity0);
 
     // actual tests
-    when(dataService.findAll(entityTypeId, new QueryImpl<>().fetch(new Fetch().field(attrIdName))))
-        .thenReturn(Stream.of(entity0));
+    stubFindAllById(entityTypeId, attrIdName, entity0);
     repositoryValidationDecorator.update(entity0);
     verify(delegateRepository, times(1)).update(entity0);
     verify(entityAttributesValidator, times(1)).validate(entity0, entityType);
@@ -1896,8 +1973,7 @@ class RepositoryValidationDecoratorTest {
     when(entityInBackend0.get(attrUniqueStringName)).thenReturn("unique0");
     when(entityInBackend0.get(attrUniqueXrefName)).thenReturn(refEntity0);
 
-    when(delegateRepository.findAll(new QueryImpl<>().fetch(new Fetch().field(attrIdName))))
-        .thenReturn(Stream.of(entityInBackend0));
+    stubFindAllByUniqueValue(entityInBackend0);
 
     // entities
     Entity entity0 = mock(Entity.class);
@@ -1954,8 +2030,7 @@ class RepositoryValidationDecoratorTest {
     when(entityInBackend0.get(attrUniqueStringName)).thenReturn("unique0");
     when(entityInBackend0.get(attrUniqueXrefName)).thenReturn(refEntity0);
 
-    when(delegateRepository.findAll(new QueryImpl<>().fetch(new Fetch().field(attrIdName))))
-        .thenReturn(Stream.of(entityInBackend0));
+    stubFindAllByUniqueValue(entityInBackend0);
 
     // entities
     Entity entity0 = mock(Entity.class);
@@ -2006,8 +2081,7 @@ class RepositoryValidationDecoratorTest {
     when(entityInBackend0.get(attrUniqueStringName)).thenReturn("unique0");
     when(entityInBackend0.get(attrUniqueXrefName)).thenReturn(refEntity0);
 
-    when(delegateRepository.findAll(new QueryImpl<>().fetch(new Fetch().field(attrIdName))))
-        .thenReturn(Stream.of(entityInBackend0));
+    stubFindAllByUniqueValue(entityInBackend0);
 
     // entities
     Entity entity0 = mock(Entity.class);
@@ -2755,8 +2829,7 @@ class RepositoryValidationDecoratorTest {
 
     // actual tests
     List<Entity> entities = Arrays.asList(entity0);
-    when(dataService.findAll(entityTypeId, new QueryImpl<>().fetch(new Fetch().field(attrIdName))))
-        .thenReturn(Stream.of(entity0));
+    stubFindAllById(entityTypeId, attrIdName, entity0);
     repositoryValidationDecorator.update(entities.stream());
 
     ArgumentCaptor<Stream<Entity>> captor = ArgumentCaptor.forClass(Stream.class);
@@ -2814,8 +2887,7 @@ class RepositoryValidationDecoratorTest {
 
     // actual tests
     List<Entity> entities = Arrays.asList(entity0, entity1);
-    when(dataService.findAll(entityTypeId, new QueryImpl<>().fetch(new Fetch().field(attrIdName))))
-        .thenReturn(Stream.of(entity0, entity1));
+    stubFindAllById(entityTypeId, attrIdName, entity0, entity1);
     repositoryValidationDecorator.update(entities.stream());
 
     ArgumentCaptor<Stream<Entity>> captor = ArgumentCaptor.forClass(Stream.class);
@@ -3053,8 +3125,7 @@ class RepositoryValidationDecoratorTest {
     when(entityInBackend0.get(attrUniqueStringName)).thenReturn("unique0");
     when(entityInBackend0.get(attrUniqueXrefName)).thenReturn(refEntity0);
 
-    when(delegateRepository.findAll(new QueryImpl<>().fetch(new Fetch().field(attrIdName))))
-        .thenReturn(Stream.of(entityInBackend0));
+    stubFindAllByUniqueValue(entityInBackend0);
 
     // entities
     Entity entity0 = mock(Entity.class);
@@ -3119,8 +3190,7 @@ class RepositoryValidationDecoratorTest {
     when(entityInBackend0.get(attrUniqueStringName)).thenReturn("unique0");
     when(entityInBackend0.get(attrUniqueXrefName)).thenReturn(refEntity0);
 
-    when(delegateRepository.findAll(new QueryImpl<>().fetch(new Fetch().field(attrIdName))))
-        .thenReturn(Stream.of(entityInBackend0));
+    stubFindAllByUniqueValue(entityInBackend0);
 
     // entities
     Entity entity0 = mock(Entity.class);
@@ -3240,8 +3310,7 @@ class RepositoryValidationDecoratorTest {
     when(entityInBackend0.get(attrUniqueStringName)).thenReturn("unique0");
     when(entityInBackend0.get(attrUniqueXrefName)).thenReturn(refEntity0);
 
-    when(delegateRepository.findAll(new QueryImpl<>().fetch(new Fetch().field(attrIdName))))
-        .thenReturn(Stream.of(entityInBackend0));
+    stubFindAllByUniqueValue(entityInBackend0);
 
     // entities
     Entity entity0 = mock(Entity.class);
@@ -3887,4 +3956,108 @@ class RepositoryValidationDecoratorTest {
         MolgenisValidationException.class,
         () -> repositoryValidationDecorator.deleteAll(entityIdStream));
   }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void upsertBatch() {
+    // entities
+    Entity entity0 = mock(Entity.class);
+    when(entity0.getEntityType()).thenReturn(entityType);
+
+    when(entity0.getIdValue()).thenReturn("id0");
+    when(entity0.getEntity(attrXrefName)).thenReturn(refEntity0);
+    when(entity0.getEntity(attrNillableXrefName)).thenReturn(null);
+    when(entity0.getEntities(attrMrefName)).thenReturn(Arrays.asList(refEntity0));
+    when(entity0.getEntities(attrNillableMrefName)).thenReturn(emptyList());
+    when(entity0.getString(attrUniqueStringName)).thenReturn("unique0");
+    when(entity0.getEntity(attrUniqueXrefName)).thenReturn(refEntity0);
+
+    when(entity0.get(attrIdName)).thenReturn("id0");
+    when(entity0.get(attrXrefName)).thenReturn(refEntity0);
+    when(entity0.get(attrNillableXrefName)).thenReturn(null);
+    when(entity0.get(attrMrefName)).thenReturn(Arrays.asList(refEntity0));
+    when(entity0.get(attrNillableMrefName)).thenReturn(emptyList());
+    when(entity0.get(attrUniqueStringName)).thenReturn("unique0");
+    when(entity0.get(attrUniqueXrefName)).thenReturn(refEntity0);
+    when(delegateRepository.findAll(any(Stream.class), any(Fetch.class)))
+        .thenReturn(Stream.empty());
+
+    // actual tests
+    List<Entity> entities = singletonList(entity0);
+    repositoryValidationDecorator.upsertBatch(entities);
+    verify(delegateRepository, times(1)).upsertBatch(entities);
+    verify(entityAttributesValidator, times(1)).validate(entity0, entityType);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void upsertBatchEntityAttributesValidationError() {
+    // entities
+    Entity entity0 = mock(Entity.class);
+    when(entity0.getEntityType()).thenReturn(entityType);
+
+    when(entity0.getIdValue()).thenReturn("id0");
+    when(entity0.getEntity(attrXrefName)).thenReturn(refEntity0);
+    when(entity0.getEntity(attrNillableXrefName)).thenReturn(null);
+    when(entity0.getEntities(attrMrefName)).thenReturn(Arrays.asList(refEntity0));
+    when(entity0.getEntities(attrNillableMrefName)).thenReturn(emptyList());
+    when(entity0.getString(attrUniqueStringName)).thenReturn("unique0");
+    when(entity0.getEntity(attrUniqueXrefName)).thenReturn(refEntity0);
+
+    when(entity0.get(attrIdName)).thenReturn("id0");
+    when(entity0.get(attrXrefName)).thenReturn(refEntity0);
+    when(entity0.get(attrNillableXrefName)).thenReturn(null);
+    when(entity0.get(attrMrefName)).thenReturn(Arrays.asList(refEntity0));
+    when(entity0.get(attrNillableMrefName)).thenReturn(emptyList());
+    when(entity0.get(attrUniqueStringName)).thenReturn("unique0");
+    when(entity0.get(attrUniqueXrefName)).thenReturn(refEntity0);
+    when(delegateRepository.findAll(any(Stream.class), any(Fetch.class)))
+        .thenReturn(Stream.empty());
+
+    Set<ConstraintViolation> violations = singleton(new ConstraintViolation("violation", 2L));
+    when(entityAttributesValidator.validate(entity0, entityType)).thenReturn(violations);
+
+    // actual tests
+    List<Entity> entities = singletonList(entity0);
+    MolgenisValidationException e =
+        assertThrows(
+            MolgenisValidationException.class,
+            () -> repositoryValidationDecorator.upsertBatch(entities));
+    assertEquals(violations, e.getViolations());
+    verify(delegateRepository, never()).upsertBatch(entities);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void stubFindAllById(String entityTypeId, String idAttrName, Entity... entities) {
+    when(dataService.findAll(
+            eq(entityTypeId), any(Stream.class), eq(new Fetch().field(idAttrName))))
+        .thenAnswer(
+            invocation -> {
+              Set<Object> ids = ((Stream<Object>) invocation.getArgument(1)).collect(toSet());
+              return Stream.of(entities).filter(entity -> ids.contains(entity.getIdValue()));
+            });
+  }
+
+  @SuppressWarnings("unchecked")
+  private void stubFindAllByUniqueValue(Entity... entities) {
+    when(delegateRepository.findAll(any(Query.class)))
+        .thenAnswer(
+            invocation -> {
+              List<QueryRule> rules = ((Query<Entity>) invocation.getArgument(0)).getRules();
+              if (rules.isEmpty()) {
+                return Stream.empty();
+              }
+              QueryRule rule = rules.get(0);
+              Collection<Object> values = (Collection<Object>) rule.getValue();
+              return Stream.of(entities)
+                  .filter(
+                      entity -> {
+                        Object value = entity.get(rule.getField());
+                        if (value instanceof Entity) {
+                          value = ((Entity) value).getIdValue();
+                        }
+                        return values.contains(value);
+                      });
+            });
+  }
 }
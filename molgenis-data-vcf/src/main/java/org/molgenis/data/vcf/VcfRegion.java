@@ -0,0 +1,111 @@
+package org.molgenis.data.vcf;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.vcf.model.VcfAttributes.CHROM;
+import static org.molgenis.data.vcf.model.VcfAttributes.POS;
+
+import com.google.common.collect.Iterables;
+import java.util.List;
+import org.molgenis.data.DataConverter;
+import org.molgenis.data.QueryRule;
+
+/**
+ * Genomic region of a query on a {@link VcfRepository}: a chromosome and an inclusive range of
+ * positions.
+ */
+class VcfRegion {
+  private final String chrom;
+  private final int start;
+  private final int end;
+
+  VcfRegion(String chrom, int start, int end) {
+    this.chrom = requireNonNull(chrom);
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Creates a region from query rules that combine one CHROM equals rule and POS rules with AND.
+   *
+   * @throws UnsupportedOperationException if the rules do not describe a region
+   */
+  static VcfRegion create(List<QueryRule> rules) {
+    String chrom = null;
+    int start = 1;
+    int end = Integer.MAX_VALUE;
+    for (QueryRule rule : rules) {
+      QueryRule.Operator operator = rule.getOperator();
+      if (operator == QueryRule.Operator.AND) {
+        continue;
+      }
+      if (CHROM.equals(rule.getField()) && operator == QueryRule.Operator.EQUALS) {
+        chrom = DataConverter.toString(rule.getValue());
+      } else if (POS.equals(rule.getField())) {
+        switch (operator) {
+          case EQUALS:
+            start = Math.max(start, toPos(rule.getValue()));
+            end = Math.min(end, toPos(rule.getValue()));
+            break;
+          case GREATER:
+            start = Math.max(start, toPos(rule.getValue()) + 1);
+            break;
+          case GREATER_EQUAL:
+            start = Math.max(start, toPos(rule.getValue()));
+            break;
+          case LESS:
+            end = Math.min(end, toPos(rule.getValue()) - 1);
+            break;
+          case LESS_EQUAL:
+            end = Math.min(end, toPos(rule.getValue()));
+            break;
+          case RANGE:
+            Iterable<?> range = (Iterable<?>) rule.getValue();
+            start = Math.max(start, toPos(Iterables.get(range, 0)));
+            end = Math.min(end, toPos(Iterables.get(range, 1)));
+            break;
+          default:
+            throw new UnsupportedOperationException(
+                format("Operator [%s] not supported for attribute [%s]", operator, POS));
+        }
+      } else {
+        throw new UnsupportedOperationException(format("Query rule [%s] not supported", rule));
+      }
+    }
+    if (chrom == null) {
+      throw new UnsupportedOperationException(format("Query requires a [%s] rule", CHROM));
+    }
+    return new VcfRegion(chrom, start, end);
+  }
+
+  private static int toPos(Object value) {
+    Integer pos = DataConverter.toInt(value);
+    if (pos == null) {
+      throw new UnsupportedOperationException(format("Invalid [%s] value [%s]", POS, value));
+    }
+    return pos;
+  }
+
+  String getChrom() {
+    return chrom;
+  }
+
+  /** Returns the first position of the region, one-based */
+  int getStart() {
+    return start;
+  }
+
+  /** Returns the last position of the region, one-based */
+  int getEnd() {
+    return end;
+  }
+
+  /** Returns whether the record with the given tab separated values is in this region */
+  boolean contains(String[] tokens) {
+    if (!chrom.equals(tokens[0])) {
+      return false;
+    }
+    int pos = Integer.parseInt(tokens[1]);
+    return pos >= start && pos <= end;
+  }
+}
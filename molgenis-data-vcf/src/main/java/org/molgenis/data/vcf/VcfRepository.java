@@ -5,24 +5,39 @@ import static com.google.common.collect.Iterators.transform;
 import static com.google.common.collect.Streams.stream;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.QueryRule.Operator.AND;
+import static org.molgenis.data.QueryRule.Operator.EQUALS;
+import static org.molgenis.data.QueryRule.Operator.GREATER;
+import static org.molgenis.data.QueryRule.Operator.GREATER_EQUAL;
+import static org.molgenis.data.QueryRule.Operator.LESS;
+import static org.molgenis.data.QueryRule.Operator.LESS_EQUAL;
+import static org.molgenis.data.QueryRule.Operator.RANGE;
+import static org.molgenis.data.RepositoryCapability.QUERYABLE;
 
+import com.google.common.collect.AbstractIterator;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.Collections;
+import java.nio.file.Files;
+import java.util.EnumSet;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import org.broad.tribble.readers.TabixReader;
 import org.molgenis.data.Entity;
 import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.Query;
+import org.molgenis.data.QueryRule.Operator;
 import org.molgenis.data.RepositoryCapability;
 import org.molgenis.data.meta.model.AttributeFactory;
 import org.molgenis.data.meta.model.EntityType;
@@ -32,13 +47,28 @@ import org.molgenis.data.vcf.format.VcfToEntity;
 import org.molgenis.data.vcf.model.VcfAttributes;
 import org.molgenis.vcf.VcfReader;
 import org.molgenis.vcf.meta.VcfMeta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Repository implementation for vcf files.
  *
  * <p>The filename without the extension is considered to be the entityname
+ *
+ * <p>Queries on a chromosome and a range of positions are supported. For a bgzipped vcf file with a
+ * tabix index (the file name with a .tbi extension) the index is used to seek to the region,
+ * otherwise the file is scanned.
+ *
+ * <p>The number of records is cached in a sidecar file (the file name with a .count extension).
  */
 public class VcfRepository extends AbstractRepository {
+  private static final Logger LOG = LoggerFactory.getLogger(VcfRepository.class);
+
+  private static final Set<Operator> QUERY_OPERATORS =
+      EnumSet.of(AND, EQUALS, GREATER, GREATER_EQUAL, LESS, LESS_EQUAL, RANGE);
+  static final String TABIX_INDEX_EXTENSION = ".tbi";
+  static final String COUNT_EXTENSION = ".count";
+
   public static final String DEFAULT_ATTRIBUTE_DESCRIPTION = "Description not provided";
 
   public static final String NAME = "NAME";
@@ -52,6 +82,7 @@ public class VcfRepository extends AbstractRepository {
   private final AttributeFactory attrMetaFactory;
   private VcfToEntity vcfToEntity;
   private final File file;
+  private Long count;
 
   VcfRepository(
       File file,
@@ -92,14 +123,178 @@ public class VcfRepository extends AbstractRepository {
 
   @Override
   public Set<RepositoryCapability> getCapabilities() {
-    return Collections.emptySet();
+    return EnumSet.of(QUERYABLE);
+  }
+
+  @Override
+  public Set<Operator> getQueryOperators() {
+    return QUERY_OPERATORS;
   }
 
   @Override
   public long count() {
-    AtomicInteger counter = new AtomicInteger(0);
-    forEachBatched(batch -> counter.addAndGet(batch.size()), BATCH_SIZE);
-    return counter.get();
+    if (count == null) {
+      count = readCount();
+    }
+    return count;
+  }
+
+  @Override
+  public long count(Query<Entity> q) {
+    if (q.getRules().isEmpty() && q.getOffset() == 0 && q.getPageSize() == 0) {
+      return count();
+    }
+    long nrRecords;
+    try (Stream<String[]> records = findAllRecords(VcfRegion.create(q.getRules()))) {
+      nrRecords = records.count();
+    }
+    nrRecords = Math.max(0, nrRecords - q.getOffset());
+    return q.getPageSize() > 0 ? Math.min(nrRecords, q.getPageSize()) : nrRecords;
+  }
+
+  /**
+   * Returns the records in the region described by the query rules in file order. The returned
+   * stream must be closed to release the file.
+   *
+   * @throws UnsupportedOperationException if the query rules do not describe a region or the query
+   *     is sorted
+   */
+  @Override
+  public Stream<Entity> findAll(Query<Entity> q) {
+    if (q.getSort() != null && q.getSort().iterator().hasNext()) {
+      throw new UnsupportedOperationException("Sorted queries are not supported");
+    }
+    Stream<String[]> records = findAllRecords(VcfRegion.create(q.getRules()));
+    if (q.getOffset() > 0) {
+      records = records.skip(q.getOffset());
+    }
+    if (q.getPageSize() > 0) {
+      records = records.limit(q.getPageSize());
+    }
+    return records.map(vcfToEntity::toEntity);
+  }
+
+  @Override
+  public Entity findOne(Query<Entity> q) {
+    try (Stream<Entity> entities = findAll(q)) {
+      return entities.findFirst().orElse(null);
+    }
+  }
+
+  private boolean isTabixIndexed() {
+    return file.getName().endsWith(".gz")
+        && new File(file.getPath() + TABIX_INDEX_EXTENSION).exists();
+  }
+
+  /** Returns the tokens of the records in the region without converting them to entities */
+  private Stream<String[]> findAllRecords(VcfRegion region) {
+    Stream<String> lines = isTabixIndexed() ? findAllIndexed(region) : lines();
+    return lines.map(line -> line.split("\t")).filter(region::contains);
+  }
+
+  private Stream<String> findAllIndexed(VcfRegion region) {
+    TabixReader tabixReader;
+    try {
+      tabixReader = new TabixReader(file.getPath());
+    } catch (IOException e) {
+      throw new MolgenisDataException(
+          "Failed to read tabix index for file " + file.getAbsolutePath(), e);
+    }
+    Integer tid = tabixReader.mChr2tid.get(region.getChrom());
+    if (tid == null) {
+      tabixReader.close();
+      return Stream.empty();
+    }
+
+    // tabix regions are zero-based and half-open
+    TabixReader.Iterator tabixIterator =
+        tabixReader.query(tid, region.getStart() - 1, region.getEnd());
+    Iterator<String> lines =
+        new AbstractIterator<String>() {
+          @Override
+          protected String computeNext() {
+            String line;
+            try {
+              line = tabixIterator.next();
+            } catch (IOException e) {
+              tabixReader.close();
+              throw new MolgenisDataException(
+                  "Failed to read region from file " + file.getAbsolutePath(), e);
+            }
+            if (line == null) {
+              tabixReader.close();
+              return endOfData();
+            }
+            return line;
+          }
+        };
+    return stream(lines).onClose(tabixReader::close);
+  }
+
+  /** Reads the number of records from the count sidecar or counts and caches the records. */
+  private long readCount() {
+    File countFile = new File(file.getPath() + COUNT_EXTENSION);
+    if (countFile.exists() && countFile.lastModified() >= file.lastModified()) {
+      try {
+        return Long.parseLong(new String(Files.readAllBytes(countFile.toPath()), UTF_8).trim());
+      } catch (IOException | NumberFormatException e) {
+        LOG.warn("Failed to read record count from file {}", countFile.getAbsolutePath(), e);
+      }
+    }
+
+    long nrRecords;
+    try (Stream<String> lines = lines()) {
+      nrRecords = lines.count();
+    }
+    try {
+      Files.write(countFile.toPath(), Long.toString(nrRecords).getBytes(UTF_8));
+    } catch (IOException e) {
+      LOG.debug("Failed to write record count to file {}", countFile.getAbsolutePath(), e);
+    }
+    return nrRecords;
+  }
+
+  /**
+   * Returns the data lines of the file without parsing them into records. The returned stream must
+   * be closed to release the file.
+   */
+  private Stream<String> lines() {
+    BufferedReader reader;
+    try {
+      reader = new BufferedReader(new InputStreamReader(openInputStream(), UTF_8));
+    } catch (IOException e) {
+      throw new MolgenisDataException(
+          "Failed to create InputStream for file " + file.getAbsolutePath(), e);
+    }
+    Iterator<String> lines =
+        new AbstractIterator<String>() {
+          @Override
+          protected String computeNext() {
+            String line;
+            do {
+              try {
+                line = reader.readLine();
+              } catch (IOException e) {
+                throw new MolgenisDataException(
+                    "Failed to read lines from file " + file.getAbsolutePath(), e);
+              }
+            } while (line != null && (line.isEmpty() || line.startsWith("#")));
+            if (line == null) {
+              closeQuietly(reader);
+              return endOfData();
+            }
+            return line;
+          }
+        };
+    return stream(lines).onClose(() -> closeQuietly(reader));
+  }
+
+  private void closeQuietly(BufferedReader reader) {
+    try {
+      reader.close();
+    } catch (IOException e) {
+      LOG.debug("Failed to close file {}", file.getAbsolutePath(), e);
+    }
   }
 
   @Override
@@ -111,33 +306,38 @@ public class VcfRepository extends AbstractRepository {
   }
 
   private void withReader(Consumer<VcfReader> consumer) {
-    withInputStream(
-        inputStream -> {
-          try (VcfReader reader = new VcfReader(new InputStreamReader(inputStream, UTF_8))) {
-            consumer.accept(reader);
-          } catch (IOException e) {
-            throw new MolgenisDataException(
-                "Failed to create VCF Reader for file" + file.getAbsolutePath(), e);
-          }
-        });
+    try (VcfReader reader = new VcfReader(new InputStreamReader(openInputStream(), UTF_8))) {
+      consumer.accept(reader);
+    } catch (IOException e) {
+      throw new MolgenisDataException(
+          "Failed to create VCF Reader for file " + file.getAbsolutePath(), e);
+    }
   }
 
-  private void withInputStream(Consumer<InputStream> consumer) {
-    try {
-      if (file.getName().endsWith(".gz")) {
-        consumer.accept(new GZIPInputStream(new FileInputStream(file)));
-      } else if (file.getName().endsWith(".zip")) {
-        try (ZipFile zipFile = new ZipFile(file.getPath())) {
-          Enumeration<? extends ZipEntry> e = zipFile.entries();
-          ZipEntry entry = e.nextElement(); // your only file
-          consumer.accept(zipFile.getInputStream(entry));
-        }
-      } else {
-        consumer.accept(new FileInputStream(file));
+  private InputStream openInputStream() throws IOException {
+    if (file.getName().endsWith(".gz")) {
+      return new GZIPInputStream(new FileInputStream(file));
+    } else if (file.getName().endsWith(".zip")) {
+      ZipFile zipFile = new ZipFile(file.getPath());
+      try {
+        Enumeration<? extends ZipEntry> e = zipFile.entries();
+        ZipEntry entry = e.nextElement(); // your only file
+        return new FilterInputStream(zipFile.getInputStream(entry)) {
+          @Override
+          public void close() throws IOException {
+            try {
+              super.close();
+            } finally {
+              zipFile.close();
+            }
+          }
+        };
+      } catch (IOException | RuntimeException e) {
+        zipFile.close();
+        throw e;
       }
-    } catch (IOException e) {
-      throw new MolgenisDataException(
-          "Failed to create InputStream for file" + file.getAbsolutePath(), e);
+    } else {
+      return new FileInputStream(file);
     }
   }
 }
@@ -47,7 +47,7 @@ import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.AttributeFactory;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.meta.model.EntityTypeFactory;
-import org.molgenis.data.support.DynamicEntity;
+import org.molgenis.data.support.ArrayEntity;
 import org.molgenis.data.validation.meta.NameValidator;
 import org.molgenis.data.vcf.VcfRepository;
 import org.molgenis.data.vcf.model.VcfAttributes;
@@ -289,7 +289,7 @@ public class VcfToEntity {
   }
 
   public Entity toEntity(VcfRecord vcfRecord) {
-    Entity entity = new DynamicEntity(entityType);
+    Entity entity = new ArrayEntity(entityType);
     entity.set(CHROM, vcfRecord.getChromosome());
     entity.set(
         ALT,
@@ -321,7 +321,7 @@ public class VcfToEntity {
       for (int j = 0; sampleIterator.hasNext(); ++j) {
         String[] format = vcfRecord.getFormat();
         VcfSample sample = sampleIterator.next();
-        Entity sampleEntity = new DynamicEntity(sampleEntityType);
+        Entity sampleEntity = new ArrayEntity(sampleEntityType);
         for (int i = 0; i < format.length; i = i + 1) {
           String strValue = sample.getData(i);
           Object value = null;
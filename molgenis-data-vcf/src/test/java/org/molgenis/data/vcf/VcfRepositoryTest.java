@@ -1,8 +1,16 @@
 package org.molgenis.data.vcf;
 
 import static com.google.common.collect.ImmutableList.of;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.copy;
+import static java.nio.file.Files.createTempDirectory;
 import static java.nio.file.Files.createTempFile;
+import static java.nio.file.Files.readAllBytes;
+import static java.nio.file.Files.write;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singleton;
+import static java.util.stream.Collectors.toList;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -25,7 +33,9 @@ import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
@@ -33,10 +43,12 @@ import org.mockito.Mock;
 import org.molgenis.data.AbstractMolgenisSpringTest;
 import org.molgenis.data.Entity;
 import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.Query;
 import org.molgenis.data.meta.AttributeType;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.AttributeFactory;
 import org.molgenis.data.meta.model.EntityTypeFactory;
+import org.molgenis.data.support.QueryImpl;
 import org.molgenis.data.vcf.config.VcfTestConfig;
 import org.molgenis.data.vcf.model.VcfAttributes;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -60,6 +72,7 @@ class VcfRepositoryTest extends AbstractMolgenisSpringTest {
   private static File testData;
   private static File testNoData;
   private static File testEmptyFile;
+  private static File tempDir;
 
   @BeforeAll
   static void beforeClass() throws IOException {
@@ -68,6 +81,16 @@ class VcfRepositoryTest extends AbstractMolgenisSpringTest {
     testEmptyFile = createTempFile("empty", "vcf").toFile();
   }
 
+  @BeforeEach
+  void setUpBeforeEach() throws IOException {
+    tempDir = createTempDirectory("vcf").toFile();
+  }
+
+  @AfterEach
+  void tearDownAfterEach() throws IOException {
+    deleteDirectory(tempDir);
+  }
+
   @AfterAll
   static void afterClass() {
     testEmptyFile.delete();
@@ -162,6 +185,116 @@ class VcfRepositoryTest extends AbstractMolgenisSpringTest {
     verifyZeroInteractions(batchConsumer);
   }
 
+  @Test
+  void testCount() throws IOException {
+    File vcfFile = copyToTempDir("testdata.vcf");
+    VcfRepository vcfRepository =
+        new VcfRepository(vcfFile, "testData", vcfAttrs, entityTypeFactory, attrMetaFactory);
+    assertEquals(7, vcfRepository.count());
+    File countFile = new File(vcfFile.getPath() + VcfRepository.COUNT_EXTENSION);
+    assertEquals("7", new String(readAllBytes(countFile.toPath()), UTF_8));
+  }
+
+  @Test
+  void testCountFromSidecar() throws IOException {
+    File vcfFile = copyToTempDir("testdata.vcf");
+    File countFile = new File(vcfFile.getPath() + VcfRepository.COUNT_EXTENSION);
+    write(countFile.toPath(), "42".getBytes(UTF_8));
+    assertTrue(countFile.setLastModified(vcfFile.lastModified() + 1000));
+
+    VcfRepository vcfRepository =
+        new VcfRepository(vcfFile, "testData", vcfAttrs, entityTypeFactory, attrMetaFactory);
+    assertEquals(42, vcfRepository.count());
+  }
+
+  @Test
+  void testFindAllRegionIndexed() throws IOException {
+    File vcfFile = copyToTempDir("testdata.vcf.gz");
+    copyToTempDir("testdata.vcf.gz.tbi");
+    VcfRepository vcfRepository =
+        new VcfRepository(vcfFile, "testData", vcfAttrs, entityTypeFactory, attrMetaFactory);
+
+    Query<Entity> query = new QueryImpl<>().eq(CHROM, "1").and().rng(POS, 3171929, 3172273);
+    assertEquals(of(3171929, 3172062, 3172273), findPositions(vcfRepository, query));
+    assertEquals(3, vcfRepository.count(query));
+  }
+
+  @Test
+  void testFindAllPositionIndexed() throws IOException {
+    File vcfFile = copyToTempDir("testdata.vcf.gz");
+    copyToTempDir("testdata.vcf.gz.tbi");
+    VcfRepository vcfRepository =
+        new VcfRepository(vcfFile, "testData", vcfAttrs, entityTypeFactory, attrMetaFactory);
+
+    Query<Entity> query = new QueryImpl<>().eq(CHROM, "1").and().eq(POS, 6097450);
+    Entity entity = vcfRepository.findOne(query);
+    assertEquals("rs1295089", entity.getString(VcfAttributes.ID));
+  }
+
+  @Test
+  void testFindAllUnknownChromosomeIndexed() throws IOException {
+    File vcfFile = copyToTempDir("testdata.vcf.gz");
+    copyToTempDir("testdata.vcf.gz.tbi");
+    VcfRepository vcfRepository =
+        new VcfRepository(vcfFile, "testData", vcfAttrs, entityTypeFactory, attrMetaFactory);
+
+    Query<Entity> query = new QueryImpl<>().eq(CHROM, "2");
+    assertEquals(emptyList(), findPositions(vcfRepository, query));
+  }
+
+  @Test
+  void testFindAllRegionNotIndexed() {
+    VcfRepository vcfRepository =
+        new VcfRepository(testData, "testData", vcfAttrs, entityTypeFactory, attrMetaFactory);
+
+    Query<Entity> query = new QueryImpl<>().eq(CHROM, "1").and().gt(POS, 3172273);
+    assertEquals(of(6097450, 7569187), findPositions(vcfRepository, query));
+  }
+
+  @Test
+  void testFindAllRegionNotIndexedOffsetPageSize() {
+    VcfRepository vcfRepository =
+        new VcfRepository(testData, "testData", vcfAttrs, entityTypeFactory, attrMetaFactory);
+
+    Query<Entity> query =
+        new QueryImpl<>().eq(CHROM, "1").and().gt(POS, 3171929).offset(1).pageSize(2);
+    assertEquals(of(3172273, 6097450), findPositions(vcfRepository, query));
+  }
+
+  @Test
+  void testCountRegionNotIndexed() {
+    VcfRepository vcfRepository =
+        new VcfRepository(testData, "testData", vcfAttrs, entityTypeFactory, attrMetaFactory);
+
+    assertEquals(2, vcfRepository.count(new QueryImpl<>().eq(CHROM, "1").and().gt(POS, 3172273)));
+    assertEquals(
+        1, vcfRepository.count(new QueryImpl<>().eq(CHROM, "1").and().gt(POS, 3172273).offset(1)));
+    assertEquals(
+        0, vcfRepository.count(new QueryImpl<>().eq(CHROM, "1").and().gt(POS, 3172273).offset(3)));
+    assertEquals(
+        1,
+        vcfRepository.count(new QueryImpl<>().eq(CHROM, "1").and().gt(POS, 3172273).pageSize(1)));
+  }
+
+  @Test
+  void testFindAllUnsupportedQuery() {
+    VcfRepository vcfRepository =
+        new VcfRepository(testData, "testData", vcfAttrs, entityTypeFactory, attrMetaFactory);
+
+    Query<Entity> query = new QueryImpl<>().eq(VcfAttributes.ID, "rs1295089");
+    assertThrows(UnsupportedOperationException.class, () -> vcfRepository.findAll(query));
+  }
+
+  private static List<Integer> findPositions(VcfRepository vcfRepository, Query<Entity> query) {
+    return vcfRepository.findAll(query).map(entity -> entity.getInt(POS)).collect(toList());
+  }
+
+  private static File copyToTempDir(String resourceName) throws IOException {
+    File file = new File(tempDir, resourceName);
+    copy(new ClassPathResource(resourceName).getFile().toPath(), file.toPath());
+    return file;
+  }
+
   @Configuration
   @Import({VcfTestConfig.class})
   static class Config {}
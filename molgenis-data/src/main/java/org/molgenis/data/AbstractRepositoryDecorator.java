@@ -1,11 +1,16 @@
 package org.molgenis.data;
 
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.partitioningBy;
+import static java.util.stream.Collectors.toSet;
 
 import com.google.common.collect.ForwardingObject;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
@@ -17,6 +22,9 @@ import org.molgenis.data.support.QueryImpl;
 /**
  * Abstract superclass for {@link Repository} decorators that delegates everything to the decorated
  * repository.
+ *
+ * <p>Decorators that handle added and updated entities differently must also override {@link
+ * #upsertBatch(List)}, for example with {@link #upsertBatchByAddAndUpdate(List)}.
  */
 public abstract class AbstractRepositoryDecorator<E extends Entity> extends ForwardingObject
     implements Repository<E> {
@@ -162,4 +170,29 @@ public abstract class AbstractRepositoryDecorator<E extends Entity> extends Forw
   public void deleteAll(Stream<Object> ids) {
     delegate().deleteAll(ids);
   }
+
+  @Override
+  public void upsertBatch(List<E> entities) {
+    delegate().upsertBatch(entities);
+  }
+
+  /**
+   * Upserts a batch of entities by adding the new entities and updating the existing entities
+   * through this decorator.
+   */
+  protected void upsertBatchByAddAndUpdate(List<E> entities) {
+    Map<Boolean, List<E>> entitiesByExistence = partitionByExistence(entities);
+    add(entitiesByExistence.get(FALSE).stream());
+    update(entitiesByExistence.get(TRUE).stream());
+  }
+
+  /**
+   * Partitions entities in entities that exist in this repository (true) and new entities (false).
+   */
+  protected Map<Boolean, List<E>> partitionByExistence(List<E> entities) {
+    Set<Object> existingIds =
+        getExistingIDs(entities.stream().map(Entity::getIdValue).collect(toSet()));
+    return entities.stream()
+        .collect(partitioningBy(entity -> existingIds.contains(entity.getIdValue())));
+  }
 }
@@ -24,7 +24,7 @@ import java.util.stream.Stream;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.populate.EntityPopulator;
-import org.molgenis.data.support.DynamicEntity;
+import org.molgenis.data.support.ArrayEntity;
 import org.molgenis.data.support.EntityWithComputedAttributes;
 import org.molgenis.data.support.PartialEntity;
 import org.molgenis.data.util.EntityTypeUtils;
@@ -65,7 +65,7 @@ public class EntityManagerImpl implements EntityManager {
   }
 
   private Entity create(EntityType entityType, Fetch fetch, CreationMode creationMode) {
-    Entity entity = new DynamicEntity(entityType);
+    Entity entity = new ArrayEntity(entityType);
     if (fetch != null) {
       // create partial entity that loads attribute values not contained in the fetch on demand.
       entity = new PartialEntity(entity, fetch, this);
@@ -0,0 +1,35 @@
+package org.molgenis.data;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+
+/**
+ * Value object describing which row-level security permissions are required to select an entity,
+ * used as value of {@link QueryRule.Operator#PERMITTED} query rules.
+ *
+ * <p>An entity matches if its access control list contains a granting entry for one of the security
+ * identities with a permission mask that has at least one bit in common with the required mask.
+ */
+@AutoValue
+@SuppressWarnings(
+    "squid:S1610") // Abstract classes without fields should be converted to interfaces
+public abstract class PermissionFilter {
+  /** Access control list class of the entities, e.g. 'entity-myEntityTypeId' */
+  public abstract String getAclClass();
+
+  /** Permission mask of which at least one bit must be granted */
+  public abstract int getMask();
+
+  /** Principal security identities (usernames) of the current user */
+  public abstract ImmutableSet<String> getPrincipalSids();
+
+  /** Granted authority security identities (roles) of the current user */
+  public abstract ImmutableSet<String> getAuthoritySids();
+
+  public static PermissionFilter create(
+      String aclClass, int mask, Set<String> principalSids, Set<String> authoritySids) {
+    return new AutoValue_PermissionFilter(
+        aclClass, mask, ImmutableSet.copyOf(principalSids), ImmutableSet.copyOf(authoritySids));
+  }
+}
@@ -32,5 +32,11 @@ public enum RepositoryCapability {
   VALIDATE_READONLY_CONSTRAINT,
 
   /** Repositoy can be cached in L1 and L2 cache */
-  CACHEABLE
+  CACHEABLE,
+
+  /**
+   * Repository can filter query results on row-level security permissions, see {@link
+   * QueryRule.Operator#PERMITTED}
+   */
+  PERMISSION_FILTERABLE
 }
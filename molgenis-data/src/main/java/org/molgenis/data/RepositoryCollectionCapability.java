@@ -8,5 +8,8 @@ public enum RepositoryCollectionCapability {
   UPDATABLE,
 
   /** Repository collections persist meta data */
-  META_DATA_PERSISTABLE
+  META_DATA_PERSISTABLE,
+
+  /** Repositories of the repository collection can be read concurrently */
+  CONCURRENTLY_READABLE
 }
@@ -1,7 +1,11 @@
 package org.molgenis.data.config;
 
+import static java.util.stream.Collectors.toList;
+
 import com.mchange.v2.c3p0.ComboPooledDataSource;
 import java.beans.PropertyVetoException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
 import javax.sql.DataSource;
 import org.springframework.beans.factory.annotation.Value;
@@ -30,6 +34,13 @@ public class DataSourceConfig {
   @Value("${db_password:@null}")
   private String dbPassword;
 
+  /**
+   * Comma-separated JDBC URIs of read replicas of the primary database. Read-only transactions are
+   * routed to the read replicas if configured.
+   */
+  @Value("${db_replica_uris:}")
+  private String dbReplicaJdbcUris;
+
   @Bean
   public DataSource dataSource() {
     if (dbDriverClass == null) throw new IllegalArgumentException("db_driver is null");
@@ -41,6 +52,21 @@ public class DataSourceConfig {
       throw new IllegalArgumentException(
           "please configure the db_password property in your molgenis-server.properties");
 
+    DataSource primaryDataSource = createDataSource(dbJdbcUri);
+
+    List<DataSource> replicaDataSources =
+        Arrays.stream(dbReplicaJdbcUris.split(","))
+            .map(String::trim)
+            .filter(jdbcUri -> !jdbcUri.isEmpty())
+            .map(this::createDataSource)
+            .collect(toList());
+    if (replicaDataSources.isEmpty()) {
+      return primaryDataSource;
+    }
+    return new ReadReplicaRoutingDataSource(primaryDataSource, replicaDataSources);
+  }
+
+  private DataSource createDataSource(String jdbcUri) {
     ComboPooledDataSource dataSource = new ComboPooledDataSource();
     try {
       dataSource.setDriverClass(dbDriverClass);
@@ -48,7 +74,7 @@ public class DataSourceConfig {
       throw new RuntimeException(e);
     }
 
-    dataSource.setJdbcUrl(dbJdbcUri);
+    dataSource.setJdbcUrl(jdbcUri);
     dataSource.setUser(dbUser);
     dataSource.setPassword(dbPassword);
     dataSource.setInitialPoolSize(5);
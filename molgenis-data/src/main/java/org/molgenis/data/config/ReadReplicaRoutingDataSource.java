@@ -0,0 +1,80 @@
+package org.molgenis.data.config;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.ImmutableList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Routes connections to the primary data source or, for threads that requested a read replica, to
+ * one of the read replica data sources in round-robin order.
+ *
+ * <p>The transaction manager requests a read replica while it obtains the connection for a
+ * read-only transaction. All statements of a transaction use this connection.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource
+    implements AutoCloseable {
+  private static final String PRIMARY = "primary";
+  private static final ThreadLocal<Boolean> ROUTE_TO_REPLICA = new ThreadLocal<>();
+
+  private final List<DataSource> dataSources;
+  private final int nrReplicas;
+  private final AtomicInteger replicaCounter = new AtomicInteger();
+
+  public ReadReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+    requireNonNull(primary);
+    if (replicas.isEmpty()) {
+      throw new IllegalArgumentException("replicas is empty");
+    }
+    this.dataSources = ImmutableList.<DataSource>builder().add(primary).addAll(replicas).build();
+    this.nrReplicas = replicas.size();
+
+    Map<Object, Object> targetDataSources = new HashMap<>();
+    targetDataSources.put(PRIMARY, primary);
+    for (int i = 0; i < replicas.size(); i++) {
+      targetDataSources.put(i, replicas.get(i));
+    }
+    setTargetDataSources(targetDataSources);
+    setDefaultTargetDataSource(primary);
+    afterPropertiesSet();
+  }
+
+  /**
+   * Routes connections obtained by the current thread to a read replica or to the primary data
+   * source.
+   */
+  public static void setRouteToReplica(boolean routeToReplica) {
+    if (routeToReplica) {
+      ROUTE_TO_REPLICA.set(Boolean.TRUE);
+    } else {
+      ROUTE_TO_REPLICA.remove();
+    }
+  }
+
+  public static boolean isRouteToReplica() {
+    return ROUTE_TO_REPLICA.get() != null;
+  }
+
+  /** Closes the primary and read replica data sources */
+  @Override
+  public void close() throws Exception {
+    for (DataSource dataSource : dataSources) {
+      if (dataSource instanceof AutoCloseable) {
+        ((AutoCloseable) dataSource).close();
+      }
+    }
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!isRouteToReplica()) {
+      return PRIMARY;
+    }
+    return Math.floorMod(replicaCounter.getAndIncrement(), nrReplicas);
+  }
+}
@@ -1,5 +1,6 @@
 package org.molgenis.data.decorator;
 
+import java.util.List;
 import java.util.stream.Stream;
 import org.molgenis.data.AbstractRepositoryDecorator;
 import org.molgenis.data.Repository;
@@ -36,6 +37,11 @@ public class DecoratorParametersRepositoryDecorator
                 }));
   }
 
+  @Override
+  public void upsertBatch(List<DecoratorParameters> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
+
   @Override
   public void add(DecoratorParameters decoratorParameters) {
     validateParameters(decoratorParameters);
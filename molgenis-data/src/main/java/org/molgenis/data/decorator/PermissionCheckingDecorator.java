@@ -129,6 +129,11 @@ public class PermissionCheckingDecorator<E extends Entity> extends AbstractRepos
     delegate().update(entities.filter(permissionChecker::isUpdateAllowed));
   }
 
+  @Override
+  public void upsertBatch(List<E> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
+
   @Override
   public void delete(E entity) {
     if (permissionChecker.isDeleteAllowed(entity)) {
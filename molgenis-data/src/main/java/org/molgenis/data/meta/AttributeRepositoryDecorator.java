@@ -2,6 +2,7 @@ package org.molgenis.data.meta;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.List;
 import java.util.stream.Stream;
 import org.molgenis.data.AbstractRepositoryDecorator;
 import org.molgenis.data.DataService;
@@ -41,6 +42,11 @@ public class AttributeRepositoryDecorator extends AbstractRepositoryDecorator<At
                 }));
   }
 
+  @Override
+  public void upsertBatch(List<Attribute> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
+
   /**
    * Updates an attribute's representation in the backend for each concrete {@link EntityType} that
    * has the {@link Attribute}.
@@ -0,0 +1,171 @@
+package org.molgenis.data.meta;
+
+import static java.util.Collections.disjoint;
+import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.decorator.meta.DecoratorConfigurationMetadata.DECORATOR_CONFIGURATION;
+import static org.molgenis.data.decorator.meta.DecoratorParametersMetadata.DECORATOR_PARAMETERS;
+import static org.molgenis.data.event.BootstrappingEvent.BootstrappingStatus.FINISHED;
+import static org.molgenis.data.meta.model.AttributeMetadata.ATTRIBUTE_META_DATA;
+import static org.molgenis.data.meta.model.EntityTypeMetadata.ENTITY_TYPE_META_DATA;
+import static org.molgenis.data.meta.model.PackageMetadata.PACKAGE;
+import static org.molgenis.data.transaction.TransactionConstants.TRANSACTION_ID_RESOURCE_NAME;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.molgenis.data.Entity;
+import org.molgenis.data.Repository;
+import org.molgenis.data.event.BootstrappingEvent;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.transaction.TransactionInformation;
+import org.molgenis.data.transaction.TransactionListener;
+import org.molgenis.data.transaction.TransactionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Caches decorated repositories by entity type id and metadata version, so that the repository
+ * decorator chain doesn't have to be constructed on every repository lookup.
+ *
+ * <p>The metadata version changes after completion of a transaction that changed entity types,
+ * attributes, packages or decorator configurations. Transactions that changed these themselves
+ * bypass the cache. Other changes that affect repository decoration, e.g. enabling row level
+ * security, must call {@link #evictAll()}.
+ */
+@Component
+public class DecoratedRepositoryCache implements TransactionListener {
+  private static final Logger LOG = LoggerFactory.getLogger(DecoratedRepositoryCache.class);
+
+  private static final Set<String> METADATA_ENTITY_TYPE_IDS =
+      ImmutableSet.of(
+          ENTITY_TYPE_META_DATA,
+          ATTRIBUTE_META_DATA,
+          PACKAGE,
+          DECORATOR_CONFIGURATION,
+          DECORATOR_PARAMETERS);
+
+  private final TransactionInformation transactionInformation;
+  private final ConcurrentMap<String, VersionedRepository> repositories = new ConcurrentHashMap<>();
+  private final Set<String> metadataTransactionIds = ConcurrentHashMap.newKeySet();
+  private final AtomicLong metadataVersion = new AtomicLong();
+  private volatile boolean bootstrappingDone = false;
+
+  DecoratedRepositoryCache(
+      TransactionManager transactionManager, TransactionInformation transactionInformation) {
+    this.transactionInformation = requireNonNull(transactionInformation);
+    requireNonNull(transactionManager).addTransactionListener(this);
+  }
+
+  /**
+   * Returns the current metadata version. Retrieve the version before retrieving the entity type
+   * that is passed to {@link #getRepository(EntityType, long, Function)}.
+   */
+  long getMetadataVersion() {
+    return metadataVersion.get();
+  }
+
+  /**
+   * Returns the cached decorated repository for the given entity type or creates it.
+   *
+   * @param entityType entity type retrieved at the given metadata version
+   * @param version metadata version retrieved before the entity type was retrieved
+   * @param repositoryFactory creates the decorated repository for the entity type
+   * @return decorated repository or <tt>null</tt> if the repository factory returns <tt>null</tt>
+   */
+  @Nullable
+  @CheckForNull
+  Repository<Entity> getRepository(
+      EntityType entityType,
+      long version,
+      Function<EntityType, Repository<Entity>> repositoryFactory) {
+    if (!isCacheable()) {
+      return repositoryFactory.apply(entityType);
+    }
+
+    String entityTypeId = entityType.getId();
+    VersionedRepository versionedRepository = repositories.get(entityTypeId);
+    if (versionedRepository != null && versionedRepository.getVersion() == version) {
+      return versionedRepository.getRepository();
+    }
+
+    Repository<Entity> repository = repositoryFactory.apply(entityType);
+    if (repository != null && version == metadataVersion.get()) {
+      repositories.put(entityTypeId, new VersionedRepository(version, repository));
+    }
+    return repository;
+  }
+
+  /**
+   * Evicts all cached repositories. When called in a transaction, the cached repositories are
+   * evicted again after the transaction completed.
+   */
+  public void evictAll() {
+    String transactionId =
+        (String) TransactionSynchronizationManager.getResource(TRANSACTION_ID_RESOURCE_NAME);
+    if (transactionId != null) {
+      metadataTransactionIds.add(transactionId);
+    }
+    evict();
+  }
+
+  private void evict() {
+    LOG.trace("Evicting all decorated repositories");
+    metadataVersion.incrementAndGet();
+    repositories.clear();
+  }
+
+  private boolean isCacheable() {
+    return bootstrappingDone
+        && disjoint(transactionInformation.getDirtyRepositories(), METADATA_ENTITY_TYPE_IDS);
+  }
+
+  @Override
+  public void afterCommitTransaction(String transactionId) {
+    if (!disjoint(transactionInformation.getDirtyRepositories(), METADATA_ENTITY_TYPE_IDS)) {
+      metadataTransactionIds.add(transactionId);
+    }
+  }
+
+  /**
+   * Evicts after completion instead of after commit, so that other transaction listeners, e.g. the
+   * entity caches, have processed the committed metadata changes.
+   */
+  @Override
+  public void doCleanupAfterCompletion(String transactionId) {
+    if (metadataTransactionIds.remove(transactionId)) {
+      evict();
+    }
+  }
+
+  @EventListener
+  public void onApplicationEvent(BootstrappingEvent bootstrappingEvent) {
+    bootstrappingDone = bootstrappingEvent.getStatus() == FINISHED;
+    evict();
+  }
+
+  private static class VersionedRepository {
+    private final long version;
+    private final Repository<Entity> repository;
+
+    VersionedRepository(long version, Repository<Entity> repository) {
+      this.version = version;
+      this.repository = requireNonNull(repository);
+    }
+
+    long getVersion() {
+      return version;
+    }
+
+    Repository<Entity> getRepository() {
+      return repository;
+    }
+  }
+}
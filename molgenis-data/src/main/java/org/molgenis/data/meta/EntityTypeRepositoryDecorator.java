@@ -60,6 +60,11 @@ public class EntityTypeRepositoryDecorator extends AbstractRepositoryDecorator<E
     entities.forEach(this::updateEntity);
   }
 
+  @Override
+  public void upsertBatch(List<EntityType> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
+
   @Override
   public void delete(EntityType entity) {
     deleteEntityType(entity);
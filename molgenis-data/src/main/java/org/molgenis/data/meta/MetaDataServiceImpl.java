@@ -66,25 +66,34 @@ public class MetaDataServiceImpl implements MetaDataService {
   private final SystemEntityTypeRegistry systemEntityTypeRegistry;
   private final EntityTypeDependencyResolver entityTypeDependencyResolver;
   private final PackagePersister packagePersister;
+  private final DecoratedRepositoryCache decoratedRepositoryCache;
 
   MetaDataServiceImpl(
       DataService dataService,
       RepositoryCollectionRegistry repoCollectionRegistry,
       SystemEntityTypeRegistry systemEntityTypeRegistry,
       EntityTypeDependencyResolver entityTypeDependencyResolver,
-      PackagePersister packagePersister) {
+      PackagePersister packagePersister,
+      DecoratedRepositoryCache decoratedRepositoryCache) {
     this.dataService = requireNonNull(dataService);
     this.repoCollectionRegistry = requireNonNull(repoCollectionRegistry);
     this.systemEntityTypeRegistry = requireNonNull(systemEntityTypeRegistry);
     this.entityTypeDependencyResolver = requireNonNull(entityTypeDependencyResolver);
     this.packagePersister = requireNonNull(packagePersister);
+    this.decoratedRepositoryCache = requireNonNull(decoratedRepositoryCache);
   }
 
   @Override
   public Optional<Repository<Entity>> getRepository(String entityTypeId) {
+    long metadataVersion = decoratedRepositoryCache.getMetadataVersion();
     EntityType entityType =
         getEntityType(entityTypeId).orElseThrow(() -> new UnknownEntityTypeException(entityTypeId));
-    return !entityType.isAbstract() ? getRepository(entityType) : Optional.empty();
+    if (entityType.isAbstract()) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(
+        decoratedRepositoryCache.getRepository(
+            entityType, metadataVersion, type -> getRepository(type).orElse(null)));
   }
 
   @SuppressWarnings("unchecked")
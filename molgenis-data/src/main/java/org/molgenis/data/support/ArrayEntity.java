@@ -0,0 +1,121 @@
+package org.molgenis.data.support;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.MapMaker;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+
+/**
+ * {@link DynamicEntity} that stores its values in an array instead of a map. The array positions of
+ * the attributes are shared by all entities of the same entity type, so that an entity only
+ * allocates one array for its values. Used for entities that are created in large numbers, e.g.
+ * entities read from a database or a file.
+ */
+public class ArrayEntity extends DynamicEntity {
+  private AttributePositions attributePositions;
+  private Object[] values;
+
+  public ArrayEntity(EntityType entityType) {
+    super(entityType);
+    this.attributePositions = AttributePositions.get(entityType);
+    this.values = new Object[attributePositions.size()];
+  }
+
+  @Override
+  public Object get(String attrName) {
+    Integer position = attributePositions.getPosition(attrName);
+    return position != null && position < values.length ? values[position] : null;
+  }
+
+  @Override
+  public void set(String attrName, Object value) {
+    validateValueType(attrName, value);
+
+    Integer position = attributePositions.getPosition(attrName);
+    if (position == null) {
+      if (value == null) {
+        // an attribute without position has no value
+        return;
+      }
+      // the entity type changed after the positions were determined
+      attributePositions = AttributePositions.add(getEntityType(), attributePositions, attrName);
+      position = attributePositions.getPosition(attrName);
+    }
+    if (position >= values.length) {
+      values = Arrays.copyOf(values, attributePositions.size());
+    }
+    values[position] = value;
+  }
+
+  /**
+   * Array positions of the attributes of an entity type. Positions are only ever added, so that the
+   * values of existing entities keep their positions when an entity type changes.
+   */
+  static class AttributePositions {
+    /** Weak keys are compared by identity */
+    private static final ConcurrentMap<EntityType, AttributePositions> POSITIONS =
+        new MapMaker().weakKeys().makeMap();
+
+    private final ImmutableMap<String, Integer> positions;
+
+    private AttributePositions(ImmutableMap<String, Integer> positions) {
+      this.positions = positions;
+    }
+
+    static AttributePositions get(EntityType entityType) {
+      AttributePositions attributePositions = POSITIONS.get(entityType);
+      if (attributePositions == null) {
+        Map<String, Integer> positions = new LinkedHashMap<>();
+        for (Attribute attr : entityType.getAtomicAttributes()) {
+          positions.putIfAbsent(attr.getName(), positions.size());
+        }
+        AttributePositions newAttributePositions =
+            new AttributePositions(ImmutableMap.copyOf(positions));
+        attributePositions = POSITIONS.putIfAbsent(entityType, newAttributePositions);
+        if (attributePositions == null) {
+          attributePositions = newAttributePositions;
+        }
+      }
+      return attributePositions;
+    }
+
+    /**
+     * Adds a position for the attribute to the positions of the entity type.
+     *
+     * @param entityType entity type
+     * @param currentPositions positions of the entity type that are used by the calling entity
+     * @param attrName attribute name
+     * @return positions of the entity type that contain the attribute
+     */
+    static AttributePositions add(
+        EntityType entityType, AttributePositions currentPositions, String attrName) {
+      return POSITIONS.compute(
+          entityType,
+          (key, attributePositions) -> {
+            if (attributePositions == null) {
+              attributePositions = currentPositions;
+            }
+            if (attributePositions.getPosition(attrName) != null) {
+              return attributePositions;
+            }
+            return new AttributePositions(
+                ImmutableMap.<String, Integer>builder()
+                    .putAll(attributePositions.positions)
+                    .put(attrName, attributePositions.size())
+                    .build());
+          });
+    }
+
+    Integer getPosition(String attrName) {
+      return positions.get(attrName);
+    }
+
+    int size() {
+      return positions.size();
+    }
+  }
+}
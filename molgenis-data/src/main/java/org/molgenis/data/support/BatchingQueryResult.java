@@ -1,32 +1,86 @@
 package org.molgenis.data.support;
 
+import static org.molgenis.data.QueryRule.Operator.GREATER;
+import static org.molgenis.data.QueryRule.Operator.LESS;
+
 import java.util.List;
+import javax.annotation.Nullable;
 import org.molgenis.data.Entity;
 import org.molgenis.data.Query;
+import org.molgenis.data.QueryRule;
+import org.molgenis.data.QueryRule.Operator;
+import org.molgenis.data.Sort;
 import org.molgenis.data.util.BatchingIterable;
 
 /**
  * BatchingIterable that batches a Query.
  *
- * <p>It changes the query's offset and pageSize of each batch.
+ * <p>It changes the query's offset and pageSize of each batch. If a key attribute is given, batches
+ * after the first batch are retrieved using keyset pagination: instead of skipping the rows of the
+ * previous batches with an offset, the batch query continues after the key value of the last entity
+ * of the previous batch.
  */
 public abstract class BatchingQueryResult<E extends Entity> extends BatchingIterable<E> {
   private final Query<E> query;
+  private final String keyAttributeName;
+  private final Operator keyOperator;
+
+  /** Offset of the batch that can be retrieved using the last key value */
+  private int keyOffset = -1;
+
+  private Object lastKeyValue;
 
   public BatchingQueryResult(int batchSize, Query<E> query) {
+    this(batchSize, query, null);
+  }
+
+  /**
+   * @param keyAttributeName name of a unique non-null attribute that is the only attribute on which
+   *     the query is sorted, or <tt>null</tt> to batch using offsets
+   */
+  public BatchingQueryResult(int batchSize, Query<E> query, @Nullable String keyAttributeName) {
     super(batchSize, query.getOffset(), query.getPageSize());
     this.query = query;
+    this.keyAttributeName = keyAttributeName;
+    this.keyOperator = isDescending(query.getSort()) ? LESS : GREATER;
   }
 
   @Override
   protected List<E> getBatch(int offset, int batchSize) {
     Query<E> batchQuery;
-    if (offset != query.getOffset() || batchSize != query.getPageSize()) {
+    if (offset == keyOffset) {
+      batchQuery = createKeysetQuery(batchSize);
+    } else if (offset != query.getOffset() || batchSize != query.getPageSize()) {
       batchQuery = new QueryImpl<>(query).setOffset(offset).setPageSize(batchSize);
     } else {
       batchQuery = query;
     }
-    return getBatch(batchQuery);
+
+    List<E> batch = getBatch(batchQuery);
+    if (keyAttributeName != null && !batch.isEmpty()) {
+      lastKeyValue = batch.get(batch.size() - 1).get(keyAttributeName);
+      keyOffset = lastKeyValue != null ? offset + batch.size() : -1;
+    }
+    return batch;
+  }
+
+  private Query<E> createKeysetQuery(int batchSize) {
+    QueryImpl<E> keysetQuery = new QueryImpl<>();
+    if (!query.getRules().isEmpty()) {
+      keysetQuery.addRule(new QueryRule(query.getRules()));
+      keysetQuery.addRule(new QueryRule(Operator.AND));
+    }
+    keysetQuery.addRule(new QueryRule(keyAttributeName, keyOperator, lastKeyValue));
+    keysetQuery.setSort(query.getSort());
+    keysetQuery.setFetch(query.getFetch());
+    keysetQuery.setPageSize(batchSize);
+    return keysetQuery;
+  }
+
+  private static boolean isDescending(@Nullable Sort sort) {
+    return sort != null
+        && sort.iterator().hasNext()
+        && sort.iterator().next().getDirection() == Sort.Direction.DESC;
   }
 
   protected abstract List<E> getBatch(Query<E> q);
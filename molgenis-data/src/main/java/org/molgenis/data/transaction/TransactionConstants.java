@@ -2,6 +2,8 @@ package org.molgenis.data.transaction;
 
 public final class TransactionConstants {
   public static final String TRANSACTION_ID_RESOURCE_NAME = "transactionId";
+  /** Bound for transactions that read from a read replica instead of the primary data source */
+  public static final String READ_REPLICA_RESOURCE_NAME = "readReplica";
 
   private TransactionConstants() {}
 }
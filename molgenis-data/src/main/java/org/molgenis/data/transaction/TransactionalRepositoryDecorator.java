@@ -120,6 +120,16 @@ public class TransactionalRepositoryDecorator<E extends Entity>
             });
   }
 
+  @Override
+  public void upsertBatch(List<E> entities) {
+    createWriteTransactionTemplate()
+        .execute(
+            status -> {
+              delegate().upsertBatch(entities);
+              return null;
+            });
+  }
+
   @Override
   public void delete(E entity) {
     createWriteTransactionTemplate()
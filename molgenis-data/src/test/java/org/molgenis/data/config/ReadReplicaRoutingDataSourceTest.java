@@ -0,0 +1,62 @@
+package org.molgenis.data.config;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.molgenis.test.AbstractMockitoTest;
+
+class ReadReplicaRoutingDataSourceTest extends AbstractMockitoTest {
+  @Mock private DataSource primary;
+  @Mock private DataSource replica0;
+  @Mock private DataSource replica1;
+  private ReadReplicaRoutingDataSource readReplicaRoutingDataSource;
+
+  @BeforeEach
+  void setUpBeforeEach() {
+    readReplicaRoutingDataSource =
+        new ReadReplicaRoutingDataSource(primary, asList(replica0, replica1));
+  }
+
+  @AfterEach
+  void tearDownAfterEach() {
+    ReadReplicaRoutingDataSource.setRouteToReplica(false);
+  }
+
+  @Test
+  void testReadReplicaRoutingDataSourceNoReplicas() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ReadReplicaRoutingDataSource(primary, emptyList()));
+  }
+
+  @Test
+  void testGetConnectionPrimary() throws SQLException {
+    Connection connection = mock(Connection.class);
+    when(primary.getConnection()).thenReturn(connection);
+    assertSame(connection, readReplicaRoutingDataSource.getConnection());
+  }
+
+  @Test
+  void testGetConnectionReplicas() throws SQLException {
+    Connection connection0 = mock(Connection.class);
+    Connection connection1 = mock(Connection.class);
+    when(replica0.getConnection()).thenReturn(connection0);
+    when(replica1.getConnection()).thenReturn(connection1);
+
+    ReadReplicaRoutingDataSource.setRouteToReplica(true);
+    assertSame(connection0, readReplicaRoutingDataSource.getConnection());
+    assertSame(connection1, readReplicaRoutingDataSource.getConnection());
+    assertSame(connection0, readReplicaRoutingDataSource.getConnection());
+  }
+}
@@ -19,6 +19,8 @@ import org.molgenis.data.Entity;
 import org.molgenis.data.Fetch;
 import org.molgenis.data.Query;
 import org.molgenis.data.Repository;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
 
 class EntityListenerRepositoryDecoratorTest {
   private Repository<Entity> delegateRepository;
@@ -276,4 +278,44 @@ class EntityListenerRepositoryDecoratorTest {
     entityListenerRepositoryDecorator.forEachBatched(fetch, consumer, 543);
     Mockito.verify(delegateRepository, Mockito.times(1)).forEachBatched(fetch, consumer, 543);
   }
+
+  @Test
+  void upsertBatchNoListeners() {
+    Entity entity = Mockito.mock(Entity.class);
+    List<Entity> entities = singletonList(entity);
+    entityListenerRepositoryDecorator.upsertBatch(entities);
+    Mockito.verify(delegateRepository).upsertBatch(entities);
+  }
+
+  @SuppressWarnings({"resource", "unchecked"})
+  @Test
+  void upsertBatchWithListeners() {
+    Repository<Entity> decoratedRepository = Mockito.mock(Repository.class);
+    Mockito.when(decoratedRepository.getName()).thenReturn("entityFullName");
+    Attribute idAttribute = Mockito.mock(Attribute.class);
+    Mockito.when(idAttribute.getName()).thenReturn("id");
+    EntityType entityType = Mockito.mock(EntityType.class);
+    Mockito.when(entityType.getIdAttribute()).thenReturn(idAttribute);
+    Mockito.when(decoratedRepository.getEntityType()).thenReturn(entityType);
+    EntityListenerRepositoryDecorator entityListenerRepositoryDecorator =
+        new EntityListenerRepositoryDecorator(decoratedRepository, entityListenersService);
+    EntityListener entityListener0 =
+        Mockito.when(Mockito.mock(EntityListener.class).getEntityId()).thenReturn(1).getMock();
+    entityListenersService.addEntityListener("entityFullName", entityListener0);
+
+    Entity entity0 = Mockito.when(Mockito.mock(Entity.class).getIdValue()).thenReturn(1).getMock();
+    Entity entity1 = Mockito.when(Mockito.mock(Entity.class).getIdValue()).thenReturn(2).getMock();
+    Mockito.when(decoratedRepository.findAll(Mockito.any(Stream.class), Mockito.any(Fetch.class)))
+        .thenReturn(Stream.of(entity0));
+    entityListenerRepositoryDecorator.upsertBatch(asList(entity0, entity1));
+
+    ArgumentCaptor<Stream<Entity>> addCaptor = ArgumentCaptor.forClass(Stream.class);
+    Mockito.verify(decoratedRepository).add(addCaptor.capture());
+    assertEquals(singletonList(entity1), addCaptor.getValue().collect(toList()));
+    ArgumentCaptor<Stream<Entity>> updateCaptor = ArgumentCaptor.forClass(Stream.class);
+    Mockito.verify(decoratedRepository).update(updateCaptor.capture());
+    assertEquals(singletonList(entity0), updateCaptor.getValue().collect(toList()));
+    Mockito.verify(entityListener0).postUpdate(entity0);
+    Mockito.verify(decoratedRepository, Mockito.never()).upsertBatch(Mockito.any());
+  }
 }
@@ -0,0 +1,129 @@
+package org.molgenis.data.meta;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.molgenis.data.event.BootstrappingEvent.BootstrappingStatus.FINISHED;
+import static org.molgenis.data.event.BootstrappingEvent.BootstrappingStatus.STARTED;
+import static org.molgenis.data.meta.model.AttributeMetadata.ATTRIBUTE_META_DATA;
+
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.molgenis.data.Entity;
+import org.molgenis.data.Repository;
+import org.molgenis.data.event.BootstrappingEvent;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.transaction.TransactionInformation;
+import org.molgenis.data.transaction.TransactionManager;
+import org.molgenis.test.AbstractMockitoTest;
+
+class DecoratedRepositoryCacheTest extends AbstractMockitoTest {
+  @Mock private TransactionManager transactionManager;
+  @Mock private TransactionInformation transactionInformation;
+  @Mock private EntityType entityType;
+  private DecoratedRepositoryCache decoratedRepositoryCache;
+
+  @BeforeEach
+  void setUpBeforeMethod() {
+    decoratedRepositoryCache =
+        new DecoratedRepositoryCache(transactionManager, transactionInformation);
+  }
+
+  @Test
+  void testDecoratedRepositoryCache() {
+    verify(transactionManager).addTransactionListener(decoratedRepositoryCache);
+  }
+
+  @Test
+  void testGetRepositoryBootstrapping() {
+    decoratedRepositoryCache.onApplicationEvent(new BootstrappingEvent(STARTED));
+
+    assertNotSame(getRepository(), getRepository());
+  }
+
+  @Test
+  void testGetRepositoryCached() {
+    bootstrap();
+    when(entityType.getId()).thenReturn("MyEntityType");
+
+    assertSame(getRepository(), getRepository());
+  }
+
+  @Test
+  void testGetRepositoryTransactionChangedMetadata() {
+    bootstrap();
+    when(transactionInformation.getDirtyRepositories()).thenReturn(singleton(ATTRIBUTE_META_DATA));
+
+    assertNotSame(getRepository(), getRepository());
+  }
+
+  @Test
+  void testGetRepositoryOutdatedVersion() {
+    bootstrap();
+    when(entityType.getId()).thenReturn("MyEntityType");
+
+    long version = decoratedRepositoryCache.getMetadataVersion();
+    decoratedRepositoryCache.evictAll();
+    Repository<Entity> repository = getRepository(version);
+
+    assertNotSame(repository, getRepository());
+  }
+
+  @Test
+  void testEvictAll() {
+    bootstrap();
+    when(entityType.getId()).thenReturn("MyEntityType");
+
+    Repository<Entity> repository = getRepository();
+    decoratedRepositoryCache.evictAll();
+
+    assertNotSame(repository, getRepository());
+  }
+
+  @Test
+  void testTransactionChangedMetadata() {
+    bootstrap();
+    when(entityType.getId()).thenReturn("MyEntityType");
+    Repository<Entity> repository = getRepository();
+
+    when(transactionInformation.getDirtyRepositories()).thenReturn(singleton(ATTRIBUTE_META_DATA));
+    decoratedRepositoryCache.afterCommitTransaction("transactionId");
+    when(transactionInformation.getDirtyRepositories()).thenReturn(emptySet());
+    assertSame(repository, getRepository());
+
+    decoratedRepositoryCache.doCleanupAfterCompletion("transactionId");
+    assertNotSame(repository, getRepository());
+  }
+
+  @Test
+  void testTransactionDidNotChangeMetadata() {
+    bootstrap();
+    when(entityType.getId()).thenReturn("MyEntityType");
+    Repository<Entity> repository = getRepository();
+
+    decoratedRepositoryCache.afterCommitTransaction("transactionId");
+    decoratedRepositoryCache.doCleanupAfterCompletion("transactionId");
+
+    assertSame(repository, getRepository());
+  }
+
+  private void bootstrap() {
+    decoratedRepositoryCache.onApplicationEvent(new BootstrappingEvent(FINISHED));
+  }
+
+  private Repository<Entity> getRepository() {
+    return getRepository(decoratedRepositoryCache.getMetadataVersion());
+  }
+
+  @SuppressWarnings("unchecked")
+  private Repository<Entity> getRepository(long version) {
+    Function<EntityType, Repository<Entity>> repositoryFactory = type -> mock(Repository.class);
+    return decoratedRepositoryCache.getRepository(entityType, version, repositoryFactory);
+  }
+}
@@ -59,6 +59,8 @@ import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.meta.model.Package;
 import org.molgenis.data.meta.persist.PackagePersister;
 import org.molgenis.data.meta.system.SystemEntityTypeRegistry;
+import org.molgenis.data.transaction.TransactionInformation;
+import org.molgenis.data.transaction.TransactionManager;
 import org.molgenis.test.AbstractMockitoTest;
 
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -68,6 +70,8 @@ class MetaDataServiceImplTest extends AbstractMockitoTest {
   @Mock private SystemEntityTypeRegistry systemEntityTypeRegistry;
   @Mock private EntityTypeDependencyResolver entityTypeDependencyResolver;
   @Mock private PackagePersister packagePersister;
+  @Mock private TransactionManager transactionManager;
+  @Mock private TransactionInformation transactionInformation;
 
   private MetaDataServiceImpl metaDataServiceImpl;
 
@@ -79,7 +83,8 @@ class MetaDataServiceImplTest extends AbstractMockitoTest {
             repoCollectionRegistry,
             systemEntityTypeRegistry,
             entityTypeDependencyResolver,
-            packagePersister);
+            packagePersister,
+            new DecoratedRepositoryCache(transactionManager, transactionInformation));
   }
 
   @Test
@@ -0,0 +1,103 @@
+package org.molgenis.data.support;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.molgenis.data.meta.AttributeType.INT;
+import static org.molgenis.data.meta.AttributeType.STRING;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.UnknownAttributeException;
+import org.molgenis.data.meta.AttributeType;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.support.ArrayEntity.AttributePositions;
+
+class ArrayEntityTest {
+  private EntityType entityType;
+  private Attribute idAttr;
+  private Attribute intAttr;
+
+  @BeforeEach
+  void setUpBeforeEach() {
+    idAttr = createAttribute("id", STRING);
+    intAttr = createAttribute("int", INT);
+    entityType = mock(EntityType.class);
+    when(entityType.getIdAttribute()).thenReturn(idAttr);
+    when(entityType.getAtomicAttributes()).thenReturn(asList(idAttr, intAttr));
+    when(entityType.getAttribute("id")).thenReturn(idAttr);
+    when(entityType.getAttribute("int")).thenReturn(intAttr);
+  }
+
+  @Test
+  void testGetSet() {
+    ArrayEntity entity = new ArrayEntity(entityType);
+    entity.set("id", "id0");
+    entity.set("int", 3);
+
+    assertEquals("id0", entity.getIdValue());
+    assertEquals(3, entity.getInt("int"));
+  }
+
+  @Test
+  void testGetUnset() {
+    assertNull(new ArrayEntity(entityType).get("int"));
+  }
+
+  @Test
+  void testGetUnknownAttribute() {
+    assertNull(new ArrayEntity(entityType).get("unknown"));
+  }
+
+  @Test
+  void testSetUnknownAttribute() {
+    ArrayEntity entity = new ArrayEntity(entityType);
+    assertThrows(UnknownAttributeException.class, () -> entity.set("unknown", "value"));
+  }
+
+  @Test
+  void testSetInvalidValueType() {
+    ArrayEntity entity = new ArrayEntity(entityType);
+    assertThrows(MolgenisDataException.class, () -> entity.set("int", "value"));
+  }
+
+  @Test
+  void testSetAttributeAddedAfterCreation() {
+    ArrayEntity entity = new ArrayEntity(entityType);
+    entity.set("id", "id0");
+
+    Attribute addedAttr = createAttribute("added", STRING);
+    when(entityType.getAtomicAttributes()).thenReturn(asList(idAttr, intAttr, addedAttr));
+    when(entityType.getAttribute("added")).thenReturn(addedAttr);
+    entity.set("added", "value");
+
+    assertEquals("id0", entity.get("id"));
+    assertEquals("value", entity.get("added"));
+    assertNull(new ArrayEntity(entityType).get("added"));
+    assertEquals(3, AttributePositions.get(entityType).size());
+  }
+
+  @Test
+  void testAttributePositionsShared() {
+    new ArrayEntity(entityType);
+    new ArrayEntity(entityType);
+
+    assertSame(AttributePositions.get(entityType), AttributePositions.get(entityType));
+    verify(entityType, times(1)).getAtomicAttributes();
+  }
+
+  private static Attribute createAttribute(String name, AttributeType type) {
+    Attribute attr = mock(Attribute.class);
+    when(attr.getName()).thenReturn(name);
+    when(attr.getDataType()).thenReturn(type);
+    return attr;
+  }
+}
@@ -1,10 +1,14 @@
 package org.molgenis.data.support;
 
 import static com.google.common.collect.Iterables.size;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import com.google.common.collect.Lists;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import org.junit.jupiter.api.Test;
@@ -20,6 +24,37 @@ class BatchingQueryResultTest {
     assertEquals(4, size(bqr));
   }
 
+  @Test
+  void getBatchKeyset() {
+    Query<Entity> query = new QueryImpl<>().eq("attr", "value");
+    List<Query<Entity>> batchQueries = new ArrayList<>();
+    BatchingQueryResult<Entity> bqr =
+        new BatchingQueryResult<Entity>(2, query, "id") {
+          @Override
+          protected List<Entity> getBatch(Query<Entity> q) {
+            batchQueries.add(q);
+            return batchQueries.size() < 3
+                ? asList(
+                    createEntity(batchQueries.size() * 2),
+                    createEntity(batchQueries.size() * 2 + 1))
+                : emptyList();
+          }
+        };
+    assertEquals(4, size(bqr));
+
+    Query<Entity> expectedSecondBatchQuery =
+        new QueryImpl<>().nest().eq("attr", "value").unnest().and().gt("id", 3).pageSize(2);
+    assertEquals(
+        asList(new QueryImpl<>(query).pageSize(2), expectedSecondBatchQuery),
+        batchQueries.subList(0, 2));
+  }
+
+  private static Entity createEntity(int id) {
+    Entity entity = mock(Entity.class);
+    when(entity.get("id")).thenReturn(id);
+    return entity;
+  }
+
   private static class DummyBatchingQueryResult extends BatchingQueryResult<Entity> {
     private final int batchSize;
     int batchCount;
@@ -211,4 +211,13 @@ class TransactionalRepositoryDecoratorTest {
     verify(transactionManager).getTransaction(any(TransactionDefinition.class));
     verify(delegateRepository).iterator();
   }
+
+  @Test
+  void upsertBatch() {
+    @SuppressWarnings("unchecked")
+    List<Entity> entities = mock(List.class);
+    transactionalRepo.upsertBatch(entities);
+    verify(transactionManager).getTransaction(any(TransactionDefinition.class));
+    verify(delegateRepository).upsertBatch(entities);
+  }
 }
@@ -4,12 +4,9 @@ import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static java.util.Arrays.asList;
 import static org.apache.poi.ss.usermodel.Row.MissingCellPolicy.CREATE_NULL_AS_BLANK;
-import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.doReturn;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -20,7 +17,6 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.List;
@@ -33,13 +29,11 @@ import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.Mock;
 import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
-import org.molgenis.data.MolgenisDataException;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.AttributeFactory;
 import org.molgenis.data.meta.model.EntityType;
@@ -114,31 +108,6 @@ class DataExplorerDownloadHandlerTest extends AbstractMockitoTest {
     verifyNoMoreInteractions(refEntity1, refEntity2, attribute1, attribute2);
   }
 
-  @Test
-  void testWriteToExcelTooManyCells() throws Exception {
-    when(dataService.count("sys_set_thousandgenomes", query)).thenReturn(2500001L);
-    when(dataService.getEntityType("sys_set_thousandgenomes")).thenReturn(entityType);
-    when(entityType.getAtomicAttributes()).thenReturn(asList(attribute1, attribute2, attribute3));
-    when(attribute1.getName()).thenReturn("attr1");
-    when(attribute2.getName()).thenReturn("attr2");
-    when(attribute3.getName()).thenReturn("attr3");
-
-    DataRequest dataRequest = new DataRequest();
-    dataRequest.setEntityName("sys_set_thousandgenomes");
-    dataRequest.setQuery(query);
-    dataRequest.setAttributeNames(asList("attr1", "attr2"));
-    dataRequest.setColNames(DataRequest.ColNames.ATTRIBUTE_NAMES);
-    dataRequest.setEntityValues(DataRequest.EntityValues.ENTITY_LABELS);
-
-    Exception exception =
-        assertThrows(
-            MolgenisDataException.class,
-            () -> dataExplorerDownloadHandler.writeToExcel(dataRequest, mock(OutputStream.class)));
-    assertThat(exception.getMessage())
-        .containsPattern(
-            "Total number of cells for this download exceeds the maximum of 500000 for .xlsx downloads, please use .csv instead");
-  }
-
   static Object[][] writeToExcelDataProvider() {
     return new Object[][] {
       new Object[] {
@@ -192,7 +161,6 @@ class DataExplorerDownloadHandlerTest extends AbstractMockitoTest {
       Map<String, List<List<String>>> expected)
       throws Exception {
     String entityTypeId = "sys_set_thousandgenomes";
-    when(dataService.count(entityTypeId, query)).thenReturn(2L);
     when(dataService.getEntityType(entityTypeId)).thenReturn(entityType);
     when(entityType.getAtomicAttributes()).thenReturn(asList(attribute1, attribute2, attribute3));
     if (colNames == DataRequest.ColNames.ATTRIBUTE_LABELS) {
@@ -1,8 +1,11 @@
 package org.molgenis.jobs;
 
+import com.google.common.base.Splitter;
+import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
-import java.util.concurrent.ExecutorService;
+import java.util.Map;
 import java.util.concurrent.Executors;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -10,9 +13,34 @@ import org.springframework.context.annotation.Import;
 @Import({JobFactoryRegistry.class, JobExecutor.class})
 @Configuration
 public class JobExecutionConfig {
+  @Value("${jobs.max.running:8}")
+  private int maxRunningJobs;
+
+  /** Comma separated list of job type:maximum number of running jobs of that type */
+  @Value("${jobs.max.running.per.type:}")
+  private String maxRunningJobsPerType;
+
+  /** Comma separated list of job type:priority, jobs with a higher priority run first */
+  @Value("${jobs.priority:ResourceDownloadJob:1,ResourceCopyJob:1,ResourceDeleteJob:1}")
+  private String priorities;
+
   @Bean
-  public ExecutorService executorService() {
-    return Executors.newCachedThreadPool(
-        new ThreadFactoryBuilder().setNameFormat("molgenis-job-%d").build());
+  public JobExecutorService executorService() {
+    return new JobExecutorService(
+        Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("molgenis-job-%d").build()),
+        maxRunningJobs,
+        parseJobTypeValues(maxRunningJobsPerType),
+        parseJobTypeValues(priorities));
+  }
+
+  private static Map<String, Integer> parseJobTypeValues(String jobTypeValues) {
+    Map<String, String> values =
+        Splitter.on(',')
+            .trimResults()
+            .omitEmptyStrings()
+            .withKeyValueSeparator(':')
+            .split(jobTypeValues);
+    return Maps.transformValues(values, Integer::valueOf);
   }
 }
@@ -1,38 +1,106 @@
 package org.molgenis.jobs;
 
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
-import java.util.concurrent.ExecutorService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
 import org.molgenis.data.support.DynamicEntity;
 import org.molgenis.jobs.model.JobExecution;
+import org.molgenis.jobs.model.JobExecution.Status;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+/**
+ * Coalesces updates of a job execution: only the latest state of a job execution is written. Job
+ * executions are written at a fixed interval and immediately when their status changes.
+ */
 @Component
 public class JobExecutionUpdaterImpl implements JobExecutionUpdater {
   private static final Logger LOG = LoggerFactory.getLogger(JobExecutionUpdater.class);
 
   private final JobExecutionContextFactory jobExecutionContextFactory;
-  private final ExecutorService executorService;
-  @Autowired private DataService dataService;
+  private final ScheduledExecutorService executorService;
+  /** Job executions with changes that were not written yet, by job execution identifier */
+  private final Map<String, PendingUpdate> pendingUpdates;
+  /** Last known status of job executions that did not finish yet, by job execution identifier */
+  private final Map<String, Status> statuses;
 
-  JobExecutionUpdaterImpl(JobExecutionContextFactory jobExecutionContextFactory) {
+  private final AtomicLong flushLatency;
+  private DataService dataService;
+
+  JobExecutionUpdaterImpl(
+      JobExecutionContextFactory jobExecutionContextFactory,
+      MeterRegistry meterRegistry,
+      @Value("${jobs.progress.flush.interval:1000}") long flushIntervalMillis) {
     this.jobExecutionContextFactory = requireNonNull(jobExecutionContextFactory);
-    this.executorService = Executors.newSingleThreadExecutor();
+    this.pendingUpdates = new ConcurrentHashMap<>();
+    this.statuses = new ConcurrentHashMap<>();
+    this.flushLatency = new AtomicLong();
+
+    Gauge.builder("jobs.execution.updates.pending", pendingUpdates, Map::size)
+        .description("Number of job executions with changes that were not written yet")
+        .register(meterRegistry);
+    Gauge.builder("jobs.execution.updates.flush.latency", flushLatency, AtomicLong::get)
+        .description("Duration of the last job execution write")
+        .baseUnit("milliseconds")
+        .register(meterRegistry);
+
+    this.executorService = Executors.newSingleThreadScheduledExecutor();
+    executorService.scheduleWithFixedDelay(
+        this::flushAll, flushIntervalMillis, flushIntervalMillis, MILLISECONDS);
+  }
+
+  @Autowired
+  void setDataService(DataService dataService) {
+    this.dataService = requireNonNull(dataService);
   }
 
   @Override
   public void update(JobExecution jobExecution) {
-    JobExecutionContext jobExecutionContext =
-        jobExecutionContextFactory.createJobExecutionContext(jobExecution);
-    executorService.execute(() -> updateInternal(jobExecution, jobExecutionContext));
+    String jobExecutionId = jobExecution.getIdentifier();
+    pendingUpdates.computeIfAbsent(
+        jobExecutionId,
+        id ->
+            new PendingUpdate(
+                jobExecution, jobExecutionContextFactory.createJobExecutionContext(jobExecution)));
+
+    Status status = jobExecution.getStatus();
+    Status previousStatus =
+        isFinished(status) ? statuses.remove(jobExecutionId) : statuses.put(jobExecutionId, status);
+    if (status != previousStatus) {
+      executorService.execute(() -> flush(jobExecutionId));
+    }
+  }
+
+  private static boolean isFinished(Status status) {
+    return status == Status.SUCCESS || status == Status.FAILED || status == Status.CANCELED;
+  }
+
+  private void flushAll() {
+    pendingUpdates.keySet().forEach(this::flush);
+  }
+
+  private void flush(String jobExecutionId) {
+    PendingUpdate pendingUpdate = pendingUpdates.remove(jobExecutionId);
+    if (pendingUpdate != null) {
+      long start = System.nanoTime();
+      updateInternal(pendingUpdate.jobExecution, pendingUpdate.jobExecutionContext);
+      flushLatency.set(MILLISECONDS.convert(System.nanoTime() - start, NANOSECONDS));
+    }
   }
 
   private void updateInternal(JobExecution jobExecution, JobExecutionContext jobExecutionContext) {
@@ -58,4 +126,14 @@ public class JobExecutionUpdaterImpl implements JobExecutionUpdater {
       LOG.warn("Error updating job execution", ex);
     }
   }
+
+  private static class PendingUpdate {
+    private final JobExecution jobExecution;
+    private final JobExecutionContext jobExecutionContext;
+
+    PendingUpdate(JobExecution jobExecution, JobExecutionContext jobExecutionContext) {
+      this.jobExecution = jobExecution;
+      this.jobExecutionContext = jobExecutionContext;
+    }
+  }
 }
@@ -10,6 +10,7 @@ import com.google.gson.reflect.TypeToken;
 import java.lang.reflect.Type;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import org.molgenis.data.DataService;
 import org.molgenis.data.EntityManager;
@@ -33,7 +34,7 @@ public class JobExecutor {
 
   private final DataService dataService;
   private final EntityManager entityManager;
-  private final ExecutorService executorService;
+  private final JobExecutorService jobExecutorService;
   private final JobFactoryRegistry jobFactoryRegistry;
   private final JobExecutionContextFactory jobExecutionContextFactory;
   private final JobExecutionRegistry jobExecutionRegistry;
@@ -44,13 +45,13 @@ public class JobExecutor {
   public JobExecutor(
       DataService dataService,
       EntityManager entityManager,
-      ExecutorService executorService,
+      JobExecutorService jobExecutorService,
       JobFactoryRegistry jobFactoryRegistry,
       JobExecutionContextFactory jobExecutionContextFactory,
       JobExecutionRegistry jobExecutionRegistry) {
     this.dataService = requireNonNull(dataService);
     this.entityManager = requireNonNull(entityManager);
-    this.executorService = requireNonNull(executorService);
+    this.jobExecutorService = requireNonNull(jobExecutorService);
     this.jobFactoryRegistry = requireNonNull(jobFactoryRegistry);
     this.jobExecutionContextFactory = requireNonNull(jobExecutionContextFactory);
     this.jobExecutionRegistry = requireNonNull(jobExecutionRegistry);
@@ -98,12 +99,12 @@ public class JobExecutor {
 
   /**
    * Saves execution in the current thread, then creates a Job and submits that for asynchronous
-   * execution.
+   * execution. The job is queued until the {@link JobExecutorService} allows it to run.
    *
    * @param jobExecution the {@link JobExecution} to save and submit.
    */
   public CompletableFuture<Void> submit(JobExecution jobExecution) {
-    return submit(jobExecution, executorService);
+    return submit(jobExecution, command -> jobExecutorService.execute(jobExecution, command));
   }
 
   /**
@@ -115,13 +116,16 @@ public class JobExecutor {
    */
   public CompletableFuture<Void> submit(
       JobExecution jobExecution, ExecutorService executorService) {
+    return submit(jobExecution, (Executor) executorService);
+  }
+
+  private CompletableFuture<Void> submit(JobExecution jobExecution, Executor executor) {
     overwriteJobExecutionUser(jobExecution);
     Job molgenisJob = saveExecutionAndCreateJob(jobExecution);
 
     Progress progress = jobExecutionRegistry.registerJobExecution(jobExecution);
     CompletableFuture<Void> completableFuture =
-        CompletableFuture.runAsync(
-            () -> runJob(jobExecution, molgenisJob, progress), executorService);
+        CompletableFuture.runAsync(() -> runJob(jobExecution, molgenisJob, progress), executor);
 
     return completableFuture.handle(
         (voidResult, throwable) -> {
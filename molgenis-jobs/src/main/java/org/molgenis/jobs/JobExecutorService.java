@@ -0,0 +1,225 @@
+package org.molgenis.jobs;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multiset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.molgenis.jobs.model.JobExecution;
+import org.molgenis.security.core.utils.SecurityUtils;
+
+/**
+ * {@link ExecutorService} that limits the number of jobs that run concurrently, in total and per
+ * job type. Jobs that cannot run yet are queued and keep the {@link JobExecution.Status#PENDING}
+ * status. When a job finishes, the queued job with the highest priority runs next. Of queued jobs
+ * with equal priority the job of the user with the fewest running jobs runs first, so that a burst
+ * of jobs of one user does not starve the jobs of other users.
+ */
+public class JobExecutorService extends AbstractExecutorService {
+  private final ExecutorService threadPool;
+  private final int maxRunningJobs;
+  private final Map<String, Integer> maxRunningJobsPerType;
+  private final Map<String, Integer> priorities;
+
+  private final List<QueuedJob> queuedJobs = new ArrayList<>();
+  private final Multiset<String> runningJobsPerType = HashMultiset.create();
+  private final Multiset<String> runningJobsPerUser = HashMultiset.create();
+  private int runningJobs;
+  private long sequenceNumber;
+
+  /**
+   * @param threadPool thread pool that runs the jobs
+   * @param maxRunningJobs maximum number of jobs that run concurrently
+   * @param maxRunningJobsPerType maximum number of jobs that run concurrently by job type
+   * @param priorities priority by job type, jobs of types without priority have priority zero
+   */
+  public JobExecutorService(
+      ExecutorService threadPool,
+      int maxRunningJobs,
+      Map<String, Integer> maxRunningJobsPerType,
+      Map<String, Integer> priorities) {
+    if (maxRunningJobs < 1) {
+      throw new IllegalArgumentException("maxRunningJobs must be greater than zero");
+    }
+    this.threadPool = requireNonNull(threadPool);
+    this.maxRunningJobs = maxRunningJobs;
+    this.maxRunningJobsPerType = ImmutableMap.copyOf(maxRunningJobsPerType);
+    this.priorities = ImmutableMap.copyOf(priorities);
+  }
+
+  /**
+   * Executes a job of the given job execution in the future.
+   *
+   * @param jobExecution job execution that provides the job type and user
+   * @param command job to run
+   */
+  public void execute(JobExecution jobExecution, Runnable command) {
+    queue(command, jobExecution.getType(), jobExecution.getUser().orElse(null));
+  }
+
+  /** Executes a job without job execution, e.g. an import, in the future. */
+  @Override
+  public void execute(Runnable command) {
+    String username =
+        SecurityUtils.currentUserIsSystem() ? null : SecurityUtils.getCurrentUsername();
+    queue(command, null, username);
+  }
+
+  private void queue(
+      Runnable command,
+      @Nullable @CheckForNull String jobType,
+      @Nullable @CheckForNull String username) {
+    requireNonNull(command);
+    if (isShutdown()) {
+      throw new RejectedExecutionException("executor service was shut down");
+    }
+
+    int priority = jobType != null ? priorities.getOrDefault(jobType, 0) : 0;
+    synchronized (this) {
+      queuedJobs.add(new QueuedJob(command, jobType, username, priority, sequenceNumber++));
+      runQueuedJobs();
+    }
+  }
+
+  private synchronized void runQueuedJobs() {
+    while (runningJobs < maxRunningJobs) {
+      QueuedJob queuedJob = pollNextJob();
+      if (queuedJob == null) {
+        break;
+      }
+      run(queuedJob);
+    }
+  }
+
+  /** Removes and returns the queued job that runs next or returns null if no job can run. */
+  private QueuedJob pollNextJob() {
+    QueuedJob nextJob = null;
+    for (QueuedJob queuedJob : queuedJobs) {
+      if (canRun(queuedJob) && (nextJob == null || runsBefore(queuedJob, nextJob))) {
+        nextJob = queuedJob;
+      }
+    }
+    if (nextJob != null) {
+      queuedJobs.remove(nextJob);
+    }
+    return nextJob;
+  }
+
+  private boolean canRun(QueuedJob queuedJob) {
+    if (queuedJob.jobType == null) {
+      return true;
+    }
+    Integer maxRunningJobsOfType = maxRunningJobsPerType.get(queuedJob.jobType);
+    return maxRunningJobsOfType == null
+        || runningJobsPerType.count(queuedJob.jobType) < maxRunningJobsOfType;
+  }
+
+  private boolean runsBefore(QueuedJob queuedJob, QueuedJob otherQueuedJob) {
+    if (queuedJob.priority != otherQueuedJob.priority) {
+      return queuedJob.priority > otherQueuedJob.priority;
+    }
+    int runningUserJobs = runningJobsPerUser.count(queuedJob.username);
+    int otherRunningUserJobs = runningJobsPerUser.count(otherQueuedJob.username);
+    if (runningUserJobs != otherRunningUserJobs) {
+      return runningUserJobs < otherRunningUserJobs;
+    }
+    return queuedJob.sequenceNumber < otherQueuedJob.sequenceNumber;
+  }
+
+  private void run(QueuedJob queuedJob) {
+    runningJobs++;
+    runningJobsPerType.add(queuedJob.jobType);
+    runningJobsPerUser.add(queuedJob.username);
+    try {
+      threadPool.execute(
+          () -> {
+            try {
+              queuedJob.command.run();
+            } finally {
+              finished(queuedJob);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      release(queuedJob);
+      throw e;
+    }
+  }
+
+  private synchronized void finished(QueuedJob queuedJob) {
+    release(queuedJob);
+    if (!isShutdown()) {
+      runQueuedJobs();
+    }
+  }
+
+  private void release(QueuedJob queuedJob) {
+    runningJobs--;
+    runningJobsPerType.remove(queuedJob.jobType);
+    runningJobsPerUser.remove(queuedJob.username);
+  }
+
+  synchronized int getNumberOfQueuedJobs() {
+    return queuedJobs.size();
+  }
+
+  /** Shuts down the executor service, queued jobs do not run. */
+  @Override
+  public void shutdown() {
+    synchronized (this) {
+      queuedJobs.clear();
+    }
+    threadPool.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    List<Runnable> commands = new ArrayList<>();
+    synchronized (this) {
+      queuedJobs.forEach(queuedJob -> commands.add(queuedJob.command));
+      queuedJobs.clear();
+    }
+    commands.addAll(threadPool.shutdownNow());
+    return commands;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return threadPool.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return threadPool.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return threadPool.awaitTermination(timeout, unit);
+  }
+
+  private static class QueuedJob {
+    private final Runnable command;
+    private final String jobType;
+    private final String username;
+    private final int priority;
+    private final long sequenceNumber;
+
+    QueuedJob(
+        Runnable command, String jobType, String username, int priority, long sequenceNumber) {
+      this.command = command;
+      this.jobType = jobType;
+      this.username = username;
+      this.priority = priority;
+      this.sequenceNumber = sequenceNumber;
+    }
+  }
+}
@@ -2,6 +2,7 @@ package org.molgenis.jobs.schedule;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.List;
 import java.util.stream.Stream;
 import org.molgenis.data.AbstractRepositoryDecorator;
 import org.molgenis.data.Entity;
@@ -49,6 +50,11 @@ public class ScheduledJobRepositoryDecorator extends AbstractRepositoryDecorator
                 }));
   }
 
+  @Override
+  public void upsertBatch(List<ScheduledJob> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
+
   @Override
   public void delete(ScheduledJob scheduledJob) {
     String entityId = scheduledJob.getId();
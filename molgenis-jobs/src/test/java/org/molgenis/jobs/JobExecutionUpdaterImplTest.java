@@ -0,0 +1,130 @@
+package org.molgenis.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.molgenis.data.meta.AttributeType.INT;
+import static org.molgenis.jobs.model.JobExecution.Status.RUNNING;
+import static org.molgenis.jobs.model.JobExecution.Status.SUCCESS;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.molgenis.data.DataService;
+import org.molgenis.data.Entity;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.jobs.model.JobExecution;
+import org.molgenis.jobs.model.JobExecution.Status;
+import org.molgenis.test.AbstractMockitoTest;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+class JobExecutionUpdaterImplTest extends AbstractMockitoTest {
+  @Mock private JobExecutionContextFactory jobExecutionContextFactory;
+  @Mock private JobExecutionContext jobExecutionContext;
+  @Mock private DataService dataService;
+  @Mock private JobExecution jobExecution;
+  @Mock private EntityType entityType;
+  private MeterRegistry meterRegistry;
+  private List<Integer> writtenProgress;
+  private AtomicInteger progress;
+  private AtomicReference<Status> status;
+
+  @BeforeEach
+  void setUpBeforeEach() {
+    meterRegistry = new SimpleMeterRegistry();
+    writtenProgress = new ArrayList<>();
+    progress = new AtomicInteger();
+    status = new AtomicReference<>(RUNNING);
+
+    when(jobExecutionContextFactory.createJobExecutionContext(jobExecution))
+        .thenReturn(jobExecutionContext);
+    Attribute progressAttr = mock(Attribute.class);
+    when(progressAttr.getName()).thenReturn("progressInt");
+    when(progressAttr.getDataType()).thenReturn(INT);
+    when(entityType.getId()).thenReturn("jobExecution");
+    when(entityType.getAttribute("progressInt")).thenReturn(progressAttr);
+    when(jobExecution.getEntityType()).thenReturn(entityType);
+    when(jobExecution.getAttributeNames()).thenReturn(List.of("progressInt"));
+    when(jobExecution.getIdentifier()).thenReturn("id");
+    when(jobExecution.getStatus()).thenAnswer(invocation -> status.get());
+    when(jobExecution.get("progressInt")).thenAnswer(invocation -> progress.get());
+    doAnswerRecordProgress();
+  }
+
+  @Test
+  void testUpdateCoalesced() {
+    JobExecutionUpdaterImpl jobExecutionUpdater = createJobExecutionUpdater(100);
+
+    jobExecutionUpdater.update(jobExecution);
+    verify(dataService, timeout(1000)).update(eq("jobExecution"), any(Entity.class));
+
+    for (int i = 1; i <= 100; i++) {
+      progress.set(i);
+      jobExecutionUpdater.update(jobExecution);
+    }
+    verify(dataService, after(500).atMost(3)).update(eq("jobExecution"), any(Entity.class));
+    synchronized (writtenProgress) {
+      assertEquals(0, writtenProgress.get(0));
+      assertEquals(100, writtenProgress.get(writtenProgress.size() - 1));
+    }
+  }
+
+  @Test
+  void testUpdateStatusChangeWrittenImmediately() {
+    JobExecutionUpdaterImpl jobExecutionUpdater = createJobExecutionUpdater(60000);
+
+    jobExecutionUpdater.update(jobExecution);
+    verify(dataService, timeout(1000)).update(eq("jobExecution"), any(Entity.class));
+
+    progress.set(1);
+    jobExecutionUpdater.update(jobExecution);
+    status.set(SUCCESS);
+    progress.set(2);
+    jobExecutionUpdater.update(jobExecution);
+
+    verify(dataService, timeout(1000).times(2)).update(eq("jobExecution"), any(Entity.class));
+    assertEquals(List.of(0, 2), writtenProgress);
+  }
+
+  @Test
+  void testGauges() {
+    createJobExecutionUpdater(60000);
+    assertEquals(0, meterRegistry.get("jobs.execution.updates.pending").gauge().value());
+    assertEquals(0, meterRegistry.get("jobs.execution.updates.flush.latency").gauge().value());
+  }
+
+  private JobExecutionUpdaterImpl createJobExecutionUpdater(long flushIntervalMillis) {
+    JobExecutionUpdaterImpl jobExecutionUpdater =
+        new JobExecutionUpdaterImpl(jobExecutionContextFactory, meterRegistry, flushIntervalMillis);
+    jobExecutionUpdater.setDataService(dataService);
+    return jobExecutionUpdater;
+  }
+
+  private void doAnswerRecordProgress() {
+    doAnswer(
+            invocation -> {
+              Entity entity = invocation.getArgument(1);
+              synchronized (writtenProgress) {
+                writtenProgress.add(entity.getInt("progressInt"));
+              }
+              return null;
+            })
+        .when(dataService)
+        .update(eq("jobExecution"), any(Entity.class));
+  }
+}
@@ -0,0 +1,142 @@
+package org.molgenis.jobs;
+
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static java.util.Collections.emptyMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.molgenis.jobs.model.JobExecution;
+
+class JobExecutorServiceTest {
+  private List<Runnable> startedJobs;
+  private List<String> finishedJobs;
+  private ExecutorService threadPool;
+
+  @BeforeEach
+  void setUpBeforeEach() {
+    startedJobs = new ArrayList<>();
+    finishedJobs = new ArrayList<>();
+    // jobs run when the test finishes them
+    threadPool = mock(ExecutorService.class);
+    doAnswer(
+            invocation -> {
+              startedJobs.add(invocation.getArgument(0));
+              return null;
+            })
+        .when(threadPool)
+        .execute(any(Runnable.class));
+  }
+
+  @Test
+  void testJobExecutorServiceInvalidMaxRunningJobs() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new JobExecutorService(threadPool, 0, emptyMap(), emptyMap()));
+  }
+
+  @Test
+  void testExecuteMaxRunningJobs() {
+    JobExecutorService jobExecutorService =
+        new JobExecutorService(threadPool, 2, emptyMap(), emptyMap());
+    jobExecutorService.execute(createJobExecution("typeA", "user0"), job("job0"));
+    jobExecutorService.execute(createJobExecution("typeA", "user0"), job("job1"));
+    jobExecutorService.execute(createJobExecution("typeA", "user0"), job("job2"));
+
+    assertEquals(2, startedJobs.size());
+    assertEquals(1, jobExecutorService.getNumberOfQueuedJobs());
+
+    finishNextJob();
+    assertEquals(2, startedJobs.size());
+    assertEquals(0, jobExecutorService.getNumberOfQueuedJobs());
+  }
+
+  @Test
+  void testExecuteMaxRunningJobsPerType() {
+    JobExecutorService jobExecutorService =
+        new JobExecutorService(threadPool, 10, Map.of("typeA", 1), emptyMap());
+    jobExecutorService.execute(createJobExecution("typeA", "user0"), job("job0"));
+    jobExecutorService.execute(createJobExecution("typeA", "user0"), job("job1"));
+    jobExecutorService.execute(createJobExecution("typeB", "user0"), job("job2"));
+
+    assertEquals(2, startedJobs.size());
+    finishNextJob();
+    finishNextJob();
+    finishNextJob();
+    assertEquals(List.of("job0", "job2", "job1"), finishedJobs);
+  }
+
+  @Test
+  void testExecutePriority() {
+    JobExecutorService jobExecutorService =
+        new JobExecutorService(threadPool, 1, emptyMap(), Map.of("typeB", 1));
+    jobExecutorService.execute(createJobExecution("typeA", "user0"), job("job0"));
+    jobExecutorService.execute(createJobExecution("typeA", "user0"), job("job1"));
+    jobExecutorService.execute(createJobExecution("typeB", "user0"), job("job2"));
+
+    finishNextJob();
+    finishNextJob();
+    finishNextJob();
+    assertEquals(List.of("job0", "job2", "job1"), finishedJobs);
+  }
+
+  @Test
+  void testExecuteFairPerUser() {
+    JobExecutorService jobExecutorService =
+        new JobExecutorService(threadPool, 2, emptyMap(), emptyMap());
+    jobExecutorService.execute(createJobExecution("typeA", "user0"), job("job0"));
+    jobExecutorService.execute(createJobExecution("typeA", "user0"), job("job1"));
+    jobExecutorService.execute(createJobExecution("typeA", "user0"), job("job2"));
+    jobExecutorService.execute(createJobExecution("typeA", "user1"), job("job3"));
+
+    finishNextJob();
+    finishNextJob();
+    finishNextJob();
+    finishNextJob();
+    assertEquals(List.of("job0", "job1", "job3", "job2"), finishedJobs);
+  }
+
+  @Test
+  void testExecuteDirect() {
+    JobExecutorService jobExecutorService =
+        new JobExecutorService(newDirectExecutorService(), 1, emptyMap(), emptyMap());
+    jobExecutorService.execute(job("job0"));
+    jobExecutorService.execute(job("job1"));
+    assertEquals(List.of("job0", "job1"), finishedJobs);
+  }
+
+  @Test
+  void testExecuteShutdown() {
+    JobExecutorService jobExecutorService =
+        new JobExecutorService(newDirectExecutorService(), 1, emptyMap(), emptyMap());
+    jobExecutorService.shutdown();
+    Runnable job = job("job0");
+    assertThrows(RejectedExecutionException.class, () -> jobExecutorService.execute(job));
+  }
+
+  private Runnable job(String name) {
+    return () -> finishedJobs.add(name);
+  }
+
+  private void finishNextJob() {
+    startedJobs.remove(0).run();
+  }
+
+  private static JobExecution createJobExecution(String type, String user) {
+    JobExecution jobExecution = mock(JobExecution.class);
+    when(jobExecution.getType()).thenReturn(type);
+    when(jobExecution.getUser()).thenReturn(Optional.of(user));
+    return jobExecution;
+  }
+}
@@ -2,6 +2,7 @@ package org.molgenis.jobs;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -29,7 +30,7 @@ import org.molgenis.test.AbstractMockitoTest;
 class JobExecutorTest extends AbstractMockitoTest {
   @Mock private DataService dataService;
   @Mock private EntityManager entityManager;
-  @Mock private ExecutorService executorService;
+  @Mock private JobExecutorService jobExecutorService;
   @Mock private JobFactoryRegistry jobFactoryRegistry;
   @Mock private JobExecutionContextFactory jobExecutionContextFactory;
   @Mock private JobExecutionTemplate jobExecutionTemplate;
@@ -42,7 +43,7 @@ class JobExecutorTest extends AbstractMockitoTest {
         new JobExecutor(
             dataService,
             entityManager,
-            executorService,
+            jobExecutorService,
             jobFactoryRegistry,
             jobExecutionContextFactory,
             jobExecutionRegistry);
@@ -128,11 +129,11 @@ class JobExecutorTest extends AbstractMockitoTest {
     when(jobExecutionRegistry.registerJobExecution(jobExecution)).thenReturn(progress);
     doAnswer(
             (InvocationOnMock invocation) -> {
-              ((Runnable) invocation.getArguments()[0]).run();
+              ((Runnable) invocation.getArguments()[1]).run();
               return null;
             })
-        .when(executorService)
-        .execute(any(Runnable.class));
+        .when(jobExecutorService)
+        .execute(eq(jobExecution), any(Runnable.class));
     jobExecutor.submit(jobExecution).get();
 
     verify(dataService).add(jobExecutionEntityTypeId, jobExecution);
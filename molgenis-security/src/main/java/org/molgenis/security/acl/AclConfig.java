@@ -5,6 +5,7 @@ import static java.util.Objects.requireNonNull;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import javax.sql.DataSource;
 import org.molgenis.data.config.DataSourceConfig;
+import org.molgenis.data.meta.DecoratedRepositoryCache;
 import org.molgenis.data.transaction.TransactionManager;
 import org.molgenis.security.NoOpAuditLogger;
 import org.molgenis.security.core.utils.SecurityUtils;
@@ -40,17 +41,20 @@ public class AclConfig {
   private final TransactionManager transactionManager;
   private final RoleHierarchy roleHierarchy;
   private final ConversionService conversionService;
+  private final DecoratedRepositoryCache decoratedRepositoryCache;
   @Autowired JdbcTemplate jdbcTemplate;
 
   public AclConfig(
       DataSource dataSource,
       TransactionManager transactionManager,
       RoleHierarchy roleHierarchy,
-      ConversionService conversionService) {
+      ConversionService conversionService,
+      DecoratedRepositoryCache decoratedRepositoryCache) {
     this.dataSource = requireNonNull(dataSource);
     this.transactionManager = requireNonNull(transactionManager);
     this.roleHierarchy = requireNonNull(roleHierarchy);
     this.conversionService = requireNonNull(conversionService);
+    this.decoratedRepositoryCache = requireNonNull(decoratedRepositoryCache);
   }
 
   @Bean
@@ -99,7 +103,7 @@ public class AclConfig {
 
   @Bean
   public MutableAclClassService mutableAclClassService() {
-    return new MutableAclClassServiceImpl(jdbcTemplate, aclCache());
+    return new MutableAclClassServiceImpl(jdbcTemplate, aclCache(), decoratedRepositoryCache);
   }
 
   @Bean
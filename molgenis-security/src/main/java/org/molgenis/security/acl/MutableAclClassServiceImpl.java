@@ -5,6 +5,7 @@ import static java.util.Objects.requireNonNull;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import java.util.Collection;
+import org.molgenis.data.meta.DecoratedRepositoryCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -26,12 +27,17 @@ public class MutableAclClassServiceImpl implements MutableAclClassService {
   private final JdbcTemplate jdbcTemplate;
   private final AclCache aclCache;
   private final Cache<String, Integer> aclClassCache;
+  private final DecoratedRepositoryCache decoratedRepositoryCache;
   private static final Logger LOGGER = LoggerFactory.getLogger(MutableAclClassServiceImpl.class);
 
-  public MutableAclClassServiceImpl(JdbcTemplate jdbcTemplate, AclCache aclCache) {
+  public MutableAclClassServiceImpl(
+      JdbcTemplate jdbcTemplate,
+      AclCache aclCache,
+      DecoratedRepositoryCache decoratedRepositoryCache) {
     this.jdbcTemplate = requireNonNull(jdbcTemplate);
     this.aclCache = requireNonNull(aclCache);
     this.aclClassCache = Caffeine.newBuilder().maximumSize(1000).build();
+    this.decoratedRepositoryCache = requireNonNull(decoratedRepositoryCache);
   }
 
   @Transactional
@@ -40,6 +46,8 @@ public class MutableAclClassServiceImpl implements MutableAclClassService {
     LOGGER.debug("Create AclClass for type {}.", type);
     jdbcTemplate.update(SQL_INSERT_INTO_ACL_CLASS, type, idType.getCanonicalName());
     aclClassCache.invalidate(type);
+    // repositories of types with an acl class are decorated with row level security
+    decoratedRepositoryCache.evictAll();
   }
 
   @Transactional
@@ -49,6 +57,7 @@ public class MutableAclClassServiceImpl implements MutableAclClassService {
     jdbcTemplate.update(SQL_DELETE_FROM_ACL_CLASS, type);
     aclClassCache.invalidate(type);
     aclCache.clearCache();
+    decoratedRepositoryCache.evictAll();
   }
 
   @Override
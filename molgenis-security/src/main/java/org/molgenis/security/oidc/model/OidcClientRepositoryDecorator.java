@@ -2,6 +2,7 @@ package org.molgenis.security.oidc.model;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.List;
 import java.util.stream.Stream;
 import org.molgenis.data.AbstractRepositoryDecorator;
 import org.molgenis.data.Repository;
@@ -30,6 +31,11 @@ class OidcClientRepositoryDecorator extends AbstractRepositoryDecorator<OidcClie
     oAuth2AuthorizedClientService.reset();
   }
 
+  @Override
+  public void upsertBatch(List<OidcClient> entities) {
+    upsertBatchByAddAndUpdate(entities);
+  }
+
   @Override
   public void delete(OidcClient entity) {
     super.delete(entity);
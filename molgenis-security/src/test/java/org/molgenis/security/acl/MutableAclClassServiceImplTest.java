@@ -13,6 +13,7 @@ import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import org.molgenis.data.meta.DecoratedRepositoryCache;
 import org.molgenis.test.AbstractMockitoTest;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.acls.model.AclCache;
@@ -20,11 +21,13 @@ import org.springframework.security.acls.model.AclCache;
 class MutableAclClassServiceImplTest extends AbstractMockitoTest {
   @Mock private JdbcTemplate jdbcTemplate;
   @Mock private AclCache aclCache;
+  @Mock private DecoratedRepositoryCache decoratedRepositoryCache;
   private MutableAclClassServiceImpl mutableAclClassService;
 
   @BeforeEach
   void setUpBeforeMethod() {
-    mutableAclClassService = new MutableAclClassServiceImpl(jdbcTemplate, aclCache);
+    mutableAclClassService =
+        new MutableAclClassServiceImpl(jdbcTemplate, aclCache, decoratedRepositoryCache);
   }
 
   @Test
@@ -35,6 +38,7 @@ class MutableAclClassServiceImplTest extends AbstractMockitoTest {
         .update(
             "insert into acl_class (class, class_id_type) values (?, ?)", type, "java.lang.String");
     verifyZeroInteractions(aclCache);
+    verify(decoratedRepositoryCache).evictAll();
   }
 
   @Test
@@ -43,6 +47,7 @@ class MutableAclClassServiceImplTest extends AbstractMockitoTest {
     mutableAclClassService.deleteAclClass(type);
     verify(jdbcTemplate).update("delete from acl_class where class=?", type);
     verify(aclCache).clearCache();
+    verify(decoratedRepositoryCache).evictAll();
   }
 
   @Test